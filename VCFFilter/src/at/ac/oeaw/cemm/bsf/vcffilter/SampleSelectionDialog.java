@@ -0,0 +1,159 @@
+/*
+*     This file is part of the VCF.Filter project (https://biomedical-sequencing.at/VCFFilter/).
+*     VCF.Filter permits graphical filtering of VCF files on cutom annotations and standard VCF fields, pedigree analysis, and cohort searches.
+* %%
+*     Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+* %%
+* 
+*     VCF.Filter is free software: you can redistribute it and/or modify
+*     it under the terms of the GNU General Public License as published by
+*     the Free Software Foundation, either version 3 of the License, or
+*     (at your option) any later version.
+* 
+*     This program is distributed in the hope that it will be useful,
+*     but WITHOUT ANY WARRANTY; without even the implied warranty of
+*     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*     GNU General Public License for more details.
+* 
+*     You should have received a copy of the GNU General Public License
+*     along with VCF.Filter.  If not, see <http://www.gnu.org/licenses/>.
+* 
+*     VCF.Filter  Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+*     This program comes with ABSOLUTELY NO WARRANTY;
+*     This is free software, and you are welcome to redistribute it
+*     under certain conditions; 
+*     For details interrogate the About section in the File menu.
+*/
+package at.ac.oeaw.cemm.bsf.vcffilter;
+
+import java.awt.BorderLayout;
+import java.awt.Dimension;
+import java.awt.Toolkit;
+import java.awt.Window;
+import java.util.ArrayList;
+import java.util.List;
+import javax.swing.JButton;
+import javax.swing.JDialog;
+import javax.swing.JFrame;
+import javax.swing.JLabel;
+import javax.swing.JList;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.ListSelectionModel;
+
+/**
+ * Renders a modal dialog to select the samples filters and output are restricted to.
+ * SampleSelectionDialog.java 17 OCT 2026
+ *
+ * @author Heiko Müller
+ * @version 1.0
+ * @since 1.0
+ */
+public class SampleSelectionDialog extends JDialog {
+    
+    /**
+     * The version number of this class.
+     */
+    static final long serialVersionUID = 1L;
+    
+    /**
+     * The samples of the VCF files.
+     */
+    private final JList<String> list;
+    
+    /**
+     * The selected samples, empty for all, null if cancelled.
+     */
+    private ArrayList<String> selection;
+    
+    /**
+    * Creates a new instance of SampleSelectionDialog and shows it.
+    *
+    * @param parent parent frame
+    * @param samples samples of the VCF files
+    * @param selected currently selected samples, empty for all
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    public SampleSelectionDialog(JFrame parent, List<String> samples, List<String> selected) {
+        super(parent);
+        list = new JList<String>(samples.toArray(new String[samples.size()]));
+        list.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
+        for(int i = 0; i < samples.size(); i++){
+            if(selected.contains(samples.get(i))){
+                list.addSelectionInterval(i, i);
+            }
+        }
+        init();
+    }
+    
+    /**
+    * Returns the selected samples.
+    *
+    * @return ArrayList&#60;String&#62; selected samples, empty for all samples, null if the dialog was cancelled
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    public ArrayList<String> getSelection(){
+        return selection;
+    }
+    
+    /**
+    * Centers this frame on the screen according to screen resolution.
+    *
+    * @author Heiko Mueller
+    * @param frame
+    * @since 1.0
+    */
+    private void centerWindow(Window frame) {
+        Dimension dimension = Toolkit.getDefaultToolkit().getScreenSize();
+        int x = (int) ((dimension.getWidth() - frame.getWidth()) / 2);
+        int y = (int) ((dimension.getHeight() - frame.getHeight()) / 2);
+        frame.setLocation(x, y);
+    }
+    
+    /**
+    * Initializes graphical components.
+    *
+    * @author Heiko Mueller
+    * @since 1.0
+    */
+    private void init(){
+        this.setModal(true);
+        setTitle("Select samples");
+        getContentPane().setLayout(new BorderLayout());
+        getContentPane().add(new JLabel("Genotype filters and output use the selected samples only. Select none for all samples."), BorderLayout.NORTH);
+        JScrollPane scroll = new JScrollPane(list);
+        scroll.setPreferredSize(new Dimension(400, 300));
+        getContentPane().add(scroll, BorderLayout.CENTER);
+        JPanel jp = new JPanel();
+        JButton ok = new JButton("OK");
+        ok.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                selection = new ArrayList<String>(list.getSelectedValuesList());
+                dispose();
+            }
+        });
+        JButton all = new JButton("All samples");
+        all.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                selection = new ArrayList<String>();
+                dispose();
+            }
+        });
+        JButton cancel = new JButton("Cancel");
+        cancel.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                dispose();
+            }
+        });
+        jp.add(ok);
+        jp.add(all);
+        jp.add(cancel);
+        getContentPane().add(jp, BorderLayout.SOUTH);
+        pack();
+        centerWindow(this);
+        setVisible(true);
+    }
+    
+}
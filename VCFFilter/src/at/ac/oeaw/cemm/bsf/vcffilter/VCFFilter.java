@@ -35,6 +35,7 @@ import at.ac.oeaw.cemm.bsf.vcffilter.filter.Filter;
 import at.ac.oeaw.cemm.bsf.vcffilter.filter.ExampleFileFilter;
 import at.ac.oeaw.cemm.bsf.vcffilter.filter.FilterDefaults;
 import at.ac.oeaw.cemm.bsf.vcffilter.filter.FilterSettings;
+import at.ac.oeaw.cemm.bsf.vcffilter.batch.FilterEngine;
 import at.ac.oeaw.cemm.bsf.vcffilter.index.IndexedVCFFileWriter;
 import at.ac.oeaw.cemm.bsf.vcffilter.inheritance.Relationship;
 import at.ac.oeaw.cemm.bsf.vcffilter.inheritance.Relationships;
@@ -66,6 +67,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Hashtable;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import javax.swing.ComboBoxModel;
 import javax.swing.DefaultListModel;
@@ -111,6 +113,11 @@ public class VCFFilter extends javax.swing.JFrame {
      */
     private File[] activeVCFFiles;
     
+    /**
+     * Samples whose genotypes are kept when filtering on the Filter tab. Empty for all samples.
+     */
+    private ArrayList<String> selectedSamples = new ArrayList<String>();
+    
     /**
      * VCF files of affected individuals loaded in the Family analysis tab.
      */
@@ -336,6 +343,7 @@ public class VCFFilter extends javax.swing.JFrame {
                     PREFERENCES.makeAllOutputVisible();
                 }
                 PREFERENCES.initGenesymbolCombobox();
+                PREFERENCES.initRankFieldCombobox();
                 PREFERENCES.setGui(this);
                 PREFERENCES.initHyperlinks();
             }else{            
@@ -409,6 +417,7 @@ public class VCFFilter extends javax.swing.JFrame {
                     PREFERENCES.makeAllOutputVisible();
                 }
                 PREFERENCES.initGenesymbolCombobox();
+                PREFERENCES.initRankFieldCombobox();
                 PREFERENCES.setGui(this);
                 PREFERENCES.initHyperlinks();
             }else{            
@@ -439,7 +448,7 @@ public class VCFFilter extends javax.swing.JFrame {
     * @since 1.0
     */
     private void initFilterTab() {
-        ExampleFileFilter vcfFilter = new ExampleFileFilter(new String[]{"vcf", "gz"}, "VCF files");
+        ExampleFileFilter vcfFilter = new ExampleFileFilter(new String[]{"vcf", "gz", "bcf"}, "VCF and BCF files");
         jFileChooser1.addChoosableFileFilter(vcfFilter);
         jFileChooser1.setAcceptAllFileFilterUsed(false);
         jFileChooser14.addChoosableFileFilter(vcfFilter);
@@ -473,10 +482,10 @@ public class VCFFilter extends javax.swing.JFrame {
         jFileChooser13.setAcceptAllFileFilterUsed(false);
         setScenarioDefaultDir(jFileChooser12);
         setScenarioDefaultDir(jFileChooser13);   
-        ExampleFileFilter vcfonlyFilter = new ExampleFileFilter(new String[]{"vcf", "gz"}, "VCF files");        
+        ExampleFileFilter vcfonlyFilter = new ExampleFileFilter(new String[]{"vcf", "gz", "bcf"}, "VCF and BCF files");        
         jFileChooser9.addChoosableFileFilter(vcfonlyFilter);
         jFileChooser9.setAcceptAllFileFilterUsed(false); 
-        ExampleFileFilter vcfindex = new ExampleFileFilter(new String[]{"vcf", "gz"}, "VCF files");        
+        ExampleFileFilter vcfindex = new ExampleFileFilter(new String[]{"vcf", "gz", "bcf"}, "VCF and BCF files");        
         jFileChooser26.addChoosableFileFilter(vcfindex);
         jFileChooser26.setAcceptAllFileFilterUsed(false); 
         jFileChooser26.setMultiSelectionEnabled(true);
@@ -506,6 +515,15 @@ public class VCFFilter extends javax.swing.JFrame {
         buttonGroup1.add(jRadioButton4);        
         jRadioButton1.setSelected(true);
         
+        javax.swing.JMenuItem selectSamplesItem = new javax.swing.JMenuItem("Select samples...");
+        selectSamplesItem.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                selectSamplesActionPerformed(evt);
+            }
+        });
+        jPopupMenu4.addSeparator();
+        jPopupMenu4.add(selectSamplesItem);
+        
         List<VCFCompoundHeaderLine> filtersToLoad = PREFERENCES.getLoadedFilters();
         filters = new ArrayList<Filter>();
         int index = 0;
@@ -542,7 +560,7 @@ public class VCFFilter extends javax.swing.JFrame {
     * @since 1.0
     */
     private void initFamilyTab() {
-        ExampleFileFilter vcfFilter = new ExampleFileFilter(new String[]{"vcf", "gz"}, "VCF files");
+        ExampleFileFilter vcfFilter = new ExampleFileFilter(new String[]{"vcf", "gz", "bcf"}, "VCF and BCF files");
         jFileChooser4.addChoosableFileFilter(vcfFilter);
         jFileChooser5.addChoosableFileFilter(vcfFilter);
         jFileChooser4.setAcceptAllFileFilterUsed(false);
@@ -626,7 +644,7 @@ public class VCFFilter extends javax.swing.JFrame {
     * @since 1.0
     */
     private void initSearchTab() {
-        ExampleFileFilter vcfFilter = new ExampleFileFilter(new String[]{"vcf", "gz"}, "VCF files");
+        ExampleFileFilter vcfFilter = new ExampleFileFilter(new String[]{"vcf", "gz", "bcf"}, "VCF and BCF files");
         jFileChooser3.addChoosableFileFilter(vcfFilter);
         jFileChooser3.setAcceptAllFileFilterUsed(false);
         jFileChooser23.addChoosableFileFilter(vcfFilter);
@@ -4619,7 +4637,7 @@ public class VCFFilter extends javax.swing.JFrame {
 
     /**
     * JFileChooser.APPROVE_SELECTION event handler on Filter tab.
-    * Sets the file of the VCF file output. Enforces .vcf ending.
+    * Sets the file of the VCF file output. Enforces .vcf.gz ending unless BCF output (.bcf) is chosen.
     *
     * @param evt
     * @author Heiko Müller
@@ -4629,7 +4647,7 @@ public class VCFFilter extends javax.swing.JFrame {
         // TODO add your handling code here:
         if (evt.getActionCommand().equals(JFileChooser.APPROVE_SELECTION)) {
             vcfOutputFile = jFileChooser9.getSelectedFile();
-            if(!vcfOutputFile.getName().endsWith(".vcf.gz")){
+            if(!vcfOutputFile.getName().endsWith(".vcf.gz") && !vcfOutputFile.getName().endsWith(".bcf")){
                 jButton1.setEnabled(false);
                 vcfOutputFile = new File(vcfOutputFile.getAbsolutePath() + ".vcf.gz");                
             }
@@ -4990,7 +5008,7 @@ public class VCFFilter extends javax.swing.JFrame {
             Cursor waitCursor = new Cursor(Cursor.WAIT_CURSOR);
             Cursor defaultCursor = new Cursor(Cursor.DEFAULT_CURSOR);
             for(File f : files){                
-                if(f.getName().endsWith(".vcf") || f.getName().endsWith(".vcf.gz")){
+                if(f.getName().endsWith(".vcf") || f.getName().endsWith(".vcf.gz") || f.getName().endsWith(".bcf")){
                     this.setCursor(waitCursor);
                     try{
                         IndexedVCFFileWriter.index(f, false);                   
@@ -5000,7 +5018,7 @@ public class VCFFilter extends javax.swing.JFrame {
                     }
                 }else{
                     this.setCursor(defaultCursor);
-                    new Warning(this, "Input file must be VCF text (.vcf) or compressed VCF text (.vcf.gz)");
+                    new Warning(this, "Input file must be VCF text (.vcf), compressed VCF text (.vcf.gz) or BCF (.bcf)");
                 }
             }  
             this.setCursor(defaultCursor);
@@ -5483,7 +5501,10 @@ public class VCFFilter extends javax.swing.JFrame {
             BufferedWriter br = new BufferedWriter(fwr);
             for(Filter f : filters){
                 br.write(f.getSettings() + "\r\n");
-            }            
+            }
+            if(selectedSamples.size() > 0){
+                br.write(FilterEngine.getSamplesSetting(selectedSamples) + "\r\n");
+            }
             br.flush();
             br.close();            
         }catch(IOException ioe){
@@ -5527,11 +5548,17 @@ public class VCFFilter extends javax.swing.JFrame {
         try{
             FilterFactory ff = new FilterFactory(this);
             filters = new ArrayList<Filter>();
+            selectedSamples = new ArrayList<String>();
             FileReader fr = new FileReader(file);
             BufferedReader br = new BufferedReader(fr);
             String line = "";
             int idx = 0;
             while((line = br.readLine()) != null){
+                ArrayList<String> samples = FilterEngine.parseSamplesSetting(line);
+                if(samples != null){
+                    selectedSamples = samples;
+                    continue;
+                }
                 FilterSettings fsc = new FilterSettings(line);
                 if(fsc.getId() != null){
                     Filter f = ff.getFilter(fsc);
@@ -6421,6 +6448,46 @@ public class VCFFilter extends javax.swing.JFrame {
     public File[] getActiveVCFFiles() {
         return activeVCFFiles;
     }
+    
+    /**
+    * Returns the samples whose genotypes are kept when filtering on the Filter tab. Empty for all samples.
+    * 
+    * @return ArrayList&#60;String&#62;
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    public ArrayList<String> getSelectedSamples() {
+        return selectedSamples;
+    }
+    
+    /**
+    * Lets the user choose the samples whose genotypes are read from the loaded VCF files.
+    * 
+    * @param evt event
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    private void selectSamplesActionPerformed(java.awt.event.ActionEvent evt) {
+        if(selectedVCFFiles == null || selectedVCFFiles.length == 0){
+            new Warning(this, "Load VCF files first.");
+            return;
+        }
+        LinkedHashSet<String> samples = new LinkedHashSet<String>();
+        for(File f : selectedVCFFiles){
+            VCFFileReader vcf = new VCFFileReader(f, false);
+            samples.addAll(vcf.getFileHeader().getGenotypeSamples());
+            vcf.close();
+        }
+        if(samples.isEmpty()){
+            new Warning(this, "Loaded VCF files contain no samples.");
+            return;
+        }
+        SampleSelectionDialog dialog = new SampleSelectionDialog(this, new ArrayList<String>(samples), selectedSamples);
+        ArrayList<String> selection = dialog.getSelection();
+        if(selection != null){
+            selectedSamples = selection;
+        }
+    }
 
     /**
     * Returns the list of active filters on the Filter tab.
@@ -0,0 +1,291 @@
+/*
+*     This file is part of the VCF.Filter project (https://biomedical-sequencing.at/VCFFilter/).
+*     VCF.Filter permits graphical filtering of VCF files on cutom annotations and standard VCF fields, pedigree analysis, and cohort searches.
+* %%
+*     Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+* %%
+* 
+*     VCF.Filter is free software: you can redistribute it and/or modify
+*     it under the terms of the GNU General Public License as published by
+*     the Free Software Foundation, either version 3 of the License, or
+*     (at your option) any later version.
+* 
+*     This program is distributed in the hope that it will be useful,
+*     but WITHOUT ANY WARRANTY; without even the implied warranty of
+*     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*     GNU General Public License for more details.
+* 
+*     You should have received a copy of the GNU General Public License
+*     along with VCF.Filter.  If not, see <http://www.gnu.org/licenses/>.
+* 
+*     VCF.Filter  Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+*     This program comes with ABSOLUTELY NO WARRANTY;
+*     This is free software, and you are welcome to redistribute it
+*     under certain conditions; 
+*     For details interrogate the About section in the File menu.
+*/
+package at.ac.oeaw.cemm.bsf.vcffilter.batch;
+
+/**
+ * Counts records, bytes and time per stage of a batch filtering run.
+ * 
+ * BatchStatistics.java 17 OCT 2026
+ *
+ * @author Heiko Müller
+ * @version 1.0
+ * @since 1.0
+ */
+public class BatchStatistics {
+    
+    /**
+     * Name of the input.
+     */
+    private final String name;
+    
+    /**
+     * Records read.
+     */
+    private long records;
+    
+    /**
+     * Records written.
+     */
+    private long written;
+    
+    /**
+     * Input bytes.
+     */
+    private long bytes;
+    
+    /**
+     * Time spent opening input and output, in nanoseconds.
+     */
+    private long setupNanos;
+    
+    /**
+     * Time spent reading and filtering, in nanoseconds.
+     */
+    private long filterNanos;
+    
+    /**
+     * Time spent writing output, in nanoseconds.
+     */
+    private long writeNanos;
+    
+    /**
+     * Filter statistics report.
+     */
+    private String filterReport = "";
+    
+    /**
+     * Report line of the white list query plan, null if all variants were read.
+     */
+    private String queryPlan;
+    
+    /**
+     * Creates new BatchStatistics.
+     * 
+     * @param name name of the input
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public BatchStatistics(String name){
+        this.name = name;
+    }
+    
+    /**
+     * Adds the counts and times of other to this.
+     * 
+     * @param other statistics of another input
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public void add(BatchStatistics other){
+        records += other.records;
+        written += other.written;
+        bytes += other.bytes;
+        setupNanos += other.setupNanos;
+        filterNanos += other.filterNanos;
+        writeNanos += other.writeNanos;
+    }
+    
+    /**
+     * Returns a one line summary of records, throughput and time per stage.
+     * 
+     * @return String
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public String getSummary(){
+        double seconds = getTotalNanos() / 1e9;
+        double rate = seconds > 0 ? records / seconds : 0;
+        double mbs = seconds > 0 ? bytes / 1048576.0 / seconds : 0;
+        return String.format("%s\trecords: %d\tpassed: %d\t%.0f records/s\t%.2f MB/s\tsetup: %.3f s\tfilter: %.3f s\twrite: %.3f s\ttotal: %.3f s", 
+                name, records, written, rate, mbs, setupNanos / 1e9, filterNanos / 1e9, writeNanos / 1e9, seconds);
+    }
+    
+    /**
+     * Setter for the report line of the white list query plan.
+     * 
+     * @param queryPlan report line of the query plan
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public void setQueryPlan(String queryPlan){
+        this.queryPlan = queryPlan;
+    }
+    
+    /**
+     * Getter for the report line of the white list query plan.
+     * 
+     * @return String null if all variants were read
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public String getQueryPlan(){
+        return queryPlan;
+    }
+    
+    /**
+     * Getter for name.
+     * 
+     * @return String
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public String getName(){
+        return name;
+    }
+    
+    /**
+     * Getter for records read.
+     * 
+     * @return long
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public long getRecords(){
+        return records;
+    }
+    
+    /**
+     * Setter for records read.
+     * 
+     * @param records records read
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public void setRecords(long records){
+        this.records = records;
+    }
+    
+    /**
+     * Getter for records written.
+     * 
+     * @return long
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public long getWritten(){
+        return written;
+    }
+    
+    /**
+     * Adds to records written.
+     * 
+     * @param n records written
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public void addWritten(long n){
+        written += n;
+    }
+    
+    /**
+     * Getter for input bytes.
+     * 
+     * @return long
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public long getBytes(){
+        return bytes;
+    }
+    
+    /**
+     * Setter for input bytes.
+     * 
+     * @param bytes input bytes
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public void setBytes(long bytes){
+        this.bytes = bytes;
+    }
+    
+    /**
+     * Adds to setup time.
+     * 
+     * @param nanos nanoseconds
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public void addSetupNanos(long nanos){
+        setupNanos += nanos;
+    }
+    
+    /**
+     * Adds to filter time.
+     * 
+     * @param nanos nanoseconds
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public void addFilterNanos(long nanos){
+        filterNanos += nanos;
+    }
+    
+    /**
+     * Adds to write time.
+     * 
+     * @param nanos nanoseconds
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public void addWriteNanos(long nanos){
+        writeNanos += nanos;
+    }
+    
+    /**
+     * Returns the total time in nanoseconds.
+     * 
+     * @return long
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public long getTotalNanos(){
+        return setupNanos + filterNanos + writeNanos;
+    }
+    
+    /**
+     * Getter for the filter statistics report.
+     * 
+     * @return String
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public String getFilterReport(){
+        return filterReport;
+    }
+    
+    /**
+     * Setter for the filter statistics report.
+     * 
+     * @param filterReport filter statistics report
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public void setFilterReport(String filterReport){
+        this.filterReport = filterReport;
+    }
+}
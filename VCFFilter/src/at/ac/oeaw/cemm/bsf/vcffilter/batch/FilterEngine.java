@@ -0,0 +1,969 @@
+/*
+*     This file is part of the VCF.Filter project (https://biomedical-sequencing.at/VCFFilter/).
+*     VCF.Filter permits graphical filtering of VCF files on cutom annotations and standard VCF fields, pedigree analysis, and cohort searches.
+* %%
+*     Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+* %%
+* 
+*     VCF.Filter is free software: you can redistribute it and/or modify
+*     it under the terms of the GNU General Public License as published by
+*     the Free Software Foundation, either version 3 of the License, or
+*     (at your option) any later version.
+* 
+*     This program is distributed in the hope that it will be useful,
+*     but WITHOUT ANY WARRANTY; without even the implied warranty of
+*     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*     GNU General Public License for more details.
+* 
+*     You should have received a copy of the GNU General Public License
+*     along with VCF.Filter.  If not, see <http://www.gnu.org/licenses/>.
+* 
+*     VCF.Filter  Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+*     This program comes with ABSOLUTELY NO WARRANTY;
+*     This is free software, and you are welcome to redistribute it
+*     under certain conditions; 
+*     For details interrogate the About section in the File menu.
+*/
+package at.ac.oeaw.cemm.bsf.vcffilter.batch;
+
+import at.ac.oeaw.cemm.bsf.vcffilter.excelparser.RecurrenceParser;
+import at.ac.oeaw.cemm.bsf.vcffilter.excelparser.VariantRecurrence;
+import at.ac.oeaw.cemm.bsf.vcffilter.filter.Filter;
+import at.ac.oeaw.cemm.bsf.vcffilter.filter.FilterFactory;
+import at.ac.oeaw.cemm.bsf.vcffilter.filter.FilterSettings;
+import at.ac.oeaw.cemm.bsf.vcffilter.genomeutils.GenomicElement;
+import at.ac.oeaw.cemm.bsf.vcffilter.genomeutils.Query;
+import at.ac.oeaw.cemm.bsf.vcffilter.genomeutils.RegionFilterIterator;
+import at.ac.oeaw.cemm.bsf.vcffilter.index.BCFVariantContextWriter;
+import at.ac.oeaw.cemm.bsf.vcffilter.index.QueryPlan;
+import at.ac.oeaw.cemm.bsf.vcffilter.index.QueryPlanner;
+import at.ac.oeaw.cemm.bsf.vcffilter.outputformat.FormatOutputFields;
+import at.ac.oeaw.cemm.bsf.vcffilter.parallel.MappedVCFScanner;
+import at.ac.oeaw.cemm.bsf.vcffilter.parallel.ParallelVCFScanner;
+import at.ac.oeaw.cemm.bsf.vcffilter.parallel.VCFPipeline;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.AdaptiveFilterChain;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.AttributeView;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.CompiledFilter;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.CompiledFilterChain;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.PrefilteringVariantIterator;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.RawLinePrefilter;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.SampleProjection;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.SampleSubsetIterator;
+import at.ac.oeaw.cemm.bsf.vcffilter.preferences.Hyperlink;
+import at.ac.oeaw.cemm.bsf.vcffilter.progress.FilterProgress;
+import at.ac.oeaw.cemm.bsf.vcffilter.progress.InputProgress;
+import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.samtools.SAMSequenceRecord;
+import htsjdk.samtools.util.CloseableIterator;
+import htsjdk.variant.variantcontext.Allele;
+import htsjdk.variant.variantcontext.Genotype;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.variantcontext.writer.Options;
+import htsjdk.variant.variantcontext.writer.VariantContextWriter;
+import htsjdk.variant.variantcontext.writer.VariantContextWriterBuilder;
+import htsjdk.variant.vcf.VCFCompoundHeaderLine;
+import htsjdk.variant.vcf.VCFContigHeaderLine;
+import htsjdk.variant.vcf.VCFFileReader;
+import htsjdk.variant.vcf.VCFHeader;
+import htsjdk.variant.vcf.VCFHeaderLine;
+import htsjdk.variant.vcf.VCFInfoHeaderLine;
+import htsjdk.variant.vcf.VCFUtils;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Hashtable;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Filters VCF files without a graphical user interface. The engine applies a filter scenario, 
+ * white and black lists and a recurrence cutoff, and writes the passing variants to an 
+ * indexed VCF file and a TSV file with the chosen output columns. The static methods are 
+ * shared with the SwingWorkers of the graphical user interface.
+ * 
+ * FilterEngine.java 17 OCT 2026
+ *
+ * @author Heiko Müller
+ * @version 1.0
+ * @since 1.0
+ */
+public class FilterEngine {
+    
+    /**
+     * Fixed VCF columns written to TSV output by default.
+     */
+    private static final String[] DEFAULT_COLUMNS = {"CHROM", "POS", "ID", "REF", "ALT", "QUAL", "FILTER"};
+    
+    /**
+     * Start of the scenario line recording the selected samples.
+     */
+    public static final String SAMPLES_SETTING = "Samples:";
+    
+    /**
+     * Active filters.
+     */
+    private final ArrayList<Filter> filters;
+    
+    /**
+     * Active filters compiled into GUI independent predicates.
+     */
+    private CompiledFilterChain filterChain;
+    
+    /**
+     * White list files, null if none.
+     */
+    private ArrayList<File> whiteListFiles;
+    
+    /**
+     * Black list files, null if none.
+     */
+    private ArrayList<File> blackListFiles;
+    
+    /**
+     * Query object for white lists.
+     */
+    private Query qwhite;
+    
+    /**
+     * Query object for black lists.
+     */
+    private Query qblack;
+    
+    /**
+     * Recurrence file, null if none.
+     */
+    private File recurrenceFile;
+    
+    /**
+     * Recurrence hash, null if no recurrence file.
+     */
+    private Hashtable<String, VariantRecurrence> recurrenceHash;
+    
+    /**
+     * Recurrence cutoff.
+     */
+    private int recurrenceCutoff = 5;
+    
+    /**
+     * Recurrence type, total, het or hom.
+     */
+    private String recurrenceType = "total";
+    
+    /**
+     * Columns of the TSV output.
+     */
+    private ArrayList<String> outputColumns;
+    
+    /**
+     * Progress of the run, null if not reported.
+     */
+    private FilterProgress progress;
+    
+    /**
+     * Creates new FilterEngine.
+     * 
+     * @param filters active filters
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public FilterEngine(ArrayList<Filter> filters){
+        this.filters = filters;
+        this.filterChain = compileFilterChain(filters);
+        this.outputColumns = getDefaultOutputColumns(filters);
+    }
+    
+    /**
+     * Restricts filtering and output to the selected samples. Genotype columns of other 
+     * samples are not decoded and not written.
+     * 
+     * @param samples selected samples, null or empty for all
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public void setSamples(List<String> samples){
+        filterChain = compileFilterChain(filters, samples);
+    }
+    
+    /**
+     * Sets the white list files. Only variants in the listed regions are filtered, 
+     * which requires indexed input files.
+     * 
+     * @param files white list files, null for none
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public void setWhiteListFiles(ArrayList<File> files){
+        setWhiteListFiles(files, files != null && files.size() > 0 ? new Query(files) : null);
+    }
+    
+    /**
+     * Sets the white list files with the regions already loaded, 
+     * so that the files need not be parsed again for each input.
+     * 
+     * @param files white list files, null for none
+     * @param q query holding the regions of files
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public void setWhiteListFiles(ArrayList<File> files, Query q){
+        whiteListFiles = files != null && files.size() > 0 ? files : null;
+        qwhite = whiteListFiles != null ? q : null;
+    }
+    
+    /**
+     * Sets the black list files. Variants in the listed regions are removed.
+     * 
+     * @param files black list files, null for none
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public void setBlackListFiles(ArrayList<File> files){
+        setBlackListFiles(files, files != null && files.size() > 0 ? new Query(files) : null);
+    }
+    
+    /**
+     * Sets the black list files with the regions already loaded, 
+     * so that the files need not be parsed again for each input.
+     * 
+     * @param files black list files, null for none
+     * @param q query holding the regions of files
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public void setBlackListFiles(ArrayList<File> files, Query q){
+        blackListFiles = files != null && files.size() > 0 ? files : null;
+        qblack = blackListFiles != null ? q : null;
+    }
+    
+    /**
+     * Sets the recurrence file. Variants are removed if all their alleles are recorded 
+     * with a frequency above the cutoff.
+     * 
+     * @param file recurrence file in TSV format, null for none
+     * @param cutoff recurrence cutoff
+     * @param type recurrence type, total, het or hom
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public void setRecurrence(File file, int cutoff, String type){
+        recurrenceFile = file;
+        recurrenceCutoff = cutoff;
+        recurrenceType = type;
+        recurrenceHash = file != null ? buildRecurrenceHash(new RecurrenceParser(file.getAbsolutePath(), true)) : null;
+    }
+    
+    /**
+     * Sets the columns of the TSV output.
+     * 
+     * @param columns column IDs, fixed VCF columns and INFO IDs
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public void setOutputColumns(ArrayList<String> columns){
+        outputColumns = columns;
+    }
+    
+    /**
+     * Sets the progress of the run. Bytes consumed and records per stage of all 
+     * inputs filtered by this engine are reported to progress, which may be polled 
+     * from another thread.
+     * 
+     * @param progress progress of the run, null if not reported
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public void setProgress(FilterProgress progress){
+        this.progress = progress;
+    }
+    
+    /**
+     * Filters a VCF file and writes the passing variants to a VCF file and a TSV file. 
+     * The VCF file is indexed on the fly if the input has a sequence dictionary, 
+     * a .vcf.gz output file is block compressed with a tabix index.
+     * 
+     * @param input input VCF file
+     * @param outputVCF output VCF file
+     * @param outputTSV output TSV file, null for none
+     * @return BatchStatistics records, bytes and time per stage
+     * @throws IOException if output cannot be written
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public BatchStatistics filter(File input, File outputVCF, File outputTSV) throws IOException {
+        BatchStatistics stats = new BatchStatistics(input.getName());
+        stats.setBytes(input.length());
+        long start = System.nanoTime();
+        AdaptiveFilterChain adaptiveFilterChain = new AdaptiveFilterChain(filterChain);
+        RawLinePrefilter prefilter = new RawLinePrefilter(filterChain);
+        AttributeView attributes = new AttributeView();
+        VCFFileReader vcf = new VCFFileReader(input, qwhite != null);
+        VCFHeader header = SampleProjection.project(vcf.getFileHeader(), filterChain.getSamples());
+        addFilterHeaderLines(header, filters, recurrenceFile, recurrenceCutoff, whiteListFiles, blackListFiles);
+        VariantContextWriter out = getVariantContextWriter(header, outputVCF);
+        BufferedWriter tsv = null;
+        FormatOutputFields fof = new FormatOutputFields(outputColumns, new ArrayList<Hyperlink>());
+        fof.setRecurrenceHash(recurrenceHash);
+        if(outputTSV != null){
+            tsv = new BufferedWriter(new FileWriter(outputTSV));
+            tsv.write(fof.getOutputHeader());
+            tsv.newLine();
+        }
+        InputProgress inputProgress = progress != null ? progress.startInput(input) : null;
+        stats.addSetupNanos(System.nanoTime() - start);
+        try{
+            if(qwhite == null){
+                CloseableIterator<VariantContext> it = openVariantIterator(input, vcf, filterChain, adaptiveFilterChain, prefilter, inputProgress);
+                scan(it, adaptiveFilterChain, attributes, out, tsv, fof, stats);
+            }else{
+                CloseableIterator<VariantContext> first = vcf.iterator();
+                VariantContext x = first.hasNext() ? first.next() : null;
+                first.close();
+                boolean chr = x != null && x.getContig().toUpperCase().startsWith("CHR");
+                QueryPlan plan = QueryPlanner.plan(input, qwhite.getFlattenedRegions(), qwhite, chr);
+                stats.setQueryPlan(plan.getReport());
+                if(plan.isScan()){
+                    CloseableIterator<VariantContext> it = openVariantIterator(input, vcf, filterChain, adaptiveFilterChain, prefilter, inputProgress);
+                    scan(plan.join(it), adaptiveFilterChain, attributes, out, tsv, fof, stats);
+                }else{
+                    ArrayList<GenomicElement> regions = sortByDictionary(plan.getRegions(), header.getSequenceDictionary(), chr);
+                    for(int i = 0; i < regions.size(); i++){
+                        GenomicElement g = regions.get(i);
+                        CloseableIterator<VariantContext> it = vcf.query(chr ? "chr" + g.CHR : g.CHR, g.START, g.END);
+                        it = plan.join(it, g, i > 0 ? regions.get(i - 1) : null);
+                        scan(SampleSubsetIterator.wrap(it, vcf.getFileHeader(), filterChain.getSamples()), adaptiveFilterChain, attributes, out, tsv, fof, stats);
+                        if(inputProgress != null){
+                            inputProgress.setFraction((i + 1.0) / regions.size());
+                        }
+                    }
+                }
+            }
+        }finally{
+            if(inputProgress != null){
+                inputProgress.finish();
+            }
+            long t = System.nanoTime();
+            out.close();
+            if(tsv != null){
+                tsv.close();
+            }
+            vcf.close();
+            stats.addWriteNanos(System.nanoTime() - t);
+        }
+        stats.setRecords(adaptiveFilterChain.getRecords() + prefilter.getRejected());
+        stats.setFilterReport(adaptiveFilterChain.getReport());
+        return stats;
+    }
+    
+    /**
+     * Filters the variants of it and writes passing variants.
+     * 
+     * @param it variant iterator, closed on return
+     * @param adaptiveFilterChain filter chain of the current input
+     * @param attributes attribute view of the current input
+     * @param out VCF output
+     * @param tsv TSV output, null for none
+     * @param fof TSV output format
+     * @param stats statistics of the current input
+     * @throws IOException if TSV output cannot be written
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private void scan(CloseableIterator<VariantContext> it, AdaptiveFilterChain adaptiveFilterChain, AttributeView attributes, VariantContextWriter out, BufferedWriter tsv, FormatOutputFields fof, BatchStatistics stats) throws IOException {
+        long start = System.nanoTime();
+        long write = 0;
+        boolean chainApplied = appliesFilterChain(it);
+        try{
+            while(it.hasNext()){
+                VariantContext vc = it.next();
+                if(!chainApplied){
+                    if(progress != null){
+                        progress.addRecords(1);
+                    }
+                    if(!adaptiveFilterChain.passes(vc, attributes)){
+                        continue;
+                    }
+                    if(progress != null){
+                        progress.addPassedFilters(1);
+                    }
+                }
+                if(qblack != null && qblack.match(new GenomicElement(vc))){
+                    continue;
+                }
+                if(progress != null){
+                    progress.addPassedLists(1);
+                }
+                if(!passesRecurrenceCutoff(vc, recurrenceHash, recurrenceType, recurrenceCutoff)){
+                    continue;
+                }
+                if(progress != null){
+                    progress.addPassedRecurrence(1);
+                }
+                long t = System.nanoTime();
+                VCFPipeline.ensureDecoded(vc);
+                out.add(vc);
+                if(tsv != null){
+                    tsv.write(fof.formatOutput(vc, attributes));
+                    tsv.newLine();
+                }
+                write += System.nanoTime() - t;
+                stats.addWritten(1);
+            }
+        }finally{
+            it.close();
+        }
+        stats.addWriteNanos(write);
+        stats.addFilterNanos(System.nanoTime() - start - write);
+    }
+    
+    /**
+     * Returns the default TSV output columns, the fixed VCF columns followed by the 
+     * fields of the active filters.
+     * 
+     * @param filters active filters
+     * @return ArrayList&#60;String&#62;
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public static ArrayList<String> getDefaultOutputColumns(List<Filter> filters){
+        ArrayList<String> result = new ArrayList<String>();
+        for(String s : DEFAULT_COLUMNS){
+            result.add(s);
+        }
+        for(Filter f : filters){
+            String id = f.getID();
+            if(!result.contains(id) && !"FORMAT".equals(f.getHeaderlineType())){
+                result.add(id);
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Loads a filter scenario (.fsc file) for the header lines of a VCF file. 
+     * Filters on fields not defined in the header are skipped.
+     * 
+     * @param scenario scenario file
+     * @param header VCF header the filters are created for
+     * @param skipped receives the IDs of skipped filters, may be null
+     * @return ArrayList&#60;Filter&#62;
+     * @throws IOException if the scenario cannot be read
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public static ArrayList<Filter> loadScenario(File scenario, VCFHeader header, List<String> skipped) throws IOException {
+        ArrayList<Filter> result = new ArrayList<Filter>();
+        BufferedReader br = new BufferedReader(new FileReader(scenario));
+        try{
+            String line;
+            int idx = 0;
+            while((line = br.readLine()) != null){
+                FilterSettings fsc = new FilterSettings(line);
+                if(fsc.getId() == null){
+                    continue;
+                }
+                Filter f = FilterFactory.getFilter(fsc, getHeaderLine(header, fsc.getId()));
+                if(f != null){
+                    f.setIndex(idx);
+                    result.add(f);
+                    idx++;
+                }else if(skipped != null){
+                    skipped.add(fsc.getId());
+                }
+            }
+        }finally{
+            br.close();
+        }
+        return result;
+    }
+    
+    /**
+     * Returns the samples selected in a scenario file.
+     * 
+     * @param scenario filter scenario file
+     * @return ArrayList&#60;String&#62; selected samples, null for all
+     * @throws IOException if the scenario file cannot be read
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public static ArrayList<String> loadScenarioSamples(File scenario) throws IOException {
+        ArrayList<String> result = null;
+        BufferedReader br = new BufferedReader(new FileReader(scenario));
+        try{
+            String line;
+            while((line = br.readLine()) != null){
+                ArrayList<String> samples = parseSamplesSetting(line);
+                if(samples != null){
+                    result = samples;
+                }
+            }
+        }finally{
+            br.close();
+        }
+        return result;
+    }
+    
+    /**
+     * Returns the scenario line recording the selected samples, "Samples:" followed by the tab separated samples.
+     * 
+     * @param samples selected samples
+     * @return String
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public static String getSamplesSetting(List<String> samples){
+        StringBuilder sb = new StringBuilder(SAMPLES_SETTING);
+        for(String s : samples){
+            sb.append("\t").append(s);
+        }
+        return sb.toString();
+    }
+    
+    /**
+     * Parses a scenario line recording the selected samples.
+     * 
+     * @param line line of a scenario file
+     * @return ArrayList&#60;String&#62; selected samples, null if line does not record samples
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public static ArrayList<String> parseSamplesSetting(String line){
+        if(!line.startsWith(SAMPLES_SETTING + "\t")){
+            return null;
+        }
+        ArrayList<String> samples = new ArrayList<String>();
+        String[] sa = line.split("\t");
+        for(int i = 1; i < sa.length; i++){
+            if(sa[i].trim().length() > 0){
+                samples.add(sa[i].trim());
+            }
+        }
+        return samples;
+    }
+    
+    /**
+     * Returns the header line with the provided id. Fixed VCF columns and INFO lines 
+     * are looked up before FORMAT lines.
+     * 
+     * @param header VCF header
+     * @param id header line ID
+     * @return VCFCompoundHeaderLine the header line, null if not defined
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public static VCFCompoundHeaderLine getHeaderLine(VCFHeader header, String id){
+        for(VCFInfoHeaderLine hl : FilterFactory.getFixedColumnHeaderLines()){
+            if(hl.getID().equals(id)){
+                return hl;
+            }
+        }
+        VCFInfoHeaderLine info = header.getInfoHeaderLine(id);
+        if(info != null){
+            return info;
+        }
+        return header.getFormatHeaderLine(id);
+    }
+    
+    /**
+    * Compiles a list of filters into a filter chain.
+    * 
+    * @param filters filter chain
+    * @return CompiledFilterChain the compiled filter chain, empty if filters is null
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    public static CompiledFilterChain compileFilterChain(List<Filter> filters){
+        return compileFilterChain(filters, null);
+    }
+    
+    /**
+    * Compiles a list of filters into a filter chain evaluated on the selected samples only.
+    * 
+    * @param filters filter chain
+    * @param samples selected samples, null or empty for all
+    * @return CompiledFilterChain the compiled filter chain, empty if filters is null
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    public static CompiledFilterChain compileFilterChain(List<Filter> filters, List<String> samples){
+        if(filters == null){
+            return new CompiledFilterChain(new CompiledFilter[0], samples);
+        }
+        CompiledFilter[] compiled = new CompiledFilter[filters.size()];
+        for(int i = 0; i < compiled.length; i++){
+            compiled[i] = filters.get(i).compile();
+        }
+        return new CompiledFilterChain(compiled, samples);
+    }
+    
+    /**
+    * Opens an iterator over all variants of f. If the filter chain contains fixed column filters, 
+    * lines rejected by these are skipped without decoding INFO and genotype fields. 
+    * Bgzipped and uncompressed files are filtered in parallel on all available processors, 
+    * uncompressed files are memory-mapped. Gzipped files are filtered in a reader, decoder and 
+    * filter pipeline. The returned iterator then only returns variants passing 
+    * the filter chain, see appliesFilterChain. If the chain has selected samples, the variants 
+    * are restricted to these samples, see SampleProjection.
+    * 
+    * @param f VCF file
+    * @param vcf VCFFileReader opened on f
+    * @param filterChain compiled filter chain, null for none
+    * @param adaptiveFilterChain receives the filter statistics of parallel filtering
+    * @param prefilter fixed column filters of the chain, null for none
+    * @return CloseableIterator&#60;VariantContext&#62;
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    public static CloseableIterator<VariantContext> openVariantIterator(File f, VCFFileReader vcf, CompiledFilterChain filterChain, AdaptiveFilterChain adaptiveFilterChain, RawLinePrefilter prefilter){
+        return openVariantIterator(f, vcf, filterChain, adaptiveFilterChain, prefilter, null);
+    }
+    
+    /**
+    * Opens an iterator over all variants of f like openVariantIterator, reporting bytes consumed 
+    * to progress. The parallel scanner also reports records read and passing the filter chain, 
+    * the prefiltering iterator reports lines rejected by the prefilter.
+    * 
+    * @param f VCF file
+    * @param vcf VCFFileReader opened on f
+    * @param filterChain compiled filter chain, null for none
+    * @param adaptiveFilterChain receives the filter statistics of parallel filtering
+    * @param prefilter fixed column filters of the chain, null for none
+    * @param progress progress of f, null if not reported
+    * @return CloseableIterator&#60;VariantContext&#62;
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    public static CloseableIterator<VariantContext> openVariantIterator(File f, VCFFileReader vcf, CompiledFilterChain filterChain, AdaptiveFilterChain adaptiveFilterChain, RawLinePrefilter prefilter, InputProgress progress){
+        int threads = Runtime.getRuntime().availableProcessors();
+        if(filterChain != null && threads > 1 && ParallelVCFScanner.canScan(f)){
+            try{
+                return new ParallelVCFScanner(f, filterChain, adaptiveFilterChain, prefilter, threads, progress);
+            }catch(IOException ioe){
+                ioe.printStackTrace();
+            }
+        }
+        if(filterChain != null && threads > 1 && MappedVCFScanner.canScan(f)){
+            try{
+                return new MappedVCFScanner(f, filterChain, adaptiveFilterChain, prefilter, threads, progress);
+            }catch(IOException ioe){
+                ioe.printStackTrace();
+            }
+        }
+        if(filterChain != null && threads > 1 && PrefilteringVariantIterator.canRead(f)){
+            try{
+                return new VCFPipeline(f, filterChain, adaptiveFilterChain, prefilter, threads, progress);
+            }catch(IOException ioe){
+                ioe.printStackTrace();
+            }
+        }
+        return openSequentialVariantIterator(f, vcf, filterChain, prefilter, progress);
+    }
+    
+    /**
+    * Opens an iterator over all variants of f that reads and decodes in the calling thread, e.g. for 
+    * merging many inputs at once. Lines rejected by fixed column filters are skipped without decoding 
+    * INFO and genotype fields, the filter chain itself is not applied.
+    * 
+    * @param f VCF file
+    * @param vcf VCFFileReader opened on f
+    * @param filterChain compiled filter chain, null for none
+    * @param prefilter fixed column filters of the chain, null for none
+    * @param progress progress of f, null if not reported
+    * @return CloseableIterator&#60;VariantContext&#62;
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    public static CloseableIterator<VariantContext> openSequentialVariantIterator(File f, VCFFileReader vcf, CompiledFilterChain filterChain, RawLinePrefilter prefilter, InputProgress progress){
+        List<String> samples = filterChain != null ? filterChain.getSamples() : null;
+        if(prefilter != null && (progress != null || samples != null) && PrefilteringVariantIterator.canRead(f)){
+            try{
+                return new PrefilteringVariantIterator(f, prefilter, samples, progress);
+            }catch(IOException ioe){
+                ioe.printStackTrace();
+            }
+        }
+        if(prefilter != null && !prefilter.isEmpty() && PrefilteringVariantIterator.canRead(f)){
+            return new PrefilteringVariantIterator(f, prefilter);
+        }
+        return SampleSubsetIterator.wrap(vcf.iterator(), vcf.getFileHeader(), samples);
+    }
+    
+    /**
+    * Tests if the iterator returned by openVariantIterator already applied the filter chain.
+    * 
+    * @param it iterator returned by openVariantIterator
+    * @return boolean true if only variants passing the filter chain are returned
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    public static boolean appliesFilterChain(CloseableIterator<VariantContext> it){
+        if(it instanceof RegionFilterIterator){
+            return appliesFilterChain(((RegionFilterIterator)it).getIterator());
+        }
+        return it instanceof ParallelVCFScanner || it instanceof MappedVCFScanner || it instanceof VCFPipeline;
+    }
+    
+    /**
+    * Sorts query regions into the contig order of a sequence dictionary, the order in which the output 
+    * is indexed. Regions keep their order within a contig, regions on contigs missing from the 
+    * dictionary come last.
+    * 
+    * @param regions query regions sorted by position within each contig
+    * @param dictionary sequence dictionary of the output, null if none
+    * @param chr true if contigs in the input are prefixed with chr
+    * @return ArrayList&#60;GenomicElement&#62; regions in dictionary order, regions itself if there is no dictionary
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    public static ArrayList<GenomicElement> sortByDictionary(ArrayList<GenomicElement> regions, final SAMSequenceDictionary dictionary, final boolean chr){
+        if(dictionary == null || dictionary.isEmpty()){
+            return regions;
+        }
+        ArrayList<GenomicElement> result = new ArrayList<GenomicElement>(regions);
+        Collections.sort(result, new Comparator<GenomicElement>(){
+            @Override
+            public int compare(GenomicElement g1, GenomicElement g2){
+                return Integer.compare(getSequenceIndex(g1), getSequenceIndex(g2));
+            }
+            
+            private int getSequenceIndex(GenomicElement g){
+                int index = dictionary.getSequenceIndex(chr ? "chr" + g.CHR : g.CHR);
+                return index < 0 ? Integer.MAX_VALUE : index;
+            }
+        });
+        return result;
+    }
+    
+    /**
+    * Builds the recurrence hash, keyed by variants in ExAC format (chr-pos-ref-alt).
+    * 
+    * @param p parsed recurrence file
+    * @return Hashtable&#60;String, VariantRecurrence&#62;
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    public static Hashtable<String, VariantRecurrence> buildRecurrenceHash(RecurrenceParser p){
+        Hashtable<String, VariantRecurrence> recurrenceHash = new Hashtable<String, VariantRecurrence>();
+        String chr = "";
+        String pos = "";
+        for(int i = 0; i < p.getVariantRecurrence().size(); i++){
+            VariantRecurrence r = p.getVariantRecurrence().get(i);
+            try{                
+                chr = "" + Integer.parseInt(r.getChr());                               
+            }catch(NumberFormatException nfe){                  
+                chr = r.getChr();  
+            } 
+            try{                
+                pos = "" + Integer.parseInt(r.getPos());                               
+            }catch(NumberFormatException nfe){                  
+                pos = r.getPos(); 
+            } 
+            String key = chr + "-" + pos + "-" + r.getRef() + "-" + r.getAlt();            
+            if(!recurrenceHash.containsKey(key)){            
+                recurrenceHash.put(key, r);
+            }
+        }
+        return recurrenceHash;
+    }
+    
+    /**
+    * Returns the alleles of the first sample in ExAc format.
+    * 
+    * @param vc VariantContext object
+    * @return List&#60;String&#62;
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    public static List<String> getExacVariantFormat(VariantContext vc){
+        Genotype g = vc.getGenotype(0);
+        List<Allele> al = g.getAlleles();
+        ArrayList<String> result = new ArrayList<String>();
+        String base1 = al.get(0).getBaseString();
+        String base2 = al.get(1).getBaseString();
+        String ref = vc.getReference().getBaseString();
+        String c = vc.getContig();
+        int p = vc.getStart();        
+        if(!base1.equals(ref)){
+            result.add(c + "-" + p + "-" + ref + "-" + base1);
+        }
+        if(!base2.equals(ref) && !base2.equals(base1)){
+            result.add(c + "-" + p + "-" + ref + "-" + base2);
+        }
+        return result;
+    }
+    
+    /**
+    * Tests a candidate for recurrence. The candidate passes if any of its alleles 
+    * is not recorded or within the recurrence cutoff.
+    * 
+    * @param candidate the candidate
+    * @param recurrenceHash recurrence hash, null if no recurrence filtering
+    * @param type recurrence type, total, het or hom
+    * @param cutoff recurrence cutoff
+    * @return boolean
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    public static boolean passesRecurrenceCutoff(VariantContext candidate, Hashtable<String, VariantRecurrence> recurrenceHash, String type, int cutoff){
+        if(recurrenceHash == null){
+            return true;
+        }
+        if(!type.equals("total") && !type.equals("het") && !type.equals("hom")){
+            return false;
+        }
+        for(String s : getExacVariantFormat(candidate)){
+            VariantRecurrence r = recurrenceHash.get(s);
+            if(r == null){
+                return true;
+            }
+            String freq = type.equals("total") ? r.getFreq() : type.equals("het") ? r.getFreqHet() : r.getFreqHom();
+            if(Integer.parseInt(freq) <= cutoff){
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+    * Adds filter settings, recurrence and list files to a VCF header.
+    * 
+    * @param header VCF header of the output
+    * @param filters filter chain
+    * @param recurrenceFile recurrence file, null if none
+    * @param recurrenceCutoff recurrence cutoff
+    * @param whiteListFiles white list files, null if none
+    * @param blackListFiles black list files, null if none
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    public static void addFilterHeaderLines(VCFHeader header, List<Filter> filters, File recurrenceFile, int recurrenceCutoff, List<File> whiteListFiles, List<File> blackListFiles){
+        for (final Filter filter : filters) {             
+            header.addMetaDataLine(filter.getHeaderLine());              
+        } 
+        if(recurrenceFile != null){
+            header.addMetaDataLine(new VCFHeaderLine("VCFFilter_recurrence", recurrenceFile.getAbsolutePath() + "<=" + recurrenceCutoff));     
+        }
+        if(whiteListFiles != null){
+            for(File f : whiteListFiles){
+                header.addMetaDataLine(new VCFHeaderLine("VCFFilter_inclusiveList", f.getAbsolutePath()));
+            }
+        }
+        if(blackListFiles != null){
+            for(File f : blackListFiles){
+                header.addMetaDataLine(new VCFHeaderLine("VCFFilter_exclusiveList", f.getAbsolutePath()));
+            }
+        } 
+    }
+    
+    /**
+    * Builds the header of the merged output of several input files. The header has the 
+    * union of INFO, FORMAT and FILTER lines, the samples of all inputs in input order, 
+    * and the union of the sequence dictionaries.
+    * 
+    * @param headers headers of the input files
+    * @return VCFHeader
+    * @throws IllegalStateException if INFO or FORMAT lines of the inputs conflict
+    * @throws IllegalArgumentException if the inputs order or size contigs differently
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    public static VCFHeader mergeHeaders(List<VCFHeader> headers){
+        LinkedHashSet<VCFHeaderLine> lines = new LinkedHashSet<VCFHeaderLine>();
+        for(VCFHeaderLine line : VCFUtils.smartMergeHeaders(headers, false)){
+            if(!(line instanceof VCFContigHeaderLine)){
+                lines.add(line);
+            }
+        }
+        LinkedHashSet<String> samples = new LinkedHashSet<String>();
+        for(VCFHeader h : headers){
+            samples.addAll(h.getGenotypeSamples());
+        }
+        VCFHeader merged = new VCFHeader(lines, new ArrayList<String>(samples));
+        SAMSequenceDictionary dictionary = mergeSequenceDictionaries(headers);
+        if(dictionary != null){
+            merged.setSequenceDictionary(dictionary);
+        }
+        return merged;
+    }
+    
+    /**
+    * Merges the sequence dictionaries of the input files. Contigs are added in the order 
+    * in which they first appear, every input must list its contigs in the merged order.
+    * 
+    * @param headers headers of the input files
+    * @return SAMSequenceDictionary, null if no input has a sequence dictionary
+    * @throws IllegalArgumentException if the inputs order or size contigs differently
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    private static SAMSequenceDictionary mergeSequenceDictionaries(List<VCFHeader> headers){
+        ArrayList<SAMSequenceRecord> records = new ArrayList<SAMSequenceRecord>();
+        Hashtable<String, Integer> index = new Hashtable<String, Integer>();
+        for(VCFHeader h : headers){
+            SAMSequenceDictionary dictionary = h.getSequenceDictionary();
+            if(dictionary == null){
+                continue;
+            }
+            int last = -1;
+            for(SAMSequenceRecord r : dictionary.getSequences()){
+                Integer i = index.get(r.getSequenceName());
+                if(i == null){
+                    i = records.size();
+                    index.put(r.getSequenceName(), i);
+                    records.add(r.clone());
+                }else{
+                    int length = records.get(i).getSequenceLength();
+                    if(length > 0 && r.getSequenceLength() > 0 && length != r.getSequenceLength()){
+                        throw new IllegalArgumentException("Contig " + r.getSequenceName() + " has different lengths in the input files: " + length + " and " + r.getSequenceLength());
+                    }
+                }
+                if(i < last){
+                    throw new IllegalArgumentException("The input files order contigs differently at contig " + r.getSequenceName());
+                }
+                last = i;
+            }
+        }
+        return records.isEmpty() ? null : new SAMSequenceDictionary(records);
+    }
+    
+    /**
+    * Opens a VCF writer and writes the header. The output is indexed on the fly 
+    * if the header has a sequence dictionary. Variants are encoded and compressed 
+    * on a writer thread, see VCFPipeline.ensureDecoded. Output files ending with .bcf 
+    * are written as BCF2 with a tribble index, this requires contig lines in the header.
+    * 
+    * @param header VCF header of the output
+    * @param outputVCF output file, .vcf.gz for block compressed output, .bcf for BCF2
+    * @return VariantContextWriter
+    * @throws IllegalArgumentException if BCF2 output is requested and header has no sequence dictionary
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    public static VariantContextWriter getVariantContextWriter(VCFHeader header, File outputVCF){
+        VariantContextWriterBuilder builder = new VariantContextWriterBuilder().setOutputFile(outputVCF);
+        SAMSequenceDictionary sequenceDictionary = header.getSequenceDictionary(); 
+        if(sequenceDictionary != null){
+            builder.setReferenceDictionary(sequenceDictionary);   
+            builder.setOption(Options.INDEX_ON_THE_FLY);
+        }else{
+            builder.unsetOption(Options.INDEX_ON_THE_FLY);
+        }
+        builder.setOption(Options.USE_ASYNC_IO);
+        VariantContextWriter out;
+        if(BCFVariantContextWriter.isBCF(outputVCF)){
+            if(sequenceDictionary == null){
+                throw new IllegalArgumentException("BCF output requires contig lines in the VCF header: " + outputVCF.getName());
+            }
+            out = new BCFVariantContextWriter(builder.setOutputFileType(VariantContextWriterBuilder.OutputType.BCF).build());
+        }else{
+            out = builder.build();
+        }
+        out.writeHeader(header);
+        return out;
+    }
+}
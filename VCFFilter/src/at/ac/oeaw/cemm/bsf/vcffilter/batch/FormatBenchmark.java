@@ -0,0 +1,175 @@
+/*
+*     This file is part of the VCF.Filter project (https://biomedical-sequencing.at/VCFFilter/).
+*     VCF.Filter permits graphical filtering of VCF files on cutom annotations and standard VCF fields, pedigree analysis, and cohort searches.
+* %%
+*     Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+* %%
+* 
+*     VCF.Filter is free software: you can redistribute it and/or modify
+*     it under the terms of the GNU General Public License as published by
+*     the Free Software Foundation, either version 3 of the License, or
+*     (at your option) any later version.
+* 
+*     This program is distributed in the hope that it will be useful,
+*     but WITHOUT ANY WARRANTY; without even the implied warranty of
+*     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*     GNU General Public License for more details.
+* 
+*     You should have received a copy of the GNU General Public License
+*     along with VCF.Filter.  If not, see <http://www.gnu.org/licenses/>.
+* 
+*     VCF.Filter  Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+*     This program comes with ABSOLUTELY NO WARRANTY;
+*     This is free software, and you are welcome to redistribute it
+*     under certain conditions; 
+*     For details interrogate the About section in the File menu.
+*/
+package at.ac.oeaw.cemm.bsf.vcffilter.batch;
+
+import at.ac.oeaw.cemm.bsf.vcffilter.index.IndexedVCFFileWriter;
+import htsjdk.variant.variantcontext.Genotype;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.vcf.VCFFileReader;
+import java.io.File;
+import java.util.ArrayList;
+
+/**
+ * Compares the read throughput of VCF.gz and BCF2 inputs. Each VCF file is transcoded to 
+ * both formats in a temporary directory, then read repeatedly, touching the INFO attributes 
+ * and genotypes of every variant like the filters do.
+ * 
+ * Usage: java -cp VCFFilter.jar at.ac.oeaw.cemm.bsf.vcffilter.batch.FormatBenchmark 
+ * [-n passes] [file or directory]..., by default the VCFData directory is used.
+ * 
+ * FormatBenchmark.java 17 OCT 2026
+ *
+ * @author Heiko Müller
+ * @version 1.0
+ * @since 1.0
+ */
+public class FormatBenchmark {
+    
+    /**
+     * Runs the benchmark.
+     * 
+     * @param args command line arguments
+     * @throws Exception if a file cannot be transcoded or read
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public static void main(String[] args) throws Exception {
+        int passes = 20;
+        ArrayList<File> inputs = new ArrayList<File>();
+        for(int i = 0; i < args.length; i++){
+            if(args[i].equals("-n")){
+                passes = Integer.parseInt(args[++i]);
+            }else{
+                addInputs(new File(args[i]), inputs);
+            }
+        }
+        if(args.length == 0 || inputs.isEmpty()){
+            addInputs(new File("VCFData"), inputs);
+        }
+        if(inputs.isEmpty()){
+            System.err.println("no VCF files found");
+            System.exit(2);
+        }
+        File dir = File.createTempFile("vcffilter_benchmark", "");
+        dir.delete();
+        dir.mkdirs();
+        long vcfNanos = 0;
+        long bcfNanos = 0;
+        long total = 0;
+        System.out.println("file\tvariants\tVCF.gz bytes\tBCF bytes\tVCF.gz variants/s\tBCF variants/s");
+        try{
+            for(File input : inputs){
+                File vcf = new File(dir, input.getName() + ".vcf.gz");
+                File bcf = new File(dir, input.getName() + ".bcf");
+                long n = IndexedVCFFileWriter.transcode(input, vcf);
+                IndexedVCFFileWriter.transcode(input, bcf);
+                read(vcf);
+                read(bcf);
+                long v = 0;
+                long b = 0;
+                for(int i = 0; i < passes; i++){
+                    long start = System.nanoTime();
+                    read(vcf);
+                    v += System.nanoTime() - start;
+                    start = System.nanoTime();
+                    read(bcf);
+                    b += System.nanoTime() - start;
+                }
+                System.out.println(input.getName() + "\t" + n + "\t" + vcf.length() + "\t" + bcf.length() + "\t" + rate(n * passes, v) + "\t" + rate(n * passes, b));
+                vcfNanos += v;
+                bcfNanos += b;
+                total += n * passes;
+            }
+        }finally{
+            for(File f : dir.listFiles()){
+                f.delete();
+            }
+            dir.delete();
+        }
+        System.out.println("total\t" + total + "\t\t\t" + rate(total, vcfNanos) + "\t" + rate(total, bcfNanos));
+    }
+    
+    /**
+     * Adds f or the VCF files in directory f to inputs.
+     * 
+     * @param f file or directory
+     * @param inputs list of input files
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private static void addInputs(File f, ArrayList<File> inputs){
+        if(f.isDirectory()){
+            File[] files = f.listFiles();
+            if(files != null){
+                for(File x : files){
+                    if(x.getName().endsWith(".vcf") || x.getName().endsWith(".vcf.gz")){
+                        inputs.add(x);
+                    }
+                }
+            }
+        }else if(f.isFile()){
+            inputs.add(f);
+        }
+    }
+    
+    /**
+     * Reads all variants of f and decodes their attributes and genotypes.
+     * 
+     * @param f VCF or BCF file
+     * @return long checksum, keeps the reads from being optimized away
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private static long read(File f){
+        VCFFileReader reader = new VCFFileReader(f, false);
+        long sum = 0;
+        try{
+            for(VariantContext vc : reader){
+                sum += vc.getAttributes().size();
+                for(Genotype g : vc.getGenotypes()){
+                    sum += g.getPloidy() + g.getDP();
+                }
+            }
+        }finally{
+            reader.close();
+        }
+        return sum;
+    }
+    
+    /**
+     * Returns variants per second.
+     * 
+     * @param variants number of variants
+     * @param nanos elapsed time
+     * @return String
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private static String rate(long variants, long nanos){
+        return nanos > 0 ? String.format("%.0f", variants * 1e9 / nanos) : "-";
+    }
+}
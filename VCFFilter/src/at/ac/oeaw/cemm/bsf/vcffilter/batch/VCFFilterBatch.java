@@ -0,0 +1,291 @@
+/*
+*     This file is part of the VCF.Filter project (https://biomedical-sequencing.at/VCFFilter/).
+*     VCF.Filter permits graphical filtering of VCF files on cutom annotations and standard VCF fields, pedigree analysis, and cohort searches.
+* %%
+*     Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+* %%
+* 
+*     VCF.Filter is free software: you can redistribute it and/or modify
+*     it under the terms of the GNU General Public License as published by
+*     the Free Software Foundation, either version 3 of the License, or
+*     (at your option) any later version.
+* 
+*     This program is distributed in the hope that it will be useful,
+*     but WITHOUT ANY WARRANTY; without even the implied warranty of
+*     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*     GNU General Public License for more details.
+* 
+*     You should have received a copy of the GNU General Public License
+*     along with VCF.Filter.  If not, see <http://www.gnu.org/licenses/>.
+* 
+*     VCF.Filter  Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+*     This program comes with ABSOLUTELY NO WARRANTY;
+*     This is free software, and you are welcome to redistribute it
+*     under certain conditions; 
+*     For details interrogate the About section in the File menu.
+*/
+package at.ac.oeaw.cemm.bsf.vcffilter.batch;
+
+import at.ac.oeaw.cemm.bsf.vcffilter.filter.Filter;
+import at.ac.oeaw.cemm.bsf.vcffilter.genomeutils.Query;
+import at.ac.oeaw.cemm.bsf.vcffilter.index.IndexedVCFFileWriter;
+import at.ac.oeaw.cemm.bsf.vcffilter.progress.FilterProgress;
+import htsjdk.variant.vcf.VCFFileReader;
+import htsjdk.variant.vcf.VCFHeader;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Timer;
+import java.util.TimerTask;
+
+/**
+ * Command line runner for filter scenarios, e.g. for cluster jobs. 
+ * Each input VCF is filtered with the scenario and written to an indexed VCF file 
+ * and a TSV file in the output directory.
+ * 
+ * Usage: java -cp VCFFilter.jar at.ac.oeaw.cemm.bsf.vcffilter.batch.VCFFilterBatch 
+ * -s scenario.fsc [-w whitelist]... [-b blacklist]... [-r recurrence.tsv] [-c cutoff] 
+ * [-t total|het|hom] [-f CHROM,POS,...] [-o outdir] [-p seconds] [-O vcf|bcf] [-S sample,...] input.vcf...
+ * With -p the progress, rates and ETA of the run are printed to stderr every few seconds.
+ * With -O bcf the filtered variants are written as indexed BCF2 instead of VCF.gz. 
+ * With -S only the genotypes of the listed samples are read, filtered and written, 
+ * overriding the samples saved in the scenario.
+ * Usage: VCFFilterBatch -T [-o outdir] input.vcf... transcodes the inputs to indexed BCF2 files 
+ * once, later runs read the BCF2 files without parsing VCF text.
+ * 
+ * VCFFilterBatch.java 17 OCT 2026
+ *
+ * @author Heiko Müller
+ * @version 1.0
+ * @since 1.0
+ */
+public class VCFFilterBatch {
+    
+    /**
+     * Usage message.
+     */
+    private static final String USAGE = "Usage: VCFFilterBatch -s scenario.fsc [-w whitelist]... [-b blacklist]... [-r recurrence.tsv] [-c cutoff] [-t total|het|hom] [-f CHROM,POS,...] [-o outdir] [-p seconds] [-O vcf|bcf] [-S sample,...] input.vcf...\n       VCFFilterBatch -T [-o outdir] input.vcf...";
+    
+    /**
+     * Runs the filter scenario on all input files.
+     * 
+     * @param args command line arguments
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public static void main(String[] args){
+        System.setProperty("java.awt.headless", "true");
+        File scenario = null;
+        File recurrence = null;
+        int cutoff = 5;
+        String type = "total";
+        String columns = null;
+        File outdir = new File(".");
+        int progressInterval = 0;
+        String format = "vcf";
+        boolean transcode = false;
+        ArrayList<String> samples = null;
+        ArrayList<File> white = new ArrayList<File>();
+        ArrayList<File> black = new ArrayList<File>();
+        ArrayList<File> inputs = new ArrayList<File>();
+        try{
+            for(int i = 0; i < args.length; i++){
+                String a = args[i];
+                if(a.equals("-h") || a.equals("--help")){
+                    System.out.println(USAGE);
+                    return;
+                }else if(a.equals("-s")){
+                    scenario = new File(args[++i]);
+                }else if(a.equals("-w")){
+                    white.add(new File(args[++i]));
+                }else if(a.equals("-b")){
+                    black.add(new File(args[++i]));
+                }else if(a.equals("-r")){
+                    recurrence = new File(args[++i]);
+                }else if(a.equals("-c")){
+                    cutoff = Integer.parseInt(args[++i]);
+                }else if(a.equals("-t")){
+                    type = args[++i];
+                }else if(a.equals("-f")){
+                    columns = args[++i];
+                }else if(a.equals("-o")){
+                    outdir = new File(args[++i]);
+                }else if(a.equals("-p")){
+                    progressInterval = Integer.parseInt(args[++i]);
+                }else if(a.equals("-O")){
+                    format = args[++i];
+                }else if(a.equals("-S")){
+                    samples = new ArrayList<String>();
+                    for(String s : args[++i].split(",")){
+                        if(s.trim().length() > 0){
+                            samples.add(s.trim());
+                        }
+                    }
+                }else if(a.equals("-T")){
+                    transcode = true;
+                }else if(a.startsWith("-")){
+                    throw new IllegalArgumentException("unknown option " + a);
+                }else{
+                    inputs.add(new File(a));
+                }
+            }
+        }catch(ArrayIndexOutOfBoundsException | IllegalArgumentException e){
+            System.err.println(e instanceof ArrayIndexOutOfBoundsException ? "missing option value" : e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+        if((scenario == null && !transcode) || inputs.size() == 0){
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+        if(!type.equals("total") && !type.equals("het") && !type.equals("hom")){
+            System.err.println("recurrence type must be total, het or hom");
+            System.exit(2);
+        }
+        if(!format.equals("vcf") && !format.equals("bcf")){
+            System.err.println("output format must be vcf or bcf");
+            System.exit(2);
+        }
+        if(!outdir.isDirectory() && !outdir.mkdirs()){
+            System.err.println("cannot create output directory " + outdir.getAbsolutePath());
+            System.exit(2);
+        }
+        if(transcode){
+            System.exit(transcode(inputs, outdir));
+        }
+        if(samples == null){
+            try{
+                samples = FilterEngine.loadScenarioSamples(scenario);
+            }catch(IOException ioe){
+                System.err.println("cannot read scenario " + scenario.getAbsolutePath() + ": " + ioe.getMessage());
+                System.exit(2);
+            }
+        }
+        BatchStatistics total = new BatchStatistics("total");
+        final FilterProgress progress = new FilterProgress(inputs.toArray(new File[inputs.size()]));
+        Timer timer = null;
+        if(progressInterval > 0){
+            timer = new Timer("VCF.Filter progress", true);
+            timer.scheduleAtFixedRate(new TimerTask(){
+                @Override
+                public void run(){
+                    System.err.println(progress.getSnapshot());
+                }
+            }, progressInterval * 1000L, progressInterval * 1000L);
+        }
+        Query qwhite = white.size() > 0 ? new Query(white) : null;
+        Query qblack = black.size() > 0 ? new Query(black) : null;
+        if(qwhite != null){
+            System.out.println("White list:\t" + qwhite.getRegionCount() + " regions\t" + qwhite.getCoverage() + " bp");
+        }
+        if(qblack != null){
+            System.out.println("Black list:\t" + qblack.getRegionCount() + " regions\t" + qblack.getCoverage() + " bp");
+        }
+        int errors = 0;
+        for(File input : inputs){
+            try{
+                VCFFileReader reader = new VCFFileReader(input, false);
+                VCFHeader header = reader.getFileHeader();
+                reader.close();
+                ArrayList<String> skipped = new ArrayList<String>();
+                ArrayList<Filter> filters = FilterEngine.loadScenario(scenario, header, skipped);
+                for(String id : skipped){
+                    System.err.println(input.getName() + ": filter " + id + " skipped, not defined in header");
+                }
+                FilterEngine engine = new FilterEngine(filters);
+                engine.setProgress(progress);
+                engine.setWhiteListFiles(white, qwhite);
+                engine.setBlackListFiles(black, qblack);
+                engine.setRecurrence(recurrence, cutoff, type);
+                if(samples != null){
+                    for(String s : samples){
+                        if(!header.getGenotypeSamples().contains(s)){
+                            System.err.println(input.getName() + ": sample " + s + " not found");
+                        }
+                    }
+                    engine.setSamples(samples);
+                }
+                if(columns != null){
+                    ArrayList<String> ids = new ArrayList<String>();
+                    for(String s : columns.split(",")){
+                        if(s.trim().length() > 0){
+                            ids.add(s.trim());
+                        }
+                    }
+                    engine.setOutputColumns(ids);
+                }
+                if(header.getSequenceDictionary() == null){
+                    System.err.println(input.getName() + ": no sequence dictionary, output is not indexed");
+                }
+                String name = getBaseName(input);
+                File output = new File(outdir, name + (format.equals("bcf") ? ".filtered.bcf" : ".filtered.vcf.gz"));
+                BatchStatistics stats = engine.filter(input, output, new File(outdir, name + ".filtered.tsv"));
+                if(stats.getQueryPlan() != null){
+                    System.out.println(stats.getQueryPlan());
+                }
+                System.out.println(stats.getSummary());
+                System.out.print(stats.getFilterReport());
+                total.add(stats);
+            }catch(Exception e){
+                errors++;
+                System.err.println(input.getName() + ": " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+        if(timer != null){
+            timer.cancel();
+        }
+        if(inputs.size() > 1){
+            System.out.println(total.getSummary());
+        }
+        System.out.print(progress.getSnapshot().getStageReport());
+        if(errors > 0){
+            System.exit(1);
+        }
+    }
+    
+    /**
+     * Transcodes the inputs to indexed BCF2 files in outdir.
+     * 
+     * @param inputs VCF files
+     * @param outdir output directory
+     * @return int exit status, 1 if any input could not be transcoded
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private static int transcode(ArrayList<File> inputs, File outdir){
+        int errors = 0;
+        for(File input : inputs){
+            try{
+                File output = new File(outdir, getBaseName(input) + ".bcf");
+                long start = System.nanoTime();
+                long n = IndexedVCFFileWriter.transcode(input, output);
+                double seconds = (System.nanoTime() - start) / 1e9;
+                System.out.println(input.getName() + ": " + n + " variants written to " + output.getName() + " in " + String.format("%.1f", seconds) + " s");
+            }catch(Exception e){
+                errors++;
+                System.err.println(input.getName() + ": " + e.getMessage());
+            }
+        }
+        return errors > 0 ? 1 : 0;
+    }
+    
+    /**
+     * Returns the file name without VCF extensions.
+     * 
+     * @param f VCF file
+     * @return String
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private static String getBaseName(File f){
+        String name = f.getName();
+        String[] extensions = {".gz", ".bgz", ".vcf", ".bcf"};
+        for(String e : extensions){
+            if(name.endsWith(e)){
+                name = name.substring(0, name.length() - e.length());
+            }
+        }
+        return name;
+    }
+}
@@ -26,6 +26,9 @@
 */
 package at.ac.oeaw.cemm.bsf.vcffilter.filter;
 
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.CAFPredicate;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.CompiledFilter;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.NumberCriteria;
 import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.vcf.VCFCompoundHeaderLine;
 import java.util.List;
@@ -358,4 +361,16 @@ public class CAFFilter extends ArrayFilter{
     private boolean testNAFilterIsOn(){
         return  (criterion1.getText().toUpperCase().equals("NA") || criterion2.getText().toUpperCase().equals("NA") || criterion3.getText().toUpperCase().equals("NA"));
     }
+    
+    /**
+     * Compiles the current search criteria into an immutable, GUI independent filter.
+     * 
+     * @return CompiledFilter
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    @Override
+    public CompiledFilter compile() {
+        return new CAFPredicate(ID, andnot, arraycontainsref, new NumberCriteria(operator1, predicate1, operator2, predicate2, operator3, predicate3), testNAFilterIsOn());
+    }
 }
@@ -26,6 +26,9 @@
 */
 package at.ac.oeaw.cemm.bsf.vcffilter.filter;
 
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.CharacterCriteria;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.CompiledFilter;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.InfoCharacterArrayPredicate;
 import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.vcf.VCFCompoundHeaderLine;
 import java.util.List;
@@ -167,4 +170,16 @@ public class CharacterArrayFilter extends ArrayFilter{
             return new Character(' ');
         }
     }    
+    
+    /**
+     * Compiles the current search criteria into an immutable, GUI independent filter.
+     * 
+     * @return CompiledFilter
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    @Override
+    public CompiledFilter compile() {
+        return new InfoCharacterArrayPredicate(ID, andnot, arraycontainsref, new CharacterCriteria(predicate1, predicate2, predicate3));
+    }
 }
@@ -26,6 +26,9 @@
 */
 package at.ac.oeaw.cemm.bsf.vcffilter.filter;
 
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.CharacterCriteria;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.CompiledFilter;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.InfoCharacterPredicate;
 import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.vcf.VCFCompoundHeaderLine;
 
@@ -143,4 +146,16 @@ public class CharacterFilter extends Filter{
         }
         return null;
     }
+    
+    /**
+     * Compiles the current search criteria into an immutable, GUI independent filter.
+     * 
+     * @return CompiledFilter
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    @Override
+    public CompiledFilter compile() {
+        return new InfoCharacterPredicate(ID, andnot, new CharacterCriteria(predicate1, predicate2, predicate3));
+    }
 }
@@ -26,6 +26,9 @@
 */
 package at.ac.oeaw.cemm.bsf.vcffilter.filter;
 
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.ChromosomePredicate;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.CompiledFilter;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.TextCriteria;
 import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.vcf.VCFCompoundHeaderLine;
 
@@ -125,4 +128,15 @@ public class ChromosomeFilter extends StringFilter{
         }
     }
     
+    /**
+     * Compiles the current search criteria into an immutable, GUI independent filter.
+     * 
+     * @return CompiledFilter
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    @Override
+    public CompiledFilter compile() {
+        return new ChromosomePredicate(ID, andnot, TextCriteria.chromosome(predicate1, predicate2, predicate3));
+    }
 }
@@ -26,6 +26,9 @@
 */
 package at.ac.oeaw.cemm.bsf.vcffilter.filter;
 
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.CompiledFilter;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.InfoNumberArrayPredicate;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.NumberCriteria;
 import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.vcf.VCFCompoundHeaderLine;
 import java.util.List;
@@ -220,4 +223,16 @@ public class DoubleArrayFilter extends ArrayFilter{
         return result;
     }    
 
+    
+    /**
+     * Compiles the current search criteria into an immutable, GUI independent filter.
+     * 
+     * @return CompiledFilter
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    @Override
+    public CompiledFilter compile() {
+        return new InfoNumberArrayPredicate(ID, andnot, arraycontainsref, new NumberCriteria(operator1, predicate1, operator2, predicate2, operator3, predicate3), false);
+    }
 }
@@ -26,6 +26,9 @@
 */
 package at.ac.oeaw.cemm.bsf.vcffilter.filter;
 
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.CompiledFilter;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.InfoNumberPredicate;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.NumberCriteria;
 import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.vcf.VCFCompoundHeaderLine;
 
@@ -187,4 +190,16 @@ public class DoubleNumberFilter extends NumberFilter {
         return null;
     }
 
+    
+    /**
+     * Compiles the current search criteria into an immutable, GUI independent filter.
+     * 
+     * @return CompiledFilter
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    @Override
+    public CompiledFilter compile() {
+        return new InfoNumberPredicate(ID, andnot, new NumberCriteria(operator1, predicate1, operator2, predicate2, operator3, predicate3), false);
+    }
 }
@@ -28,6 +28,7 @@ package at.ac.oeaw.cemm.bsf.vcffilter.filter;
 
 import at.ac.oeaw.cemm.bsf.vcffilter.VCFFilter;
 import at.ac.oeaw.cemm.bsf.vcffilter.Warning;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.CompiledFilter;
 import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.vcf.VCFCompoundHeaderLine;
 import htsjdk.variant.vcf.VCFHeaderLine;
@@ -405,6 +406,16 @@ public abstract class Filter extends JPanel{
      */
     public abstract void setPredicate3();
     
+    /**
+     * Abstract method. Should compile the current predicates and operators into an immutable, 
+     * GUI independent CompiledFilter that can be evaluated without access to Swing components.
+     * 
+     * @return CompiledFilter the compiled filter
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public abstract CompiledFilter compile();
+    
     /**
      * Focus lost event handler for jTextField1. Sets predicate1 upon focus loss.
      * 
@@ -464,9 +464,21 @@ public class FilterFactory {
     * @since 1.0
     */
     public Filter getFilter(FilterSettings fsc){
-        VCFInfoHeaderLine hl = PREFERENCES.getVCFInfoHeaderLineByID(fsc.getId());
-        if(hl != null){
-            Filter f = FilterFactory.getFilter(hl);
+        return getFilter(fsc, PREFERENCES.getVCFInfoHeaderLineByID(fsc.getId()));
+    }
+    
+    /**
+    * Returns Filter for the provided header line, initialized with the provided settings.
+    * 
+    * @param fsc Filter settings
+    * @param hl header line with the id of the settings, may be null
+    * @return Filter the filter, null if hl is null or no filter exists for hl
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    public static Filter getFilter(FilterSettings fsc, VCFCompoundHeaderLine hl){
+        Filter f = hl != null ? FilterFactory.getFilter(hl) : null;
+        if(f != null){
             f.setCriterion1(fsc.getCriterion1());
             f.setCriterion2(fsc.getCriterion2());
             f.setCriterion3(fsc.getCriterion3());
@@ -479,6 +491,27 @@ public class FilterFactory {
         return null;
     }
     
+    /**
+    * Returns header lines for the fixed VCF columns (chrom, pos, id, ref, alt, qual, filter). 
+    * They are treated as INFO header lines to enable filtering on them even though 
+    * they are not INFO fields.
+    * 
+    * @return ArrayList&#60;VCFInfoHeaderLine&#62;
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    public static ArrayList<VCFInfoHeaderLine> getFixedColumnHeaderLines(){
+        ArrayList<VCFInfoHeaderLine> result = new ArrayList<VCFInfoHeaderLine>();
+        result.add(new VCFInfoHeaderLine("CHROM", 1, VCFHeaderLineType.String, "Filters for chromosome id"));
+        result.add(new VCFInfoHeaderLine("POS", 1, VCFHeaderLineType.Integer, "Filters for variant position"));
+        result.add(new VCFInfoHeaderLine("ID", 1, VCFHeaderLineType.String, "Filters dbSNP rs ids"));
+        result.add(new VCFInfoHeaderLine("REF", 1, VCFHeaderLineType.String, "Filters for reference allele bases"));
+        result.add(new VCFInfoHeaderLine("ALT", 1, VCFHeaderLineType.String, "Filters for alternative allele bases"));
+        result.add(new VCFInfoHeaderLine("QUAL", 1, VCFHeaderLineType.Float, "Filters for call quality"));
+        result.add(new VCFInfoHeaderLine("FILTER", 1, VCFHeaderLineType.String, "Filters for call quality"));
+        return result;
+    }
+    
     /**
     * Returns Filter according to the provided headerlineString.
     * The headerlineString is used to look up the corresponding VCFInfoHeaderLine in preferences.
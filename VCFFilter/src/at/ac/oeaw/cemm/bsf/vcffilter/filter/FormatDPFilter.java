@@ -26,6 +26,9 @@
 */
 package at.ac.oeaw.cemm.bsf.vcffilter.filter;
 
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.CompiledFilter;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.GenotypeNumberPredicate;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.NumberCriteria;
 import htsjdk.variant.variantcontext.Genotype;
 import htsjdk.variant.variantcontext.GenotypesContext;
 import htsjdk.variant.variantcontext.VariantContext;
@@ -190,4 +193,16 @@ public class FormatDPFilter extends FormatFilter{
         }
         return null;
     }
+    
+    /**
+     * Compiles the current search criteria into an immutable, GUI independent filter.
+     * 
+     * @return CompiledFilter
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    @Override
+    public CompiledFilter compile() {
+        return new GenotypeNumberPredicate(ID, andnot, new NumberCriteria(operator1, predicate1, operator2, predicate2, operator3, predicate3), GenotypeNumberPredicate.DP);
+    }
 }
@@ -5,6 +5,9 @@
  */
 package at.ac.oeaw.cemm.bsf.vcffilter.filter;
 
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.CompiledFilter;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.GenotypeNumberArrayPredicate;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.NumberCriteria;
 import htsjdk.variant.variantcontext.Genotype;
 import htsjdk.variant.variantcontext.GenotypesContext;
 import htsjdk.variant.variantcontext.VariantContext;
@@ -188,4 +191,16 @@ public class FormatFloatArrayFilter extends FormatArrayFilter{
         }
         return result;
     } 
+    
+    /**
+     * Compiles the current search criteria into an immutable, GUI independent filter.
+     * 
+     * @return CompiledFilter
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    @Override
+    public CompiledFilter compile() {
+        return new GenotypeNumberArrayPredicate(ID, andnot, arraycontainsref, new NumberCriteria(operator1, predicate1, operator2, predicate2, operator3, predicate3), false);
+    }
 }
@@ -26,6 +26,9 @@
 */
 package at.ac.oeaw.cemm.bsf.vcffilter.filter;
 
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.CompiledFilter;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.GenotypeStringArrayPredicate;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.TextCriteria;
 import htsjdk.variant.variantcontext.Genotype;
 import htsjdk.variant.variantcontext.GenotypesContext;
 import htsjdk.variant.variantcontext.VariantContext;
@@ -140,4 +143,16 @@ public class FormatStringArrayFilter extends FormatArrayFilter{
     protected String parseValue(String value){        
         return value.trim().toUpperCase();
     }  
+    
+    /**
+     * Compiles the current search criteria into an immutable, GUI independent filter.
+     * 
+     * @return CompiledFilter
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    @Override
+    public CompiledFilter compile() {
+        return new GenotypeStringArrayPredicate(ID, andnot, arraycontainsref, TextCriteria.exact(predicate1, predicate2, predicate3));
+    }
 }
@@ -26,6 +26,10 @@
 */
 package at.ac.oeaw.cemm.bsf.vcffilter.filter;
 
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.CompiledFilter;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.GenotypeStringPredicate;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.TextCriteria;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.WildcardMatcher;
 import htsjdk.variant.variantcontext.Genotype;
 import htsjdk.variant.variantcontext.GenotypesContext;
 import htsjdk.variant.variantcontext.VariantContext;
@@ -92,30 +96,11 @@ public class FormatStringFilter extends FormatFilter{
     * @author Heiko Müller
     * @since 1.0
     */
-    protected boolean testPredicate(String attribute, String predicate){         
+    protected boolean testPredicate(String attribute, String predicate){
         if(predicate.trim().equals("")){
             return false;
         }
-        
-        if(attribute.equals(predicate)){
-            return true;
-        }else if(predicate.equals("*")){
-            if(!attribute.equals("")){
-                return true;
-            }else{
-                return false;
-            }            
-        }else if(predicate.contains("*")){
-            String start = predicate.substring(0, predicate.indexOf("*"));
-            String end = predicate.substring(predicate.indexOf("*") + 1, predicate.length());
-            //System.out.println(end);
-            if(attribute.contains(start) && attribute.contains(end)){
-                return true;
-            }
-        }else{
-            return false;
-        }
-        return false;
+        return WildcardMatcher.wildcard(predicate).matches(attribute);
     }
     
     public void setPredicate1(){
@@ -133,4 +118,15 @@ public class FormatStringFilter extends FormatFilter{
         //System.out.println(predicate3);
     }
     
+    /**
+     * Compiles the current search criteria into an immutable, GUI independent filter.
+     * 
+     * @return CompiledFilter
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    @Override
+    public CompiledFilter compile() {
+        return new GenotypeStringPredicate(ID, andnot, TextCriteria.wildcard(predicate1, predicate2, predicate3), false);
+    }
 }
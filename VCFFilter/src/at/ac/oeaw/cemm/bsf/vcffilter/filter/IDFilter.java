@@ -26,6 +26,10 @@
 */
 package at.ac.oeaw.cemm.bsf.vcffilter.filter;
 
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.CompiledFilter;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.IDPredicate;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.TextCriteria;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.WildcardMatcher;
 import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.vcf.VCFCompoundHeaderLine;
 
@@ -80,29 +84,22 @@ public class IDFilter extends StringFilter{
     * @author Heiko Müller
     * @since 1.0
     */
-    protected boolean testPredicate(String attribute, String predicate){   
+    protected boolean testPredicate(String attribute, String predicate){
         if(predicate.trim().equals("")){
             return false;
         }
-        
-        if(attribute.equals(predicate)){
-            return true;
-        }else if(predicate.equals("*")){
-            if(!attribute.equals("")){
-                return true;
-            }else{
-                return false;
-            }            
-        }else if(predicate.contains("*")){
-            String start = predicate.substring(0, predicate.indexOf("*"));
-            String end = predicate.substring(predicate.indexOf("*") + 1, predicate.length());
-            if(attribute.contains(start) && attribute.contains(end)){
-                return true;
-            }
-        }else{
-            return false;
-        }
-        return false;
+        return WildcardMatcher.wildcard(predicate).matches(attribute);
     }
     
+    /**
+     * Compiles the current search criteria into an immutable, GUI independent filter.
+     * 
+     * @return CompiledFilter
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    @Override
+    public CompiledFilter compile() {
+        return new IDPredicate(ID, andnot, TextCriteria.wildcard(predicate1, predicate2, predicate3));
+    }
 }
@@ -26,6 +26,9 @@
 */
 package at.ac.oeaw.cemm.bsf.vcffilter.filter;
 
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.CompiledFilter;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.InfoStringArrayPredicate;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.TextCriteria;
 import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.vcf.VCFCompoundHeaderLine;
 import java.util.List;
@@ -138,4 +141,16 @@ public class StringArrayFilter extends ArrayFilter{
     protected String parseValue(String value){        
         return value.trim().toUpperCase();
     }    
+    
+    /**
+     * Compiles the current search criteria into an immutable, GUI independent filter.
+     * 
+     * @return CompiledFilter
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    @Override
+    public CompiledFilter compile() {
+        return new InfoStringArrayPredicate(ID, andnot, arraycontainsref, TextCriteria.exact(predicate1, predicate2, predicate3));
+    }
 }
@@ -35,7 +35,8 @@ import java.io.IOException;
 import java.util.ArrayList;
 
 /** 
- * Utility for turning genomic regions from a bed file into a list of GenomicElement objects.
+ * Utility for turning genomic regions from a bed file into a RegionSet or a list of GenomicElement objects. 
+ * Lines are parsed into GenomicElement objects, of which only the coordinates are kept.
  * GenomicElementListParser.java 04 OCT 2016
  *
  * @author Heiko Müller
@@ -49,7 +50,10 @@ public class GenomicElementListParser {
      */
     static final long serialVersionUID = 1L;
     
-    ArrayList<GenomicElement> genomicElements;
+    /**
+     * The parsed regions, null if the file format is not supported.
+     */
+    RegionSet regions;
     
     /**
     * Creates new GenomicElementListParser.
@@ -61,7 +65,7 @@ public class GenomicElementListParser {
     public GenomicElementListParser(File bedfile){
         String filename = bedfile.getName();
         if(filename.endsWith(".bed") || filename.endsWith(".hom")){
-            genomicElements = new ArrayList<GenomicElement>();
+            regions = new RegionSet();
             if(bedfile.getName().endsWith(".bed")){
                 FileTypeReader ftr = FileTypeReader.getBedEssentialReader();            
                 try{
@@ -75,7 +79,7 @@ public class GenomicElementListParser {
                             if(g.CHR.toUpperCase().startsWith("CHR")){
                                 g.CHR = g.CHR.substring(3);
                             }
-                            genomicElements.add(g);
+                            regions.add(g.CHR, g.START, g.END);
                         }
                     }
                     br.close();
@@ -98,7 +102,7 @@ public class GenomicElementListParser {
                             if(g.CHR.toUpperCase().startsWith("CHR")){
                                 g.CHR = g.CHR.substring(3);
                             }
-                            genomicElements.add(g);
+                            regions.add(g.CHR, g.START, g.END);
                         }
                     }
                     br.close();
@@ -121,7 +125,7 @@ public class GenomicElementListParser {
     public GenomicElementListParser(File bedfile, VCFFilter gui){
         String filename = bedfile.getName();
         if(filename.endsWith(".bed") || filename.endsWith(".hom")){
-            genomicElements = new ArrayList<GenomicElement>();
+            regions = new RegionSet();
             if(bedfile.getName().endsWith(".bed")){
                 FileTypeReader ftr = FileTypeReader.getBedEssentialReader();            
                 try{
@@ -136,7 +140,7 @@ public class GenomicElementListParser {
                             if(g.CHR.toUpperCase().startsWith("CHR")){
                                 g.CHR = g.CHR.substring(3);
                             }
-                            genomicElements.add(g);
+                            regions.add(g.CHR, g.START, g.END);
                         }
                     }
                     br.close();
@@ -160,7 +164,7 @@ public class GenomicElementListParser {
                             if(g.CHR.toUpperCase().startsWith("CHR")){
                                 g.CHR = g.CHR.substring(3);
                             }
-                            genomicElements.add(g);
+                            regions.add(g.CHR, g.START, g.END);
                         }
                     }
                     br.close();
@@ -182,7 +186,18 @@ public class GenomicElementListParser {
     * @since 1.0
     */
     public ArrayList<GenomicElement> getGenomicElements() {
-        return genomicElements;
+        return regions != null ? regions.toElements() : null;
+    }
+    
+    /**
+    * Returns the parsed regions in columnar form.
+    * 
+    * @return RegionSet null if the file format is not supported
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    public RegionSet getRegionSet() {
+        return regions;
     }
     
     private String parsePlinkLine(String line){
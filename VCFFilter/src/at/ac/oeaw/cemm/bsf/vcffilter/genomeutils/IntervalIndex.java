@@ -0,0 +1,383 @@
+/*
+*     This file is part of the VCF.Filter project (https://biomedical-sequencing.at/VCFFilter/).
+*     VCF.Filter permits graphical filtering of VCF files on cutom annotations and standard VCF fields, pedigree analysis, and cohort searches.
+* %%
+*     Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+* %%
+* 
+*     VCF.Filter is free software: you can redistribute it and/or modify
+*     it under the terms of the GNU General Public License as published by
+*     the Free Software Foundation, either version 3 of the License, or
+*     (at your option) any later version.
+* 
+*     This program is distributed in the hope that it will be useful,
+*     but WITHOUT ANY WARRANTY; without even the implied warranty of
+*     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*     GNU General Public License for more details.
+* 
+*     You should have received a copy of the GNU General Public License
+*     along with VCF.Filter.  If not, see <http://www.gnu.org/licenses/>.
+* 
+*     VCF.Filter  Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+*     This program comes with ABSOLUTELY NO WARRANTY;
+*     This is free software, and you are welcome to redistribute it
+*     under certain conditions; 
+*     For details interrogate the About section in the File menu.
+*/
+package at.ac.oeaw.cemm.bsf.vcffilter.genomeutils;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Vector;
+
+/** 
+ * Immutable interval index of the regions of one contig. Starts and ends are held in 
+ * primitive buffers sorted by start position, augmented with the running maximum of 
+ * the ends. Overlap, containment and neighbor queries are answered by binary search 
+ * in any order, and concurrent readers need no synchronization. 
+ * The buffers either wrap heap arrays or are memory-mapped from a RegionCache file, 
+ * in which case regions are created on demand.
+ * IntervalIndex.java 17 OCT 2026
+ *
+ * @author Heiko Müller
+ * @version 1.0
+ * @since 1.0
+ */
+public class IntervalIndex {
+    
+    /**
+     * The contig of the regions.
+     */
+    private final String chr;
+    
+    /**
+     * Regions sorted by start position, null if regions are created on demand.
+     */
+    private final GenomicElement[] elements;
+    
+    /**
+     * Start positions of the regions.
+     */
+    private final IntBuffer starts;
+    
+    /**
+     * End positions of the regions.
+     */
+    private final IntBuffer ends;
+    
+    /**
+     * Entry i is the largest end of regions 0 to i.
+     */
+    private final IntBuffer maxEnds;
+    
+    /**
+     * End positions sorted ascending.
+     */
+    private final IntBuffer sortedEnds;
+    
+    /**
+     * Region indices in the order of sortedEnds, null if the ends are sorted already.
+     */
+    private final int[] endOrder;
+    
+    /**
+    * Creates new IntervalIndex.
+    * 
+    * @param regions regions of one contig sorted by start position
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    public IntervalIndex(List<GenomicElement> regions) {
+        int n = regions.size();
+        elements = regions.toArray(new GenomicElement[n]);
+        chr = n > 0 ? elements[0].CHR : null;
+        int[] s = new int[n];
+        int[] e = new int[n];
+        int[] m = new int[n];
+        long[] keys = new long[n];
+        for(int i = 0; i < n; i++){
+            s[i] = elements[i].START;
+            e[i] = elements[i].END;
+            m[i] = i == 0 ? e[i] : Math.max(m[i - 1], e[i]);
+            keys[i] = ((long)e[i] << 32) | i;
+        }
+        Arrays.sort(keys);
+        int[] se = new int[n];
+        endOrder = new int[n];
+        for(int i = 0; i < n; i++){
+            se[i] = (int)(keys[i] >> 32);
+            endOrder[i] = (int)keys[i];
+        }
+        starts = IntBuffer.wrap(s);
+        ends = IntBuffer.wrap(e);
+        maxEnds = IntBuffer.wrap(m);
+        sortedEnds = IntBuffer.wrap(se);
+    }
+    
+    /**
+    * Creates new IntervalIndex of flattened regions, i.e. sorted regions that do not overlap. 
+    * Their ends are sorted as well, so no further arrays are needed and no regions are held.
+    * 
+    * @param chr contig of the regions
+    * @param starts start positions sorted ascending
+    * @param ends end positions sorted ascending
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    public IntervalIndex(String chr, IntBuffer starts, IntBuffer ends) {
+        this.chr = chr;
+        this.elements = null;
+        this.starts = starts;
+        this.ends = ends;
+        this.maxEnds = ends;
+        this.sortedEnds = ends;
+        this.endOrder = null;
+    }
+    
+    /**
+    * Creates new IntervalIndex of flattened regions held in arrays.
+    * 
+    * @param chr contig of the regions
+    * @param starts start positions sorted ascending
+    * @param ends end positions sorted ascending
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    public IntervalIndex(String chr, int[] starts, int[] ends) {
+        this(chr, IntBuffer.wrap(starts), IntBuffer.wrap(ends));
+    }
+    
+    /**
+    * Returns the contig of the regions.
+    * 
+    * @return String
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    public String getChr(){
+        return chr;
+    }
+    
+    /**
+    * Returns the number of regions.
+    * 
+    * @return int
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    public int size(){
+        return starts.limit();
+    }
+    
+    /**
+    * Returns the start position of region i.
+    * 
+    * @param i region index
+    * @return int
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    public int getStart(int i){
+        return starts.get(i);
+    }
+    
+    /**
+    * Returns the end position of region i.
+    * 
+    * @param i region index
+    * @return int
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    public int getEnd(int i){
+        return ends.get(i);
+    }
+    
+    /**
+    * Returns the largest end position of regions 0 to i. It increases with i, so that a cursor 
+    * over a stream of positions sorted in increasing order only moves forward.
+    * 
+    * @param i region index
+    * @return int
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    public int getMaxEnd(int i){
+        return maxEnds.get(i);
+    }
+    
+    /**
+    * Returns the index of the first region that may overlap position or any later position, 
+    * i.e. the first region whose running maximum end is at least position.
+    * 
+    * @param position position
+    * @return int size() if there is no such region
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    public int seek(int position){
+        return firstMaxEndAtLeast(position);
+    }
+    
+    /**
+    * Returns region i.
+    * 
+    * @param i region index
+    * @return GenomicElement
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    public GenomicElement getElement(int i){
+        if(elements != null){
+            return elements[i];
+        }
+        return new GenomicElement(chr, starts.get(i), ends.get(i));
+    }
+    
+    /**
+    * Tests if any region overlaps the closed interval [start, end].
+    * 
+    * @param start query start
+    * @param end query end
+    * @return boolean
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    public boolean overlaps(int start, int end){
+        //the first region whose running maximum end reaches start ends at or after start itself
+        return firstMaxEndAtLeast(start) < firstAbove(starts, end);
+    }
+    
+    /**
+    * Returns the regions overlapping the query, where touching regions do not overlap 
+    * (region end greater than query start and region start less than query end).
+    * 
+    * @param start query start
+    * @param end query end
+    * @return Vector&#60;GenomicElement&#62; overlapping regions sorted by start position
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    public Vector<GenomicElement> overlapping(int start, int end){
+        Vector<GenomicElement> result = new Vector<GenomicElement>();
+        int hi = firstAbove(starts, end - 1);
+        for(int i = firstMaxEndAtLeast(start + 1); i < hi; i++){
+            if(ends.get(i) > start){
+                result.add(getElement(i));
+            }
+        }
+        return result;
+    }
+    
+    /**
+    * Tests if any region contains the closed interval [start, end].
+    * 
+    * @param start query start
+    * @param end query end
+    * @return boolean
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    public boolean contains(int start, int end){
+        int hi = firstAbove(starts, start);
+        return hi > 0 && maxEnds.get(hi - 1) >= end;
+    }
+    
+    /**
+    * Returns the region ending last at or before position.
+    * 
+    * @param position query start
+    * @return GenomicElement null if none
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    public GenomicElement leftNeighbor(int position){
+        int i = firstAbove(sortedEnds, position) - 1;
+        if(i < 0){
+            return null;
+        }
+        return getElement(endOrder != null ? endOrder[i] : i);
+    }
+    
+    /**
+    * Returns the first region starting at or after position.
+    * 
+    * @param position query end
+    * @return GenomicElement null if none
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    public GenomicElement rightNeighbor(int position){
+        int i = firstAbove(starts, position - 1);
+        return i < size() ? getElement(i) : null;
+    }
+    
+    /**
+    * Returns the last region starting before position and the first region starting at or after position.
+    * 
+    * @param position query start
+    * @return GenomicElement[] of length 2, entries are null if missing
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    public GenomicElement[] startNeighbors(int position){
+        int i = firstAbove(starts, position - 1);
+        GenomicElement[] result = new GenomicElement[2];
+        result[0] = i > 0 ? getElement(i - 1) : null;
+        result[1] = i < size() ? getElement(i) : null;
+        return result;
+    }
+    
+    /**
+    * Returns the number of base pairs covered by the regions, assuming they do not overlap.
+    * 
+    * @return long
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    public long getCoverage(){
+        long coverage = 0;
+        for(int i = 0; i < size(); i++){
+            coverage += (long)ends.get(i) - starts.get(i) + 1;
+        }
+        return coverage;
+    }
+    
+    /**
+    * Returns the index of the first value greater than key in a sorted buffer, 
+    * or the length of the buffer if there is none.
+    * 
+    * @param values sorted values
+    * @param key key
+    * @return int
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    private static int firstAbove(IntBuffer values, int key){
+        int lo = 0;
+        int hi = values.limit();
+        while(lo < hi){
+            int mid = (lo + hi) >>> 1;
+            if(values.get(mid) <= key){
+                lo = mid + 1;
+            }else{
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+    
+    /**
+    * Returns the index of the first region whose running maximum end is at least position.
+    * 
+    * @param position position
+    * @return int
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    private int firstMaxEndAtLeast(int position){
+        return firstAbove(maxEnds, position - 1);
+    }
+    
+}
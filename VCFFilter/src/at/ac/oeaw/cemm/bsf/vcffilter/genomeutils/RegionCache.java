@@ -0,0 +1,258 @@
+/*
+*     This file is part of the VCF.Filter project (https://biomedical-sequencing.at/VCFFilter/).
+*     VCF.Filter permits graphical filtering of VCF files on cutom annotations and standard VCF fields, pedigree analysis, and cohort searches.
+* %%
+*     Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+* %%
+* 
+*     VCF.Filter is free software: you can redistribute it and/or modify
+*     it under the terms of the GNU General Public License as published by
+*     the Free Software Foundation, either version 3 of the License, or
+*     (at your option) any later version.
+* 
+*     This program is distributed in the hope that it will be useful,
+*     but WITHOUT ANY WARRANTY; without even the implied warranty of
+*     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*     GNU General Public License for more details.
+* 
+*     You should have received a copy of the GNU General Public License
+*     along with VCF.Filter.  If not, see <http://www.gnu.org/licenses/>.
+* 
+*     VCF.Filter  Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+*     This program comes with ABSOLUTELY NO WARRANTY;
+*     This is free software, and you are welcome to redistribute it
+*     under certain conditions; 
+*     For details interrogate the About section in the File menu.
+*/
+package at.ac.oeaw.cemm.bsf.vcffilter.genomeutils;
+
+import at.ac.oeaw.cemm.bsf.vcffilter.preferences.VCFFilterPreferences;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Persistent cache of flattened white and black lists in a compiled binary form. 
+ * An entry is keyed by the paths of the list files and records their sizes and 
+ * modification times, so changed files are parsed again and overwrite the entry. 
+ * It holds a contig dictionary followed by the start and end positions of each contig 
+ * as 32 bit integers, which are memory-mapped when the entry is loaded.
+ * 
+ * RegionCache.java 17 OCT 2026
+ *
+ * @author Heiko Müller
+ * @version 1.0
+ * @since 1.0
+ */
+public class RegionCache {
+    
+    /**
+     * Identifies cache files of this format.
+     */
+    private static final int MAGIC = 0x5646524C;
+    
+    /**
+     * File name suffix of cache entries.
+     */
+    private static final String SUFFIX = ".vrl";
+    
+    /**
+     * The cache directory.
+     */
+    private final File directory;
+    
+    /**
+     * Creates new RegionCache.
+     * 
+     * @param directory the cache directory, created on first use
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public RegionCache(File directory){
+        this.directory = directory;
+    }
+    
+    /**
+     * Returns the cache in the user directory of the preferences.
+     * 
+     * @return RegionCache null if no user directory is set
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public static RegionCache getDefault(){
+        String userdir = VCFFilterPreferences.getUserdir();
+        if(userdir == null){
+            return null;
+        }
+        return new RegionCache(new File(userdir, "region_cache"));
+    }
+    
+    /**
+     * Returns the memory-mapped interval indices of the flattened lists in contig order. 
+     * Unreadable entries are deleted.
+     * 
+     * @param files list files
+     * @return ArrayList&#60;IntervalIndex&#62; null if the lists are not cached or have changed
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public ArrayList<IntervalIndex> get(List<File> files){
+        File f = new File(directory, getKey(files) + SUFFIX);
+        if(!f.exists()){
+            return null;
+        }
+        RandomAccessFile in = null;
+        boolean delete = false;
+        try{
+            in = new RandomAccessFile(f, "r");
+            if(in.readInt() != MAGIC){
+                throw new IOException("Not a region cache file " + f.getAbsolutePath());
+            }
+            if(!in.readUTF().equals(describe(files))){
+                return null;
+            }
+            int contigs = in.readInt();
+            String[] names = new String[contigs];
+            int[] counts = new int[contigs];
+            for(int i = 0; i < contigs; i++){
+                names[i] = in.readUTF();
+                counts[i] = in.readInt();
+            }
+            FileChannel channel = in.getChannel();
+            long offset = in.getFilePointer();
+            ArrayList<IntervalIndex> result = new ArrayList<IntervalIndex>();
+            for(int i = 0; i < contigs; i++){
+                long length = 4L * counts[i];
+                IntBuffer starts = channel.map(FileChannel.MapMode.READ_ONLY, offset, length).asIntBuffer();
+                IntBuffer ends = channel.map(FileChannel.MapMode.READ_ONLY, offset + length, length).asIntBuffer();
+                result.add(new IntervalIndex(names[i], starts, ends));
+                offset += 2 * length;
+            }
+            return result;
+        }catch(IOException ioe){
+            ioe.printStackTrace();
+            delete = true;
+            return null;
+        }finally{
+            try{
+                if(in != null){
+                    in.close();
+                }
+            }catch(IOException e){
+                e.printStackTrace();
+            }
+            if(delete){
+                f.delete();
+            }
+        }
+    }
+    
+    /**
+     * Stores flattened lists. The entry is written to a temporary file first, 
+     * so concurrent readers never see a partial entry.
+     * 
+     * @param files list files
+     * @param indices interval indices of the flattened regions of the files in contig order, see RegionSet.getIndices
+     * @throws IOException if the entry cannot be written
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public void put(List<File> files, List<IntervalIndex> indices) throws IOException {
+        if(!directory.isDirectory() && !directory.mkdirs()){
+            throw new IOException("Could not create region cache directory " + directory.getAbsolutePath());
+        }
+        String key = getKey(files);
+        File tmp = File.createTempFile(key, ".tmp", directory);
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp), 1 << 16));
+        try{
+            out.writeInt(MAGIC);
+            out.writeUTF(describe(files));
+            out.writeInt(indices.size());
+            for(IntervalIndex index : indices){
+                out.writeUTF(index.getChr());
+                out.writeInt(index.size());
+            }
+            for(IntervalIndex index : indices){
+                for(int i = 0; i < index.size(); i++){
+                    out.writeInt(index.getStart(i));
+                }
+                for(int i = 0; i < index.size(); i++){
+                    out.writeInt(index.getEnd(i));
+                }
+            }
+        }finally{
+            out.close();
+        }
+        File f = new File(directory, key + SUFFIX);
+        if(!tmp.renameTo(f)){
+            //the old entry may still be mapped, e.g. on Windows
+            f.delete();
+            if(!tmp.renameTo(f)){
+                tmp.delete();
+                throw new IOException("Could not store region cache entry " + f.getAbsolutePath());
+            }
+        }
+    }
+    
+    /**
+     * Returns the paths, sizes and modification times of files, one file per line.
+     * 
+     * @param files list files
+     * @return String
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private static String describe(List<File> files){
+        ArrayList<String> lines = new ArrayList<String>();
+        for(File f : files){
+            lines.add(f.getAbsolutePath() + "\t" + f.length() + "\t" + f.lastModified());
+        }
+        Collections.sort(lines);
+        StringBuilder sb = new StringBuilder();
+        for(String s : lines){
+            sb.append(s).append("\n");
+        }
+        return sb.toString();
+    }
+    
+    /**
+     * Returns the hex encoded SHA-1 hash of the sorted paths of files.
+     * 
+     * @param files list files
+     * @return String
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private static String getKey(List<File> files){
+        ArrayList<String> paths = new ArrayList<String>();
+        for(File f : files){
+            paths.add(f.getAbsolutePath());
+        }
+        Collections.sort(paths);
+        try{
+            MessageDigest md = MessageDigest.getInstance("SHA-1");
+            for(String s : paths){
+                md.update(s.getBytes(StandardCharsets.UTF_8));
+                md.update((byte)0);
+            }
+            StringBuilder sb = new StringBuilder();
+            for(byte b : md.digest()){
+                sb.append(String.format("%02x", b & 0xff));
+            }
+            return sb.toString();
+        }catch(NoSuchAlgorithmException nsae){
+            throw new IllegalStateException(nsae);
+        }
+    }
+}
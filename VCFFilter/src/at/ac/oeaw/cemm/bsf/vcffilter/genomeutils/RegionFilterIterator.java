@@ -0,0 +1,168 @@
+/*
+*     This file is part of the VCF.Filter project (https://biomedical-sequencing.at/VCFFilter/).
+*     VCF.Filter permits graphical filtering of VCF files on cutom annotations and standard VCF fields, pedigree analysis, and cohort searches.
+* %%
+*     Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+* %%
+* 
+*     VCF.Filter is free software: you can redistribute it and/or modify
+*     it under the terms of the GNU General Public License as published by
+*     the Free Software Foundation, either version 3 of the License, or
+*     (at your option) any later version.
+* 
+*     This program is distributed in the hope that it will be useful,
+*     but WITHOUT ANY WARRANTY; without even the implied warranty of
+*     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*     GNU General Public License for more details.
+* 
+*     You should have received a copy of the GNU General Public License
+*     along with VCF.Filter.  If not, see <http://www.gnu.org/licenses/>.
+* 
+*     VCF.Filter  Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+*     This program comes with ABSOLUTELY NO WARRANTY;
+*     This is free software, and you are welcome to redistribute it
+*     under certain conditions; 
+*     For details interrogate the About section in the File menu.
+*/
+package at.ac.oeaw.cemm.bsf.vcffilter.genomeutils;
+
+import htsjdk.samtools.util.CloseableIterator;
+import htsjdk.variant.variantcontext.VariantContext;
+import java.util.NoSuchElementException;
+
+/**
+ * Restricts the variants of an iterator to those overlapping the regions of a Query, 
+ * e.g. when a white list is joined against a sequential scan or coalesced region queries. 
+ * Variants sorted by position are merge-joined against the sorted regions with a cursor 
+ * per contig, the contig is looked up only when it changes. A variant starting before 
+ * the one read last repositions the cursor by binary search.
+ * 
+ * RegionFilterIterator.java 17 OCT 2026
+ *
+ * @author Heiko Müller
+ * @version 1.0
+ * @since 1.0
+ */
+public class RegionFilterIterator implements CloseableIterator<VariantContext> {
+    
+    /**
+     * The wrapped iterator.
+     */
+    private final CloseableIterator<VariantContext> it;
+    
+    /**
+     * The regions variants must overlap.
+     */
+    private final Query regions;
+    
+    /**
+     * Contig of the variant read last, as named in the input.
+     */
+    private String contig;
+    
+    /**
+     * Regions on contig, null if there are none.
+     */
+    private IntervalIndex index;
+    
+    /**
+     * First region on contig that may overlap the variant read last or a later one.
+     */
+    private int cursor;
+    
+    /**
+     * Start of the variant read last.
+     */
+    private int lastStart;
+    
+    /**
+     * The next overlapping variant, null if not yet read.
+     */
+    private VariantContext next;
+    
+    /**
+     * Creates new RegionFilterIterator.
+     * 
+     * @param it wrapped iterator
+     * @param regions regions variants must overlap
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public RegionFilterIterator(CloseableIterator<VariantContext> it, Query regions){
+        this.it = it;
+        this.regions = regions;
+    }
+    
+    /**
+     * Returns the wrapped iterator.
+     * 
+     * @return CloseableIterator&#60;VariantContext&#62;
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public CloseableIterator<VariantContext> getIterator(){
+        return it;
+    }
+    
+    @Override
+    public boolean hasNext(){
+        while(next == null && it.hasNext()){
+            VariantContext vc = it.next();
+            if(overlaps(vc)){
+                next = vc;
+            }
+        }
+        return next != null;
+    }
+    
+    /**
+     * Tests if a variant overlaps one of the regions, moving the cursor forward.
+     * 
+     * @param vc variant
+     * @return boolean
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private boolean overlaps(VariantContext vc){
+        int start = vc.getStart();
+        if(!vc.getContig().equals(contig)){
+            contig = vc.getContig();
+            String chr = contig.toUpperCase().startsWith("CHR") ? contig.substring(3) : contig;
+            index = regions.getIndex(chr);
+            if(index != null){
+                cursor = index.seek(start);
+            }
+        }else if(index != null && start < lastStart){
+            cursor = index.seek(start);
+        }
+        lastStart = start;
+        if(index == null){
+            return false;
+        }
+        int n = index.size();
+        while(cursor < n && index.getMaxEnd(cursor) < start){
+            cursor++;
+        }
+        return cursor < n && index.getStart(cursor) <= vc.getEnd();
+    }
+    
+    @Override
+    public VariantContext next(){
+        if(!hasNext()){
+            throw new NoSuchElementException();
+        }
+        VariantContext vc = next;
+        next = null;
+        return vc;
+    }
+    
+    @Override
+    public void remove(){
+        throw new UnsupportedOperationException();
+    }
+    
+    @Override
+    public void close(){
+        it.close();
+    }
+}
@@ -0,0 +1,533 @@
+/*
+*     This file is part of the VCF.Filter project (https://biomedical-sequencing.at/VCFFilter/).
+*     VCF.Filter permits graphical filtering of VCF files on cutom annotations and standard VCF fields, pedigree analysis, and cohort searches.
+* %%
+*     Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+* %%
+* 
+*     VCF.Filter is free software: you can redistribute it and/or modify
+*     it under the terms of the GNU General Public License as published by
+*     the Free Software Foundation, either version 3 of the License, or
+*     (at your option) any later version.
+* 
+*     This program is distributed in the hope that it will be useful,
+*     but WITHOUT ANY WARRANTY; without even the implied warranty of
+*     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*     GNU General Public License for more details.
+* 
+*     You should have received a copy of the GNU General Public License
+*     along with VCF.Filter.  If not, see <http://www.gnu.org/licenses/>.
+* 
+*     VCF.Filter  Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+*     This program comes with ABSOLUTELY NO WARRANTY;
+*     This is free software, and you are welcome to redistribute it
+*     under certain conditions; 
+*     For details interrogate the About section in the File menu.
+*/
+package at.ac.oeaw.cemm.bsf.vcffilter.genomeutils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Hashtable;
+import java.util.List;
+
+/** 
+ * Columnar set of genomic regions. Contigs are interned in a contig table and regions 
+ * are stored as int columns of contig index, start and end, so a region takes 12 bytes 
+ * instead of a GenomicElement object. Optional region ids are kept in one shared string table. 
+ * Flattening, complement, union and intersection run on the columns.
+ * RegionSet.java 17 OCT 2026
+ *
+ * @author Heiko Müller
+ * @version 1.0
+ * @since 1.0
+ */
+public class RegionSet {
+    
+    /**
+     * Orders contigs.
+     */
+    private static final GenomicElementComparator COMPARATOR = new GenomicElementComparator();
+    
+    /**
+     * Contig names by contig index.
+     */
+    private final ArrayList<String> contigNames = new ArrayList<String>();
+    
+    /**
+     * Contig indices by contig name.
+     */
+    private final Hashtable<String, Integer> contigIndices = new Hashtable<String, Integer>();
+    
+    /**
+     * Region ids by id index.
+     */
+    private final ArrayList<String> idNames = new ArrayList<String>();
+    
+    /**
+     * Id indices by region id.
+     */
+    private final Hashtable<String, Integer> idIndices = new Hashtable<String, Integer>();
+    
+    /**
+     * Contig index column.
+     */
+    private int[] contigs;
+    
+    /**
+     * Start position column.
+     */
+    private int[] starts;
+    
+    /**
+     * End position column.
+     */
+    private int[] ends;
+    
+    /**
+     * Id index column, -1 for regions without id. Null until the first id is added.
+     */
+    private int[] ids;
+    
+    /**
+     * Number of regions.
+     */
+    private int size = 0;
+    
+    /**
+     * Set by flatten, regions are grouped by contig, sorted by start and do not overlap.
+     */
+    private boolean flat = false;
+    
+    /**
+    * Creates new empty RegionSet.
+    * 
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    public RegionSet() {
+        this(16);
+    }
+    
+    /**
+    * Creates new empty RegionSet.
+    * 
+    * @param capacity initial capacity
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    public RegionSet(int capacity) {
+        capacity = Math.max(capacity, 1);
+        contigs = new int[capacity];
+        starts = new int[capacity];
+        ends = new int[capacity];
+    }
+    
+    /**
+    * Creates a RegionSet holding the coordinates and ids of GenomicElements.
+    * 
+    * @param elements genomic elements
+    * @return RegionSet
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    public static RegionSet fromElements(List<GenomicElement> elements){
+        RegionSet result = new RegionSet(elements.size());
+        for(GenomicElement g : elements){
+            result.add(g.CHR, g.START, g.END, g.ID);
+        }
+        return result;
+    }
+    
+    /**
+    * Adds a region.
+    * 
+    * @param chr contig
+    * @param start start position
+    * @param end end position
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    public void add(String chr, int start, int end){
+        ensureCapacity(size + 1);
+        contigs[size] = intern(contigNames, contigIndices, chr);
+        starts[size] = start;
+        ends[size] = end;
+        if(ids != null){
+            ids[size] = -1;
+        }
+        size++;
+        flat = false;
+    }
+    
+    /**
+    * Adds a region with id.
+    * 
+    * @param chr contig
+    * @param start start position
+    * @param end end position
+    * @param id region id, null or empty for none
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    public void add(String chr, int start, int end, String id){
+        add(chr, start, end);
+        if(id != null && id.length() > 0){
+            if(ids == null){
+                ids = new int[starts.length];
+                Arrays.fill(ids, -1);
+            }
+            ids[size - 1] = intern(idNames, idIndices, id);
+        }
+    }
+    
+    /**
+    * Adds all regions of another set.
+    * 
+    * @param other regions to add
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    public void addAll(RegionSet other){
+        ensureCapacity(size + other.size);
+        for(int i = 0; i < other.size; i++){
+            add(other.getChr(i), other.starts[i], other.ends[i], other.getId(i));
+        }
+    }
+    
+    /**
+    * Returns the number of regions.
+    * 
+    * @return int
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    public int size(){
+        return size;
+    }
+    
+    /**
+    * Returns the contig of region i.
+    * 
+    * @param i region index
+    * @return String
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    public String getChr(int i){
+        return contigNames.get(contigs[i]);
+    }
+    
+    /**
+    * Returns the start position of region i.
+    * 
+    * @param i region index
+    * @return int
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    public int getStart(int i){
+        return starts[i];
+    }
+    
+    /**
+    * Returns the end position of region i.
+    * 
+    * @param i region index
+    * @return int
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    public int getEnd(int i){
+        return ends[i];
+    }
+    
+    /**
+    * Returns the id of region i.
+    * 
+    * @param i region index
+    * @return String empty if the region has no id
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    public String getId(int i){
+        return ids == null || ids[i] < 0 ? "" : idNames.get(ids[i]);
+    }
+    
+    /**
+    * Returns region i as new GenomicElement.
+    * 
+    * @param i region index
+    * @return GenomicElement
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    public GenomicElement getElement(int i){
+        GenomicElement g = new GenomicElement(getChr(i), starts[i], ends[i]);
+        g.ID = getId(i);
+        return g;
+    }
+    
+    /**
+    * Returns all regions as new GenomicElements.
+    * 
+    * @return ArrayList&#60;GenomicElement&#62;
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    public ArrayList<GenomicElement> toElements(){
+        ArrayList<GenomicElement> result = new ArrayList<GenomicElement>(size);
+        for(int i = 0; i < size; i++){
+            result.add(getElement(i));
+        }
+        return result;
+    }
+    
+    /**
+    * Returns the non-overlapping regions covered by any region of this set. Contigs are ordered 
+    * as GenomicElementComparator orders chromosomes. Each contig is sorted by start position with 
+    * a parallel sort of primitive keys and merged in a single sweep, overlapping or touching 
+    * regions are merged into the first of them.
+    * 
+    * @return RegionSet
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    public RegionSet flatten(){
+        int[] counts = new int[contigNames.size()];
+        for(int i = 0; i < size; i++){
+            counts[contigs[i]]++;
+        }
+        long[][] keys = new long[counts.length][];
+        for(int c = 0; c < counts.length; c++){
+            keys[c] = new long[counts[c]];
+            counts[c] = 0;
+        }
+        for(int i = 0; i < size; i++){
+            int c = contigs[i];
+            keys[c][counts[c]++] = ((long)starts[i] << 32) | i;
+        }
+        RegionSet result = new RegionSet(size);
+        for(int c : getContigOrder()){
+            long[] k = keys[c];
+            Arrays.parallelSort(k);
+            int first = -1;
+            int end = 0;
+            for(int j = 0; j < k.length; j++){
+                int i = (int)k[j];
+                if(first >= 0 && starts[i] <= end){
+                    if(end < ends[i]){
+                        end = ends[i];
+                    }
+                }else{
+                    if(first >= 0){
+                        result.add(getChr(first), starts[first], end, getId(first));
+                    }
+                    first = i;
+                    end = ends[i];
+                }
+            }
+            if(first >= 0){
+                result.add(getChr(first), starts[first], end, getId(first));
+            }
+        }
+        result.flat = true;
+        return result;
+    }
+    
+    /**
+    * Returns the gaps before, between and after the flattened regions of each contig. 
+    * The gap after the last region of a contig extends to Integer.MAX_VALUE, 
+    * contigs without regions are missing.
+    * 
+    * @return RegionSet
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    public RegionSet complement(){
+        RegionSet f = flat ? this : flatten();
+        RegionSet result = new RegionSet(f.size + 1);
+        int gapStart = 1;
+        for(int i = 0; i < f.size; i++){
+            if(f.starts[i] > gapStart){
+                result.add(f.getChr(i), gapStart, f.starts[i] - 1);
+            }
+            if(i + 1 < f.size && f.contigs[i + 1] == f.contigs[i]){
+                gapStart = f.ends[i] + 1;
+            }else{
+                if(f.ends[i] < Integer.MAX_VALUE){
+                    result.add(f.getChr(i), f.ends[i] + 1, Integer.MAX_VALUE);
+                }
+                gapStart = 1;
+            }
+        }
+        result.flat = true;
+        return result;
+    }
+    
+    /**
+    * Returns the flattened regions covered by this set or the other set.
+    * 
+    * @param other other regions
+    * @return RegionSet
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    public RegionSet union(RegionSet other){
+        RegionSet all = new RegionSet(size + other.size);
+        all.addAll(this);
+        all.addAll(other);
+        return all.flatten();
+    }
+    
+    /**
+    * Returns the flattened regions covered by both this set and the other set.
+    * 
+    * @param other other regions
+    * @return RegionSet
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    public RegionSet intersect(RegionSet other){
+        RegionSet a = flat ? this : flatten();
+        RegionSet b = other.flat ? other : other.flatten();
+        Hashtable<String, int[]> runs = b.getContigRuns();
+        RegionSet result = new RegionSet();
+        int[] run = null;
+        int k = 0;
+        for(int i = 0; i < a.size; i++){
+            if(i == 0 || a.contigs[i] != a.contigs[i - 1]){
+                run = runs.get(a.getChr(i));
+                k = run != null ? run[0] : 0;
+            }
+            if(run == null){
+                continue;
+            }
+            while(k < run[1] && b.ends[k] < a.starts[i]){
+                k++;
+            }
+            for(int m = k; m < run[1] && b.starts[m] <= a.ends[i]; m++){
+                result.add(a.getChr(i), Math.max(a.starts[i], b.starts[m]), Math.min(a.ends[i], b.ends[m]));
+            }
+        }
+        result.flat = true;
+        return result;
+    }
+    
+    /**
+    * Returns the number of base pairs covered by the set.
+    * 
+    * @return long
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    public long getCoverage(){
+        RegionSet f = flat ? this : flatten();
+        long coverage = 0;
+        for(int i = 0; i < f.size; i++){
+            coverage += (long)f.ends[i] - f.starts[i] + 1;
+        }
+        return coverage;
+    }
+    
+    /**
+    * Returns one interval index per contig of the flattened regions, in contig order. 
+    * The indices share no arrays with this set.
+    * 
+    * @return ArrayList&#60;IntervalIndex&#62;
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    public ArrayList<IntervalIndex> getIndices(){
+        RegionSet f = flat ? this : flatten();
+        ArrayList<IntervalIndex> result = new ArrayList<IntervalIndex>();
+        int from = 0;
+        for(int i = 1; i <= f.size; i++){
+            if(i == f.size || f.contigs[i] != f.contigs[from]){
+                result.add(new IntervalIndex(f.getChr(from), Arrays.copyOfRange(f.starts, from, i), Arrays.copyOfRange(f.ends, from, i)));
+                from = i;
+            }
+        }
+        return result;
+    }
+    
+    /**
+    * Returns the first and end index of each contig run of a flattened set.
+    * 
+    * @return Hashtable&#60;String, int[]&#62;
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    private Hashtable<String, int[]> getContigRuns(){
+        Hashtable<String, int[]> result = new Hashtable<String, int[]>();
+        int from = 0;
+        for(int i = 1; i <= size; i++){
+            if(i == size || contigs[i] != contigs[from]){
+                result.put(getChr(from), new int[]{from, i});
+                from = i;
+            }
+        }
+        return result;
+    }
+    
+    /**
+    * Returns the contig indices ordered as GenomicElementComparator orders chromosomes.
+    * 
+    * @return Integer[]
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    private Integer[] getContigOrder(){
+        Integer[] order = new Integer[contigNames.size()];
+        for(int c = 0; c < order.length; c++){
+            order[c] = c;
+        }
+        Arrays.sort(order, new Comparator<Integer>(){
+            @Override
+            public int compare(Integer c1, Integer c2){
+                return COMPARATOR.compare(new GenomicElement(contigNames.get(c1), 0, 0), new GenomicElement(contigNames.get(c2), 0, 0));
+            }
+        });
+        return order;
+    }
+    
+    /**
+    * Grows the columns to hold at least capacity regions.
+    * 
+    * @param capacity required capacity
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    private void ensureCapacity(int capacity){
+        if(capacity > starts.length){
+            int n = Math.max(capacity, starts.length + (starts.length >> 1));
+            contigs = Arrays.copyOf(contigs, n);
+            starts = Arrays.copyOf(starts, n);
+            ends = Arrays.copyOf(ends, n);
+            if(ids != null){
+                ids = Arrays.copyOf(ids, n);
+            }
+        }
+    }
+    
+    /**
+    * Returns the index of a name in a string table, adding it if needed.
+    * 
+    * @param names names by index
+    * @param indices indices by name
+    * @param name name
+    * @return int
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    private static int intern(ArrayList<String> names, Hashtable<String, Integer> indices, String name){
+        Integer index = indices.get(name);
+        if(index == null){
+            index = names.size();
+            names.add(name);
+            indices.put(name, index);
+        }
+        return index;
+    }
+}
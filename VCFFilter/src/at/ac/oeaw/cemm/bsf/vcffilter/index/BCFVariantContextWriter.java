@@ -0,0 +1,172 @@
+/*
+*     This file is part of the VCF.Filter project (https://biomedical-sequencing.at/VCFFilter/).
+*     VCF.Filter permits graphical filtering of VCF files on cutom annotations and standard VCF fields, pedigree analysis, and cohort searches.
+* %%
+*     Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+* %%
+* 
+*     VCF.Filter is free software: you can redistribute it and/or modify
+*     it under the terms of the GNU General Public License as published by
+*     the Free Software Foundation, either version 3 of the License, or
+*     (at your option) any later version.
+* 
+*     This program is distributed in the hope that it will be useful,
+*     but WITHOUT ANY WARRANTY; without even the implied warranty of
+*     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*     GNU General Public License for more details.
+* 
+*     You should have received a copy of the GNU General Public License
+*     along with VCF.Filter.  If not, see <http://www.gnu.org/licenses/>.
+* 
+*     VCF.Filter  Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+*     This program comes with ABSOLUTELY NO WARRANTY;
+*     This is free software, and you are welcome to redistribute it
+*     under certain conditions; 
+*     For details interrogate the About section in the File menu.
+*/
+package at.ac.oeaw.cemm.bsf.vcffilter.index;
+
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.variantcontext.VariantContextBuilder;
+import htsjdk.variant.variantcontext.writer.VariantContextWriter;
+import htsjdk.variant.vcf.VCFHeader;
+import htsjdk.variant.vcf.VCFHeaderLineType;
+import htsjdk.variant.vcf.VCFInfoHeaderLine;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes variants to a BCF2 writer. BCF2 stores typed values, so the variants read from 
+ * VCF text are fully decoded against the output header first. Numeric array values written 
+ * in brackets, e.g. IntR=[1,2,3], are unwrapped, the BCF2 encoder would reject them. 
+ * String values are kept as they are, the BCF2 encoder drops missing elements of unwrapped lists.
+ * 
+ * BCFVariantContextWriter.java 17 OCT 2026
+ *
+ * @author Heiko Müller
+ * @version 1.0
+ * @since 1.0
+ */
+public class BCFVariantContextWriter implements VariantContextWriter {
+    
+    /**
+     * The BCF2 writer.
+     */
+    private final VariantContextWriter out;
+    
+    /**
+     * The header written to out.
+     */
+    private VCFHeader header;
+    
+    /**
+     * Creates new BCFVariantContextWriter.
+     * 
+     * @param out BCF2 writer
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public BCFVariantContextWriter(VariantContextWriter out){
+        this.out = out;
+    }
+    
+    /**
+     * Tests if f is a BCF file, i.e. ends with .bcf.
+     * 
+     * @param f file
+     * @return boolean true if f is a BCF file
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public static boolean isBCF(File f){
+        return f.getName().toLowerCase().endsWith(".bcf");
+    }
+    
+    /**
+     * Returns vc with typed attribute values as required by the BCF2 encoder.
+     * 
+     * @param vc variant
+     * @param header header of the BCF output
+     * @return VariantContext
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public static VariantContext decode(VariantContext vc, VCFHeader header){
+        if(vc.isFullyDecoded()){
+            return vc;
+        }
+        Map<String, Object> attributes = null;
+        for(Map.Entry<String, Object> e : vc.getAttributes().entrySet()){
+            VCFInfoHeaderLine line = header.getInfoHeaderLine(e.getKey());
+            if(line == null || (line.getType() != VCFHeaderLineType.Integer && line.getType() != VCFHeaderLineType.Float)){
+                continue;
+            }
+            Object value = unwrap(e.getValue());
+            if(value != e.getValue()){
+                if(attributes == null){
+                    attributes = new LinkedHashMap<String, Object>(vc.getAttributes());
+                }
+                attributes.put(e.getKey(), value);
+            }
+        }
+        if(attributes != null){
+            vc = new VariantContextBuilder(vc).attributes(attributes).make();
+        }
+        return vc.fullyDecode(header, true);
+    }
+    
+    /**
+     * Removes the brackets around array values, returns value itself if it is not bracketed.
+     * 
+     * @param value attribute value
+     * @return Object
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private static Object unwrap(Object value){
+        if(value instanceof String){
+            String s = (String)value;
+            if(s.length() > 1 && s.startsWith("[") && s.endsWith("]")){
+                return s.substring(1, s.length() - 1);
+            }
+        }else if(value instanceof List){
+            List<?> list = (List<?>)value;
+            int n = list.size();
+            if(n > 1 && list.get(0) instanceof String && list.get(n - 1) instanceof String){
+                String first = (String)list.get(0);
+                String last = (String)list.get(n - 1);
+                if(first.startsWith("[") && last.endsWith("]")){
+                    ArrayList<Object> values = new ArrayList<Object>(list);
+                    values.set(0, first.substring(1));
+                    values.set(n - 1, last.substring(0, last.length() - 1));
+                    return values;
+                }
+            }
+        }
+        return value;
+    }
+    
+    @Override
+    public void writeHeader(VCFHeader header){
+        this.header = header;
+        out.writeHeader(header);
+    }
+    
+    @Override
+    public void add(VariantContext vc){
+        out.add(decode(vc, header));
+    }
+    
+    @Override
+    public boolean checkError(){
+        return out.checkError();
+    }
+    
+    @Override
+    public void close(){
+        out.close();
+    }
+}
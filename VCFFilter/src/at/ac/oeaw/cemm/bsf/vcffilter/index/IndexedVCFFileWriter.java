@@ -8,6 +8,7 @@ package at.ac.oeaw.cemm.bsf.vcffilter.index;
 import static at.ac.oeaw.cemm.bsf.vcffilter.index.test.getVariantContextWriterVCF;
 import static at.ac.oeaw.cemm.bsf.vcffilter.index.test.getVariantContextWriterVCFGZ;
 import static at.ac.oeaw.cemm.bsf.vcffilter.index.test.indexVCFGZ;
+import at.ac.oeaw.cemm.bsf.vcffilter.batch.FilterEngine;
 import htsjdk.samtools.SAMSequenceDictionary;
 import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.variantcontext.writer.Options;
@@ -38,12 +39,44 @@ public class IndexedVCFFileWriter {
         }else if(inputVCFFile.getName().endsWith("vcf.gz")){
             indexVCFGZ(inputVCFFile, overwriteInputFile);
             return true;
+        }else if(inputVCFFile.getName().endsWith("bcf")){
+            transcode(inputVCFFile, new File(inputVCFFile.getAbsolutePath() + "_indexed.bcf"));
+            return true;
         }else{
             //System.out.println("Input file must be VCF text (.vcf) or compressed VCF text (.vcf.gz)"); 
             return false;
         }        
     }
     
+    /**
+     * Copies all variants of input to output. An output file ending with .bcf is written as BCF2, 
+     * so a cohort VCF filtered repeatedly can be transcoded once and read without text parsing. 
+     * The output is indexed on the fly.
+     * 
+     * @param input VCF or BCF file
+     * @param output output file, .bcf for BCF2, .vcf.gz for block compressed VCF
+     * @return long number of variants written
+     * @throws IllegalArgumentException if BCF2 output is requested and input has no sequence dictionary
+     */
+    public static long transcode(File input, File output){
+        VCFFileReader reader = new VCFFileReader(input, false);
+        VariantContextWriter writer = null;
+        long n = 0;
+        try{
+            writer = FilterEngine.getVariantContextWriter(reader.getFileHeader(), output);
+            for(VariantContext vc : reader){
+                writer.add(vc);
+                n++;
+            }
+        }finally{
+            if(writer != null){
+                writer.close();
+            }
+            reader.close();
+        }
+        return n;
+    }
+    
     /**
      * 
      * @param inputTextVCF sample VCF file for reading header information
@@ -0,0 +1,196 @@
+/*
+*     This file is part of the VCF.Filter project (https://biomedical-sequencing.at/VCFFilter/).
+*     VCF.Filter permits graphical filtering of VCF files on cutom annotations and standard VCF fields, pedigree analysis, and cohort searches.
+* %%
+*     Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+* %%
+* 
+*     VCF.Filter is free software: you can redistribute it and/or modify
+*     it under the terms of the GNU General Public License as published by
+*     the Free Software Foundation, either version 3 of the License, or
+*     (at your option) any later version.
+* 
+*     This program is distributed in the hope that it will be useful,
+*     but WITHOUT ANY WARRANTY; without even the implied warranty of
+*     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*     GNU General Public License for more details.
+* 
+*     You should have received a copy of the GNU General Public License
+*     along with VCF.Filter.  If not, see <http://www.gnu.org/licenses/>.
+* 
+*     VCF.Filter  Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+*     This program comes with ABSOLUTELY NO WARRANTY;
+*     This is free software, and you are welcome to redistribute it
+*     under certain conditions; 
+*     For details interrogate the About section in the File menu.
+*/
+package at.ac.oeaw.cemm.bsf.vcffilter.index;
+
+import at.ac.oeaw.cemm.bsf.vcffilter.genomeutils.GenomicElement;
+import at.ac.oeaw.cemm.bsf.vcffilter.genomeutils.Query;
+import at.ac.oeaw.cemm.bsf.vcffilter.genomeutils.RegionFilterIterator;
+import htsjdk.samtools.util.CloseableIterator;
+import htsjdk.variant.variantcontext.VariantContext;
+import java.util.ArrayList;
+
+/**
+ * Plan for reading the variants of a white list from one indexed input, chosen by QueryPlanner. 
+ * Either the file is scanned sequentially and joined against the list, or the returned regions 
+ * are queried one by one. Coalesced regions cover gaps between list regions, so their variants 
+ * are joined against the list as well.
+ * 
+ * QueryPlan.java 17 OCT 2026
+ *
+ * @author Heiko Müller
+ * @version 1.0
+ * @since 1.0
+ */
+public class QueryPlan {
+    
+    /**
+     * Sequential scan of the whole file joined against the list.
+     */
+    public static final int SCAN = 0;
+    
+    /**
+     * One query per group of nearby list regions, joined against the list.
+     */
+    public static final int COALESCED = 1;
+    
+    /**
+     * One query per list region.
+     */
+    public static final int REGIONS = 2;
+    
+    /**
+     * Names of the plan types.
+     */
+    private static final String[] NAMES = {"sequential scan", "coalesced region queries", "region queries"};
+    
+    /**
+     * The plan type.
+     */
+    private final int type;
+    
+    /**
+     * Regions to be queried, null for SCAN.
+     */
+    private final ArrayList<GenomicElement> regions;
+    
+    /**
+     * The list regions variants must overlap.
+     */
+    private final Query list;
+    
+    /**
+     * Report line of the plan.
+     */
+    private final String report;
+    
+    /**
+     * Creates new QueryPlan.
+     * 
+     * @param type SCAN, COALESCED or REGIONS
+     * @param regions regions to be queried, null for SCAN
+     * @param list list regions variants must overlap, may be null for REGIONS
+     * @param report report line of the plan
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public QueryPlan(int type, ArrayList<GenomicElement> regions, Query list, String report){
+        this.type = type;
+        this.regions = regions;
+        this.list = list;
+        this.report = report;
+    }
+    
+    /**
+     * Returns the plan type.
+     * 
+     * @return int SCAN, COALESCED or REGIONS
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public int getType(){
+        return type;
+    }
+    
+    /**
+     * Tests if the whole file is scanned.
+     * 
+     * @return boolean
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public boolean isScan(){
+        return type == SCAN;
+    }
+    
+    /**
+     * Returns the regions to be queried with contig names as in the list.
+     * 
+     * @return ArrayList&#60;GenomicElement&#62; null for a scan
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public ArrayList<GenomicElement> getRegions(){
+        return regions;
+    }
+    
+    /**
+     * Restricts the variants of a scan or of a coalesced region query to the list regions.
+     * 
+     * @param it variants of the scan or of one query
+     * @return CloseableIterator&#60;VariantContext&#62; it itself for region queries
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public CloseableIterator<VariantContext> join(CloseableIterator<VariantContext> it){
+        if(type == REGIONS){
+            return it;
+        }
+        return new RegionFilterIterator(it, list);
+    }
+    
+    /**
+     * Restricts the variants of one region query to those not returned by the previous query 
+     * and, for coalesced region queries, to the list regions. Variants spanning two query regions 
+     * are returned by the first of the two queries only.
+     * 
+     * @param it variants of the query
+     * @param query the queried region
+     * @param previous region queried before on the same file, null for the first query
+     * @return CloseableIterator&#60;VariantContext&#62;
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public CloseableIterator<VariantContext> join(CloseableIterator<VariantContext> it, GenomicElement query, GenomicElement previous){
+        if(previous != null && previous.CHR.equals(query.CHR)){
+            it = new RegionQueryIterator(it, previous.END);
+        }
+        return join(it);
+    }
+    
+    /**
+     * Returns the report line of the plan, with the estimated bytes read by each option.
+     * 
+     * @return String
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public String getReport(){
+        return report;
+    }
+    
+    /**
+     * Returns the name of a plan type.
+     * 
+     * @param type SCAN, COALESCED or REGIONS
+     * @return String
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public static String getName(int type){
+        return NAMES[type];
+    }
+}
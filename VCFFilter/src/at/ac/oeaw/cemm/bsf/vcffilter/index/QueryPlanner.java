@@ -0,0 +1,187 @@
+/*
+*     This file is part of the VCF.Filter project (https://biomedical-sequencing.at/VCFFilter/).
+*     VCF.Filter permits graphical filtering of VCF files on cutom annotations and standard VCF fields, pedigree analysis, and cohort searches.
+* %%
+*     Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+* %%
+* 
+*     VCF.Filter is free software: you can redistribute it and/or modify
+*     it under the terms of the GNU General Public License as published by
+*     the Free Software Foundation, either version 3 of the License, or
+*     (at your option) any later version.
+* 
+*     This program is distributed in the hope that it will be useful,
+*     but WITHOUT ANY WARRANTY; without even the implied warranty of
+*     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*     GNU General Public License for more details.
+* 
+*     You should have received a copy of the GNU General Public License
+*     along with VCF.Filter.  If not, see <http://www.gnu.org/licenses/>.
+* 
+*     VCF.Filter  Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+*     This program comes with ABSOLUTELY NO WARRANTY;
+*     This is free software, and you are welcome to redistribute it
+*     under certain conditions; 
+*     For details interrogate the About section in the File menu.
+*/
+package at.ac.oeaw.cemm.bsf.vcffilter.index;
+
+import at.ac.oeaw.cemm.bsf.vcffilter.genomeutils.GenomicElement;
+import at.ac.oeaw.cemm.bsf.vcffilter.genomeutils.Query;
+import at.ac.oeaw.cemm.bsf.vcffilter.genomeutils.RegionSet;
+import htsjdk.tribble.Tribble;
+import htsjdk.tribble.index.Block;
+import htsjdk.tribble.index.Index;
+import htsjdk.tribble.index.IndexFactory;
+import htsjdk.tribble.index.tabix.TabixIndex;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Chooses how the variants of a white list are read from an indexed input. The tabix or tribble 
+ * index gives the file offsets each list region would read. From these the planner estimates 
+ * the bytes read by one query per region, by queries over groups of nearby regions, and by a 
+ * sequential scan of the whole file, and picks the cheapest. Each query is charged a fixed 
+ * cost for the seek and for decoding its first block again, so regions whose file ranges are 
+ * closer than that cost are coalesced into one query.
+ * 
+ * QueryPlanner.java 17 OCT 2026
+ *
+ * @author Heiko Müller
+ * @version 1.0
+ * @since 1.0
+ */
+public class QueryPlanner {
+    
+    /**
+     * Estimated cost of one query in bytes read, about one BGZF block.
+     */
+    public static final long QUERY_COST = 1L << 16;
+    
+    /**
+     * Plans reading the list regions from an input.
+     * 
+     * @param input indexed VCF or BCF file
+     * @param regions flattened list regions, contig names without chr prefix
+     * @param list Query holding the regions, null to build one from regions if needed
+     * @param chr true if contig names of input start with chr
+     * @return QueryPlan
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public static QueryPlan plan(File input, ArrayList<GenomicElement> regions, Query list, boolean chr){
+        Index index = loadIndex(input);
+        if(index == null){
+            return new QueryPlan(QueryPlan.SCAN, null, getList(list, regions), 
+                    "Query plan " + input.getName() + ": " + QueryPlan.getName(QueryPlan.SCAN) + ", no index found");
+        }
+        boolean tabix = index instanceof TabixIndex;
+        ArrayList<GenomicElement> queried = new ArrayList<GenomicElement>();
+        ArrayList<GenomicElement> coalesced = new ArrayList<GenomicElement>();
+        long regionBytes = 0;
+        long coalescedBytes = 0;
+        GenomicElement group = null;
+        long groupStart = 0;
+        long groupEnd = 0;
+        for(GenomicElement g : regions){
+            List<Block> blocks = index.getBlocks(chr ? "chr" + g.CHR : g.CHR, g.START, g.END);
+            if(blocks == null || blocks.isEmpty()){
+                continue;
+            }
+            long start = Long.MAX_VALUE;
+            long end = 0;
+            for(Block b : blocks){
+                start = Math.min(start, getOffset(b.getStartPosition(), tabix));
+                end = Math.max(end, getOffset(b.getEndPosition(), tabix));
+            }
+            queried.add(g);
+            regionBytes += end - start + QUERY_COST;
+            if(group != null && group.CHR.equals(g.CHR) && start <= groupEnd + QUERY_COST){
+                group.END = Math.max(group.END, g.END);
+                groupEnd = Math.max(groupEnd, end);
+            }else{
+                if(group != null){
+                    coalesced.add(group);
+                    coalescedBytes += groupEnd - groupStart + QUERY_COST;
+                }
+                group = new GenomicElement(g.CHR, g.START, g.END);
+                groupStart = start;
+                groupEnd = end;
+            }
+        }
+        if(group != null){
+            coalesced.add(group);
+            coalescedBytes += groupEnd - groupStart + QUERY_COST;
+        }
+        long scanBytes = input.length();
+        int type = QueryPlan.REGIONS;
+        long best = regionBytes;
+        if(coalesced.size() < queried.size() && coalescedBytes < best){
+            type = QueryPlan.COALESCED;
+            best = coalescedBytes;
+        }
+        if(scanBytes < best){
+            type = QueryPlan.SCAN;
+        }
+        String report = String.format("Query plan %s: %s (estimated reads: scan %.1f MB, %d coalesced queries %.1f MB, %d region queries %.1f MB)", 
+                input.getName(), QueryPlan.getName(type), scanBytes / 1048576.0, coalesced.size(), coalescedBytes / 1048576.0, queried.size(), regionBytes / 1048576.0);
+        if(type == QueryPlan.SCAN){
+            return new QueryPlan(type, null, getList(list, regions), report);
+        }else if(type == QueryPlan.COALESCED){
+            return new QueryPlan(type, coalesced, getList(list, regions), report);
+        }
+        return new QueryPlan(type, queried, list, report);
+    }
+    
+    /**
+     * Loads the tabix or tribble index of an input.
+     * 
+     * @param input VCF or BCF file
+     * @return Index null if the input has no readable index
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private static Index loadIndex(File input){
+        try{
+            File tbi = Tribble.tabixIndexFile(input);
+            if(tbi.exists()){
+                return new TabixIndex(tbi);
+            }
+            File idx = Tribble.indexFile(input);
+            if(idx.exists()){
+                return IndexFactory.loadIndex(idx.getAbsolutePath());
+            }
+        }catch(Exception e){
+            e.printStackTrace();
+        }
+        return null;
+    }
+    
+    /**
+     * Returns the file offset of an index block position. Tabix positions are virtual 
+     * offsets holding the offset of the compressed block in the upper 48 bits.
+     * 
+     * @param position block position
+     * @param tabix true for tabix indices
+     * @return long
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private static long getOffset(long position, boolean tabix){
+        return tabix ? position >>> 16 : position;
+    }
+    
+    /**
+     * Returns list, or a Query built from regions if list is null.
+     * 
+     * @param list Query holding the regions, may be null
+     * @param regions flattened list regions
+     * @return Query
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private static Query getList(Query list, ArrayList<GenomicElement> regions){
+        return list != null ? list : new Query(RegionSet.fromElements(regions));
+    }
+}
@@ -0,0 +1,105 @@
+/*
+*     This file is part of the VCF.Filter project (https://biomedical-sequencing.at/VCFFilter/).
+*     VCF.Filter permits graphical filtering of VCF files on cutom annotations and standard VCF fields, pedigree analysis, and cohort searches.
+* %%
+*     Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+* %%
+* 
+*     VCF.Filter is free software: you can redistribute it and/or modify
+*     it under the terms of the GNU General Public License as published by
+*     the Free Software Foundation, either version 3 of the License, or
+*     (at your option) any later version.
+* 
+*     This program is distributed in the hope that it will be useful,
+*     but WITHOUT ANY WARRANTY; without even the implied warranty of
+*     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*     GNU General Public License for more details.
+* 
+*     You should have received a copy of the GNU General Public License
+*     along with VCF.Filter.  If not, see <http://www.gnu.org/licenses/>.
+* 
+*     VCF.Filter  Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+*     This program comes with ABSOLUTELY NO WARRANTY;
+*     This is free software, and you are welcome to redistribute it
+*     under certain conditions; 
+*     For details interrogate the About section in the File menu.
+*/
+package at.ac.oeaw.cemm.bsf.vcffilter.index;
+
+import htsjdk.samtools.util.CloseableIterator;
+import htsjdk.variant.variantcontext.VariantContext;
+import java.util.NoSuchElementException;
+
+/**
+ * Variants returned by one region query of a QueryPlan, without the variants the previous query 
+ * on the same contig returned already. Query regions are sorted and disjoint, so a variant 
+ * starting at or before the end of the previous region overlaps it and was returned by that query. 
+ * Variants spanning two regions are thus returned once, in start order.
+ * 
+ * RegionQueryIterator.java 17 OCT 2026
+ *
+ * @author Heiko Müller
+ * @version 1.0
+ * @since 1.0
+ */
+public class RegionQueryIterator implements CloseableIterator<VariantContext> {
+    
+    /**
+     * The wrapped iterator.
+     */
+    private final CloseableIterator<VariantContext> it;
+    
+    /**
+     * End of the previous query region, variants starting at or before it are skipped.
+     */
+    private final int previousEnd;
+    
+    /**
+     * The next variant, null if not yet read.
+     */
+    private VariantContext next;
+    
+    /**
+     * Creates new RegionQueryIterator.
+     * 
+     * @param it variants of the query
+     * @param previousEnd end of the previous query region on the same contig
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public RegionQueryIterator(CloseableIterator<VariantContext> it, int previousEnd){
+        this.it = it;
+        this.previousEnd = previousEnd;
+    }
+    
+    @Override
+    public boolean hasNext(){
+        while(next == null && it.hasNext()){
+            VariantContext vc = it.next();
+            if(vc.getStart() > previousEnd){
+                next = vc;
+            }
+        }
+        return next != null;
+    }
+    
+    @Override
+    public VariantContext next(){
+        if(!hasNext()){
+            throw new NoSuchElementException();
+        }
+        VariantContext vc = next;
+        next = null;
+        return vc;
+    }
+    
+    @Override
+    public void remove(){
+        throw new UnsupportedOperationException();
+    }
+    
+    @Override
+    public void close(){
+        it.close();
+    }
+}
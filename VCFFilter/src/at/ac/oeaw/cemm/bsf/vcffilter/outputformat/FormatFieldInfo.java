@@ -0,0 +1,78 @@
+/*
+*     This file is part of the VCF.Filter project (https://biomedical-sequencing.at/VCFFilter/).
+*     VCF.Filter permits graphical filtering of VCF files on cutom annotations and standard VCF fields, pedigree analysis, and cohort searches.
+* %%
+*     Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+* %%
+* 
+*     VCF.Filter is free software: you can redistribute it and/or modify
+*     it under the terms of the GNU General Public License as published by
+*     the Free Software Foundation, either version 3 of the License, or
+*     (at your option) any later version.
+* 
+*     This program is distributed in the hope that it will be useful,
+*     but WITHOUT ANY WARRANTY; without even the implied warranty of
+*     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*     GNU General Public License for more details.
+* 
+*     You should have received a copy of the GNU General Public License
+*     along with VCF.Filter.  If not, see <http://www.gnu.org/licenses/>.
+* 
+*     VCF.Filter  Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+*     This program comes with ABSOLUTELY NO WARRANTY;
+*     This is free software, and you are welcome to redistribute it
+*     under certain conditions; 
+*     For details interrogate the About section in the File menu.
+*/
+package at.ac.oeaw.cemm.bsf.vcffilter.outputformat;
+
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.AttributeView;
+import htsjdk.variant.variantcontext.VariantContext;
+
+/** 
+ * Formats INFO column output. Reads the attribute from the INFO attribute view
+ * so that attributes already decoded by the filter chain are not decoded again.
+ * FormatFieldInfo.java 17 OCT 2026
+ *
+ * @author Heiko Müller
+ * @version 1.0
+ * @since 1.0
+ */
+
+public class FormatFieldInfo extends FormatFields{
+    
+    /**
+     * The version number of this class.
+     */
+    static final long serialVersionUID = 1L;
+    
+    /**
+    * Creates new FormatFieldInfo.
+    * 
+    * @param id VCF header line ID
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    public FormatFieldInfo(String id) {
+        super(id);
+    }
+    
+    /**
+    * Returns the attribute of this variant corresponding to the column header.
+    * 
+    * @param vc variant
+    * @param attributes INFO attribute view bound to vc
+    * @return String
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    public String getOutput(VariantContext vc, AttributeView attributes) {
+        attributes.setRecord(vc);
+        String s = attributes.getString(id);
+        if (s != null) {
+            return s + "\t";
+        } else {
+            return "\t";
+        }
+    }
+}
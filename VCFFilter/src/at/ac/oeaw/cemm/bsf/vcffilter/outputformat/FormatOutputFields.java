@@ -27,6 +27,7 @@
 package at.ac.oeaw.cemm.bsf.vcffilter.outputformat;
 
 import at.ac.oeaw.cemm.bsf.vcffilter.excelparser.VariantRecurrence;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.AttributeView;
 import at.ac.oeaw.cemm.bsf.vcffilter.preferences.Hyperlink;
 import htsjdk.variant.variantcontext.VariantContext;
 import java.util.ArrayList;
@@ -59,6 +60,15 @@ public class FormatOutputFields {
     /** unaffected variants */
     ArrayList<Hashtable<String, VariantContext>> unaffectedVariants;
     
+    /** INFO attribute view used when the caller does not provide one */
+    AttributeView attributes = new AttributeView();
+    
+    /** index of the field producing each output column, built on first use */
+    volatile int[] columnField;
+    
+    /** position of each output column within the output of its field */
+    int[] columnOffset;
+    
     /**
     * Creates new FormatOutputFields.
     * 
@@ -85,7 +95,7 @@ public class FormatOutputFields {
             }else if(s.equals("FILTER")){
                 fields.add(new FormatFieldFilter(s));
             }else{
-                fields.add(new FormatFields(s));
+                fields.add(new FormatFieldInfo(s));
             }
                     
         } 
@@ -128,7 +138,7 @@ public class FormatOutputFields {
             }else if(s.equals("FILTER")){
                 fields.add(new FormatFieldFilter(s));
             }else{
-                fields.add(new FormatFields(s));
+                fields.add(new FormatFieldInfo(s));
             }
                     
         } 
@@ -169,9 +179,27 @@ public class FormatOutputFields {
     * @since 1.0
     */
     public String formatOutput(VariantContext vc){
+        return formatOutput(vc, attributes);
+    }
+    
+    /**
+    * Returns the variant attributes for all selected output fields. 
+    * INFO attributes are read from the provided attribute view, 
+    * so that attributes already decoded by the filter chain are reused.
+    * 
+    * @param vc variant
+    * @param attributes INFO attribute view of the calling thread
+    * @return String
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    public String formatOutput(VariantContext vc, AttributeView attributes){
         StringBuilder sb = new StringBuilder();
         for(FormatField ff : fields){
-            if(ff instanceof FormatFieldRecurrence){
+            if(ff instanceof FormatFieldInfo){
+                FormatFieldInfo ffi = (FormatFieldInfo)ff;
+                sb.append(ffi.getOutput(vc, attributes));
+            }else if(ff instanceof FormatFieldRecurrence){
                 FormatFieldRecurrence ffr = (FormatFieldRecurrence)ff;
                 sb.append(ffr.getOutput(vc, recurrenceHash));
             }else if(ff instanceof FormatFieldGenotype){
@@ -184,6 +212,64 @@ public class FormatOutputFields {
         return sb.toString();
     }
     
+    /**
+    * Returns a single output column of a variant. Only the field producing the column 
+    * is formatted, e.g. to build sort keys of a result table.
+    * 
+    * @param vc variant
+    * @param column output column index, as in the tab separated output header
+    * @param attributes INFO attribute view of the calling thread
+    * @return String
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    public String formatOutput(VariantContext vc, int column, AttributeView attributes){
+        if(columnField == null){
+            initColumns();
+        }
+        FormatField ff = fields.get(columnField[column]);
+        String output;
+        if(ff instanceof FormatFieldInfo){
+            output = ((FormatFieldInfo)ff).getOutput(vc, attributes);
+        }else if(ff instanceof FormatFieldRecurrence){
+            output = ((FormatFieldRecurrence)ff).getOutput(vc, recurrenceHash);
+        }else{
+            output = ff.getOutput(vc);
+        }
+        String[] values = output.split("\t", -1);
+        int offset = columnOffset[column];
+        return offset < values.length ? values[offset] : "";
+    }
+    
+    /**
+    * Maps output columns to the fields producing them.
+    * 
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    private void initColumns(){
+        ArrayList<Integer> field = new ArrayList<Integer>();
+        ArrayList<Integer> offset = new ArrayList<Integer>();
+        for(int i = 0; i < fields.size(); i++){
+            String header = fields.get(i).getHeader();
+            int n = 0;
+            for(int j = 0; j < header.length(); j++){
+                if(header.charAt(j) == '\t'){
+                    field.add(i);
+                    offset.add(n++);
+                }
+            }
+        }
+        int[] f = new int[field.size()];
+        int[] o = new int[offset.size()];
+        for(int i = 0; i < f.length; i++){
+            f[i] = field.get(i);
+            o[i] = offset.get(i);
+        }
+        columnOffset = o;
+        columnField = f;
+    }
+    
     /**
     * Returns the variant attributes for all selected output fields and all family genotypes.
     * 
@@ -201,6 +287,9 @@ public class FormatOutputFields {
             if(ff instanceof FormatFieldRecurrence){
                 FormatFieldRecurrence ffr = (FormatFieldRecurrence)ff;
                 sb.append(ffr.getOutput(vc, recurrenceHash));
+            }else if(ff instanceof FormatFieldInfo){
+                FormatFieldInfo ffi = (FormatFieldInfo)ff;
+                sb.append(ffi.getOutput(vc, attributes));
             }else if(ff instanceof FormatFieldGenotype){
                 if(reportgenotype){
                     FormatFieldGenotype ffg = (FormatFieldGenotype)ff;
@@ -0,0 +1,255 @@
+/*
+*     This file is part of the VCF.Filter project (https://biomedical-sequencing.at/VCFFilter/).
+*     VCF.Filter permits graphical filtering of VCF files on cutom annotations and standard VCF fields, pedigree analysis, and cohort searches.
+* %%
+*     Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+* %%
+* 
+*     VCF.Filter is free software: you can redistribute it and/or modify
+*     it under the terms of the GNU General Public License as published by
+*     the Free Software Foundation, either version 3 of the License, or
+*     (at your option) any later version.
+* 
+*     This program is distributed in the hope that it will be useful,
+*     but WITHOUT ANY WARRANTY; without even the implied warranty of
+*     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*     GNU General Public License for more details.
+* 
+*     You should have received a copy of the GNU General Public License
+*     along with VCF.Filter.  If not, see <http://www.gnu.org/licenses/>.
+* 
+*     VCF.Filter  Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+*     This program comes with ABSOLUTELY NO WARRANTY;
+*     This is free software, and you are welcome to redistribute it
+*     under certain conditions; 
+*     For details interrogate the About section in the File menu.
+*/
+package at.ac.oeaw.cemm.bsf.vcffilter.outputformat;
+
+import at.ac.oeaw.cemm.bsf.vcffilter.Warning;
+import java.awt.BorderLayout;
+import java.awt.Cursor;
+import java.awt.FlowLayout;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.File;
+import java.net.URL;
+import javax.swing.ImageIcon;
+import javax.swing.JButton;
+import javax.swing.JFileChooser;
+import javax.swing.JFrame;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.SwingWorker;
+
+/**
+ * Window showing filter results in a table. Only visible rows are formatted, so that 
+ * large result sets can be browsed. Clicking a column header sorts on that column, 
+ * clicking it again reverses the order.
+ * 
+ * ResultTable.java 17 OCT 2026
+ *
+ * @author Heiko Müller
+ * @version 1.0
+ * @since 1.0
+ */
+public class ResultTable extends JFrame {
+    
+    /**
+     * The version number of this class.
+     */
+    static final long serialVersionUID = 1L;
+    
+    /**
+     * The table model.
+     */
+    private final ResultTableModel model;
+    
+    /**
+     * The table.
+     */
+    private final JTable table;
+    
+    /**
+     * Row count and sort state.
+     */
+    private final JLabel status = new JLabel();
+    
+    /**
+     * Sorted column, -1 for store order.
+     */
+    private int sortColumn = -1;
+    
+    /**
+     * Sort order of the sorted column.
+     */
+    private boolean ascending = true;
+    
+    /**
+     * Set while sorting or saving in the background.
+     */
+    private boolean busy = false;
+    
+    /**
+     * Creates new ResultTable.
+     * 
+     * @param title window title
+     * @param model the table model
+     * @param info text shown in the status line, e.g. the number of variants found
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public ResultTable(String title, ResultTableModel model, String info){
+        super(title);
+        this.model = model;
+        this.table = new JTable(model);
+        init(info);
+    }
+    
+    /**
+     * Initializes graphical components.
+     * 
+     * @param info text shown in the status line
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private void init(String info){
+        setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+        URL icon = getClass().getResource("/at/ac/oeaw/cemm/bsf/vcffilter/icon/logoVCFF.png");
+        if(icon != null){
+            setIconImage(new ImageIcon(icon).getImage());
+        }
+        table.setAutoResizeMode(JTable.AUTO_RESIZE_OFF);
+        table.getTableHeader().setReorderingAllowed(false);
+        table.getTableHeader().addMouseListener(new MouseAdapter(){
+            @Override
+            public void mouseClicked(MouseEvent e){
+                int column = table.columnAtPoint(e.getPoint());
+                if(column >= 0){
+                    sort(table.convertColumnIndexToModel(column));
+                }
+            }
+        });
+        for(int i = 0; i < model.getColumnCount(); i++){
+            table.getColumnModel().getColumn(i).setPreferredWidth(100);
+        }
+        getContentPane().setLayout(new BorderLayout());
+        getContentPane().add(new JScrollPane(table), BorderLayout.CENTER);
+        JPanel jp = new JPanel(new BorderLayout());
+        status.setText(info);
+        jp.add(status, BorderLayout.CENTER);
+        JPanel buttons = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        JButton tsv = new JButton("Save as TSV...");
+        tsv.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                save(false);
+            }
+        });
+        JButton bed = new JButton("Save as BED...");
+        bed.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                save(true);
+            }
+        });
+        buttons.add(tsv);
+        buttons.add(bed);
+        jp.add(buttons, BorderLayout.EAST);
+        getContentPane().add(jp, BorderLayout.SOUTH);
+        addWindowListener(new WindowAdapter(){
+            @Override
+            public void windowClosed(WindowEvent e){
+                model.close();
+            }
+        });
+        setSize(1000, 600);
+        setLocationRelativeTo(null);
+    }
+    
+    /**
+     * Sorts the rows on a column in the background. Sorting the sorted column again 
+     * reverses the order.
+     * 
+     * @param column model column index
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private void sort(final int column){
+        if(busy){
+            return;
+        }
+        final boolean asc = column == sortColumn ? !ascending : true;
+        final String info = status.getText();
+        busy = true;
+        status.setText("Sorting on " + model.getColumnName(column) + "...");
+        setCursor(new Cursor(Cursor.WAIT_CURSOR));
+        new SwingWorker<int[], Void>(){
+            @Override
+            protected int[] doInBackground() throws Exception {
+                return model.sortIndex(column, asc);
+            }
+            @Override
+            protected void done(){
+                busy = false;
+                setCursor(new Cursor(Cursor.DEFAULT_CURSOR));
+                try{
+                    model.setOrder(get());
+                    sortColumn = column;
+                    ascending = asc;
+                    status.setText(info.replaceAll(", sorted on .*$", "") + ", sorted on " + model.getColumnName(column) + (asc ? " ascending" : " descending"));
+                }catch(Exception e){
+                    e.printStackTrace();
+                    status.setText(info);
+                    new Warning(ResultTable.this, "Problem sorting results " + e.getMessage());
+                }
+            }
+        }.execute();
+    }
+    
+    /**
+     * Saves all rows in display order in the background. Forces the file to have 
+     * .tsv or .bed extension.
+     * 
+     * @param bed true for BED output
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private void save(final boolean bed){
+        if(busy){
+            return;
+        }
+        JFileChooser fc = new JFileChooser();
+        if(fc.showSaveDialog(this) != JFileChooser.APPROVE_OPTION){
+            return;
+        }
+        String path = fc.getSelectedFile().getAbsolutePath();
+        String extension = bed ? ".bed" : ".tsv";
+        if(!path.endsWith(extension)){
+            path = path + extension;
+        }
+        final File f = new File(path);
+        busy = true;
+        setCursor(new Cursor(Cursor.WAIT_CURSOR));
+        new SwingWorker<Void, Void>(){
+            @Override
+            protected Void doInBackground() throws Exception {
+                model.save(f, bed);
+                return null;
+            }
+            @Override
+            protected void done(){
+                busy = false;
+                setCursor(new Cursor(Cursor.DEFAULT_CURSOR));
+                try{
+                    get();
+                }catch(Exception e){
+                    e.printStackTrace();
+                    new Warning(ResultTable.this, "Problem saving results " + e.getMessage());
+                }
+            }
+        }.execute();
+    }
+}
@@ -0,0 +1,310 @@
+/*
+*     This file is part of the VCF.Filter project (https://biomedical-sequencing.at/VCFFilter/).
+*     VCF.Filter permits graphical filtering of VCF files on cutom annotations and standard VCF fields, pedigree analysis, and cohort searches.
+* %%
+*     Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+* %%
+* 
+*     VCF.Filter is free software: you can redistribute it and/or modify
+*     it under the terms of the GNU General Public License as published by
+*     the Free Software Foundation, either version 3 of the License, or
+*     (at your option) any later version.
+* 
+*     This program is distributed in the hope that it will be useful,
+*     but WITHOUT ANY WARRANTY; without even the implied warranty of
+*     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*     GNU General Public License for more details.
+* 
+*     You should have received a copy of the GNU General Public License
+*     along with VCF.Filter.  If not, see <http://www.gnu.org/licenses/>.
+* 
+*     VCF.Filter  Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+*     This program comes with ABSOLUTELY NO WARRANTY;
+*     This is free software, and you are welcome to redistribute it
+*     under certain conditions; 
+*     For details interrogate the About section in the File menu.
+*/
+package at.ac.oeaw.cemm.bsf.vcffilter.outputformat;
+
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.AttributeView;
+import at.ac.oeaw.cemm.bsf.vcffilter.store.ResultStore;
+import htsjdk.variant.variantcontext.VariantContext;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * Table model over a result store. Rows are read from the store and formatted only when 
+ * the table asks for them, formatted rows are kept in a small least recently used cache. 
+ * Sorting builds an index of store rows and leaves the store untouched.
+ * 
+ * ResultTableModel.java 17 OCT 2026
+ *
+ * @author Heiko Müller
+ * @version 1.0
+ * @since 1.0
+ */
+public class ResultTableModel extends AbstractTableModel {
+    
+    /**
+     * The version number of this class.
+     */
+    static final long serialVersionUID = 1L;
+    
+    /**
+     * Number of formatted rows kept in memory.
+     */
+    private static final int CACHE_ROWS = 2048;
+    
+    /**
+     * The rows.
+     */
+    private final ResultStore store;
+    
+    /**
+     * Formats the output columns.
+     */
+    private final FormatOutputFields fof;
+    
+    /**
+     * Column names.
+     */
+    private final String[] columns;
+    
+    /**
+     * INFO attribute view of the event dispatch thread.
+     */
+    private final AttributeView attributes = new AttributeView();
+    
+    /**
+     * Formatted rows by store row.
+     */
+    private final LinkedHashMap<Integer, String[]> cache;
+    
+    /**
+     * Store row of each table row, null for store order.
+     */
+    private int[] order;
+    
+    /**
+     * Creates new ResultTableModel.
+     * 
+     * @param store the rows
+     * @param fof formats the output columns
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public ResultTableModel(ResultStore store, FormatOutputFields fof){
+        this.store = store;
+        this.fof = fof;
+        this.columns = fof.getOutputHeader().split("\t");
+        this.cache = new LinkedHashMap<Integer, String[]>(CACHE_ROWS * 2, 0.75f, true){
+            static final long serialVersionUID = 1L;
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, String[]> eldest){
+                return size() > CACHE_ROWS;
+            }
+        };
+    }
+    
+    @Override
+    public int getRowCount(){
+        return store.size();
+    }
+    
+    @Override
+    public int getColumnCount(){
+        return columns.length;
+    }
+    
+    @Override
+    public String getColumnName(int column){
+        return columns[column];
+    }
+    
+    @Override
+    public Object getValueAt(int row, int column){
+        String[] values = getRow(getStoreRow(row));
+        return column < values.length ? values[column] : "";
+    }
+    
+    /**
+     * Returns the formatted output columns of a store row.
+     * 
+     * @param storeRow row index in the store
+     * @return String[]
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private String[] getRow(int storeRow){
+        String[] values = cache.get(storeRow);
+        if(values == null){
+            values = fof.formatOutput(store.get(storeRow), attributes).split("\t", -1);
+            cache.put(storeRow, values);
+        }
+        return values;
+    }
+    
+    /**
+     * Returns the store row of a table row.
+     * 
+     * @param row table row
+     * @return int
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private int getStoreRow(int row){
+        return order == null ? row : order[row];
+    }
+    
+    /**
+     * Returns the variant shown in a table row.
+     * 
+     * @param row table row
+     * @return VariantContext
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public VariantContext getVariant(int row){
+        return store.get(getStoreRow(row));
+    }
+    
+    /**
+     * Builds the index of store rows sorted on a column. Columns holding only numbers 
+     * and missing values are sorted numerically, other columns as text. Missing values 
+     * are sorted last, rows with equal values keep their store order. May be called from 
+     * a background thread, the index is applied with setOrder. Rows are read with genotypes 
+     * decoded, as the codec of rows stored on disk is shared with the event dispatch thread. 
+     * Only the sort column is formatted, text keys are kept only for text columns.
+     * 
+     * @param column column index
+     * @param ascending sort order
+     * @return int[] store rows in sorted order
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public int[] sortIndex(int column, final boolean ascending){
+        int rows = store.size();
+        AttributeView view = new AttributeView();
+        String[] text = null;
+        final double[] numbers = new double[rows];
+        for(int i = 0; i < rows; i++){
+            String key = getSortKey(i, column, view);
+            if(text != null){
+                text[i] = key;
+            }else if(key == null){
+                numbers[i] = Double.NaN;
+            }else{
+                try{
+                    numbers[i] = Double.parseDouble(key);
+                }catch(NumberFormatException nfe){
+                    text = new String[rows];
+                    for(int j = 0; j < i; j++){
+                        text[j] = getSortKey(j, column, view);
+                    }
+                    text[i] = key;
+                }
+            }
+        }
+        final String[] keys = text;
+        final boolean byNumber = keys == null;
+        Integer[] index = new Integer[rows];
+        for(int i = 0; i < rows; i++){
+            index[i] = i;
+        }
+        Arrays.sort(index, new Comparator<Integer>(){
+            @Override
+            public int compare(Integer i1, Integer i2){
+                boolean missing1 = byNumber ? Double.isNaN(numbers[i1]) : keys[i1] == null;
+                boolean missing2 = byNumber ? Double.isNaN(numbers[i2]) : keys[i2] == null;
+                if(missing1 || missing2){
+                    return Boolean.compare(missing1, missing2);
+                }
+                int c = byNumber ? Double.compare(numbers[i1], numbers[i2]) : keys[i1].compareTo(keys[i2]);
+                return ascending ? c : -c;
+            }
+        });
+        int[] result = new int[rows];
+        for(int i = 0; i < rows; i++){
+            result[i] = index[i];
+        }
+        return result;
+    }
+    
+    /**
+     * Returns the formatted value of a store row in the sort column.
+     * 
+     * @param storeRow row index in the store
+     * @param column column index
+     * @param view INFO attribute view of the calling thread
+     * @return String null for missing values
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private String getSortKey(int storeRow, int column, AttributeView view){
+        String key = fof.formatOutput(store.get(storeRow), column, view);
+        if(key.length() == 0 || key.equals(".") || key.equals("null")){
+            return null;
+        }
+        return key;
+    }
+    
+    /**
+     * Shows the rows in the given order.
+     * 
+     * @param order store rows in display order, null for store order
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public void setOrder(int[] order){
+        this.order = order;
+        fireTableDataChanged();
+    }
+    
+    /**
+     * Saves all rows in display order, either as tab separated output columns with header 
+     * or as BED regions of the variant positions.
+     * 
+     * @param f output file
+     * @param bed true for BED output
+     * @throws IOException if the file cannot be written
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public void save(File f, boolean bed) throws IOException {
+        AttributeView view = new AttributeView();
+        BufferedWriter br = new BufferedWriter(new FileWriter(f));
+        try{
+            if(!bed){
+                br.write(fof.getOutputHeader() + "\r\n");
+            }
+            for(int i = 0; i < getRowCount(); i++){
+                VariantContext vc = getVariant(i);
+                if(bed){
+                    br.write(vc.getContig() + "\t" + vc.getStart() + "\t" + vc.getStart() + "\n");
+                }else{
+                    br.write(fof.formatOutput(vc, view) + "\r\n");
+                }
+            }
+        }finally{
+            br.close();
+        }
+    }
+    
+    /**
+     * Releases the rows.
+     * 
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public void close(){
+        cache.clear();
+        store.close();
+    }
+}
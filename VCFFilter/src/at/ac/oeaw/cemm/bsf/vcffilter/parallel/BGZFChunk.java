@@ -0,0 +1,199 @@
+/*
+*     This file is part of the VCF.Filter project (https://biomedical-sequencing.at/VCFFilter/).
+*     VCF.Filter permits graphical filtering of VCF files on cutom annotations and standard VCF fields, pedigree analysis, and cohort searches.
+* %%
+*     Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+* %%
+* 
+*     VCF.Filter is free software: you can redistribute it and/or modify
+*     it under the terms of the GNU General Public License as published by
+*     the Free Software Foundation, either version 3 of the License, or
+*     (at your option) any later version.
+* 
+*     This program is distributed in the hope that it will be useful,
+*     but WITHOUT ANY WARRANTY; without even the implied warranty of
+*     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*     GNU General Public License for more details.
+* 
+*     You should have received a copy of the GNU General Public License
+*     along with VCF.Filter.  If not, see <http://www.gnu.org/licenses/>.
+* 
+*     VCF.Filter  Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+*     This program comes with ABSOLUTELY NO WARRANTY;
+*     This is free software, and you are welcome to redistribute it
+*     under certain conditions; 
+*     For details interrogate the About section in the File menu.
+*/
+package at.ac.oeaw.cemm.bsf.vcffilter.parallel;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+
+/**
+ * A range of BGZF blocks of a block compressed file. Chunks start and end at block boundaries, 
+ * a line belongs to the chunk in which it starts.
+ * 
+ * BGZFChunk.java 17 OCT 2026
+ *
+ * @author Heiko Müller
+ * @version 1.0
+ * @since 1.0
+ */
+public class BGZFChunk {
+    
+    /**
+     * Length of the fixed part of the BGZF block header.
+     */
+    private static final int HEADER_LENGTH = 12;
+    
+    /**
+     * Position of the chunk in the file.
+     */
+    private final int index;
+    
+    /**
+     * File offset of the block preceding the chunk, -1 for the first chunk.
+     */
+    private final long previousBlock;
+    
+    /**
+     * File offset of the first block of the chunk.
+     */
+    private final long start;
+    
+    /**
+     * File offset of the first block after the chunk.
+     */
+    private final long end;
+    
+    /**
+     * Creates new BGZFChunk.
+     * 
+     * @param index position of the chunk in the file
+     * @param previousBlock file offset of the block preceding the chunk, -1 for the first chunk
+     * @param start file offset of the first block of the chunk
+     * @param end file offset of the first block after the chunk
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public BGZFChunk(int index, long previousBlock, long start, long end){
+        this.index = index;
+        this.previousBlock = previousBlock;
+        this.start = start;
+        this.end = end;
+    }
+    
+    /**
+     * Splits a block compressed file into chunks of at least chunkSize compressed bytes. 
+     * Only the block headers are read.
+     * 
+     * @param f block compressed file
+     * @param chunkSize minimum compressed size of a chunk in bytes
+     * @return ArrayList&#60;BGZFChunk&#62; chunks in file order
+     * @throws IOException if f is not a valid BGZF file
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public static ArrayList<BGZFChunk> split(File f, long chunkSize) throws IOException {
+        ArrayList<BGZFChunk> result = new ArrayList<BGZFChunk>();
+        RandomAccessFile raf = new RandomAccessFile(f, "r");
+        try{
+            long length = raf.length();
+            byte[] header = new byte[HEADER_LENGTH];
+            long chunkStart = 0;
+            long chunkPrevious = -1;
+            long previous = -1;
+            long address = 0;
+            while(address < length){
+                if(address - chunkStart >= chunkSize){
+                    result.add(new BGZFChunk(result.size(), chunkPrevious, chunkStart, address));
+                    chunkStart = address;
+                    chunkPrevious = previous;
+                }
+                raf.seek(address);
+                raf.readFully(header);
+                previous = address;
+                address += readBlockSize(raf, header, address);
+            }
+            result.add(new BGZFChunk(result.size(), chunkPrevious, chunkStart, length));
+        }finally{
+            raf.close();
+        }
+        return result;
+    }
+    
+    /**
+     * Reads the total size of the block from the BC extra subfield.
+     * 
+     * @param raf file positioned after the fixed block header
+     * @param header fixed block header
+     * @param address file offset of the block
+     * @return int total block size in bytes
+     * @throws IOException if the header is not a BGZF block header
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private static int readBlockSize(RandomAccessFile raf, byte[] header, long address) throws IOException {
+        if((header[0] & 0xff) != 31 || (header[1] & 0xff) != 139 || (header[3] & 4) == 0){
+            throw new IOException("No BGZF block at offset " + address);
+        }
+        int xlen = (header[10] & 0xff) | ((header[11] & 0xff) << 8);
+        byte[] extra = new byte[xlen];
+        raf.readFully(extra);
+        int i = 0;
+        while(i + 4 <= xlen){
+            int slen = (extra[i + 2] & 0xff) | ((extra[i + 3] & 0xff) << 8);
+            if(extra[i] == 66 && extra[i + 1] == 67 && slen == 2){
+                return ((extra[i + 4] & 0xff) | ((extra[i + 5] & 0xff) << 8)) + 1;
+            }
+            i += 4 + slen;
+        }
+        throw new IOException("No BGZF block size at offset " + address);
+    }
+    
+    /**
+     * Getter for index variable.
+     * 
+     * @return int
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public int getIndex(){
+        return index;
+    }
+    
+    /**
+     * Getter for previousBlock variable.
+     * 
+     * @return long
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public long getPreviousBlock(){
+        return previousBlock;
+    }
+    
+    /**
+     * Getter for start variable.
+     * 
+     * @return long
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public long getStart(){
+        return start;
+    }
+    
+    /**
+     * Getter for end variable.
+     * 
+     * @return long
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public long getEnd(){
+        return end;
+    }
+}
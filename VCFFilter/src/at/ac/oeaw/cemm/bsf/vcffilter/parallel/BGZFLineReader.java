@@ -0,0 +1,195 @@
+/*
+*     This file is part of the VCF.Filter project (https://biomedical-sequencing.at/VCFFilter/).
+*     VCF.Filter permits graphical filtering of VCF files on cutom annotations and standard VCF fields, pedigree analysis, and cohort searches.
+* %%
+*     Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+* %%
+* 
+*     VCF.Filter is free software: you can redistribute it and/or modify
+*     it under the terms of the GNU General Public License as published by
+*     the Free Software Foundation, either version 3 of the License, or
+*     (at your option) any later version.
+* 
+*     This program is distributed in the hope that it will be useful,
+*     but WITHOUT ANY WARRANTY; without even the implied warranty of
+*     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*     GNU General Public License for more details.
+* 
+*     You should have received a copy of the GNU General Public License
+*     along with VCF.Filter.  If not, see <http://www.gnu.org/licenses/>.
+* 
+*     VCF.Filter  Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+*     This program comes with ABSOLUTELY NO WARRANTY;
+*     This is free software, and you are welcome to redistribute it
+*     under certain conditions; 
+*     For details interrogate the About section in the File menu.
+*/
+package at.ac.oeaw.cemm.bsf.vcffilter.parallel;
+
+import htsjdk.samtools.util.BlockCompressedInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Buffered line reader on a block compressed file that reports the virtual file pointer of the next line. 
+ * Reads whole blocks instead of single bytes. Not thread safe.
+ * 
+ * BGZFLineReader.java 17 OCT 2026
+ *
+ * @author Heiko Müller
+ * @version 1.0
+ * @since 1.0
+ */
+public class BGZFLineReader implements Closeable {
+    
+    /**
+     * The block compressed stream.
+     */
+    private final BlockCompressedInputStream in;
+    
+    /**
+     * Compressed length of the file.
+     */
+    private final long length;
+    
+    /**
+     * Uncompressed bytes of the current block.
+     */
+    private final byte[] buffer = new byte[65536];
+    
+    /**
+     * Virtual file pointer of buffer[0].
+     */
+    private long bufferPointer;
+    
+    /**
+     * Position of the next byte in buffer.
+     */
+    private int position = 0;
+    
+    /**
+     * Number of valid bytes in buffer.
+     */
+    private int limit = 0;
+    
+    /**
+     * Bytes of the current line.
+     */
+    private byte[] line = new byte[1024];
+    
+    /**
+     * Creates new BGZFLineReader positioned at the start of f.
+     * 
+     * @param f block compressed file
+     * @throws IOException if the file cannot be opened
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public BGZFLineReader(File f) throws IOException {
+        this.in = new BlockCompressedInputStream(f);
+        this.length = f.length();
+        seek(0);
+    }
+    
+    /**
+     * Moves to a virtual file pointer.
+     * 
+     * @param pointer virtual file pointer
+     * @throws IOException if the file cannot be read
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public void seek(long pointer) throws IOException {
+        in.seek(pointer);
+        position = 0;
+        limit = 0;
+    }
+    
+    /**
+     * Returns the virtual file pointer of the next byte. At the end of a block 
+     * this is the pointer to the start of the next block.
+     * 
+     * @return long virtual file pointer
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public long getFilePointer(){
+        if(position < limit){
+            return bufferPointer + position;
+        }
+        return in.getFilePointer();
+    }
+    
+    /**
+     * Reads the next line without line terminator.
+     * 
+     * @return String the line, null at end of file
+     * @throws IOException if the file cannot be read
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public String readLine() throws IOException {
+        int n = 0;
+        boolean eof = false;
+        while(true){
+            if(position >= limit && !fill()){
+                eof = true;
+                break;
+            }
+            int i = position;
+            while(i < limit && buffer[i] != '\n'){
+                i++;
+            }
+            int count = i - position;
+            if(n + count > line.length){
+                byte[] larger = new byte[Math.max(line.length * 2, n + count)];
+                System.arraycopy(line, 0, larger, 0, n);
+                line = larger;
+            }
+            System.arraycopy(buffer, position, line, n, count);
+            n += count;
+            if(i < limit){
+                position = i + 1;
+                break;
+            }
+            position = limit;
+        }
+        if(eof && n == 0){
+            return null;
+        }
+        if(n > 0 && line[n - 1] == '\r'){
+            n--;
+        }
+        return new String(line, 0, n, StandardCharsets.ISO_8859_1);
+    }
+    
+    /**
+     * Reads the remainder of the current block, or the next non empty block, into the buffer.
+     * 
+     * @return boolean false at end of file
+     * @throws IOException if the file cannot be read
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private boolean fill() throws IOException {
+        while(true){
+            int available = in.available();
+            if(available > 0){
+                bufferPointer = in.getFilePointer();
+                limit = in.read(buffer, 0, available);
+                position = 0;
+                return limit > 0;
+            }
+            if((in.getFilePointer() >>> 16) >= length){
+                return false;
+            }
+        }
+    }
+    
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -0,0 +1,109 @@
+/*
+*     This file is part of the VCF.Filter project (https://biomedical-sequencing.at/VCFFilter/).
+*     VCF.Filter permits graphical filtering of VCF files on cutom annotations and standard VCF fields, pedigree analysis, and cohort searches.
+* %%
+*     Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+* %%
+* 
+*     VCF.Filter is free software: you can redistribute it and/or modify
+*     it under the terms of the GNU General Public License as published by
+*     the Free Software Foundation, either version 3 of the License, or
+*     (at your option) any later version.
+* 
+*     This program is distributed in the hope that it will be useful,
+*     but WITHOUT ANY WARRANTY; without even the implied warranty of
+*     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*     GNU General Public License for more details.
+* 
+*     You should have received a copy of the GNU General Public License
+*     along with VCF.Filter.  If not, see <http://www.gnu.org/licenses/>.
+* 
+*     VCF.Filter  Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+*     This program comes with ABSOLUTELY NO WARRANTY;
+*     This is free software, and you are welcome to redistribute it
+*     under certain conditions; 
+*     For details interrogate the About section in the File menu.
+*/
+package at.ac.oeaw.cemm.bsf.vcffilter.parallel;
+
+import at.ac.oeaw.cemm.bsf.vcffilter.batch.FilterEngine;
+import at.ac.oeaw.cemm.bsf.vcffilter.excelparser.VariantRecurrence;
+import at.ac.oeaw.cemm.bsf.vcffilter.genomeutils.GenomicElement;
+import at.ac.oeaw.cemm.bsf.vcffilter.genomeutils.Query;
+import htsjdk.variant.variantcontext.VariantContext;
+import java.util.Hashtable;
+
+/**
+ * Black list and recurrence cutoff applied to variants passing the filter chain. 
+ * Files filtered concurrently apply them before a variant counts against the output limit, 
+ * so that the limit counts the same variants as sequential filtering.
+ * 
+ * CandidateFilter.java 17 OCT 2026
+ *
+ * @author Heiko Müller
+ * @version 1.0
+ * @since 1.0
+ */
+public class CandidateFilter {
+    
+    /**
+     * The black list, null if none.
+     */
+    private final Query black;
+    
+    /**
+     * Recurrence hash, null if no recurrence filtering.
+     */
+    private final Hashtable<String, VariantRecurrence> recurrenceHash;
+    
+    /**
+     * Recurrence type, total, het or hom.
+     */
+    private final String recurrenceType;
+    
+    /**
+     * The recurrence cutoff.
+     */
+    private final int recurrenceCutoff;
+    
+    /**
+     * Creates new CandidateFilter.
+     * 
+     * @param black the black list, null if none
+     * @param recurrenceHash recurrence hash, null if no recurrence filtering
+     * @param recurrenceType recurrence type, total, het or hom
+     * @param recurrenceCutoff the recurrence cutoff
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public CandidateFilter(Query black, Hashtable<String, VariantRecurrence> recurrenceHash, String recurrenceType, int recurrenceCutoff){
+        this.black = black;
+        this.recurrenceHash = recurrenceHash;
+        this.recurrenceType = recurrenceType;
+        this.recurrenceCutoff = recurrenceCutoff;
+    }
+    
+    /**
+     * Tests if a variant lies outside the black list.
+     * 
+     * @param vc variant passing the filter chain
+     * @return boolean
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public boolean passesLists(VariantContext vc){
+        return black == null || !black.match(new GenomicElement(vc));
+    }
+    
+    /**
+     * Tests a variant against the recurrence cutoff.
+     * 
+     * @param vc variant passing the filter chain and lists
+     * @return boolean
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public boolean passesRecurrence(VariantContext vc){
+        return FilterEngine.passesRecurrenceCutoff(vc, recurrenceHash, recurrenceType, recurrenceCutoff);
+    }
+}
@@ -0,0 +1,215 @@
+/*
+*     This file is part of the VCF.Filter project (https://biomedical-sequencing.at/VCFFilter/).
+*     VCF.Filter permits graphical filtering of VCF files on cutom annotations and standard VCF fields, pedigree analysis, and cohort searches.
+* %%
+*     Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+* %%
+* 
+*     VCF.Filter is free software: you can redistribute it and/or modify
+*     it under the terms of the GNU General Public License as published by
+*     the Free Software Foundation, either version 3 of the License, or
+*     (at your option) any later version.
+* 
+*     This program is distributed in the hope that it will be useful,
+*     but WITHOUT ANY WARRANTY; without even the implied warranty of
+*     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*     GNU General Public License for more details.
+* 
+*     You should have received a copy of the GNU General Public License
+*     along with VCF.Filter.  If not, see <http://www.gnu.org/licenses/>.
+* 
+*     VCF.Filter  Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+*     This program comes with ABSOLUTELY NO WARRANTY;
+*     This is free software, and you are welcome to redistribute it
+*     under certain conditions; 
+*     For details interrogate the About section in the File menu.
+*/
+package at.ac.oeaw.cemm.bsf.vcffilter.parallel;
+
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.AdaptiveFilterChain;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.AttributeView;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.CompiledFilterChain;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.RawLinePrefilter;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.SampleProjection;
+import htsjdk.tribble.readers.AsciiLineReader;
+import htsjdk.tribble.readers.AsciiLineReaderIterator;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.vcf.VCFCodec;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Decodes and filters the lines of one BGZF chunk of a VCF file. 
+ * Each task uses its own reader, codec, attribute view and filter statistics.
+ * 
+ * ChunkFilterTask.java 17 OCT 2026
+ *
+ * @author Heiko Müller
+ * @version 1.0
+ * @since 1.0
+ */
+public class ChunkFilterTask extends RecursiveTask<ArrayList<VariantContext>> {
+    
+    /**
+     * The version number of this class.
+     */
+    static final long serialVersionUID = 1L;
+    
+    /**
+     * The block compressed VCF file.
+     */
+    private final File file;
+    
+    /**
+     * The chunk to be filtered.
+     */
+    private final BGZFChunk chunk;
+    
+    /**
+     * The raw VCF header lines.
+     */
+    private final byte[] header;
+    
+    /**
+     * Filter chain and statistics of this task.
+     */
+    private final AdaptiveFilterChain statistics;
+    
+    /**
+     * Fixed column prefilter of this task.
+     */
+    private final RawLinePrefilter prefilter;
+    
+    /**
+     * Selected samples of the chain, null for all.
+     */
+    private final List<String> samples;
+    
+    /**
+     * Creates new ChunkFilterTask.
+     * 
+     * @param file the block compressed VCF file
+     * @param chunk the chunk to be filtered
+     * @param header the raw VCF header lines
+     * @param chain the compiled filter chain
+     * @param learned chain holding the filter order and statistics learned on the preceding chunks
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public ChunkFilterTask(File file, BGZFChunk chunk, byte[] header, CompiledFilterChain chain, AdaptiveFilterChain learned){
+        this.file = file;
+        this.chunk = chunk;
+        this.header = header;
+        this.statistics = new AdaptiveFilterChain(learned);
+        this.prefilter = new RawLinePrefilter(chain);
+        this.samples = chain.getSamples();
+    }
+    
+    /**
+     * Reads the lines starting in the chunk and returns the variants passing the filter chain in file order. 
+     * Chunks other than the first one start at the first line start at or after the chunk start, 
+     * which is found by reading from the preceding block.
+     * 
+     * @return ArrayList&#60;VariantContext&#62;
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    @Override
+    protected ArrayList<VariantContext> compute(){
+        ArrayList<VariantContext> result = new ArrayList<VariantContext>();
+        VCFCodec codec = new VCFCodec();
+        SampleProjection projection = SampleProjection.create(header, samples);
+        byte[] projectedHeader = projection != null ? projection.projectHeader(header) : header;
+        codec.readActualHeader(new AsciiLineReaderIterator(new AsciiLineReader(new ByteArrayInputStream(projectedHeader))));
+        AttributeView attributes = new AttributeView();
+        BGZFLineReader in = null;
+        try{
+            in = new BGZFLineReader(file);
+            long start = toFilePointer(chunk.getStart());
+            long end = toFilePointer(chunk.getEnd());
+            if(chunk.getPreviousBlock() >= 0){
+                in.seek(toFilePointer(chunk.getPreviousBlock()));
+                while(in.getFilePointer() < start){
+                    if(in.readLine() == null){
+                        return result;
+                    }
+                }
+            }else{
+                in.seek(start);
+            }
+            while(in.getFilePointer() < end){
+                String line = in.readLine();
+                if(line == null){
+                    break;
+                }
+                if(line.length() == 0 || line.charAt(0) == '#' || !prefilter.mayPass(line)){
+                    continue;
+                }
+                VariantContext vc = codec.decode(projection != null ? projection.project(line) : line);
+                if(statistics.passes(vc, attributes)){
+                    result.add(vc);
+                }
+            }
+        }catch(IOException ioe){
+            throw new RuntimeException("Problem reading chunk " + chunk.getIndex() + " of " + file.getName() + ": " + ioe.getMessage(), ioe);
+        }finally{
+            if(in != null){
+                try{
+                    in.close();
+                }catch(IOException ioe){
+                    ioe.printStackTrace();
+                }
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Converts a block address to the virtual file pointer of the first byte of the block.
+     * 
+     * @param blockAddress file offset of a BGZF block
+     * @return long virtual file pointer
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private static long toFilePointer(long blockAddress){
+        return blockAddress << 16;
+    }
+    
+    /**
+     * Returns the filter statistics of this task.
+     * 
+     * @return AdaptiveFilterChain
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public AdaptiveFilterChain getStatistics(){
+        return statistics;
+    }
+    
+    /**
+     * Returns the prefilter of this task.
+     * 
+     * @return RawLinePrefilter
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public RawLinePrefilter getPrefilter(){
+        return prefilter;
+    }
+    
+    /**
+     * Returns the chunk filtered by this task.
+     * 
+     * @return BGZFChunk
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public BGZFChunk getChunk(){
+        return chunk;
+    }
+}
@@ -0,0 +1,436 @@
+/*
+*     This file is part of the VCF.Filter project (https://biomedical-sequencing.at/VCFFilter/).
+*     VCF.Filter permits graphical filtering of VCF files on cutom annotations and standard VCF fields, pedigree analysis, and cohort searches.
+* %%
+*     Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+* %%
+* 
+*     VCF.Filter is free software: you can redistribute it and/or modify
+*     it under the terms of the GNU General Public License as published by
+*     the Free Software Foundation, either version 3 of the License, or
+*     (at your option) any later version.
+* 
+*     This program is distributed in the hope that it will be useful,
+*     but WITHOUT ANY WARRANTY; without even the implied warranty of
+*     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*     GNU General Public License for more details.
+* 
+*     You should have received a copy of the GNU General Public License
+*     along with VCF.Filter.  If not, see <http://www.gnu.org/licenses/>.
+* 
+*     VCF.Filter  Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+*     This program comes with ABSOLUTELY NO WARRANTY;
+*     This is free software, and you are welcome to redistribute it
+*     under certain conditions; 
+*     For details interrogate the About section in the File menu.
+*/
+package at.ac.oeaw.cemm.bsf.vcffilter.parallel;
+
+import at.ac.oeaw.cemm.bsf.vcffilter.genomeutils.GenomicElement;
+import at.ac.oeaw.cemm.bsf.vcffilter.index.QueryPlan;
+import at.ac.oeaw.cemm.bsf.vcffilter.index.QueryPlanner;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.AdaptiveFilterChain;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.AttributeView;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.CompiledFilterChain;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.PrefilteringVariantIterator;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.RawLinePrefilter;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.SampleProjection;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.SampleSubsetIterator;
+import at.ac.oeaw.cemm.bsf.vcffilter.progress.InputProgress;
+import at.ac.oeaw.cemm.bsf.vcffilter.store.RankedVariants;
+import htsjdk.samtools.util.CloseableIterator;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.vcf.VCFFileReader;
+import htsjdk.variant.vcf.VCFHeader;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Filters one VCF file with its own reader, attribute view and filter statistics. 
+ * Either all variants or the variants in a list of regions are filtered. Passing variants 
+ * are streamed to the consumer through a bounded buffer, filtering waits while the buffer is full.
+ * 
+ * FileFilterTask.java 17 OCT 2026
+ *
+ * @author Heiko Müller
+ * @version 1.0
+ * @since 1.0
+ */
+public class FileFilterTask implements Callable<Void> {
+    
+    /**
+     * Capacity of the buffer of passing variants.
+     */
+    public static final int BUFFER_SIZE = 1024;
+    
+    /**
+     * Milliseconds to wait for buffer space before checking the cancel switch again.
+     */
+    private static final long OFFER_TIMEOUT = 50;
+    
+    /**
+     * The VCF file.
+     */
+    private final File file;
+    
+    /**
+     * Index of the file in file order.
+     */
+    private final int index;
+    
+    /**
+     * Regions to be queried, null for all variants.
+     */
+    private final ArrayList<GenomicElement> regions;
+    
+    /**
+     * The shared output limit, null if unlimited.
+     */
+    private final OutputBudget budget;
+    
+    /**
+     * Black list and recurrence cutoff, null if variants passing the filter chain are candidates.
+     */
+    private final CandidateFilter candidates;
+    
+    /**
+     * Top ranked variants of the file, null if the passing variants are returned.
+     */
+    private final RankedVariants ranking;
+    
+    /**
+     * Selected samples of the chain, null for all.
+     */
+    private final List<String> samples;
+    
+    /**
+     * Set if filtering is cancelled.
+     */
+    private final AtomicBoolean cancelled;
+    
+    /**
+     * Filter chain and statistics of this task.
+     */
+    private final AdaptiveFilterChain statistics;
+    
+    /**
+     * Fixed column prefilter of this task.
+     */
+    private final RawLinePrefilter prefilter;
+    
+    /**
+     * INFO attribute view of this task.
+     */
+    private final AttributeView attributes = new AttributeView();
+    
+    /**
+     * Passing variants not yet taken by the consumer.
+     */
+    private final ArrayBlockingQueue<VariantContext> buffer = new ArrayBlockingQueue<VariantContext>(BUFFER_SIZE);
+    
+    /**
+     * Set when filtering of the file has ended, all passing variants are in the buffer or taken.
+     */
+    private volatile boolean finished = false;
+    
+    /**
+     * True if the output limit stopped filtering of this file.
+     */
+    private volatile boolean limitReached = false;
+    
+    /**
+     * Header of the file, set when filtering starts.
+     */
+    private volatile VCFHeader header;
+    
+    /**
+     * Query plan of the file, null if all variants are read.
+     */
+    private volatile QueryPlan queryPlan;
+    
+    /**
+     * Progress of the file, null if not reported.
+     */
+    private final InputProgress progress;
+    
+    /**
+     * Creates new FileFilterTask.
+     * 
+     * @param file the VCF file
+     * @param index index of the file in file order
+     * @param chain the compiled filter chain
+     * @param learned chain holding the filter order and statistics learned on the preceding files
+     * @param regions regions to be queried, null for all variants
+     * @param budget the shared output limit, null if unlimited
+     * @param candidates black list and recurrence cutoff, may be null
+     * @param ranking ranking of the run, the file keeps its own top ranked variants on the same field, null if none
+     * @param cancelled set if filtering is cancelled
+     * @param progress progress of the file, may be null
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public FileFilterTask(File file, int index, CompiledFilterChain chain, AdaptiveFilterChain learned, ArrayList<GenomicElement> regions, OutputBudget budget, CandidateFilter candidates, RankedVariants ranking, AtomicBoolean cancelled, InputProgress progress){
+        this.file = file;
+        this.ranking = ranking != null ? new RankedVariants(ranking.getField(), ranking.isDescending(), ranking.getCapacity()) : null;
+        this.candidates = candidates;
+        this.progress = progress;
+        this.index = index;
+        this.regions = regions;
+        this.budget = budget;
+        this.cancelled = cancelled;
+        this.statistics = new AdaptiveFilterChain(learned);
+        this.prefilter = new RawLinePrefilter(chain);
+        this.samples = chain.getSamples();
+    }
+    
+    /**
+     * Filters the file and puts the passing variants into the buffer in file order, or in region order 
+     * for region queries. Variants passing the filter chain are passed if they also pass black list 
+     * and recurrence cutoff. With ranking, the passing variants are offered to the ranking of the file 
+     * and none are buffered.
+     * 
+     * @return Void
+     * @throws InterruptedException if interrupted while waiting for buffer space
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    @Override
+    public Void call() throws InterruptedException {
+        VCFFileReader vcf = new VCFFileReader(file);
+        header = SampleProjection.project(vcf.getFileHeader(), samples);
+        try{
+            if(regions == null){
+                filter(openScan(vcf));
+            }else{
+                CloseableIterator<VariantContext> first = vcf.iterator();
+                VariantContext x = first.hasNext() ? first.next() : null;
+                first.close();
+                boolean chr = x != null && x.getContig().toUpperCase().startsWith("CHR");
+                QueryPlan plan = QueryPlanner.plan(file, regions, null, chr);
+                queryPlan = plan;
+                if(plan.isScan()){
+                    filter(plan.join(openScan(vcf)));
+                }else{
+                    ArrayList<GenomicElement> queries = plan.getRegions();
+                    for(int i = 0; i < queries.size(); i++){
+                        GenomicElement g = queries.get(i);
+                        CloseableIterator<VariantContext> it = vcf.query(chr ? "chr" + g.CHR : g.CHR, g.START, g.END);
+                        it = plan.join(it, g, i > 0 ? queries.get(i - 1) : null);
+                        if(!filter(SampleSubsetIterator.wrap(it, vcf.getFileHeader(), samples))){
+                            break;
+                        }
+                        if(progress != null){
+                            progress.setFraction((i + 1.0) / queries.size());
+                        }
+                    }
+                }
+            }
+        }finally{
+            vcf.close();
+            if(progress != null){
+                progress.finish();
+            }
+            finished = true;
+        }
+        return null;
+    }
+    
+    /**
+     * Opens an iterator over all variants of the file, prefiltering raw lines where possible.
+     * 
+     * @param vcf reader opened on the file
+     * @return CloseableIterator&#60;VariantContext&#62;
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private CloseableIterator<VariantContext> openScan(VCFFileReader vcf){
+        CloseableIterator<VariantContext> it = null;
+        if((progress != null || samples != null) && PrefilteringVariantIterator.canRead(file)){
+            try{
+                it = new PrefilteringVariantIterator(file, prefilter, samples, progress);
+            }catch(IOException ioe){
+                ioe.printStackTrace();
+            }
+        }
+        if(it == null && !prefilter.isEmpty() && PrefilteringVariantIterator.canRead(file)){
+            it = new PrefilteringVariantIterator(file, prefilter);
+        }else if(it == null){
+            it = SampleSubsetIterator.wrap(vcf.iterator(), vcf.getFileHeader(), samples);
+        }
+        return it;
+    }
+    
+    /**
+     * Returns the query plan of the file.
+     * 
+     * @return QueryPlan null if all variants are read or filtering has not started
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public QueryPlan getQueryPlan(){
+        return queryPlan;
+    }
+    
+    /**
+     * Puts the variants of it passing the filter chain, black list and recurrence cutoff into the buffer. 
+     * Only these count against the output limit.
+     * 
+     * @param it variant iterator, closed on return
+     * @return boolean false if filtering of the file must stop
+     * @throws InterruptedException if interrupted while waiting for buffer space
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private boolean filter(CloseableIterator<VariantContext> it) throws InterruptedException {
+        try{
+            while(it.hasNext()){
+                if(cancelled.get()){
+                    return false;
+                }
+                VariantContext vc = it.next();
+                if(progress != null){
+                    progress.getProgress().addRecords(1);
+                }
+                if(statistics.passes(vc, attributes)){
+                    if(progress != null){
+                        progress.getProgress().addPassedFilters(1);
+                    }
+                    if(candidates != null){
+                        if(!candidates.passesLists(vc)){
+                            continue;
+                        }
+                        if(progress != null){
+                            progress.getProgress().addPassedLists(1);
+                        }
+                        if(!candidates.passesRecurrence(vc)){
+                            continue;
+                        }
+                        if(progress != null){
+                            progress.getProgress().addPassedRecurrence(1);
+                        }
+                    }
+                    if(ranking != null){
+                        ranking.offer(vc);
+                        continue;
+                    }
+                    if(!put(vc)){
+                        return false;
+                    }
+                    if(budget != null && budget.add(index)){
+                        limitReached = true;
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }finally{
+            it.close();
+        }
+    }
+    
+    /**
+     * Puts a passing variant into the buffer, waiting while the buffer is full. 
+     * Genotypes are decoded first, as the codec of this task keeps decoding 
+     * new lines while the worker may encode the variant when spilling it.
+     * 
+     * @param vc passing variant
+     * @return boolean false if filtering is cancelled
+     * @throws InterruptedException if interrupted while waiting
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private boolean put(VariantContext vc) throws InterruptedException {
+        VCFPipeline.ensureDecoded(vc);
+        while(!buffer.offer(vc, OFFER_TIMEOUT, TimeUnit.MILLISECONDS)){
+            if(cancelled.get()){
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Takes the next passing variant from the buffer.
+     * 
+     * @param timeout milliseconds to wait for a variant
+     * @return VariantContext null if no variant arrived within timeout
+     * @throws InterruptedException if interrupted while waiting
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public VariantContext poll(long timeout) throws InterruptedException {
+        return buffer.poll(timeout, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Tests if filtering of the file has ended and all passing variants were taken.
+     * 
+     * @return boolean
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public boolean isDrained(){
+        return finished && buffer.isEmpty();
+    }
+    
+    /**
+     * Returns the top ranked variants of the file.
+     * 
+     * @return RankedVariants null if the passing variants are returned
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public RankedVariants getRanking(){
+        return ranking;
+    }
+    
+    /**
+     * Returns the filter statistics of this task.
+     * 
+     * @return AdaptiveFilterChain
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public AdaptiveFilterChain getStatistics(){
+        return statistics;
+    }
+    
+    /**
+     * Returns the prefilter of this task.
+     * 
+     * @return RawLinePrefilter
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public RawLinePrefilter getPrefilter(){
+        return prefilter;
+    }
+    
+    /**
+     * Tests if the output limit stopped filtering of this file.
+     * 
+     * @return boolean
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public boolean isLimitReached(){
+        return limitReached;
+    }
+    
+    /**
+     * Returns the header of the file restricted to the selected samples, null if filtering has not started.
+     * 
+     * @return VCFHeader
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public VCFHeader getHeader(){
+        return header;
+    }
+}
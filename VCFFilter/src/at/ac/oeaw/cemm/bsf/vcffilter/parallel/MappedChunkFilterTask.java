@@ -0,0 +1,276 @@
+/*
+*     This file is part of the VCF.Filter project (https://biomedical-sequencing.at/VCFFilter/).
+*     VCF.Filter permits graphical filtering of VCF files on cutom annotations and standard VCF fields, pedigree analysis, and cohort searches.
+* %%
+*     Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+* %%
+* 
+*     VCF.Filter is free software: you can redistribute it and/or modify
+*     it under the terms of the GNU General Public License as published by
+*     the Free Software Foundation, either version 3 of the License, or
+*     (at your option) any later version.
+* 
+*     This program is distributed in the hope that it will be useful,
+*     but WITHOUT ANY WARRANTY; without even the implied warranty of
+*     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*     GNU General Public License for more details.
+* 
+*     You should have received a copy of the GNU General Public License
+*     along with VCF.Filter.  If not, see <http://www.gnu.org/licenses/>.
+* 
+*     VCF.Filter  Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+*     This program comes with ABSOLUTELY NO WARRANTY;
+*     This is free software, and you are welcome to redistribute it
+*     under certain conditions; 
+*     For details interrogate the About section in the File menu.
+*/
+package at.ac.oeaw.cemm.bsf.vcffilter.parallel;
+
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.AdaptiveFilterChain;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.AttributeView;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.CompiledFilterChain;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.RawLinePrefilter;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.SampleProjection;
+import htsjdk.tribble.readers.AsciiLineReader;
+import htsjdk.tribble.readers.AsciiLineReaderIterator;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.vcf.VCFCodec;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Decodes and filters the lines starting in one byte range of a memory-mapped plain VCF file. 
+ * The task maps its range plus an overhang for the last line, finds its own first and last 
+ * line boundaries and copies the lines out of the mapping in one bulk read. 
+ * Each task uses its own codec, attribute view and filter statistics.
+ * 
+ * MappedChunkFilterTask.java 17 OCT 2026
+ *
+ * @author Heiko Müller
+ * @version 1.0
+ * @since 1.0
+ */
+public class MappedChunkFilterTask extends RecursiveTask<ArrayList<VariantContext>> {
+    
+    /**
+     * The version number of this class.
+     */
+    static final long serialVersionUID = 1L;
+    
+    /**
+     * Initial number of bytes mapped beyond the range for the last line.
+     */
+    private static final int OVERHANG = 1024 * 1024;
+    
+    /**
+     * The channel of the plain VCF file.
+     */
+    private final FileChannel channel;
+    
+    /**
+     * Name of the file for error messages.
+     */
+    private final String name;
+    
+    /**
+     * Index of the range in the file.
+     */
+    private final int index;
+    
+    /**
+     * First byte of the range.
+     */
+    private final long start;
+    
+    /**
+     * End of the range, exclusive.
+     */
+    private final long end;
+    
+    /**
+     * First byte after the header lines.
+     */
+    private final long dataStart;
+    
+    /**
+     * The raw VCF header lines.
+     */
+    private final byte[] header;
+    
+    /**
+     * Filter chain and statistics of this task.
+     */
+    private final AdaptiveFilterChain statistics;
+    
+    /**
+     * Fixed column prefilter of this task.
+     */
+    private final RawLinePrefilter prefilter;
+    
+    /**
+     * Selected samples of the chain, null for all.
+     */
+    private final List<String> samples;
+    
+    /**
+     * Creates new MappedChunkFilterTask.
+     * 
+     * @param channel channel of the plain VCF file
+     * @param name file name for error messages
+     * @param index index of the range in the file
+     * @param start first byte of the range
+     * @param end end of the range, exclusive
+     * @param dataStart first byte after the header lines
+     * @param header the raw VCF header lines
+     * @param chain the compiled filter chain
+     * @param learned chain holding the filter order and statistics learned on the preceding ranges
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public MappedChunkFilterTask(FileChannel channel, String name, int index, long start, long end, long dataStart, byte[] header, CompiledFilterChain chain, AdaptiveFilterChain learned){
+        this.channel = channel;
+        this.name = name;
+        this.index = index;
+        this.start = start;
+        this.end = end;
+        this.dataStart = dataStart;
+        this.header = header;
+        this.statistics = new AdaptiveFilterChain(learned);
+        this.prefilter = new RawLinePrefilter(chain);
+        this.samples = chain.getSamples();
+    }
+    
+    /**
+     * Filters the lines starting in the range and returns the variants passing the filter chain in file order. 
+     * A line starts in the range if the byte before it is a line feed, so ranges other than the first one 
+     * are mapped from the byte before their start.
+     * 
+     * @return ArrayList&#60;VariantContext&#62;
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    @Override
+    protected ArrayList<VariantContext> compute(){
+        ArrayList<VariantContext> result = new ArrayList<VariantContext>();
+        byte[] lines;
+        try{
+            lines = readLines();
+        }catch(IOException ioe){
+            throw new RuntimeException("Problem reading range " + index + " of " + name + ": " + ioe.getMessage(), ioe);
+        }
+        if(lines.length == 0){
+            return result;
+        }
+        VCFCodec codec = new VCFCodec();
+        SampleProjection projection = SampleProjection.create(header, samples);
+        byte[] projectedHeader = projection != null ? projection.projectHeader(header) : header;
+        codec.readActualHeader(new AsciiLineReaderIterator(new AsciiLineReader(new ByteArrayInputStream(projectedHeader))));
+        AttributeView attributes = new AttributeView();
+        int from = 0;
+        while(from < lines.length){
+            int to = from;
+            while(to < lines.length && lines[to] != '\n'){
+                to++;
+            }
+            int next = to + 1;
+            if(to > from && lines[to - 1] == '\r'){
+                to--;
+            }
+            if(to > from && lines[from] != '#'){
+                String line = new String(lines, from, to - from, StandardCharsets.ISO_8859_1);
+                if(prefilter.mayPass(line)){
+                    VariantContext vc = codec.decode(projection != null ? projection.project(line) : line);
+                    if(statistics.passes(vc, attributes)){
+                        VCFPipeline.ensureDecoded(vc);
+                        result.add(vc);
+                    }
+                }
+            }
+            from = next;
+        }
+        return result;
+    }
+    
+    /**
+     * Maps the range and returns the bytes of the lines starting in it. The overhang 
+     * is doubled until the last line is complete.
+     * 
+     * @return byte[] lines, empty if no line starts in the range
+     * @throws IOException if the file cannot be mapped or a line does not fit into a mapping
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private byte[] readLines() throws IOException {
+        long from = start > dataStart ? start - 1 : start;
+        long size = channel.size();
+        long overhang = OVERHANG;
+        while(true){
+            long limit = Math.min(size, end + overhang);
+            if(limit - from > Integer.MAX_VALUE){
+                throw new IOException("line at byte " + end + " is too long");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, from, limit - from);
+            int first = 0;
+            if(from < start){
+                while(first < buffer.limit() && buffer.get(first) != '\n'){
+                    first++;
+                }
+                first++;
+            }
+            if(from + first >= end){
+                return new byte[0];
+            }
+            int last = (int)(end - from) - 1;
+            while(last < buffer.limit() && buffer.get(last) != '\n'){
+                last++;
+            }
+            if(last == buffer.limit() && limit < size){
+                overhang *= 2;
+                continue;
+            }
+            byte[] lines = new byte[Math.min(last + 1, buffer.limit()) - first];
+            buffer.position(first);
+            buffer.get(lines);
+            return lines;
+        }
+    }
+    
+    /**
+     * Returns the filter statistics of this task.
+     * 
+     * @return AdaptiveFilterChain
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public AdaptiveFilterChain getStatistics(){
+        return statistics;
+    }
+    
+    /**
+     * Returns the prefilter of this task.
+     * 
+     * @return RawLinePrefilter
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public RawLinePrefilter getPrefilter(){
+        return prefilter;
+    }
+    
+    /**
+     * Returns the number of bytes of the range.
+     * 
+     * @return long
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public long getLength(){
+        return end - start;
+    }
+}
@@ -0,0 +1,321 @@
+/*
+*     This file is part of the VCF.Filter project (https://biomedical-sequencing.at/VCFFilter/).
+*     VCF.Filter permits graphical filtering of VCF files on cutom annotations and standard VCF fields, pedigree analysis, and cohort searches.
+* %%
+*     Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+* %%
+* 
+*     VCF.Filter is free software: you can redistribute it and/or modify
+*     it under the terms of the GNU General Public License as published by
+*     the Free Software Foundation, either version 3 of the License, or
+*     (at your option) any later version.
+* 
+*     This program is distributed in the hope that it will be useful,
+*     but WITHOUT ANY WARRANTY; without even the implied warranty of
+*     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*     GNU General Public License for more details.
+* 
+*     You should have received a copy of the GNU General Public License
+*     along with VCF.Filter.  If not, see <http://www.gnu.org/licenses/>.
+* 
+*     VCF.Filter  Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+*     This program comes with ABSOLUTELY NO WARRANTY;
+*     This is free software, and you are welcome to redistribute it
+*     under certain conditions; 
+*     For details interrogate the About section in the File menu.
+*/
+package at.ac.oeaw.cemm.bsf.vcffilter.parallel;
+
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.AdaptiveFilterChain;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.CompiledFilterChain;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.PrefilteringVariantIterator;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.RawLinePrefilter;
+import at.ac.oeaw.cemm.bsf.vcffilter.progress.InputProgress;
+import htsjdk.samtools.util.CloseableIterator;
+import htsjdk.variant.variantcontext.VariantContext;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Filters an uncompressed VCF file in parallel. The file is memory-mapped in fixed size byte ranges, 
+ * each range is decoded and filtered on a ForkJoinPool by a MappedChunkFilterTask, which finds the 
+ * line boundaries of its range itself. Iterates over the variants passing the filter chain in 
+ * original file order. Only a bounded window of ranges is in flight, so that memory use does not 
+ * depend on file size. Gzipped files are filtered by ParallelVCFScanner or VCFPipeline instead.
+ * 
+ * MappedVCFScanner.java 17 OCT 2026
+ *
+ * @author Heiko Müller
+ * @version 1.0
+ * @since 1.0
+ */
+public class MappedVCFScanner implements CloseableIterator<VariantContext> {
+    
+    /**
+     * Size of a range in bytes.
+     */
+    public static final long RANGE_SIZE = 8L * 1024 * 1024;
+    
+    /**
+     * Number of ranges in flight per thread.
+     */
+    private static final int RANGES_PER_THREAD = 2;
+    
+    /**
+     * The plain VCF file.
+     */
+    private final File file;
+    
+    /**
+     * The file opened for mapping.
+     */
+    private final RandomAccessFile raf;
+    
+    /**
+     * The channel ranges are mapped from.
+     */
+    private final FileChannel channel;
+    
+    /**
+     * The compiled filter chain.
+     */
+    private final CompiledFilterChain chain;
+    
+    /**
+     * Collects the filter statistics of all ranges, may be null.
+     */
+    private final AdaptiveFilterChain statistics;
+    
+    /**
+     * Filter order and statistics learned on the ranges returned so far, each new range starts from them.
+     */
+    private final AdaptiveFilterChain learned;
+    
+    /**
+     * Collects the prefilter statistics of all ranges, may be null.
+     */
+    private final RawLinePrefilter prefilter;
+    
+    /**
+     * The raw VCF header lines.
+     */
+    private final byte[] header;
+    
+    /**
+     * First byte after the header lines.
+     */
+    private final long dataStart;
+    
+    /**
+     * Size of the file.
+     */
+    private final long size;
+    
+    /**
+     * The pool decoding and filtering ranges.
+     */
+    private final ForkJoinPool pool;
+    
+    /**
+     * Maximum number of ranges in flight.
+     */
+    private final int window;
+    
+    /**
+     * Submitted tasks in file order.
+     */
+    private final ArrayDeque<MappedChunkFilterTask> pending = new ArrayDeque<MappedChunkFilterTask>();
+    
+    /**
+     * Start of the next range to be submitted.
+     */
+    private long nextStart;
+    
+    /**
+     * Index of the next range to be submitted.
+     */
+    private int nextRange = 0;
+    
+    /**
+     * Progress of the file, null if not reported.
+     */
+    private final InputProgress progress;
+    
+    /**
+     * Variants of the range currently emitted.
+     */
+    private Iterator<VariantContext> current = Collections.<VariantContext>emptyList().iterator();
+    
+    /**
+     * Creates new MappedVCFScanner and starts filtering. The bytes, records read and records 
+     * passing the filter chain of each returned range are reported to progress.
+     * 
+     * @param file uncompressed VCF 4.x file
+     * @param chain the compiled filter chain
+     * @param statistics collects the filter statistics of all ranges, may be null
+     * @param prefilter collects the prefilter statistics of all ranges, may be null
+     * @param threads number of threads
+     * @param progress progress of the file, may be null
+     * @throws IOException if the file cannot be read
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public MappedVCFScanner(File file, CompiledFilterChain chain, AdaptiveFilterChain statistics, RawLinePrefilter prefilter, int threads, InputProgress progress) throws IOException {
+        this.file = file;
+        this.progress = progress;
+        this.chain = chain;
+        this.statistics = statistics;
+        this.learned = new AdaptiveFilterChain(chain);
+        this.prefilter = prefilter;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        this.dataStart = readHeader(file, out);
+        this.header = out.toByteArray();
+        this.raf = new RandomAccessFile(file, "r");
+        this.channel = raf.getChannel();
+        this.size = channel.size();
+        this.nextStart = dataStart;
+        this.pool = new ForkJoinPool(threads);
+        this.window = threads * RANGES_PER_THREAD;
+        if(progress != null){
+            progress.addBytes(dataStart);
+        }
+        submit();
+    }
+    
+    /**
+     * Tests if f is an uncompressed VCF 4.x file.
+     * 
+     * @param f VCF file
+     * @return boolean true if f can be scanned in parallel
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public static boolean canScan(File f){
+        String name = f.getName().toLowerCase();
+        if(name.endsWith(".gz") || name.endsWith(".bgz") || !f.isFile()){
+            return false;
+        }
+        return PrefilteringVariantIterator.canRead(f);
+    }
+    
+    /**
+     * Copies the header lines of f to out and returns the offset of the first data line.
+     * 
+     * @param f uncompressed VCF file
+     * @param out receives the header lines
+     * @return long offset of the first line not starting with #
+     * @throws IOException if the file cannot be read
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private static long readHeader(File f, ByteArrayOutputStream out) throws IOException {
+        InputStream in = new BufferedInputStream(new FileInputStream(f), 65536);
+        long offset = 0;
+        try{
+            int c = in.read();
+            while(c == '#'){
+                while(c != -1 && c != '\n'){
+                    if(c != '\r'){
+                        out.write(c);
+                    }
+                    offset++;
+                    c = in.read();
+                }
+                out.write('\n');
+                if(c == '\n'){
+                    offset++;
+                    c = in.read();
+                }
+            }
+        }finally{
+            in.close();
+        }
+        return offset;
+    }
+    
+    /**
+     * Submits ranges until the window is full.
+     * 
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private void submit(){
+        while(pending.size() < window && nextStart < size){
+            long end = Math.min(size, nextStart + RANGE_SIZE);
+            MappedChunkFilterTask task = new MappedChunkFilterTask(channel, file.getName(), nextRange, nextStart, end, dataStart, header, chain, learned);
+            pool.execute(task);
+            pending.add(task);
+            nextStart = end;
+            nextRange++;
+        }
+    }
+    
+    @Override
+    public boolean hasNext(){
+        while(!current.hasNext()){
+            MappedChunkFilterTask task = pending.poll();
+            if(task == null){
+                close();
+                return false;
+            }
+            ArrayList<VariantContext> variants = task.join();
+            learned.add(task.getStatistics());
+            if(statistics != null){
+                statistics.add(task.getStatistics());
+            }
+            if(prefilter != null){
+                prefilter.add(task.getPrefilter());
+            }
+            if(progress != null){
+                progress.addBytes(task.getLength());
+                progress.getProgress().addRecords(task.getStatistics().getRecords() + task.getPrefilter().getRejected());
+                progress.getProgress().addPassedFilters(variants.size());
+            }
+            submit();
+            current = variants.iterator();
+        }
+        return true;
+    }
+    
+    @Override
+    public VariantContext next(){
+        if(!hasNext()){
+            throw new NoSuchElementException();
+        }
+        return current.next();
+    }
+    
+    @Override
+    public void remove(){
+        throw new UnsupportedOperationException();
+    }
+    
+    /**
+     * Cancels ranges in flight, shuts down the pool and closes the file.
+     */
+    @Override
+    public void close(){
+        for(MappedChunkFilterTask task : pending){
+            task.cancel(true);
+        }
+        pending.clear();
+        pool.shutdownNow();
+        try{
+            raf.close();
+        }catch(IOException ioe){
+            ioe.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,394 @@
+/*
+*     This file is part of the VCF.Filter project (https://biomedical-sequencing.at/VCFFilter/).
+*     VCF.Filter permits graphical filtering of VCF files on cutom annotations and standard VCF fields, pedigree analysis, and cohort searches.
+* %%
+*     Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+* %%
+* 
+*     VCF.Filter is free software: you can redistribute it and/or modify
+*     it under the terms of the GNU General Public License as published by
+*     the Free Software Foundation, either version 3 of the License, or
+*     (at your option) any later version.
+* 
+*     This program is distributed in the hope that it will be useful,
+*     but WITHOUT ANY WARRANTY; without even the implied warranty of
+*     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*     GNU General Public License for more details.
+* 
+*     You should have received a copy of the GNU General Public License
+*     along with VCF.Filter.  If not, see <http://www.gnu.org/licenses/>.
+* 
+*     VCF.Filter  Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+*     This program comes with ABSOLUTELY NO WARRANTY;
+*     This is free software, and you are welcome to redistribute it
+*     under certain conditions; 
+*     For details interrogate the About section in the File menu.
+*/
+package at.ac.oeaw.cemm.bsf.vcffilter.parallel;
+
+import at.ac.oeaw.cemm.bsf.vcffilter.genomeutils.GenomicElement;
+import at.ac.oeaw.cemm.bsf.vcffilter.index.QueryPlan;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.AdaptiveFilterChain;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.CompiledFilterChain;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.RawLinePrefilter;
+import at.ac.oeaw.cemm.bsf.vcffilter.progress.FilterProgress;
+import at.ac.oeaw.cemm.bsf.vcffilter.store.RankedVariants;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.vcf.VCFHeader;
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Filters several VCF files concurrently on a bounded thread pool, each file with its own reader 
+ * and filter chain instance. The results are returned file by file in the original file order. 
+ * Only a bounded window of files is in flight, and each file streams its passing variants through 
+ * a bounded buffer, so that variants of files waiting for earlier ones do not accumulate without limit.
+ * 
+ * MultiFileFilter.java 17 OCT 2026
+ *
+ * @author Heiko Müller
+ * @version 1.0
+ * @since 1.0
+ */
+public class MultiFileFilter {
+    
+    /**
+     * Number of files in flight per thread.
+     */
+    private static final int FILES_PER_THREAD = 2;
+    
+    /**
+     * The VCF files in file order.
+     */
+    private final File[] files;
+    
+    /**
+     * The compiled filter chain.
+     */
+    private final CompiledFilterChain chain;
+    
+    /**
+     * Regions to be queried, null for all variants.
+     */
+    private final ArrayList<GenomicElement> regions;
+    
+    /**
+     * The shared output limit, null if unlimited.
+     */
+    private final OutputBudget budget;
+    
+    /**
+     * Black list and recurrence cutoff, null if variants passing the filter chain are candidates.
+     */
+    private final CandidateFilter candidates;
+    
+    /**
+     * Collects the top ranked variants of all files, null if none.
+     */
+    private final RankedVariants ranking;
+    
+    /**
+     * Collects the filter statistics of all files, may be null.
+     */
+    private final AdaptiveFilterChain statistics;
+    
+    /**
+     * Filter order and statistics learned on the files returned so far, each new file starts from them.
+     */
+    private final AdaptiveFilterChain learned;
+    
+    /**
+     * Collects the prefilter statistics of all files, may be null.
+     */
+    private final RawLinePrefilter prefilter;
+    
+    /**
+     * The thread pool.
+     */
+    private final ExecutorService executor;
+    
+    /**
+     * Maximum number of files in flight.
+     */
+    private final int window;
+    
+    /**
+     * Set if filtering is cancelled.
+     */
+    private final AtomicBoolean cancelled = new AtomicBoolean(false);
+    
+    /**
+     * Number of files finished.
+     */
+    private final AtomicInteger completed = new AtomicInteger(0);
+    
+    /**
+     * Submitted tasks in file order.
+     */
+    private final ArrayDeque<FileFilterTask> tasks = new ArrayDeque<FileFilterTask>();
+    
+    /**
+     * Futures of the submitted tasks in file order.
+     */
+    private final ArrayDeque<Future<Void>> futures = new ArrayDeque<Future<Void>>();
+    
+    /**
+     * Task of the current file, null before the first call of next.
+     */
+    private FileFilterTask current;
+    
+    /**
+     * Future of the current file.
+     */
+    private Future<Void> currentFuture;
+    
+    /**
+     * Index of the next file to be submitted.
+     */
+    private int nextFile = 0;
+    
+    /**
+     * True if the output limit stopped filtering of a finished file.
+     */
+    private boolean limitReached = false;
+    
+    /**
+     * Query plan of the file last finished, null if read without region queries.
+     */
+    private QueryPlan queryPlan;
+    
+    /**
+     * Progress of the run, null if not reported.
+     */
+    private final FilterProgress progress;
+    
+    /**
+     * Creates new MultiFileFilter and starts filtering.
+     * 
+     * @param files the VCF files in file order
+     * @param chain the compiled filter chain
+     * @param regions regions to be queried, null for all variants
+     * @param budget the shared output limit, null if unlimited
+     * @param statistics collects the filter statistics of all files, may be null
+     * @param prefilter collects the prefilter statistics of all files, may be null
+     * @param threads number of threads
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public MultiFileFilter(File[] files, CompiledFilterChain chain, ArrayList<GenomicElement> regions, OutputBudget budget, AdaptiveFilterChain statistics, RawLinePrefilter prefilter, int threads){
+        this(files, chain, regions, budget, null, null, statistics, prefilter, threads, null);
+    }
+    
+    /**
+     * Creates new MultiFileFilter and starts filtering. Bytes consumed and records per stage 
+     * of all files are reported to progress.
+     * 
+     * @param files the VCF files in file order
+     * @param chain the compiled filter chain
+     * @param regions regions to be queried, null for all variants
+     * @param budget the shared output limit, null if unlimited
+     * @param candidates black list and recurrence cutoff, may be null
+     * @param ranking collects the top ranked variants of all files, null if the passing variants are returned
+     * @param statistics collects the filter statistics of all files, may be null
+     * @param prefilter collects the prefilter statistics of all files, may be null
+     * @param threads number of threads
+     * @param progress progress of the run, may be null
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public MultiFileFilter(File[] files, CompiledFilterChain chain, ArrayList<GenomicElement> regions, OutputBudget budget, CandidateFilter candidates, RankedVariants ranking, AdaptiveFilterChain statistics, RawLinePrefilter prefilter, int threads, FilterProgress progress){
+        this.files = files;
+        this.ranking = ranking;
+        this.candidates = candidates;
+        this.progress = progress;
+        this.chain = chain;
+        this.regions = regions;
+        this.budget = budget;
+        this.statistics = statistics;
+        this.learned = new AdaptiveFilterChain(chain);
+        this.prefilter = prefilter;
+        this.executor = Executors.newFixedThreadPool(threads, new ThreadFactory(){
+            @Override
+            public Thread newThread(Runnable r){
+                Thread t = new Thread(r, "VCF.Filter file filter");
+                t.setDaemon(true);
+                return t;
+            }
+        });
+        this.window = threads * FILES_PER_THREAD;
+        submit();
+    }
+    
+    /**
+     * Submits files until the window is full.
+     * 
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private void submit(){
+        while(tasks.size() < window && nextFile < files.length){
+            final FileFilterTask task = new FileFilterTask(files[nextFile], nextFile, chain, learned, regions, budget, candidates, ranking, cancelled, progress != null ? progress.startInput(files[nextFile]) : null);
+            futures.add(executor.submit(new Callable<Void>(){
+                @Override
+                public Void call() throws InterruptedException {
+                    try{
+                        return task.call();
+                    }finally{
+                        completed.incrementAndGet();
+                    }
+                }
+            }));
+            tasks.add(task);
+            nextFile++;
+        }
+    }
+    
+    /**
+     * Tests if there are files left to be returned.
+     * 
+     * @return boolean
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public boolean hasNext(){
+        return !futures.isEmpty();
+    }
+    
+    /**
+     * Makes the next file in file order the current file. Its passing variants are taken 
+     * with poll until isFileDone, then the file is closed with finishFile.
+     * 
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public void next(){
+        currentFuture = futures.poll();
+        current = tasks.poll();
+    }
+    
+    /**
+     * Takes the next passing variant of the current file.
+     * 
+     * @param timeout milliseconds to wait for a variant
+     * @return VariantContext null if no variant arrived within timeout
+     * @throws InterruptedException if interrupted while waiting
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public VariantContext poll(long timeout) throws InterruptedException {
+        return current.poll(timeout);
+    }
+    
+    /**
+     * Tests if filtering of the current file has ended and all its passing variants were taken.
+     * 
+     * @return boolean
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public boolean isFileDone(){
+        return current.isDrained();
+    }
+    
+    /**
+     * Waits for filtering of the current file to end and collects its statistics, ranking, 
+     * output limit state and query plan. Shuts down the pool after the last file.
+     * 
+     * @throws InterruptedException if interrupted while waiting
+     * @throws ExecutionException if filtering of the file failed
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public void finishFile() throws InterruptedException, ExecutionException {
+        currentFuture.get();
+        learned.add(current.getStatistics());
+        if(statistics != null){
+            statistics.add(current.getStatistics());
+        }
+        if(prefilter != null){
+            prefilter.add(current.getPrefilter());
+        }
+        if(ranking != null){
+            ranking.add(current.getRanking());
+        }
+        limitReached = limitReached || current.isLimitReached();
+        queryPlan = current.getQueryPlan();
+        submit();
+        if(futures.isEmpty()){
+            executor.shutdown();
+        }
+    }
+    
+    /**
+     * Cancels all files in flight and shuts down the pool.
+     * 
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public void cancel(){
+        cancelled.set(true);
+        if(currentFuture != null){
+            currentFuture.cancel(true);
+        }
+        for(Future<Void> future : futures){
+            future.cancel(true);
+        }
+        futures.clear();
+        tasks.clear();
+        executor.shutdownNow();
+    }
+    
+    /**
+     * Returns the number of files finished, including files not yet returned.
+     * 
+     * @return int
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public int getCompletedFiles(){
+        return completed.get();
+    }
+    
+    /**
+     * Tests if the output limit stopped filtering of a finished file.
+     * 
+     * @return boolean
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public boolean isLimitReached(){
+        return limitReached;
+    }
+    
+    /**
+     * Returns the header of the current file restricted to the selected samples, null until filtering 
+     * of the file has started. It is set before the first passing variant of the file is buffered.
+     * 
+     * @return VCFHeader
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public VCFHeader getHeader(){
+        return current.getHeader();
+    }
+    
+    /**
+     * Returns the query plan of the file finished last.
+     * 
+     * @return QueryPlan null if the file was not read with region queries
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public QueryPlan getQueryPlan(){
+        return queryPlan;
+    }
+}
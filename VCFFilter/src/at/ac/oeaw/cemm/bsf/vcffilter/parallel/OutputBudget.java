@@ -0,0 +1,122 @@
+/*
+*     This file is part of the VCF.Filter project (https://biomedical-sequencing.at/VCFFilter/).
+*     VCF.Filter permits graphical filtering of VCF files on cutom annotations and standard VCF fields, pedigree analysis, and cohort searches.
+* %%
+*     Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+* %%
+* 
+*     VCF.Filter is free software: you can redistribute it and/or modify
+*     it under the terms of the GNU General Public License as published by
+*     the Free Software Foundation, either version 3 of the License, or
+*     (at your option) any later version.
+* 
+*     This program is distributed in the hope that it will be useful,
+*     but WITHOUT ANY WARRANTY; without even the implied warranty of
+*     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*     GNU General Public License for more details.
+* 
+*     You should have received a copy of the GNU General Public License
+*     along with VCF.Filter.  If not, see <http://www.gnu.org/licenses/>.
+* 
+*     VCF.Filter  Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+*     This program comes with ABSOLUTELY NO WARRANTY;
+*     This is free software, and you are welcome to redistribute it
+*     under certain conditions; 
+*     For details interrogate the About section in the File menu.
+*/
+package at.ac.oeaw.cemm.bsf.vcffilter.parallel;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Output limit shared by files filtered concurrently. A file may stop filtering as soon as 
+ * it and all files before it have found at least limit variants in total. Files before it 
+ * can only add variants, so the first limit variants in file order are the same as 
+ * with sequential filtering.
+ * 
+ * OutputBudget.java 17 OCT 2026
+ *
+ * @author Heiko Müller
+ * @version 1.0
+ * @since 1.0
+ */
+public class OutputBudget {
+    
+    /**
+     * The output limit.
+     */
+    private final int limit;
+    
+    /**
+     * Number of variants found per file.
+     */
+    private final AtomicIntegerArray found;
+    
+    /**
+     * Number of variants found in all files.
+     */
+    private final AtomicInteger total = new AtomicInteger();
+    
+    /**
+     * Creates new OutputBudget.
+     * 
+     * @param limit the output limit
+     * @param files number of files
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public OutputBudget(int limit, int files){
+        this.limit = limit;
+        this.found = new AtomicIntegerArray(files);
+    }
+    
+    /**
+     * Records a variant found in file and tests if the file may stop filtering.
+     * 
+     * @param file index of the file in file order
+     * @return boolean true if the file may stop filtering
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public boolean add(int file){
+        found.incrementAndGet(file);
+        if(total.incrementAndGet() < limit){
+            return false;
+        }
+        return isExhausted(file);
+    }
+    
+    /**
+     * Tests if file and all files before it have found at least limit variants.
+     * 
+     * @param file index of the file in file order
+     * @return boolean true if the file may stop filtering
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public boolean isExhausted(int file){
+        if(total.get() < limit){
+            return false;
+        }
+        long sum = 0;
+        for(int i = 0; i <= file; i++){
+            sum += found.get(i);
+            if(sum >= limit){
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Getter for limit variable.
+     * 
+     * @return int
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public int getLimit(){
+        return limit;
+    }
+}
@@ -0,0 +1,301 @@
+/*
+*     This file is part of the VCF.Filter project (https://biomedical-sequencing.at/VCFFilter/).
+*     VCF.Filter permits graphical filtering of VCF files on cutom annotations and standard VCF fields, pedigree analysis, and cohort searches.
+* %%
+*     Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+* %%
+* 
+*     VCF.Filter is free software: you can redistribute it and/or modify
+*     it under the terms of the GNU General Public License as published by
+*     the Free Software Foundation, either version 3 of the License, or
+*     (at your option) any later version.
+* 
+*     This program is distributed in the hope that it will be useful,
+*     but WITHOUT ANY WARRANTY; without even the implied warranty of
+*     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*     GNU General Public License for more details.
+* 
+*     You should have received a copy of the GNU General Public License
+*     along with VCF.Filter.  If not, see <http://www.gnu.org/licenses/>.
+* 
+*     VCF.Filter  Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+*     This program comes with ABSOLUTELY NO WARRANTY;
+*     This is free software, and you are welcome to redistribute it
+*     under certain conditions; 
+*     For details interrogate the About section in the File menu.
+*/
+package at.ac.oeaw.cemm.bsf.vcffilter.parallel;
+
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.AdaptiveFilterChain;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.CompiledFilterChain;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.PrefilteringVariantIterator;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.RawLinePrefilter;
+import at.ac.oeaw.cemm.bsf.vcffilter.progress.InputProgress;
+import htsjdk.samtools.util.BlockCompressedInputStream;
+import htsjdk.samtools.util.CloseableIterator;
+import htsjdk.variant.variantcontext.VariantContext;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Filters a bgzipped VCF file in parallel. The file is split into chunks at BGZF block boundaries, 
+ * the chunks are decoded and filtered concurrently on a ForkJoinPool, each task with its own reader. 
+ * Iterates over the variants passing the filter chain in original file order. 
+ * Only a bounded window of chunks is in flight, so that memory use does not depend on file size.
+ * 
+ * ParallelVCFScanner.java 17 OCT 2026
+ *
+ * @author Heiko Müller
+ * @version 1.0
+ * @since 1.0
+ */
+public class ParallelVCFScanner implements CloseableIterator<VariantContext> {
+    
+    /**
+     * Minimum compressed size of a chunk in bytes.
+     */
+    public static final long CHUNK_SIZE = 1024L * 1024;
+    
+    /**
+     * Number of chunks in flight per thread.
+     */
+    private static final int CHUNKS_PER_THREAD = 2;
+    
+    /**
+     * The block compressed VCF file.
+     */
+    private final File file;
+    
+    /**
+     * The compiled filter chain.
+     */
+    private final CompiledFilterChain chain;
+    
+    /**
+     * Collects the filter statistics of all chunks, may be null.
+     */
+    private final AdaptiveFilterChain statistics;
+    
+    /**
+     * Filter order and statistics learned on the chunks returned so far, each new chunk starts from them.
+     */
+    private final AdaptiveFilterChain learned;
+    
+    /**
+     * Collects the prefilter statistics of all chunks, may be null.
+     */
+    private final RawLinePrefilter prefilter;
+    
+    /**
+     * The raw VCF header lines.
+     */
+    private final byte[] header;
+    
+    /**
+     * The chunks of the file.
+     */
+    private final ArrayList<BGZFChunk> chunks;
+    
+    /**
+     * The pool decoding and filtering chunks.
+     */
+    private final ForkJoinPool pool;
+    
+    /**
+     * Maximum number of chunks in flight.
+     */
+    private final int window;
+    
+    /**
+     * Submitted tasks in chunk order.
+     */
+    private final ArrayDeque<ChunkFilterTask> pending = new ArrayDeque<ChunkFilterTask>();
+    
+    /**
+     * Index of the next chunk to be submitted.
+     */
+    private int nextChunk = 0;
+    
+    /**
+     * Progress of the file, null if not reported.
+     */
+    private final InputProgress progress;
+    
+    /**
+     * Variants of the chunk currently emitted.
+     */
+    private Iterator<VariantContext> current = Collections.<VariantContext>emptyList().iterator();
+    
+    /**
+     * Creates new ParallelVCFScanner and starts filtering.
+     * 
+     * @param file bgzipped VCF 4.x file
+     * @param chain the compiled filter chain
+     * @param statistics collects the filter statistics of all chunks, may be null
+     * @param prefilter collects the prefilter statistics of all chunks, may be null
+     * @param threads number of threads
+     * @throws IOException if the file cannot be read or is not a valid BGZF file
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public ParallelVCFScanner(File file, CompiledFilterChain chain, AdaptiveFilterChain statistics, RawLinePrefilter prefilter, int threads) throws IOException {
+        this(file, chain, statistics, prefilter, threads, null);
+    }
+    
+    /**
+     * Creates new ParallelVCFScanner and starts filtering. The compressed bytes, records read 
+     * and records passing the filter chain of each returned chunk are reported to progress.
+     * 
+     * @param file bgzipped VCF 4.x file
+     * @param chain the compiled filter chain
+     * @param statistics collects the filter statistics of all chunks, may be null
+     * @param prefilter collects the prefilter statistics of all chunks, may be null
+     * @param threads number of threads
+     * @param progress progress of the file, may be null
+     * @throws IOException if the file cannot be read or is not a valid BGZF file
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public ParallelVCFScanner(File file, CompiledFilterChain chain, AdaptiveFilterChain statistics, RawLinePrefilter prefilter, int threads, InputProgress progress) throws IOException {
+        this.file = file;
+        this.progress = progress;
+        this.chain = chain;
+        this.statistics = statistics;
+        this.learned = new AdaptiveFilterChain(chain);
+        this.prefilter = prefilter;
+        this.header = readHeader(file);
+        this.chunks = BGZFChunk.split(file, CHUNK_SIZE);
+        this.pool = new ForkJoinPool(threads);
+        this.window = threads * CHUNKS_PER_THREAD;
+        submit();
+    }
+    
+    /**
+     * Tests if f is a bgzipped VCF 4.x file.
+     * 
+     * @param f VCF file
+     * @return boolean true if f can be scanned in parallel
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public static boolean canScan(File f){
+        String name = f.getName().toLowerCase();
+        if(!name.endsWith(".gz") && !name.endsWith(".bgz")){
+            return false;
+        }
+        try{
+            InputStream in = new BufferedInputStream(new FileInputStream(f));
+            try{
+                if(!BlockCompressedInputStream.isValidFile(in)){
+                    return false;
+                }
+            }finally{
+                in.close();
+            }
+        }catch(IOException ioe){
+            return false;
+        }
+        return PrefilteringVariantIterator.canRead(f);
+    }
+    
+    /**
+     * Reads the raw header lines of f.
+     * 
+     * @param f bgzipped VCF file
+     * @return byte[] header lines
+     * @throws IOException if the file cannot be read
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private static byte[] readHeader(File f) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BGZFLineReader in = new BGZFLineReader(f);
+        try{
+            String line;
+            while((line = in.readLine()) != null && line.startsWith("#")){
+                out.write(line.getBytes("ISO-8859-1"));
+                out.write('\n');
+            }
+        }finally{
+            in.close();
+        }
+        return out.toByteArray();
+    }
+    
+    /**
+     * Submits chunks until the window is full.
+     * 
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private void submit(){
+        while(pending.size() < window && nextChunk < chunks.size()){
+            ChunkFilterTask task = new ChunkFilterTask(file, chunks.get(nextChunk), header, chain, learned);
+            pool.execute(task);
+            pending.add(task);
+            nextChunk++;
+        }
+    }
+    
+    @Override
+    public boolean hasNext(){
+        while(!current.hasNext()){
+            ChunkFilterTask task = pending.poll();
+            if(task == null){
+                pool.shutdown();
+                return false;
+            }
+            ArrayList<VariantContext> variants = task.join();
+            learned.add(task.getStatistics());
+            if(statistics != null){
+                statistics.add(task.getStatistics());
+            }
+            if(prefilter != null){
+                prefilter.add(task.getPrefilter());
+            }
+            if(progress != null){
+                progress.addBytes(task.getChunk().getEnd() - task.getChunk().getStart());
+                progress.getProgress().addRecords(task.getStatistics().getRecords() + task.getPrefilter().getRejected());
+                progress.getProgress().addPassedFilters(variants.size());
+            }
+            submit();
+            current = variants.iterator();
+        }
+        return true;
+    }
+    
+    @Override
+    public VariantContext next(){
+        if(!hasNext()){
+            throw new NoSuchElementException();
+        }
+        return current.next();
+    }
+    
+    @Override
+    public void remove(){
+        throw new UnsupportedOperationException();
+    }
+    
+    /**
+     * Cancels chunks in flight and shuts down the pool.
+     */
+    @Override
+    public void close(){
+        for(ChunkFilterTask task : pending){
+            task.cancel(true);
+        }
+        pending.clear();
+        pool.shutdownNow();
+    }
+}
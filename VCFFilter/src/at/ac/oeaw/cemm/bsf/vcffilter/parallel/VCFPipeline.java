@@ -0,0 +1,533 @@
+/*
+*     This file is part of the VCF.Filter project (https://biomedical-sequencing.at/VCFFilter/).
+*     VCF.Filter permits graphical filtering of VCF files on cutom annotations and standard VCF fields, pedigree analysis, and cohort searches.
+* %%
+*     Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+* %%
+* 
+*     VCF.Filter is free software: you can redistribute it and/or modify
+*     it under the terms of the GNU General Public License as published by
+*     the Free Software Foundation, either version 3 of the License, or
+*     (at your option) any later version.
+* 
+*     This program is distributed in the hope that it will be useful,
+*     but WITHOUT ANY WARRANTY; without even the implied warranty of
+*     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*     GNU General Public License for more details.
+* 
+*     You should have received a copy of the GNU General Public License
+*     along with VCF.Filter.  If not, see <http://www.gnu.org/licenses/>.
+* 
+*     VCF.Filter  Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+*     This program comes with ABSOLUTELY NO WARRANTY;
+*     This is free software, and you are welcome to redistribute it
+*     under certain conditions; 
+*     For details interrogate the About section in the File menu.
+*/
+package at.ac.oeaw.cemm.bsf.vcffilter.parallel;
+
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.AdaptiveFilterChain;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.AttributeView;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.CompiledFilterChain;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.RawLinePrefilter;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.SampleProjection;
+import at.ac.oeaw.cemm.bsf.vcffilter.progress.ByteCountingInputStream;
+import at.ac.oeaw.cemm.bsf.vcffilter.progress.InputProgress;
+import htsjdk.samtools.util.CloseableIterator;
+import htsjdk.samtools.util.RuntimeIOException;
+import htsjdk.tribble.readers.AsciiLineReader;
+import htsjdk.tribble.readers.AsciiLineReaderIterator;
+import htsjdk.variant.variantcontext.GenotypesContext;
+import htsjdk.variant.variantcontext.LazyGenotypesContext;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.vcf.VCFCodec;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Filters a plain or gzipped VCF file in a staged pipeline. A reader thread reads and inflates 
+ * the file and cuts it into numbered batches of lines. Worker threads decode the lines, evaluate 
+ * the filter chain and decode the genotypes of passing variants. The iterator returns the 
+ * passing variants in batch order, i.e. in file order. A bounded queue of batches in flight 
+ * blocks the reader when the consumer falls behind, so that memory stays flat. 
+ * Bgzipped files are split by ParallelVCFScanner, uncompressed files by MappedVCFScanner instead.
+ * 
+ * VCFPipeline.java 17 OCT 2026
+ *
+ * @author Heiko Müller
+ * @version 1.0
+ * @since 1.0
+ */
+public class VCFPipeline implements CloseableIterator<VariantContext> {
+    
+    /**
+     * Maximum number of lines per batch.
+     */
+    public static final int BATCH_LINES = 1024;
+    
+    /**
+     * Maximum number of characters per batch.
+     */
+    public static final int BATCH_CHARS = 1024 * 1024;
+    
+    /**
+     * Number of batches in flight per worker thread.
+     */
+    private static final int BATCHES_PER_THREAD = 4;
+    
+    /**
+     * Seconds to wait for the workers to end their current batch when the pipeline is closed.
+     */
+    private static final long CLOSE_TIMEOUT = 10;
+    
+    /**
+     * Marks the end of the file in the batch queue.
+     */
+    private static final Batch END = new Batch(-1, null);
+    
+    /**
+     * Header lines, parsed by the codec of each worker thread.
+     */
+    private final byte[] header;
+    
+    /**
+     * Restricts the lines to the selected samples of the chain, null for all samples.
+     */
+    private final SampleProjection projection;
+    
+    /**
+     * The compiled filter chain.
+     */
+    private final CompiledFilterChain chain;
+    
+    /**
+     * Collects the filter statistics of all worker threads, may be null.
+     */
+    private final AdaptiveFilterChain statistics;
+    
+    /**
+     * Collects the prefilter statistics of all worker threads, may be null.
+     */
+    private final RawLinePrefilter prefilter;
+    
+    /**
+     * Progress of the file, null if not reported.
+     */
+    private final InputProgress progress;
+    
+    /**
+     * The line iterator of the reader thread.
+     */
+    private final AsciiLineReaderIterator lines;
+    
+    /**
+     * Decodes and filters batches.
+     */
+    private final ExecutorService workers;
+    
+    /**
+     * Batches in flight in batch order, bounded.
+     */
+    private final ArrayBlockingQueue<Future<Batch>> queue;
+    
+    /**
+     * State of all worker threads, merged into the statistics at the end of the file.
+     */
+    private final ArrayList<WorkerState> states = new ArrayList<WorkerState>();
+    
+    /**
+     * State of the current worker thread.
+     */
+    private final ThreadLocal<WorkerState> state = new ThreadLocal<WorkerState>(){
+        @Override
+        protected WorkerState initialValue(){
+            WorkerState s = new WorkerState(header, chain);
+            synchronized(states){
+                states.add(s);
+            }
+            return s;
+        }
+    };
+    
+    /**
+     * Set when the consumer closes the pipeline.
+     */
+    private volatile boolean closed = false;
+    
+    /**
+     * Exception of the reader thread, null if none.
+     */
+    private volatile Exception failure;
+    
+    /**
+     * Sequence number of the next batch to be returned.
+     */
+    private long nextSequence = 0;
+    
+    /**
+     * True after the end of the file was returned.
+     */
+    private boolean finished = false;
+    
+    /**
+     * Variants of the batch currently emitted.
+     */
+    private Iterator<VariantContext> current = Collections.<VariantContext>emptyList().iterator();
+    
+    /**
+     * Creates new VCFPipeline, reads the header and starts the reader thread.
+     * 
+     * @param file plain or gzipped VCF 4.x file
+     * @param chain the compiled filter chain
+     * @param statistics collects the filter statistics of all worker threads, may be null
+     * @param prefilter collects the prefilter statistics of all worker threads, may be null
+     * @param threads number of worker threads
+     * @param progress progress of the file, may be null
+     * @throws IOException if the file cannot be opened
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public VCFPipeline(File file, CompiledFilterChain chain, AdaptiveFilterChain statistics, RawLinePrefilter prefilter, int threads, InputProgress progress) throws IOException {
+        this.chain = chain;
+        this.statistics = statistics;
+        this.prefilter = prefilter;
+        this.progress = progress;
+        InputStream in = new FileInputStream(file);
+        if(progress != null){
+            in = new ByteCountingInputStream(in, progress);
+        }
+        String name = file.getName().toLowerCase();
+        if(name.endsWith(".gz") || name.endsWith(".bgz")){
+            in = new GZIPInputStream(in, 65536);
+        }
+        this.lines = new AsciiLineReaderIterator(new AsciiLineReader(in));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        while(lines.hasNext() && lines.peek().startsWith("#")){
+            out.write(lines.next().getBytes("ISO-8859-1"));
+            out.write('\n');
+        }
+        this.projection = SampleProjection.create(out.toByteArray(), chain.getSamples());
+        this.header = projection != null ? projection.projectHeader(out.toByteArray()) : out.toByteArray();
+        this.queue = new ArrayBlockingQueue<Future<Batch>>(threads * BATCHES_PER_THREAD);
+        this.workers = Executors.newFixedThreadPool(threads, new ThreadFactory(){
+            @Override
+            public Thread newThread(Runnable r){
+                Thread t = new Thread(r, "VCF.Filter pipeline worker");
+                t.setDaemon(true);
+                return t;
+            }
+        });
+        Thread reader = new Thread(new Runnable(){
+            @Override
+            public void run(){
+                read();
+            }
+        }, "VCF.Filter pipeline reader");
+        reader.setDaemon(true);
+        reader.start();
+    }
+    
+    /**
+     * Reads the file in batches of lines and submits them to the workers, 
+     * followed by the end marker. Blocks while the queue is full.
+     * 
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private void read(){
+        long sequence = 0;
+        try{
+            ArrayList<String> batch = new ArrayList<String>(BATCH_LINES);
+            int chars = 0;
+            while(!closed && lines.hasNext()){
+                String line = lines.next();
+                if(line.length() == 0){
+                    continue;
+                }
+                batch.add(line);
+                chars += line.length();
+                if(batch.size() >= BATCH_LINES || chars >= BATCH_CHARS){
+                    submit(sequence++, batch);
+                    batch = new ArrayList<String>(BATCH_LINES);
+                    chars = 0;
+                }
+            }
+            if(!batch.isEmpty()){
+                submit(sequence, batch);
+            }
+        }catch(Exception e){
+            failure = e;
+        }finally{
+            try{
+                lines.close();
+            }catch(IOException ioe){
+                ioe.printStackTrace();
+            }
+            FutureTask<Batch> end = new FutureTask<Batch>(new Callable<Batch>(){
+                @Override
+                public Batch call(){
+                    return END;
+                }
+            });
+            end.run();
+            try{
+                enqueue(end);
+            }catch(InterruptedException ie){
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+    
+    /**
+     * Submits a batch of lines to the workers.
+     * 
+     * @param sequence sequence number of the batch
+     * @param batch lines of the batch
+     * @throws InterruptedException if interrupted while waiting for space in the queue
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private void submit(final long sequence, final ArrayList<String> batch) throws InterruptedException {
+        enqueue(workers.submit(new Callable<Batch>(){
+            @Override
+            public Batch call(){
+                return filter(sequence, batch);
+            }
+        }));
+    }
+    
+    /**
+     * Puts a batch into the queue, waiting for space unless the pipeline is closed.
+     * 
+     * @param future the batch
+     * @throws InterruptedException if interrupted while waiting
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private void enqueue(Future<Batch> future) throws InterruptedException {
+        while(!closed && !queue.offer(future, 100, TimeUnit.MILLISECONDS)){
+        }
+    }
+    
+    /**
+     * Decodes and filters a batch of lines on a worker thread.
+     * 
+     * @param sequence sequence number of the batch
+     * @param batch lines of the batch
+     * @return Batch the passing variants, genotypes decoded
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private Batch filter(long sequence, ArrayList<String> batch){
+        WorkerState s = state.get();
+        Batch result = new Batch(sequence, new ArrayList<VariantContext>());
+        for(String line : batch){
+            result.records++;
+            if(line.charAt(0) == '#' || !s.prefilter.mayPass(line)){
+                continue;
+            }
+            VariantContext vc = s.codec.decode(projection != null ? projection.project(line) : line);
+            if(s.statistics.passes(vc, s.attributes)){
+                ensureDecoded(vc);
+                result.variants.add(vc);
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Decodes the genotypes of a variant, so that it no longer refers to the codec 
+     * it was decoded with and can be handed to another thread, e.g. an asynchronous writer.
+     * 
+     * @param vc variant
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public static void ensureDecoded(VariantContext vc){
+        GenotypesContext g = vc.getGenotypes();
+        if(g instanceof LazyGenotypesContext){
+            ((LazyGenotypesContext)g).decode();
+        }
+    }
+    
+    @Override
+    public boolean hasNext(){
+        while(!current.hasNext()){
+            if(finished){
+                return false;
+            }
+            Batch batch;
+            try{
+                batch = queue.take().get();
+            }catch(InterruptedException ie){
+                Thread.currentThread().interrupt();
+                throw new RuntimeIOException("Interrupted while filtering", ie);
+            }catch(ExecutionException ee){
+                throw new RuntimeIOException("Problem filtering batch " + nextSequence + ": " + ee.getCause().getMessage(), ee.getCause());
+            }
+            if(batch == END){
+                finished = true;
+                finish();
+                if(failure != null){
+                    throw new RuntimeIOException("Problem reading line batch " + nextSequence + ": " + failure.getMessage(), failure);
+                }
+                return false;
+            }
+            if(batch.sequence != nextSequence){
+                throw new IllegalStateException("Batch " + batch.sequence + " returned out of order, expected " + nextSequence);
+            }
+            nextSequence++;
+            if(progress != null){
+                progress.getProgress().addRecords(batch.records);
+                progress.getProgress().addPassedFilters(batch.variants.size());
+            }
+            current = batch.variants.iterator();
+        }
+        return true;
+    }
+    
+    /**
+     * Merges the statistics of all worker threads and shuts down the workers. 
+     * Statistics are merged once, later calls do nothing.
+     * 
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private void finish(){
+        workers.shutdown();
+        synchronized(states){
+            for(WorkerState s : states){
+                if(statistics != null){
+                    statistics.add(s.statistics);
+                }
+                if(prefilter != null){
+                    prefilter.add(s.prefilter);
+                }
+            }
+            states.clear();
+        }
+    }
+    
+    @Override
+    public VariantContext next(){
+        if(!hasNext()){
+            throw new NoSuchElementException();
+        }
+        return current.next();
+    }
+    
+    @Override
+    public void remove(){
+        throw new UnsupportedOperationException();
+    }
+    
+    /**
+     * Cancels batches in flight and shuts down the workers. If the end of the file was not 
+     * reached, e.g. at the output limit or on cancel, the statistics of the records filtered 
+     * so far are merged after the workers have ended.
+     */
+    @Override
+    public void close(){
+        closed = true;
+        for(Future<Batch> f : queue){
+            f.cancel(true);
+        }
+        queue.clear();
+        workers.shutdownNow();
+        try{
+            if(workers.awaitTermination(CLOSE_TIMEOUT, TimeUnit.SECONDS)){
+                finish();
+            }
+        }catch(InterruptedException ie){
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    /**
+     * A numbered batch: records read and variants passing the filter chain.
+     */
+    private static class Batch {
+        
+        /**
+         * Sequence number of the batch.
+         */
+        private final long sequence;
+        
+        /**
+         * Variants passing the filter chain in file order.
+         */
+        private final ArrayList<VariantContext> variants;
+        
+        /**
+         * Records read.
+         */
+        private int records = 0;
+        
+        /**
+         * Creates new Batch.
+         * 
+         * @param sequence sequence number of the batch
+         * @param variants list receiving the passing variants
+         */
+        private Batch(long sequence, ArrayList<VariantContext> variants){
+            this.sequence = sequence;
+            this.variants = variants;
+        }
+    }
+    
+    /**
+     * Codec, filter chain and attribute view of one worker thread.
+     */
+    private static class WorkerState {
+        
+        /**
+         * The VCF codec, initialized with the file header.
+         */
+        private final VCFCodec codec = new VCFCodec();
+        
+        /**
+         * Filter chain and statistics of the thread.
+         */
+        private final AdaptiveFilterChain statistics;
+        
+        /**
+         * Prefilter and statistics of the thread.
+         */
+        private final RawLinePrefilter prefilter;
+        
+        /**
+         * INFO attribute view of the thread.
+         */
+        private final AttributeView attributes = new AttributeView();
+        
+        /**
+         * Creates new WorkerState.
+         * 
+         * @param header header lines of the file
+         * @param chain the compiled filter chain
+         */
+        private WorkerState(byte[] header, CompiledFilterChain chain){
+            codec.readActualHeader(new AsciiLineReaderIterator(new AsciiLineReader(new ByteArrayInputStream(header))));
+            statistics = new AdaptiveFilterChain(chain);
+            prefilter = new RawLinePrefilter(chain);
+        }
+    }
+}
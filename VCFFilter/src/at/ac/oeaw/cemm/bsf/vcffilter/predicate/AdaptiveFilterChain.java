@@ -0,0 +1,338 @@
+/*
+*     This file is part of the VCF.Filter project (https://biomedical-sequencing.at/VCFFilter/).
+*     VCF.Filter permits graphical filtering of VCF files on cutom annotations and standard VCF fields, pedigree analysis, and cohort searches.
+* %%
+*     Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+* %%
+* 
+*     VCF.Filter is free software: you can redistribute it and/or modify
+*     it under the terms of the GNU General Public License as published by
+*     the Free Software Foundation, either version 3 of the License, or
+*     (at your option) any later version.
+* 
+*     This program is distributed in the hope that it will be useful,
+*     but WITHOUT ANY WARRANTY; without even the implied warranty of
+*     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*     GNU General Public License for more details.
+* 
+*     You should have received a copy of the GNU General Public License
+*     along with VCF.Filter.  If not, see <http://www.gnu.org/licenses/>.
+* 
+*     VCF.Filter  Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+*     This program comes with ABSOLUTELY NO WARRANTY;
+*     This is free software, and you are welcome to redistribute it
+*     under certain conditions; 
+*     For details interrogate the About section in the File menu.
+*/
+package at.ac.oeaw.cemm.bsf.vcffilter.predicate;
+
+import htsjdk.variant.variantcontext.VariantContext;
+
+/**
+ * Evaluates a compiled filter chain in an order learned from the data. Pass rate and cost 
+ * of each filter (AND NOT logic included) are recorded while filtering, and the chain is 
+ * periodically reordered so that cheap and selective filters run first. As the filters are 
+ * AND combined and free of side effects, the order does not change which variants pass.
+ * Chains filtering parts of the same input on other threads are started from the order and 
+ * statistics learned so far, and their statistics are merged back with add.
+ * Also counts the variants removed by each filter (filter funnel).
+ * Not thread safe, each worker thread must use its own instance.
+ * 
+ * AdaptiveFilterChain.java 17 OCT 2026
+ *
+ * @author Heiko Müller
+ * @version 1.0
+ * @since 1.0
+ */
+public class AdaptiveFilterChain {
+    
+    /**
+     * Number of variants between reorderings.
+     */
+    private static final int REORDER_INTERVAL = 4096;
+    
+    /**
+     * The cost of filters is timed for one in SAMPLE_MASK + 1 variants.
+     */
+    private static final int SAMPLE_MASK = 15;
+    
+    /**
+     * The compiled filters.
+     */
+    private final CompiledFilterChain chain;
+    
+    /**
+     * Current order of evaluation as indices into chain.
+     */
+    private final int[] order;
+    
+    /**
+     * Number of variants evaluated per filter.
+     */
+    private final long[] evaluated;
+    
+    /**
+     * Number of variants passed per filter.
+     */
+    private final long[] passed;
+    
+    /**
+     * Number of variants evaluated per filter since the last reordering, decaying.
+     */
+    private final double[] recentEvaluated;
+    
+    /**
+     * Number of variants passed per filter since the last reordering, decaying.
+     */
+    private final double[] recentPassed;
+    
+    /**
+     * Timed nanoseconds per filter, decaying.
+     */
+    private final double[] recentNanos;
+    
+    /**
+     * Number of timed evaluations per filter, decaying.
+     */
+    private final double[] recentTimed;
+    
+    /**
+     * Total nanoseconds timed per filter.
+     */
+    private final long[] nanos;
+    
+    /**
+     * Total number of timed evaluations per filter.
+     */
+    private final long[] timed;
+    
+    /**
+     * Number of variants tested.
+     */
+    private long records = 0;
+    
+    /**
+     * Number of variants passing all filters.
+     */
+    private long accepted = 0;
+    
+    /**
+     * Creates new AdaptiveFilterChain. Initial order is the order of the chain.
+     * 
+     * @param chain compiled filter chain
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public AdaptiveFilterChain(CompiledFilterChain chain){
+        this.chain = chain;
+        int n = chain.size();
+        order = new int[n];
+        for(int i = 0; i < n; i++){
+            order[i] = i;
+        }
+        evaluated = new long[n];
+        passed = new long[n];
+        nanos = new long[n];
+        timed = new long[n];
+        recentEvaluated = new double[n];
+        recentPassed = new double[n];
+        recentNanos = new double[n];
+        recentTimed = new double[n];
+    }
+    
+    /**
+     * Creates new AdaptiveFilterChain on the filters of learned, starting in the order learned so far. 
+     * The statistics of learned are taken as recent statistics, scaled down to one reordering interval 
+     * so that the new chain can still follow the data it filters. Counts start at zero.
+     * 
+     * @param learned chain holding the order and statistics learned so far
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public AdaptiveFilterChain(AdaptiveFilterChain learned){
+        this(learned.chain);
+        long max = 0;
+        for(int i = 0; i < order.length; i++){
+            order[i] = learned.order[i];
+            max = Math.max(max, learned.evaluated[i]);
+        }
+        double scale = max > REORDER_INTERVAL ? (double)REORDER_INTERVAL / max : 1;
+        for(int i = 0; i < order.length; i++){
+            recentEvaluated[i] = learned.evaluated[i] * scale;
+            recentPassed[i] = learned.passed[i] * scale;
+            recentNanos[i] = learned.nanos[i] * scale;
+            recentTimed[i] = learned.timed[i] * scale;
+        }
+    }
+    
+    /**
+     * Tests if variant passes all filters of the chain and records statistics.
+     * 
+     * @param vc VariantContext object to be filtered
+     * @param attributes INFO attribute view of the calling thread
+     * @return boolean true if pass, false otherwise
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public boolean passes(VariantContext vc, AttributeView attributes){
+        attributes.setRecord(vc);
+        boolean time = (records & SAMPLE_MASK) == 0;
+        records++;
+        if(records % REORDER_INTERVAL == 0){
+            reorder();
+        }
+        for(int k = 0; k < order.length; k++){
+            int i = order[k];
+            CompiledFilter filter = chain.getFilter(i);
+            boolean pass;
+            if(time){
+                long start = System.nanoTime();
+                pass = filter.test(vc, attributes);
+                long elapsed = System.nanoTime() - start;
+                nanos[i] += elapsed;
+                timed[i]++;
+                recentNanos[i] += elapsed;
+                recentTimed[i]++;
+            }else{
+                pass = filter.test(vc, attributes);
+            }
+            evaluated[i]++;
+            recentEvaluated[i]++;
+            if(!pass){
+                return false;
+            }
+            passed[i]++;
+            recentPassed[i]++;
+        }
+        accepted++;
+        return true;
+    }
+    
+    /**
+     * Sorts the filters by expected cost per rejected variant, i.e. mean cost divided by rejection rate. 
+     * Filters that never reject go last. Recent statistics decay by half so that the order 
+     * can follow changes along the genome.
+     * 
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private void reorder(){
+        int n = order.length;
+        double[] rank = new double[n];
+        for(int i = 0; i < n; i++){
+            rank[i] = rank(recentNanos[i], recentTimed[i], recentPassed[i], recentEvaluated[i]);
+            recentEvaluated[i] /= 2;
+            recentPassed[i] /= 2;
+            recentNanos[i] /= 2;
+            recentTimed[i] /= 2;
+        }
+        sort(rank);
+    }
+    
+    /**
+     * Returns the expected cost per rejected variant of a filter.
+     * 
+     * @param nanos timed nanoseconds
+     * @param timed number of timed evaluations
+     * @param passed number of variants passed
+     * @param evaluated number of variants evaluated
+     * @return double positive infinity if the filter never rejects
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private static double rank(double nanos, double timed, double passed, double evaluated){
+        double cost = timed > 0 ? nanos / timed : 0;
+        double rejection = evaluated > 0 ? 1 - passed / evaluated : 0;
+        return rejection > 0 ? cost / rejection : Double.POSITIVE_INFINITY;
+    }
+    
+    /**
+     * Sorts the order of evaluation by rank, keeping the current order of filters with equal rank.
+     * 
+     * @param rank rank per filter
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private void sort(double[] rank){
+        int n = order.length;
+        //stable insertion sort, the chain is short
+        for(int k = 1; k < n; k++){
+            int i = order[k];
+            int j = k - 1;
+            while(j >= 0 && rank[order[j]] > rank[i]){
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = i;
+        }
+    }
+    
+    /**
+     * Adds the statistics of another chain compiled from the same filters, 
+     * e.g. of a chain evaluated on another thread, and orders the filters 
+     * by the merged statistics.
+     * 
+     * @param other chain evaluated on the same CompiledFilterChain
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public void add(AdaptiveFilterChain other){
+        for(int i = 0; i < order.length; i++){
+            evaluated[i] += other.evaluated[i];
+            passed[i] += other.passed[i];
+            nanos[i] += other.nanos[i];
+            timed[i] += other.timed[i];
+        }
+        records += other.records;
+        accepted += other.accepted;
+        double[] rank = new double[order.length];
+        for(int i = 0; i < order.length; i++){
+            rank[i] = rank(nanos[i], timed[i], passed[i], evaluated[i]);
+        }
+        sort(rank);
+    }
+    
+    /**
+     * Returns the number of variants tested.
+     * 
+     * @return long
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public long getRecords(){
+        return records;
+    }
+    
+    /**
+     * Returns the number of variants passing all filters.
+     * 
+     * @return long
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public long getAccepted(){
+        return accepted;
+    }
+    
+    /**
+     * Reports the learned order of the filters and the number of variants 
+     * evaluated, passed, and removed by each filter as a String.
+     * 
+     * @return String
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public String getReport(){
+        StringBuilder sb = new StringBuilder();
+        sb.append("Filter funnel (learned order):\r\n");
+        sb.append("Variants tested:\t" + records + "\r\n");
+        for(int k = 0; k < order.length; k++){
+            int i = order[k];
+            CompiledFilter filter = chain.getFilter(i);
+            long meanNanos = timed[i] > 0 ? nanos[i] / timed[i] : 0;
+            sb.append("Filter id:\t" + filter.getID() + "\tAND NOT:\t" + filter.getAndNot() + "\tevaluated:\t" + evaluated[i] + "\tpassed:\t" + passed[i] + "\tremoved:\t" + (evaluated[i] - passed[i]) + "\tmean ns:\t" + meanNanos + "\r\n");
+        }
+        sb.append("Variants passing all filters:\t" + accepted + "\r\n");
+        return sb.toString();
+    }
+}
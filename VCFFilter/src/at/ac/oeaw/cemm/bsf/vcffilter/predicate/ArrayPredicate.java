@@ -0,0 +1,126 @@
+/*
+*     This file is part of the VCF.Filter project (https://biomedical-sequencing.at/VCFFilter/).
+*     VCF.Filter permits graphical filtering of VCF files on cutom annotations and standard VCF fields, pedigree analysis, and cohort searches.
+* %%
+*     Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+* %%
+* 
+*     VCF.Filter is free software: you can redistribute it and/or modify
+*     it under the terms of the GNU General Public License as published by
+*     the Free Software Foundation, either version 3 of the License, or
+*     (at your option) any later version.
+* 
+*     This program is distributed in the hope that it will be useful,
+*     but WITHOUT ANY WARRANTY; without even the implied warranty of
+*     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*     GNU General Public License for more details.
+* 
+*     You should have received a copy of the GNU General Public License
+*     along with VCF.Filter.  If not, see <http://www.gnu.org/licenses/>.
+* 
+*     VCF.Filter  Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+*     This program comes with ABSOLUTELY NO WARRANTY;
+*     This is free software, and you are welcome to redistribute it
+*     under certain conditions; 
+*     For details interrogate the About section in the File menu.
+*/
+package at.ac.oeaw.cemm.bsf.vcffilter.predicate;
+
+import htsjdk.variant.variantcontext.Genotype;
+import htsjdk.variant.variantcontext.GenotypesContext;
+import htsjdk.variant.variantcontext.VariantContext;
+
+/**
+ * Super class of compiled array filters. Array elements are selected by the alleles 
+ * called in the genotypes of the variant. Elements are passed as decoded array 
+ * (String[] or double[]) and tested by index.
+ * 
+ * ArrayPredicate.java 17 OCT 2026
+ *
+ * @author Heiko Müller
+ * @version 1.0
+ * @since 1.0
+ */
+public abstract class ArrayPredicate extends CompiledFilter {
+    
+    /**
+     * Indicator if array contains reference allele.
+     */
+    protected final boolean containsRef;
+    
+    /**
+     * Initializes new ArrayPredicate.
+     * 
+     * @param id VCF headerline ID
+     * @param andnot true if AND NOT logic is selected
+     * @param containsRef true if array contains reference allele (Type R)
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    protected ArrayPredicate(String id, boolean andnot, boolean containsRef){
+        super(id, andnot);
+        this.containsRef = containsRef;
+    }
+    
+    /**
+     * Tests a single array element.
+     * 
+     * @param elements the decoded array
+     * @param i index of the element
+     * @return boolean true if element matches, false otherwise
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    protected abstract boolean elementMatches(Object elements, int i);
+    
+    /**
+     * Tests if the array element of any allele called in any genotype matches.
+     * 
+     * @param vc VariantContext
+     * @param elements the decoded array
+     * @param length length of the array
+     * @return boolean true if any element matches, false otherwise
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    protected boolean anyAlleleMatches(VariantContext vc, Object elements, int length){
+        GenotypesContext gtc = vc.getGenotypes();
+        for(int g = 0; g < gtc.size(); g++){
+            if(anyAlleleMatches(vc, gtc.get(g), elements, length)){
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Tests if the array element of any allele called in genotype gt matches.
+     * Without reference allele in the array, reference and no-call alleles are skipped.
+     * 
+     * @param vc VariantContext
+     * @param gt Genotype
+     * @param elements the decoded array
+     * @param length length of the array
+     * @return boolean true if any element matches, false otherwise
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    protected boolean anyAlleleMatches(VariantContext vc, Genotype gt, Object elements, int length){
+        int ploidy = gt.getPloidy();
+        for(int a = 0; a < ploidy; a++){
+            int i = vc.getAlleleIndex(gt.getAllele(a));
+            if(!containsRef){
+                i = i - 1;
+            }
+            if(i > -1 && i < length && elementMatches(elements, i)){
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    @Override
+    protected boolean hasSameOptions(CompiledFilter previous){
+        return containsRef == ((ArrayPredicate)previous).containsRef;
+    }
+}
@@ -0,0 +1,313 @@
+/*
+*     This file is part of the VCF.Filter project (https://biomedical-sequencing.at/VCFFilter/).
+*     VCF.Filter permits graphical filtering of VCF files on cutom annotations and standard VCF fields, pedigree analysis, and cohort searches.
+* %%
+*     Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+* %%
+* 
+*     VCF.Filter is free software: you can redistribute it and/or modify
+*     it under the terms of the GNU General Public License as published by
+*     the Free Software Foundation, either version 3 of the License, or
+*     (at your option) any later version.
+* 
+*     This program is distributed in the hope that it will be useful,
+*     but WITHOUT ANY WARRANTY; without even the implied warranty of
+*     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*     GNU General Public License for more details.
+* 
+*     You should have received a copy of the GNU General Public License
+*     along with VCF.Filter.  If not, see <http://www.gnu.org/licenses/>.
+* 
+*     VCF.Filter  Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+*     This program comes with ABSOLUTELY NO WARRANTY;
+*     This is free software, and you are welcome to redistribute it
+*     under certain conditions; 
+*     For details interrogate the About section in the File menu.
+*/
+package at.ac.oeaw.cemm.bsf.vcffilter.predicate;
+
+import htsjdk.variant.variantcontext.VariantContext;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Per record view of the INFO attributes of a variant. Each INFO key is decoded at most once per record, 
+ * the decoded String, array elements and numbers are shared by all filters of the chain and the output formatter.
+ * A view is bound to one record at a time and is not thread safe, each worker thread must use its own view.
+ * 
+ * AttributeView.java 17 OCT 2026
+ *
+ * @author Heiko Müller
+ * @version 1.0
+ * @since 1.0
+ */
+public class AttributeView {
+    
+    /**
+     * The current record.
+     */
+    private VariantContext vc;
+    
+    /**
+     * Decoded attributes by INFO key.
+     */
+    private final HashMap<String, Entry> entries = new HashMap<String, Entry>();
+    
+    /**
+     * Entries decoded for the current record.
+     */
+    private final ArrayList<Entry> used = new ArrayList<Entry>();
+    
+    /**
+     * Binds the view to a record. Decoded attributes of the previous record are discarded, 
+     * binding the current record again keeps them.
+     * 
+     * @param vc VariantContext
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public void setRecord(VariantContext vc){
+        if(this.vc == vc){
+            return;
+        }
+        this.vc = vc;
+        for(int i = 0; i < used.size(); i++){
+            used.get(i).clear();
+        }
+        used.clear();
+    }
+    
+    /**
+     * Getter for the current record.
+     * 
+     * @return VariantContext
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public VariantContext getRecord(){
+        return vc;
+    }
+    
+    /**
+     * Tests if the current record has attribute key.
+     * 
+     * @param key INFO key
+     * @return boolean true if attribute is present, false otherwise
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public boolean has(String key){
+        return entry(key).raw != null;
+    }
+    
+    /**
+     * Returns the attribute as String.
+     * 
+     * @param key INFO key
+     * @return String the attribute, null if missing
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public String getString(String key){
+        Entry e = entry(key);
+        if(e.raw == null){
+            return null;
+        }
+        if(e.string == null){
+            e.string = e.raw.toString();
+        }
+        return e.string;
+    }
+    
+    /**
+     * Returns the attribute as a single real number.
+     * 
+     * @param key INFO key
+     * @return double the value, NaN if missing or not a number
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public double getDouble(String key){
+        Entry e = entry(key);
+        if(e.raw == null){
+            return Double.NaN;
+        }
+        if(!e.hasDouble){
+            e.doubleValue = Values.toDouble(e.raw);
+            e.hasDouble = true;
+        }
+        return e.doubleValue;
+    }
+    
+    /**
+     * Returns the attribute as a single integer number.
+     * 
+     * @param key INFO key
+     * @return double the value, NaN if missing or not an integer
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public double getInteger(String key){
+        Entry e = entry(key);
+        if(e.raw == null){
+            return Double.NaN;
+        }
+        if(!e.hasInteger){
+            e.integerValue = Values.toInteger(e.raw);
+            e.hasInteger = true;
+        }
+        return e.integerValue;
+    }
+    
+    /**
+     * Returns the trimmed array elements of the attribute.
+     * 
+     * @param key INFO key
+     * @return String[] the elements, null if missing
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public String[] getElements(String key){
+        Entry e = entry(key);
+        if(e.raw == null){
+            return null;
+        }
+        if(e.elements == null){
+            String[] elements = Values.splitArray(getString(key));
+            for(int i = 0; i < elements.length; i++){
+                elements[i] = elements[i].trim();
+            }
+            e.elements = elements;
+        }
+        return e.elements;
+    }
+    
+    /**
+     * Returns the array elements of the attribute as real numbers.
+     * Missing elements are NaN, unparsable elements are 0.
+     * 
+     * @param key INFO key
+     * @return double[] the values, null if missing
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public double[] getDoubles(String key){
+        Entry e = entry(key);
+        if(e.raw == null){
+            return null;
+        }
+        if(e.doubles == null){
+            e.doubles = decode(getElements(key), false);
+        }
+        return e.doubles;
+    }
+    
+    /**
+     * Returns the array elements of the attribute as integer numbers held as double.
+     * Missing elements are NaN, unparsable elements are 0.
+     * 
+     * @param key INFO key
+     * @return double[] the values, null if missing
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public double[] getIntegers(String key){
+        Entry e = entry(key);
+        if(e.raw == null){
+            return null;
+        }
+        if(e.integers == null){
+            e.integers = decode(getElements(key), true);
+        }
+        return e.integers;
+    }
+    
+    /**
+     * Parses array elements.
+     * 
+     * @param elements trimmed array elements
+     * @param integer true if elements should be parsed as integer
+     * @return double[] the values
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private static double[] decode(String[] elements, boolean integer){
+        double[] values = new double[elements.length];
+        for(int i = 0; i < elements.length; i++){
+            values[i] = Values.arrayElement(elements[i], integer);
+        }
+        return values;
+    }
+    
+    /**
+     * Returns the entry of key for the current record, looks up the raw attribute on first access.
+     * 
+     * @param key INFO key
+     * @return Entry
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private Entry entry(String key){
+        Entry e = entries.get(key);
+        if(e == null){
+            e = new Entry();
+            entries.put(key, e);
+        }
+        if(!e.looked){
+            e.raw = vc.getAttribute(key);
+            e.looked = true;
+            used.add(e);
+        }
+        return e;
+    }
+    
+    /**
+     * Decoded forms of one attribute of the current record.
+     */
+    private static class Entry {
+        
+        /** true if the raw attribute was looked up */
+        boolean looked;
+        
+        /** the raw attribute */
+        Object raw;
+        
+        /** the attribute as String */
+        String string;
+        
+        /** true if doubleValue is decoded */
+        boolean hasDouble;
+        
+        /** single real value */
+        double doubleValue;
+        
+        /** true if integerValue is decoded */
+        boolean hasInteger;
+        
+        /** single integer value */
+        double integerValue;
+        
+        /** trimmed array elements */
+        String[] elements;
+        
+        /** array elements as real numbers */
+        double[] doubles;
+        
+        /** array elements as integer numbers */
+        double[] integers;
+        
+        /**
+         * Discards all decoded forms.
+         */
+        void clear(){
+            looked = false;
+            raw = null;
+            string = null;
+            hasDouble = false;
+            hasInteger = false;
+            elements = null;
+            doubles = null;
+            integers = null;
+        }
+    }
+}
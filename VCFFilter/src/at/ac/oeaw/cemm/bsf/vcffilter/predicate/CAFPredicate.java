@@ -0,0 +1,104 @@
+/*
+*     This file is part of the VCF.Filter project (https://biomedical-sequencing.at/VCFFilter/).
+*     VCF.Filter permits graphical filtering of VCF files on cutom annotations and standard VCF fields, pedigree analysis, and cohort searches.
+* %%
+*     Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+* %%
+* 
+*     VCF.Filter is free software: you can redistribute it and/or modify
+*     it under the terms of the GNU General Public License as published by
+*     the Free Software Foundation, either version 3 of the License, or
+*     (at your option) any later version.
+* 
+*     This program is distributed in the hope that it will be useful,
+*     but WITHOUT ANY WARRANTY; without even the implied warranty of
+*     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*     GNU General Public License for more details.
+* 
+*     You should have received a copy of the GNU General Public License
+*     along with VCF.Filter.  If not, see <http://www.gnu.org/licenses/>.
+* 
+*     VCF.Filter  Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+*     This program comes with ABSOLUTELY NO WARRANTY;
+*     This is free software, and you are welcome to redistribute it
+*     under certain conditions; 
+*     For details interrogate the About section in the File menu.
+*/
+package at.ac.oeaw.cemm.bsf.vcffilter.predicate;
+
+import htsjdk.variant.variantcontext.VariantContext;
+
+/**
+ * Compiled filter for dbSNP common allele frequencies (CAF). Missing frequencies 
+ * pass if the NA criterion is set.
+ * 
+ * CAFPredicate.java 17 OCT 2026
+ *
+ * @author Heiko Müller
+ * @version 1.0
+ * @since 1.0
+ */
+public class CAFPredicate extends ArrayPredicate {
+    
+    /**
+     * The numeric criteria.
+     */
+    private final NumberCriteria criteria;
+    
+    /**
+     * Indicator whether filtering for non defined values (missing or .) should be performed.
+     */
+    private final boolean naFilterOn;
+    
+    /**
+     * Creates new CAFPredicate.
+     * 
+     * @param id VCF headerline ID
+     * @param andnot true if AND NOT logic is selected
+     * @param containsRef true if array contains reference allele (Type R)
+     * @param criteria numeric criteria
+     * @param naFilterOn true if any criterion is NA
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public CAFPredicate(String id, boolean andnot, boolean containsRef, NumberCriteria criteria, boolean naFilterOn){
+        super(id, andnot, containsRef);
+        this.criteria = criteria;
+        this.naFilterOn = naFilterOn;
+    }
+    
+    @Override
+    public boolean passes(VariantContext vc, AttributeView attributes){
+        String[] elements = attributes.getElements(id);
+        if(elements == null){
+            return naFilterOn;
+        }
+        if(vc.getNAlleles() != elements.length){
+            return naFilterOn;
+        }
+        return anyAlleleMatches(vc, elements, elements.length);
+    }
+    
+    @Override
+    protected boolean elementMatches(Object elements, int i){
+        String value = ((String[])elements)[i];
+        if(value.equals(".") && naFilterOn){
+            return true;
+        }
+        if(value.equals("A")){
+            return criteria.matches(Double.MAX_VALUE);
+        }
+        return criteria.matches(Values.arrayElement(value, false));
+    }
+    
+    @Override
+    protected NumberCriteria getNumberCriteria(){
+        return criteria;
+    }
+    
+    @Override
+    protected boolean hasSameOptions(CompiledFilter previous){
+        CAFPredicate p = (CAFPredicate)previous;
+        return super.hasSameOptions(previous) && naFilterOn == p.naFilterOn;
+    }
+}
@@ -0,0 +1,80 @@
+/*
+*     This file is part of the VCF.Filter project (https://biomedical-sequencing.at/VCFFilter/).
+*     VCF.Filter permits graphical filtering of VCF files on cutom annotations and standard VCF fields, pedigree analysis, and cohort searches.
+* %%
+*     Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+* %%
+* 
+*     VCF.Filter is free software: you can redistribute it and/or modify
+*     it under the terms of the GNU General Public License as published by
+*     the Free Software Foundation, either version 3 of the License, or
+*     (at your option) any later version.
+* 
+*     This program is distributed in the hope that it will be useful,
+*     but WITHOUT ANY WARRANTY; without even the implied warranty of
+*     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*     GNU General Public License for more details.
+* 
+*     You should have received a copy of the GNU General Public License
+*     along with VCF.Filter.  If not, see <http://www.gnu.org/licenses/>.
+* 
+*     VCF.Filter  Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+*     This program comes with ABSOLUTELY NO WARRANTY;
+*     This is free software, and you are welcome to redistribute it
+*     under certain conditions; 
+*     For details interrogate the About section in the File menu.
+*/
+package at.ac.oeaw.cemm.bsf.vcffilter.predicate;
+
+/**
+ * Immutable character search criteria of a filter. Matching is case sensitive.
+ * 
+ * CharacterCriteria.java 17 OCT 2026
+ *
+ * @author Heiko Müller
+ * @version 1.0
+ * @since 1.0
+ */
+public class CharacterCriteria {
+    
+    /**
+     * Characters of criterion 1, 2, and 3.
+     */
+    private final char[] characters = new char[3];
+    
+    /**
+     * Indicates whether criterion 1, 2, and 3 are set.
+     */
+    private final boolean[] defined = new boolean[3];
+    
+    /**
+     * Creates new CharacterCriteria. A null predicate never matches.
+     * 
+     * @param predicate1 predicate 1
+     * @param predicate2 predicate 2
+     * @param predicate3 predicate 3
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public CharacterCriteria(Character predicate1, Character predicate2, Character predicate3){
+        Character[] predicates = new Character[]{predicate1, predicate2, predicate3};
+        for(int i = 0; i < 3; i++){
+            if(predicates[i] != null){
+                characters[i] = predicates[i].charValue();
+                defined[i] = true;
+            }
+        }
+    }
+    
+    /**
+     * Tests if c matches any of the criteria.
+     * 
+     * @param c the character to be tested
+     * @return boolean true if c matches criterion 1, 2, or 3, false otherwise
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public boolean matches(char c){
+        return (defined[0] && characters[0] == c) || (defined[1] && characters[1] == c) || (defined[2] && characters[2] == c);
+    }
+}
@@ -0,0 +1,124 @@
+/*
+*     This file is part of the VCF.Filter project (https://biomedical-sequencing.at/VCFFilter/).
+*     VCF.Filter permits graphical filtering of VCF files on cutom annotations and standard VCF fields, pedigree analysis, and cohort searches.
+* %%
+*     Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+* %%
+* 
+*     VCF.Filter is free software: you can redistribute it and/or modify
+*     it under the terms of the GNU General Public License as published by
+*     the Free Software Foundation, either version 3 of the License, or
+*     (at your option) any later version.
+* 
+*     This program is distributed in the hope that it will be useful,
+*     but WITHOUT ANY WARRANTY; without even the implied warranty of
+*     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*     GNU General Public License for more details.
+* 
+*     You should have received a copy of the GNU General Public License
+*     along with VCF.Filter.  If not, see <http://www.gnu.org/licenses/>.
+* 
+*     VCF.Filter  Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+*     This program comes with ABSOLUTELY NO WARRANTY;
+*     This is free software, and you are welcome to redistribute it
+*     under certain conditions; 
+*     For details interrogate the About section in the File menu.
+*/
+package at.ac.oeaw.cemm.bsf.vcffilter.predicate;
+
+/**
+ * Resolved comparison operators of numeric search criteria. 
+ * Operators typed into the filter criteria are resolved once upon compilation 
+ * so that no String comparison is needed while filtering.
+ * 
+ * Comparison.java 17 OCT 2026
+ *
+ * @author Heiko Müller
+ * @version 1.0
+ * @since 1.0
+ */
+public final class Comparison {
+    
+    /**
+     * No valid operator, never matches.
+     */
+    public static final int NONE = 0;
+    
+    /**
+     * The smaller than operator.
+     */
+    public static final int SMALLER = 1;
+    
+    /**
+     * The equal operator.
+     */
+    public static final int EQUAL = 2;
+    
+    /**
+     * The larger than operator.
+     */
+    public static final int LARGER = 3;
+    
+    /**
+     * Not instantiable.
+     */
+    private Comparison(){
+    }
+    
+    /**
+     * Resolves an operator String (&#60;, =, &#62;) to its comparison constant.
+     * 
+     * @param operator operator as set by the filter
+     * @return int SMALLER, EQUAL, LARGER, or NONE if operator is not valid
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public static int resolve(String operator){
+        if(operator == null){
+            return NONE;
+        }else if(operator.equals("<")){
+            return SMALLER;
+        }else if(operator.equals("=")){
+            return EQUAL;
+        }else if(operator.equals(">")){
+            return LARGER;
+        }
+        return NONE;
+    }
+    
+    /**
+     * Tests value against threshold using the resolved comparison.
+     * 
+     * @param comparison resolved comparison
+     * @param value the value to be tested
+     * @param threshold the threshold
+     * @return boolean true if value compares to threshold as requested, false otherwise
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public static boolean test(int comparison, double value, double threshold){
+        switch(comparison){
+            case SMALLER: return value < threshold;
+            case EQUAL: return value == threshold;
+            case LARGER: return value > threshold;
+            default: return false;
+        }
+    }
+    
+    /**
+     * Returns the operator symbol of a resolved comparison.
+     * 
+     * @param comparison resolved comparison
+     * @return String the operator symbol, empty String for NONE
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public static String toString(int comparison){
+        switch(comparison){
+            case SMALLER: return "<";
+            case EQUAL: return "=";
+            case LARGER: return ">";
+            default: return "";
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/*
+*     This file is part of the VCF.Filter project (https://biomedical-sequencing.at/VCFFilter/).
+*     VCF.Filter permits graphical filtering of VCF files on cutom annotations and standard VCF fields, pedigree analysis, and cohort searches.
+* %%
+*     Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+* %%
+* 
+*     VCF.Filter is free software: you can redistribute it and/or modify
+*     it under the terms of the GNU General Public License as published by
+*     the Free Software Foundation, either version 3 of the License, or
+*     (at your option) any later version.
+* 
+*     This program is distributed in the hope that it will be useful,
+*     but WITHOUT ANY WARRANTY; without even the implied warranty of
+*     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*     GNU General Public License for more details.
+* 
+*     You should have received a copy of the GNU General Public License
+*     along with VCF.Filter.  If not, see <http://www.gnu.org/licenses/>.
+* 
+*     VCF.Filter  Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+*     This program comes with ABSOLUTELY NO WARRANTY;
+*     This is free software, and you are welcome to redistribute it
+*     under certain conditions; 
+*     For details interrogate the About section in the File menu.
+*/
+package at.ac.oeaw.cemm.bsf.vcffilter.predicate;
+
+import htsjdk.variant.variantcontext.VariantContext;
+
+/**
+ * The root class of compiled filters. A compiled filter is an immutable, GUI independent 
+ * snapshot of the search criteria of a Filter. It can be evaluated from any thread.
+ * 
+ * CompiledFilter.java 17 OCT 2026
+ *
+ * @author Heiko Müller
+ * @version 1.0
+ * @since 1.0
+ */
+public abstract class CompiledFilter {
+    
+    /**
+     * VCF headerline ID of the filter.
+     */
+    protected final String id;
+    
+    /**
+     * AndNot variable.
+     */
+    protected final boolean andnot;
+    
+    /**
+     * Initializes new CompiledFilter.
+     * 
+     * @param id VCF headerline ID
+     * @param andnot true if AND NOT logic is selected
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    protected CompiledFilter(String id, boolean andnot){
+        this.id = id;
+        this.andnot = andnot;
+    }
+    
+    /**
+     * Tests if variant matches the search criteria.
+     * 
+     * @param vc VariantContext object to be filtered
+     * @param attributes INFO attribute view bound to vc
+     * @return boolean true if variant matches, false otherwise
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public abstract boolean passes(VariantContext vc, AttributeView attributes);
+    
+    /**
+     * Tests if variant passes this filter as member of the filter chain, i.e. honours AND NOT logic.
+     * 
+     * @param vc VariantContext object to be filtered
+     * @param attributes INFO attribute view bound to vc
+     * @return boolean true if pass, false otherwise
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public final boolean test(VariantContext vc, AttributeView attributes){
+        return passes(vc, attributes) != andnot;
+    }
+    
+    /**
+     * Tests if every variant passing this filter in the chain also passes previous, i.e. this 
+     * filter is the same as previous with the same or narrower numeric criteria. With AND NOT 
+     * logic the criteria must be the same or wider. Filters without numeric criteria return false.
+     * 
+     * @param previous filter of an earlier run
+     * @return boolean true if this filter provably passes a subset of the variants previous passes
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public boolean narrows(CompiledFilter previous){
+        NumberCriteria criteria = getNumberCriteria();
+        if(criteria == null || previous.getClass() != getClass() || !id.equals(previous.id) || andnot != previous.andnot || !hasSameOptions(previous)){
+            return false;
+        }
+        return andnot ? previous.getNumberCriteria().isSubsetOf(criteria) : criteria.isSubsetOf(previous.getNumberCriteria());
+    }
+    
+    /**
+     * Returns the numeric criteria of the filter, null if it has none. Filters returning criteria 
+     * must pass a variant if and only if a value tested matches the criteria, so that narrower 
+     * criteria pass fewer variants.
+     * 
+     * @return NumberCriteria
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    protected NumberCriteria getNumberCriteria(){
+        return null;
+    }
+    
+    /**
+     * Tests if settings other than the criteria are the same as those of a filter of the same class.
+     * 
+     * @param previous filter of the same class
+     * @return boolean
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    protected boolean hasSameOptions(CompiledFilter previous){
+        return true;
+    }
+    
+    /**
+     * Getter for ID variable.
+     * 
+     * @return String
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public String getID(){
+        return id;
+    }
+    
+    /**
+     * Getter for andnot variable.
+     * 
+     * @return boolean
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public boolean getAndNot(){
+        return andnot;
+    }
+}
@@ -0,0 +1,134 @@
+/*
+*     This file is part of the VCF.Filter project (https://biomedical-sequencing.at/VCFFilter/).
+*     VCF.Filter permits graphical filtering of VCF files on cutom annotations and standard VCF fields, pedigree analysis, and cohort searches.
+* %%
+*     Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+* %%
+* 
+*     VCF.Filter is free software: you can redistribute it and/or modify
+*     it under the terms of the GNU General Public License as published by
+*     the Free Software Foundation, either version 3 of the License, or
+*     (at your option) any later version.
+* 
+*     This program is distributed in the hope that it will be useful,
+*     but WITHOUT ANY WARRANTY; without even the implied warranty of
+*     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*     GNU General Public License for more details.
+* 
+*     You should have received a copy of the GNU General Public License
+*     along with VCF.Filter.  If not, see <http://www.gnu.org/licenses/>.
+* 
+*     VCF.Filter  Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+*     This program comes with ABSOLUTELY NO WARRANTY;
+*     This is free software, and you are welcome to redistribute it
+*     under certain conditions; 
+*     For details interrogate the About section in the File menu.
+*/
+package at.ac.oeaw.cemm.bsf.vcffilter.predicate;
+
+import htsjdk.variant.variantcontext.VariantContext;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable AND combined chain of compiled filters. The chain optionally carries 
+ * the samples selected for the run, see SampleProjection.
+ * 
+ * CompiledFilterChain.java 17 OCT 2026
+ *
+ * @author Heiko Müller
+ * @version 1.0
+ * @since 1.0
+ */
+public class CompiledFilterChain {
+    
+    /**
+     * The compiled filters in order of evaluation.
+     */
+    private final CompiledFilter[] filters;
+    
+    /**
+     * Selected samples, null for all.
+     */
+    private final List<String> samples;
+    
+    /**
+     * Creates new CompiledFilterChain evaluated on all samples.
+     * 
+     * @param filters compiled filters in order of evaluation
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public CompiledFilterChain(CompiledFilter[] filters){
+        this(filters, null);
+    }
+    
+    /**
+     * Creates new CompiledFilterChain evaluated on the selected samples only.
+     * 
+     * @param filters compiled filters in order of evaluation
+     * @param samples selected samples, null or empty for all
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public CompiledFilterChain(CompiledFilter[] filters, List<String> samples){
+        this.filters = filters.clone();
+        this.samples = samples != null && samples.size() > 0 ? Collections.unmodifiableList(new ArrayList<String>(samples)) : null;
+    }
+    
+    /**
+     * Tests if variant passes all filters of the chain. An empty chain passes all variants.
+     * The attribute view is bound to vc, so that decoded INFO attributes can be reused 
+     * for output of the variant.
+     * 
+     * @param vc VariantContext object to be filtered
+     * @param attributes INFO attribute view of the calling thread
+     * @return boolean true if pass, false otherwise
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public boolean passes(VariantContext vc, AttributeView attributes){
+        attributes.setRecord(vc);
+        for(int i = 0; i < filters.length; i++){
+            if(!filters[i].test(vc, attributes)){
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Returns the number of filters in the chain.
+     * 
+     * @return int
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public int size(){
+        return filters.length;
+    }
+    
+    /**
+     * Returns the filter at position i.
+     * 
+     * @param i position in the chain
+     * @return CompiledFilter
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public CompiledFilter getFilter(int i){
+        return filters[i];
+    }
+    
+    /**
+     * Returns the selected samples.
+     * 
+     * @return List&#60;String&#62; selected samples, null for all
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public List<String> getSamples(){
+        return samples;
+    }
+}
@@ -0,0 +1,113 @@
+/*
+*     This file is part of the VCF.Filter project (https://biomedical-sequencing.at/VCFFilter/).
+*     VCF.Filter permits graphical filtering of VCF files on cutom annotations and standard VCF fields, pedigree analysis, and cohort searches.
+* %%
+*     Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+* %%
+* 
+*     VCF.Filter is free software: you can redistribute it and/or modify
+*     it under the terms of the GNU General Public License as published by
+*     the Free Software Foundation, either version 3 of the License, or
+*     (at your option) any later version.
+* 
+*     This program is distributed in the hope that it will be useful,
+*     but WITHOUT ANY WARRANTY; without even the implied warranty of
+*     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*     GNU General Public License for more details.
+* 
+*     You should have received a copy of the GNU General Public License
+*     along with VCF.Filter.  If not, see <http://www.gnu.org/licenses/>.
+* 
+*     VCF.Filter  Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+*     This program comes with ABSOLUTELY NO WARRANTY;
+*     This is free software, and you are welcome to redistribute it
+*     under certain conditions; 
+*     For details interrogate the About section in the File menu.
+*/
+package at.ac.oeaw.cemm.bsf.vcffilter.predicate;
+
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.vcf.VCFConstants;
+import java.util.Set;
+
+/**
+ * Compiled filter for the FILTER column. Matching is case insensitive. 
+ * Multiple filters are matched as comma separated list, PASS and missing filters as empty String.
+ * 
+ * FilterFieldPredicate.java 17 OCT 2026
+ *
+ * @author Heiko Müller
+ * @version 1.0
+ * @since 1.0
+ */
+public class FilterFieldPredicate extends FixedColumnPredicate {
+    
+    /**
+     * The text criteria.
+     */
+    private final TextCriteria criteria;
+    
+    /**
+     * Creates new FilterFieldPredicate.
+     * 
+     * @param id VCF headerline ID
+     * @param andnot true if AND NOT logic is selected
+     * @param criteria case insensitive text criteria
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public FilterFieldPredicate(String id, boolean andnot, TextCriteria criteria){
+        super(id, andnot, FILTER);
+        this.criteria = criteria;
+    }
+    
+    @Override
+    public boolean passes(VariantContext vc, AttributeView attributes){
+        Set<String> filters = vc.getFilters();
+        if(filters == null){
+            return false;
+        }
+        String value;
+        if(filters.isEmpty()){
+            value = "";
+        }else if(filters.size() == 1){
+            value = filters.iterator().next();
+        }else{
+            value = filters.toString();
+            value = value.substring(1, value.length() - 1);
+        }
+        return criteria.matches(value);
+    }
+    
+    /**
+     * Lines with multiple filters are left undecided, as the order of the decoded filter set 
+     * may differ from the order in the file.
+     */
+    @Override
+    public int passesColumn(String line, int start, int end){
+        for(int i = start; i < end; i++){
+            if(line.charAt(i) == ';'){
+                return UNDECIDED;
+            }
+        }
+        if(isColumn(line, start, end, VCFConstants.PASSES_FILTERS_v4) || isColumn(line, start, end, VCFConstants.UNFILTERED)){
+            return toResult(criteria.matches(""));
+        }
+        return toResult(criteria.matches(line, start, end));
+    }
+    
+    /**
+     * Tests if the column equals s.
+     * 
+     * @param line raw VCF data line
+     * @param start start of the column in line
+     * @param end end of the column in line, exclusive
+     * @param s the expected value
+     * @return boolean true if the column equals s
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private static boolean isColumn(String line, int start, int end, String s){
+        return end - start == s.length() && line.regionMatches(start, s, 0, s.length());
+    }
+}
@@ -0,0 +1,155 @@
+/*
+*     This file is part of the VCF.Filter project (https://biomedical-sequencing.at/VCFFilter/).
+*     VCF.Filter permits graphical filtering of VCF files on cutom annotations and standard VCF fields, pedigree analysis, and cohort searches.
+* %%
+*     Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+* %%
+* 
+*     VCF.Filter is free software: you can redistribute it and/or modify
+*     it under the terms of the GNU General Public License as published by
+*     the Free Software Foundation, either version 3 of the License, or
+*     (at your option) any later version.
+* 
+*     This program is distributed in the hope that it will be useful,
+*     but WITHOUT ANY WARRANTY; without even the implied warranty of
+*     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*     GNU General Public License for more details.
+* 
+*     You should have received a copy of the GNU General Public License
+*     along with VCF.Filter.  If not, see <http://www.gnu.org/licenses/>.
+* 
+*     VCF.Filter  Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+*     This program comes with ABSOLUTELY NO WARRANTY;
+*     This is free software, and you are welcome to redistribute it
+*     under certain conditions; 
+*     For details interrogate the About section in the File menu.
+*/
+package at.ac.oeaw.cemm.bsf.vcffilter.predicate;
+
+/**
+ * The root class of compiled filters on the fixed columns CHROM, POS, ID, QUAL and FILTER. 
+ * Fixed column filters can additionally be evaluated on the raw tab delimited VCF line, 
+ * i.e. before htsjdk decodes INFO and genotype fields.
+ * 
+ * FixedColumnPredicate.java 17 OCT 2026
+ *
+ * @author Heiko Müller
+ * @version 1.0
+ * @since 1.0
+ */
+public abstract class FixedColumnPredicate extends CompiledFilter {
+    
+    /**
+     * Index of the CHROM column.
+     */
+    public static final int CHROM = 0;
+    
+    /**
+     * Index of the POS column.
+     */
+    public static final int POS = 1;
+    
+    /**
+     * Index of the ID column.
+     */
+    public static final int ID = 2;
+    
+    /**
+     * Index of the QUAL column.
+     */
+    public static final int QUAL = 5;
+    
+    /**
+     * Index of the FILTER column.
+     */
+    public static final int FILTER = 6;
+    
+    /**
+     * Raw column value matches the search criteria.
+     */
+    public static final int MATCH = 0;
+    
+    /**
+     * Raw column value does not match the search criteria.
+     */
+    public static final int NO_MATCH = 1;
+    
+    /**
+     * Raw column value cannot be evaluated without decoding the line.
+     */
+    public static final int UNDECIDED = 2;
+    
+    /**
+     * Index of the column evaluated by this filter.
+     */
+    protected final int column;
+    
+    /**
+     * Initializes new FixedColumnPredicate.
+     * 
+     * @param id VCF headerline ID
+     * @param andnot true if AND NOT logic is selected
+     * @param column index of the column evaluated by this filter
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    protected FixedColumnPredicate(String id, boolean andnot, int column){
+        super(id, andnot);
+        this.column = column;
+    }
+    
+    /**
+     * Tests if the raw column value matches the search criteria. Must give the same result as 
+     * passes(VariantContext, AttributeView) on the decoded record, or UNDECIDED.
+     * 
+     * @param line raw VCF data line
+     * @param start start of the column in line
+     * @param end end of the column in line, exclusive
+     * @return int MATCH, NO_MATCH or UNDECIDED
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public abstract int passesColumn(String line, int start, int end);
+    
+    /**
+     * Tests if a line with the given raw column value may pass this filter as member of the filter chain. 
+     * Returns false only if the decoded record certainly fails.
+     * 
+     * @param line raw VCF data line
+     * @param start start of the column in line
+     * @param end end of the column in line, exclusive
+     * @return boolean false if the line can be skipped, true otherwise
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public final boolean mayPass(String line, int start, int end){
+        int result = passesColumn(line, start, end);
+        if(result == UNDECIDED){
+            return true;
+        }
+        return (result == MATCH) != andnot;
+    }
+    
+    /**
+     * Getter for column variable.
+     * 
+     * @return int
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public int getColumn(){
+        return column;
+    }
+    
+    /**
+     * Converts a boolean match to MATCH or NO_MATCH.
+     * 
+     * @param match true if the value matches
+     * @return int MATCH or NO_MATCH
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    protected static int toResult(boolean match){
+        return match ? MATCH : NO_MATCH;
+    }
+}
@@ -0,0 +1,109 @@
+/*
+*     This file is part of the VCF.Filter project (https://biomedical-sequencing.at/VCFFilter/).
+*     VCF.Filter permits graphical filtering of VCF files on cutom annotations and standard VCF fields, pedigree analysis, and cohort searches.
+* %%
+*     Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+* %%
+* 
+*     VCF.Filter is free software: you can redistribute it and/or modify
+*     it under the terms of the GNU General Public License as published by
+*     the Free Software Foundation, either version 3 of the License, or
+*     (at your option) any later version.
+* 
+*     This program is distributed in the hope that it will be useful,
+*     but WITHOUT ANY WARRANTY; without even the implied warranty of
+*     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*     GNU General Public License for more details.
+* 
+*     You should have received a copy of the GNU General Public License
+*     along with VCF.Filter.  If not, see <http://www.gnu.org/licenses/>.
+* 
+*     VCF.Filter  Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+*     This program comes with ABSOLUTELY NO WARRANTY;
+*     This is free software, and you are welcome to redistribute it
+*     under certain conditions; 
+*     For details interrogate the About section in the File menu.
+*/
+package at.ac.oeaw.cemm.bsf.vcffilter.predicate;
+
+import htsjdk.variant.variantcontext.Genotype;
+import htsjdk.variant.variantcontext.GenotypesContext;
+import htsjdk.variant.variantcontext.VariantContext;
+
+/**
+ * Compiled filter for the inline FORMAT arrays AD and PL. Passes if any value 
+ * of any genotype matches, fails as soon as a genotype lacks the field.
+ * 
+ * GenotypeIntArrayPredicate.java 17 OCT 2026
+ *
+ * @author Heiko Müller
+ * @version 1.0
+ * @since 1.0
+ */
+public class GenotypeIntArrayPredicate extends CompiledFilter {
+    
+    /**
+     * Allelic depths (AD) field.
+     */
+    public static final int AD = 0;
+    
+    /**
+     * Phred scaled genotype likelihoods (PL) field.
+     */
+    public static final int PL = 1;
+    
+    /**
+     * The numeric criteria.
+     */
+    private final NumberCriteria criteria;
+    
+    /**
+     * The field, AD or PL.
+     */
+    private final int field;
+    
+    /**
+     * Creates new GenotypeIntArrayPredicate.
+     * 
+     * @param id VCF headerline ID
+     * @param andnot true if AND NOT logic is selected
+     * @param criteria numeric criteria
+     * @param field AD or PL
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public GenotypeIntArrayPredicate(String id, boolean andnot, NumberCriteria criteria, int field){
+        super(id, andnot);
+        this.criteria = criteria;
+        this.field = field;
+    }
+    
+    @Override
+    public boolean passes(VariantContext vc, AttributeView attributes){
+        GenotypesContext gtc = vc.getGenotypes();
+        for(int g = 0; g < gtc.size(); g++){
+            Genotype gt = gtc.get(g);
+            int[] values = field == AD ? gt.getAD() : gt.getPL();
+            if(values == null){
+                return false;
+            }
+            for(int i = 0; i < values.length; i++){
+                if(criteria.matches(values[i])){
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+    
+    @Override
+    protected NumberCriteria getNumberCriteria(){
+        return criteria;
+    }
+    
+    @Override
+    protected boolean hasSameOptions(CompiledFilter previous){
+        GenotypeIntArrayPredicate p = (GenotypeIntArrayPredicate)previous;
+        return field == p.field;
+    }
+}
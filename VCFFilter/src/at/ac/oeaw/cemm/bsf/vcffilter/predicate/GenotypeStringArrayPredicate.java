@@ -0,0 +1,85 @@
+/*
+*     This file is part of the VCF.Filter project (https://biomedical-sequencing.at/VCFFilter/).
+*     VCF.Filter permits graphical filtering of VCF files on cutom annotations and standard VCF fields, pedigree analysis, and cohort searches.
+* %%
+*     Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+* %%
+* 
+*     VCF.Filter is free software: you can redistribute it and/or modify
+*     it under the terms of the GNU General Public License as published by
+*     the Free Software Foundation, either version 3 of the License, or
+*     (at your option) any later version.
+* 
+*     This program is distributed in the hope that it will be useful,
+*     but WITHOUT ANY WARRANTY; without even the implied warranty of
+*     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*     GNU General Public License for more details.
+* 
+*     You should have received a copy of the GNU General Public License
+*     along with VCF.Filter.  If not, see <http://www.gnu.org/licenses/>.
+* 
+*     VCF.Filter  Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+*     This program comes with ABSOLUTELY NO WARRANTY;
+*     This is free software, and you are welcome to redistribute it
+*     under certain conditions; 
+*     For details interrogate the About section in the File menu.
+*/
+package at.ac.oeaw.cemm.bsf.vcffilter.predicate;
+
+import htsjdk.variant.variantcontext.Genotype;
+import htsjdk.variant.variantcontext.GenotypesContext;
+import htsjdk.variant.variantcontext.VariantContext;
+
+/**
+ * Compiled filter for allele specific FORMAT String arrays. Matching is case insensitive.
+ * 
+ * GenotypeStringArrayPredicate.java 17 OCT 2026
+ *
+ * @author Heiko Müller
+ * @version 1.0
+ * @since 1.0
+ */
+public class GenotypeStringArrayPredicate extends ArrayPredicate {
+    
+    /**
+     * The text criteria.
+     */
+    private final TextCriteria criteria;
+    
+    /**
+     * Creates new GenotypeStringArrayPredicate.
+     * 
+     * @param id VCF headerline ID
+     * @param andnot true if AND NOT logic is selected
+     * @param containsRef true if array contains reference allele (Type R)
+     * @param criteria case insensitive text criteria
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public GenotypeStringArrayPredicate(String id, boolean andnot, boolean containsRef, TextCriteria criteria){
+        super(id, andnot, containsRef);
+        this.criteria = criteria;
+    }
+    
+    @Override
+    public boolean passes(VariantContext vc, AttributeView attributes){
+        GenotypesContext gtc = vc.getGenotypes();
+        for(int g = 0; g < gtc.size(); g++){
+            Genotype gt = gtc.get(g);
+            Object o = gt.getAnyAttribute(id);
+            if(o == null){
+                return false;
+            }
+            String[] elements = Values.splitArray(o);
+            if(anyAlleleMatches(vc, gt, elements, elements.length)){
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    @Override
+    protected boolean elementMatches(Object elements, int i){
+        return criteria.matches(((String[])elements)[i].trim());
+    }
+}
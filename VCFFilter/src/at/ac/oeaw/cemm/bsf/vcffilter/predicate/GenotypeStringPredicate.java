@@ -0,0 +1,95 @@
+/*
+*     This file is part of the VCF.Filter project (https://biomedical-sequencing.at/VCFFilter/).
+*     VCF.Filter permits graphical filtering of VCF files on cutom annotations and standard VCF fields, pedigree analysis, and cohort searches.
+* %%
+*     Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+* %%
+* 
+*     VCF.Filter is free software: you can redistribute it and/or modify
+*     it under the terms of the GNU General Public License as published by
+*     the Free Software Foundation, either version 3 of the License, or
+*     (at your option) any later version.
+* 
+*     This program is distributed in the hope that it will be useful,
+*     but WITHOUT ANY WARRANTY; without even the implied warranty of
+*     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*     GNU General Public License for more details.
+* 
+*     You should have received a copy of the GNU General Public License
+*     along with VCF.Filter.  If not, see <http://www.gnu.org/licenses/>.
+* 
+*     VCF.Filter  Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+*     This program comes with ABSOLUTELY NO WARRANTY;
+*     This is free software, and you are welcome to redistribute it
+*     under certain conditions; 
+*     For details interrogate the About section in the File menu.
+*/
+package at.ac.oeaw.cemm.bsf.vcffilter.predicate;
+
+import htsjdk.variant.variantcontext.Genotype;
+import htsjdk.variant.variantcontext.GenotypesContext;
+import htsjdk.variant.variantcontext.VariantContext;
+
+/**
+ * Compiled filter for single valued FORMAT String fields and the genotype (GT). 
+ * Passes if any genotype matches, fails as soon as a genotype lacks the field.
+ * 
+ * GenotypeStringPredicate.java 17 OCT 2026
+ *
+ * @author Heiko Müller
+ * @version 1.0
+ * @since 1.0
+ */
+public class GenotypeStringPredicate extends CompiledFilter {
+    
+    /**
+     * The text criteria.
+     */
+    private final TextCriteria criteria;
+    
+    /**
+     * True if the genotype string (GT) is tested.
+     */
+    private final boolean genotypeString;
+    
+    /**
+     * Creates new GenotypeStringPredicate.
+     * 
+     * @param id VCF headerline ID
+     * @param andnot true if AND NOT logic is selected
+     * @param criteria case insensitive text criteria
+     * @param genotypeString true to test the genotype string (GT), false to test field id
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public GenotypeStringPredicate(String id, boolean andnot, TextCriteria criteria, boolean genotypeString){
+        super(id, andnot);
+        this.criteria = criteria;
+        this.genotypeString = genotypeString;
+    }
+    
+    @Override
+    public boolean passes(VariantContext vc, AttributeView attributes){
+        GenotypesContext gtc = vc.getGenotypes();
+        for(int g = 0; g < gtc.size(); g++){
+            Genotype gt = gtc.get(g);
+            String value;
+            if(genotypeString){
+                value = gt.getGenotypeString();
+                if(value == null){
+                    return false;
+                }
+            }else{
+                Object o = gt.getAnyAttribute(id);
+                if(o == null){
+                    return false;
+                }
+                value = o.toString();
+            }
+            if(criteria.matches(value)){
+                return true;
+            }
+        }
+        return false;
+    }
+}
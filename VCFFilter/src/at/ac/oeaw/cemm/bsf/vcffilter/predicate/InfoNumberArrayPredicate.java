@@ -0,0 +1,93 @@
+/*
+*     This file is part of the VCF.Filter project (https://biomedical-sequencing.at/VCFFilter/).
+*     VCF.Filter permits graphical filtering of VCF files on cutom annotations and standard VCF fields, pedigree analysis, and cohort searches.
+* %%
+*     Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+* %%
+* 
+*     VCF.Filter is free software: you can redistribute it and/or modify
+*     it under the terms of the GNU General Public License as published by
+*     the Free Software Foundation, either version 3 of the License, or
+*     (at your option) any later version.
+* 
+*     This program is distributed in the hope that it will be useful,
+*     but WITHOUT ANY WARRANTY; without even the implied warranty of
+*     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*     GNU General Public License for more details.
+* 
+*     You should have received a copy of the GNU General Public License
+*     along with VCF.Filter.  If not, see <http://www.gnu.org/licenses/>.
+* 
+*     VCF.Filter  Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+*     This program comes with ABSOLUTELY NO WARRANTY;
+*     This is free software, and you are welcome to redistribute it
+*     under certain conditions; 
+*     For details interrogate the About section in the File menu.
+*/
+package at.ac.oeaw.cemm.bsf.vcffilter.predicate;
+
+import htsjdk.variant.variantcontext.VariantContext;
+
+/**
+ * Compiled filter for allele specific INFO number arrays (Number A or R).
+ * 
+ * InfoNumberArrayPredicate.java 17 OCT 2026
+ *
+ * @author Heiko Müller
+ * @version 1.0
+ * @since 1.0
+ */
+public class InfoNumberArrayPredicate extends ArrayPredicate {
+    
+    /**
+     * The numeric criteria.
+     */
+    private final NumberCriteria criteria;
+    
+    /**
+     * True if values are parsed as integer.
+     */
+    private final boolean integer;
+    
+    /**
+     * Creates new InfoNumberArrayPredicate.
+     * 
+     * @param id VCF headerline ID
+     * @param andnot true if AND NOT logic is selected
+     * @param containsRef true if array contains reference allele (Type R)
+     * @param criteria numeric criteria
+     * @param integer true for Type Integer, false for Type Float
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public InfoNumberArrayPredicate(String id, boolean andnot, boolean containsRef, NumberCriteria criteria, boolean integer){
+        super(id, andnot, containsRef);
+        this.criteria = criteria;
+        this.integer = integer;
+    }
+    
+    @Override
+    public boolean passes(VariantContext vc, AttributeView attributes){
+        double[] values = integer ? attributes.getIntegers(id) : attributes.getDoubles(id);
+        if(values == null){
+            return false;
+        }
+        return anyAlleleMatches(vc, values, values.length);
+    }
+    
+    @Override
+    protected boolean elementMatches(Object elements, int i){
+        return criteria.matches(((double[])elements)[i]);
+    }
+    
+    @Override
+    protected NumberCriteria getNumberCriteria(){
+        return criteria;
+    }
+    
+    @Override
+    protected boolean hasSameOptions(CompiledFilter previous){
+        InfoNumberArrayPredicate p = (InfoNumberArrayPredicate)previous;
+        return super.hasSameOptions(previous) && integer == p.integer;
+    }
+}
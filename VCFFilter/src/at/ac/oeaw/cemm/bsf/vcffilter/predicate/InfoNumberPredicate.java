@@ -0,0 +1,86 @@
+/*
+*     This file is part of the VCF.Filter project (https://biomedical-sequencing.at/VCFFilter/).
+*     VCF.Filter permits graphical filtering of VCF files on cutom annotations and standard VCF fields, pedigree analysis, and cohort searches.
+* %%
+*     Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+* %%
+* 
+*     VCF.Filter is free software: you can redistribute it and/or modify
+*     it under the terms of the GNU General Public License as published by
+*     the Free Software Foundation, either version 3 of the License, or
+*     (at your option) any later version.
+* 
+*     This program is distributed in the hope that it will be useful,
+*     but WITHOUT ANY WARRANTY; without even the implied warranty of
+*     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*     GNU General Public License for more details.
+* 
+*     You should have received a copy of the GNU General Public License
+*     along with VCF.Filter.  If not, see <http://www.gnu.org/licenses/>.
+* 
+*     VCF.Filter  Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+*     This program comes with ABSOLUTELY NO WARRANTY;
+*     This is free software, and you are welcome to redistribute it
+*     under certain conditions; 
+*     For details interrogate the About section in the File menu.
+*/
+package at.ac.oeaw.cemm.bsf.vcffilter.predicate;
+
+import htsjdk.variant.variantcontext.VariantContext;
+
+/**
+ * Compiled filter for single valued INFO number fields.
+ * 
+ * InfoNumberPredicate.java 17 OCT 2026
+ *
+ * @author Heiko Müller
+ * @version 1.0
+ * @since 1.0
+ */
+public class InfoNumberPredicate extends CompiledFilter {
+    
+    /**
+     * The numeric criteria.
+     */
+    private final NumberCriteria criteria;
+    
+    /**
+     * True if values are parsed as integer.
+     */
+    private final boolean integer;
+    
+    /**
+     * Creates new InfoNumberPredicate.
+     * 
+     * @param id VCF headerline ID
+     * @param andnot true if AND NOT logic is selected
+     * @param criteria numeric criteria
+     * @param integer true for Type Integer, false for Type Float
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public InfoNumberPredicate(String id, boolean andnot, NumberCriteria criteria, boolean integer){
+        super(id, andnot);
+        this.criteria = criteria;
+        this.integer = integer;
+    }
+    
+    @Override
+    public boolean passes(VariantContext vc, AttributeView attributes){
+        if(!attributes.has(id)){
+            return false;
+        }
+        return criteria.matches(integer ? attributes.getInteger(id) : attributes.getDouble(id));
+    }
+    
+    @Override
+    protected NumberCriteria getNumberCriteria(){
+        return criteria;
+    }
+    
+    @Override
+    protected boolean hasSameOptions(CompiledFilter previous){
+        InfoNumberPredicate p = (InfoNumberPredicate)previous;
+        return integer == p.integer;
+    }
+}
@@ -0,0 +1,250 @@
+/*
+*     This file is part of the VCF.Filter project (https://biomedical-sequencing.at/VCFFilter/).
+*     VCF.Filter permits graphical filtering of VCF files on cutom annotations and standard VCF fields, pedigree analysis, and cohort searches.
+* %%
+*     Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+* %%
+* 
+*     VCF.Filter is free software: you can redistribute it and/or modify
+*     it under the terms of the GNU General Public License as published by
+*     the Free Software Foundation, either version 3 of the License, or
+*     (at your option) any later version.
+* 
+*     This program is distributed in the hope that it will be useful,
+*     but WITHOUT ANY WARRANTY; without even the implied warranty of
+*     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*     GNU General Public License for more details.
+* 
+*     You should have received a copy of the GNU General Public License
+*     along with VCF.Filter.  If not, see <http://www.gnu.org/licenses/>.
+* 
+*     VCF.Filter  Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+*     This program comes with ABSOLUTELY NO WARRANTY;
+*     This is free software, and you are welcome to redistribute it
+*     under certain conditions; 
+*     For details interrogate the About section in the File menu.
+*/
+package at.ac.oeaw.cemm.bsf.vcffilter.predicate;
+
+/**
+ * Immutable numeric search criteria of a filter. The three OR-combined criteria are normalised 
+ * into a sorted set of disjoint intervals, so that a value is tested by a single scan over primitive bounds. 
+ * Smaller than t becomes [-Infinity, t), equal to t becomes [t, t], larger than t becomes (t, Infinity]. 
+ * Integer thresholds are held as double, which is exact for the full int range. 
+ * NaN, i.e. missing or unparsable values, never matches.
+ * 
+ * NumberCriteria.java 17 OCT 2026
+ *
+ * @author Heiko Müller
+ * @version 1.0
+ * @since 1.0
+ */
+public class NumberCriteria {
+    
+    /**
+     * Lower bounds of the intervals in ascending order.
+     */
+    private final double[] lows;
+    
+    /**
+     * Upper bounds of the intervals.
+     */
+    private final double[] highs;
+    
+    /**
+     * True if the lower bound belongs to the interval.
+     */
+    private final boolean[] lowClosed;
+    
+    /**
+     * True if the upper bound belongs to the interval.
+     */
+    private final boolean[] highClosed;
+    
+    /**
+     * Creates new NumberCriteria from the operators and predicates of a filter. 
+     * A criterion with invalid operator, missing or NaN predicate never matches.
+     * 
+     * @param operator1 operator 1
+     * @param predicate1 predicate 1
+     * @param operator2 operator 2
+     * @param predicate2 predicate 2
+     * @param operator3 operator 3
+     * @param predicate3 predicate 3
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public NumberCriteria(String operator1, Number predicate1, String operator2, Number predicate2, String operator3, Number predicate3){
+        double[] lo = new double[3];
+        double[] hi = new double[3];
+        boolean[] loc = new boolean[3];
+        boolean[] hic = new boolean[3];
+        int n = 0;
+        String[] operators = {operator1, operator2, operator3};
+        Number[] predicates = {predicate1, predicate2, predicate3};
+        for(int i = 0; i < 3; i++){
+            if(predicates[i] == null){
+                continue;
+            }
+            double t = predicates[i].doubleValue();
+            int comparison = Comparison.resolve(operators[i]);
+            if(comparison == Comparison.NONE || Double.isNaN(t)){
+                continue;
+            }
+            if(comparison == Comparison.SMALLER){
+                lo[n] = Double.NEGATIVE_INFINITY;
+                loc[n] = true;
+                hi[n] = t;
+                hic[n] = false;
+            }else if(comparison == Comparison.EQUAL){
+                lo[n] = t;
+                loc[n] = true;
+                hi[n] = t;
+                hic[n] = true;
+            }else{
+                lo[n] = t;
+                loc[n] = false;
+                hi[n] = Double.POSITIVE_INFINITY;
+                hic[n] = true;
+            }
+            if(lo[n] < hi[n] || (lo[n] == hi[n] && loc[n] && hic[n])){
+                n++;
+            }
+        }
+        //sort by lower bound, closed before open
+        for(int k = 1; k < n; k++){
+            for(int j = k; j > 0 && (lo[j] < lo[j - 1] || (lo[j] == lo[j - 1] && loc[j] && !loc[j - 1])); j--){
+                swap(lo, hi, loc, hic, j, j - 1);
+            }
+        }
+        //merge overlapping and adjacent intervals
+        int m = 0;
+        for(int i = 0; i < n; i++){
+            if(m > 0 && (lo[i] < hi[m - 1] || (lo[i] == hi[m - 1] && (loc[i] || hic[m - 1])))){
+                if(hi[i] > hi[m - 1]){
+                    hi[m - 1] = hi[i];
+                    hic[m - 1] = hic[i];
+                }else if(hi[i] == hi[m - 1]){
+                    hic[m - 1] = hic[m - 1] || hic[i];
+                }
+            }else{
+                lo[m] = lo[i];
+                hi[m] = hi[i];
+                loc[m] = loc[i];
+                hic[m] = hic[i];
+                m++;
+            }
+        }
+        lows = new double[m];
+        highs = new double[m];
+        lowClosed = new boolean[m];
+        highClosed = new boolean[m];
+        System.arraycopy(lo, 0, lows, 0, m);
+        System.arraycopy(hi, 0, highs, 0, m);
+        System.arraycopy(loc, 0, lowClosed, 0, m);
+        System.arraycopy(hic, 0, highClosed, 0, m);
+    }
+    
+    /**
+     * Swaps intervals i and j.
+     * 
+     * @param lo lower bounds
+     * @param hi upper bounds
+     * @param loc lower bound closed
+     * @param hic upper bound closed
+     * @param i interval i
+     * @param j interval j
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private static void swap(double[] lo, double[] hi, boolean[] loc, boolean[] hic, int i, int j){
+        double d = lo[i];
+        lo[i] = lo[j];
+        lo[j] = d;
+        d = hi[i];
+        hi[i] = hi[j];
+        hi[j] = d;
+        boolean b = loc[i];
+        loc[i] = loc[j];
+        loc[j] = b;
+        b = hic[i];
+        hic[i] = hic[j];
+        hic[j] = b;
+    }
+    
+    /**
+     * Tests if value matches any of the criteria, i.e. lies in one of the intervals. 
+     * As all comparisons with NaN are false, NaN falls through and never matches.
+     * 
+     * @param value the value to be tested
+     * @return boolean true if value matches criterion 1, 2, or 3, false otherwise
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public boolean matches(double value){
+        for(int i = 0; i < lows.length; i++){
+            if(value < lows[i] || (value == lows[i] && !lowClosed[i])){
+                return false;
+            }
+            if(value < highs[i] || (value == highs[i] && highClosed[i])){
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Tests if every value matching these criteria also matches other, i.e. each interval 
+     * lies within an interval of other. As the intervals of other are disjoint and not 
+     * adjacent, an interval cannot span two of them.
+     * 
+     * @param other the other criteria
+     * @return boolean true if these criteria are the same as or narrower than other
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public boolean isSubsetOf(NumberCriteria other){
+        for(int i = 0; i < lows.length; i++){
+            boolean contained = false;
+            for(int j = 0; j < other.lows.length && !contained; j++){
+                boolean low = lows[i] > other.lows[j] || (lows[i] == other.lows[j] && (!lowClosed[i] || other.lowClosed[j]));
+                boolean high = highs[i] < other.highs[j] || (highs[i] == other.highs[j] && (!highClosed[i] || other.highClosed[j]));
+                contained = low && high;
+            }
+            if(!contained){
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Tests if no value can match, i.e. all criteria are empty or invalid.
+     * 
+     * @return boolean true if the interval set is empty
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public boolean isEmpty(){
+        return lows.length == 0;
+    }
+    
+    /**
+     * Returns the interval set, e.g. [-Infinity, 5.0) U [7.0, 7.0].
+     * 
+     * @return String
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    @Override
+    public String toString(){
+        StringBuilder sb = new StringBuilder();
+        for(int i = 0; i < lows.length; i++){
+            if(i > 0){
+                sb.append(" U ");
+            }
+            sb.append(lowClosed[i] ? "[" : "(").append(lows[i]).append(", ").append(highs[i]).append(highClosed[i] ? "]" : ")");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,197 @@
+/*
+*     This file is part of the VCF.Filter project (https://biomedical-sequencing.at/VCFFilter/).
+*     VCF.Filter permits graphical filtering of VCF files on cutom annotations and standard VCF fields, pedigree analysis, and cohort searches.
+* %%
+*     Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+* %%
+* 
+*     VCF.Filter is free software: you can redistribute it and/or modify
+*     it under the terms of the GNU General Public License as published by
+*     the Free Software Foundation, either version 3 of the License, or
+*     (at your option) any later version.
+* 
+*     This program is distributed in the hope that it will be useful,
+*     but WITHOUT ANY WARRANTY; without even the implied warranty of
+*     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*     GNU General Public License for more details.
+* 
+*     You should have received a copy of the GNU General Public License
+*     along with VCF.Filter.  If not, see <http://www.gnu.org/licenses/>.
+* 
+*     VCF.Filter  Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+*     This program comes with ABSOLUTELY NO WARRANTY;
+*     This is free software, and you are welcome to redistribute it
+*     under certain conditions; 
+*     For details interrogate the About section in the File menu.
+*/
+package at.ac.oeaw.cemm.bsf.vcffilter.predicate;
+
+import htsjdk.samtools.util.CloseableIterator;
+import htsjdk.samtools.util.IOUtil;
+import htsjdk.tribble.readers.AsciiLineReader;
+import htsjdk.tribble.readers.AsciiLineReaderIterator;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.vcf.AbstractVCFCodec;
+import htsjdk.variant.vcf.VCFCodec;
+import at.ac.oeaw.cemm.bsf.vcffilter.progress.ByteCountingInputStream;
+import at.ac.oeaw.cemm.bsf.vcffilter.progress.InputProgress;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Iterates over the variants of a VCF file, decoding only lines accepted by a RawLinePrefilter. 
+ * Plain and (b)gzipped VCF 4.x files are supported.
+ * 
+ * PrefilteringVariantIterator.java 17 OCT 2026
+ *
+ * @author Heiko Müller
+ * @version 1.0
+ * @since 1.0
+ */
+public class PrefilteringVariantIterator implements CloseableIterator<VariantContext> {
+    
+    /**
+     * The line iterator.
+     */
+    private final AsciiLineReaderIterator lines;
+    
+    /**
+     * The VCF codec, initialized with the file header.
+     */
+    private final VCFCodec codec;
+    
+    /**
+     * The raw line prefilter.
+     */
+    private final RawLinePrefilter prefilter;
+    
+    /**
+     * The next decoded variant, null if not yet read.
+     */
+    private VariantContext next;
+    
+    /**
+     * Progress of the file, null if not reported.
+     */
+    private final InputProgress progress;
+    
+    /**
+     * Restricts the lines to the selected samples, null for all samples.
+     */
+    private final SampleProjection projection;
+    
+    /**
+     * Creates new PrefilteringVariantIterator and reads the header of f.
+     * 
+     * @param f VCF file
+     * @param prefilter the raw line prefilter
+      * @author Heiko Müller
+     * @since 1.0
+     */
+    public PrefilteringVariantIterator(File f, RawLinePrefilter prefilter){
+        this.lines = new AsciiLineReaderIterator(new AsciiLineReader(IOUtil.openFileForReading(f)));
+        this.codec = new VCFCodec();
+        this.prefilter = prefilter;
+        this.progress = null;
+        this.projection = null;
+        codec.readActualHeader(lines);
+    }
+    
+    /**
+     * Creates new PrefilteringVariantIterator, reads the header of f and reports 
+     * compressed bytes consumed and lines rejected by the prefilter to progress.
+     * 
+     * @param f VCF file
+     * @param prefilter the raw line prefilter
+     * @param progress progress of f
+     * @throws IOException if f cannot be opened
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public PrefilteringVariantIterator(File f, RawLinePrefilter prefilter, InputProgress progress) throws IOException {
+        this(f, prefilter, null, progress);
+    }
+    
+    /**
+     * Creates new PrefilteringVariantIterator returning variants restricted to the selected samples. 
+     * The genotype columns of other samples are cut from the lines before decoding, see SampleProjection. 
+     * Compressed bytes consumed and lines rejected by the prefilter are reported to progress.
+     * 
+     * @param f VCF file
+     * @param prefilter the raw line prefilter
+     * @param samples selected samples, null or empty for all
+     * @param progress progress of f, may be null
+     * @throws IOException if f cannot be opened
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public PrefilteringVariantIterator(File f, RawLinePrefilter prefilter, List<String> samples, InputProgress progress) throws IOException {
+        InputStream in = new FileInputStream(f);
+        if(progress != null){
+            in = new ByteCountingInputStream(in, progress);
+        }
+        String name = f.getName().toLowerCase();
+        if(name.endsWith(".gz") || name.endsWith(".bgz")){
+            in = new GZIPInputStream(in, 65536);
+        }
+        this.lines = new AsciiLineReaderIterator(new AsciiLineReader(in));
+        this.codec = new VCFCodec();
+        this.prefilter = prefilter;
+        this.progress = progress;
+        this.projection = SampleProjection.readHeader(codec, lines, samples);
+    }
+    
+    /**
+     * Tests if f can be read by PrefilteringVariantIterator, i.e. is VCF 4.x.
+     * 
+     * @param f VCF file
+     * @return boolean true if f is a VCF 4.x file
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public static boolean canRead(File f){
+        return AbstractVCFCodec.canDecodeFile(f.getAbsolutePath(), VCFCodec.VCF4_MAGIC_HEADER);
+    }
+    
+    @Override
+    public boolean hasNext(){
+        while(next == null && lines.hasNext()){
+            String line = lines.next();
+            if(line.length() > 0 && prefilter.mayPass(line)){
+                next = codec.decode(projection != null ? projection.project(line) : line);
+            }else if(progress != null && line.length() > 0){
+                progress.getProgress().addRecords(1);
+            }
+        }
+        return next != null;
+    }
+    
+    @Override
+    public VariantContext next(){
+        if(!hasNext()){
+            throw new NoSuchElementException();
+        }
+        VariantContext vc = next;
+        next = null;
+        return vc;
+    }
+    
+    @Override
+    public void remove(){
+        throw new UnsupportedOperationException();
+    }
+    
+    @Override
+    public void close(){
+        try{
+            lines.close();
+        }catch(IOException ioe){
+            ioe.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+*     This file is part of the VCF.Filter project (https://biomedical-sequencing.at/VCFFilter/).
+*     VCF.Filter permits graphical filtering of VCF files on cutom annotations and standard VCF fields, pedigree analysis, and cohort searches.
+* %%
+*     Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+* %%
+* 
+*     VCF.Filter is free software: you can redistribute it and/or modify
+*     it under the terms of the GNU General Public License as published by
+*     the Free Software Foundation, either version 3 of the License, or
+*     (at your option) any later version.
+* 
+*     This program is distributed in the hope that it will be useful,
+*     but WITHOUT ANY WARRANTY; without even the implied warranty of
+*     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*     GNU General Public License for more details.
+* 
+*     You should have received a copy of the GNU General Public License
+*     along with VCF.Filter.  If not, see <http://www.gnu.org/licenses/>.
+* 
+*     VCF.Filter  Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+*     This program comes with ABSOLUTELY NO WARRANTY;
+*     This is free software, and you are welcome to redistribute it
+*     under certain conditions; 
+*     For details interrogate the About section in the File menu.
+*/
+package at.ac.oeaw.cemm.bsf.vcffilter.predicate;
+
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.vcf.VCFConstants;
+
+/**
+ * Compiled filter for the QUAL column.
+ * 
+ * QualPredicate.java 17 OCT 2026
+ *
+ * @author Heiko Müller
+ * @version 1.0
+ * @since 1.0
+ */
+public class QualPredicate extends FixedColumnPredicate {
+    
+    /**
+     * The numeric criteria.
+     */
+    private final NumberCriteria criteria;
+    
+    /**
+     * Creates new QualPredicate.
+     * 
+     * @param id VCF headerline ID
+     * @param andnot true if AND NOT logic is selected
+     * @param criteria numeric criteria
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public QualPredicate(String id, boolean andnot, NumberCriteria criteria){
+        super(id, andnot, QUAL);
+        this.criteria = criteria;
+    }
+    
+    @Override
+    public boolean passes(VariantContext vc, AttributeView attributes){
+        return criteria.matches(vc.getPhredScaledQual());
+    }
+    
+    /**
+     * Converts the raw QUAL value the way htsjdk does, i.e. via log10 error probability, 
+     * so that rounding is identical to getPhredScaledQual() of the decoded record.
+     */
+    @Override
+    public int passesColumn(String line, int start, int end){
+        String value = line.substring(start, end);
+        double log10PError;
+        if(value.equals(VCFConstants.MISSING_VALUE_v4)){
+            log10PError = VariantContext.NO_LOG10_PERROR;
+        }else{
+            double qual;
+            try{
+                qual = Double.parseDouble(value);
+            }catch(NumberFormatException nfe){
+                return UNDECIDED;
+            }
+            if(qual < 0 && Math.abs(qual - VCFConstants.MISSING_QUALITY_v3_DOUBLE) < VCFConstants.VCF_ENCODING_EPSILON){
+                log10PError = VariantContext.NO_LOG10_PERROR;
+            }else{
+                log10PError = qual / -10.0;
+            }
+        }
+        return toResult(criteria.matches(log10PError * -10.0 + 0.0));
+    }
+    
+    @Override
+    protected NumberCriteria getNumberCriteria(){
+        return criteria;
+    }
+}
@@ -0,0 +1,177 @@
+/*
+*     This file is part of the VCF.Filter project (https://biomedical-sequencing.at/VCFFilter/).
+*     VCF.Filter permits graphical filtering of VCF files on cutom annotations and standard VCF fields, pedigree analysis, and cohort searches.
+* %%
+*     Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+* %%
+* 
+*     VCF.Filter is free software: you can redistribute it and/or modify
+*     it under the terms of the GNU General Public License as published by
+*     the Free Software Foundation, either version 3 of the License, or
+*     (at your option) any later version.
+* 
+*     This program is distributed in the hope that it will be useful,
+*     but WITHOUT ANY WARRANTY; without even the implied warranty of
+*     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*     GNU General Public License for more details.
+* 
+*     You should have received a copy of the GNU General Public License
+*     along with VCF.Filter.  If not, see <http://www.gnu.org/licenses/>.
+* 
+*     VCF.Filter  Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+*     This program comes with ABSOLUTELY NO WARRANTY;
+*     This is free software, and you are welcome to redistribute it
+*     under certain conditions; 
+*     For details interrogate the About section in the File menu.
+*/
+package at.ac.oeaw.cemm.bsf.vcffilter.predicate;
+
+import java.util.ArrayList;
+
+/**
+ * Evaluates the fixed column filters of a filter chain on the raw tab delimited VCF line. 
+ * Only the first 7 columns are scanned, INFO and genotype fields are never touched. 
+ * Lines rejected by the prefilter would be rejected by the filter chain as well, 
+ * so that they need not be decoded. A prefilter is not thread safe.
+ * 
+ * RawLinePrefilter.java 17 OCT 2026
+ *
+ * @author Heiko Müller
+ * @version 1.0
+ * @since 1.0
+ */
+public class RawLinePrefilter {
+    
+    /**
+     * The fixed column filters of the chain.
+     */
+    private final FixedColumnPredicate[] filters;
+    
+    /**
+     * Number of columns to be scanned.
+     */
+    private final int columns;
+    
+    /**
+     * Start offsets of the scanned columns.
+     */
+    private final int[] starts;
+    
+    /**
+     * End offsets of the scanned columns.
+     */
+    private final int[] ends;
+    
+    /**
+     * Number of lines tested.
+     */
+    private long lines;
+    
+    /**
+     * Number of lines rejected.
+     */
+    private long rejected;
+    
+    /**
+     * Creates new RawLinePrefilter from the fixed column filters of chain.
+     * 
+     * @param chain the compiled filter chain
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public RawLinePrefilter(CompiledFilterChain chain){
+        ArrayList<FixedColumnPredicate> fixed = new ArrayList<FixedColumnPredicate>();
+        int maxColumn = -1;
+        for(int i = 0; i < chain.size(); i++){
+            CompiledFilter f = chain.getFilter(i);
+            if(f instanceof FixedColumnPredicate){
+                FixedColumnPredicate p = (FixedColumnPredicate)f;
+                fixed.add(p);
+                maxColumn = Math.max(maxColumn, p.getColumn());
+            }
+        }
+        filters = fixed.toArray(new FixedColumnPredicate[fixed.size()]);
+        columns = maxColumn + 1;
+        starts = new int[columns];
+        ends = new int[columns];
+    }
+    
+    /**
+     * Tests if the chain contains no fixed column filters, i.e. prefiltering is pointless.
+     * 
+     * @return boolean true if there are no fixed column filters
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public boolean isEmpty(){
+        return filters.length == 0;
+    }
+    
+    /**
+     * Tests if a raw data line may pass the filter chain. Lines with too few columns 
+     * are passed on, so that the decoder reports them.
+     * 
+     * @param line raw VCF data line
+     * @return boolean false if the line can be skipped, true otherwise
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public boolean mayPass(String line){
+        lines++;
+        int start = 0;
+        for(int c = 0; c < columns; c++){
+            int end = line.indexOf('\t', start);
+            if(end < 0){
+                if(c < columns - 1){
+                    return true;
+                }
+                end = line.length();
+            }
+            starts[c] = start;
+            ends[c] = end;
+            start = end + 1;
+        }
+        for(int i = 0; i < filters.length; i++){
+            int c = filters[i].getColumn();
+            if(!filters[i].mayPass(line, starts[c], ends[c])){
+                rejected++;
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Adds the line counts of another prefilter, e.g. of a prefilter used on another thread.
+     * 
+     * @param other prefilter compiled from the same chain
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public void add(RawLinePrefilter other){
+        lines += other.lines;
+        rejected += other.rejected;
+    }
+    
+    /**
+     * Returns the number of lines tested.
+     * 
+     * @return long
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public long getLines(){
+        return lines;
+    }
+    
+    /**
+     * Returns the number of lines rejected without decoding.
+     * 
+     * @return long
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public long getRejected(){
+        return rejected;
+    }
+}
@@ -0,0 +1,288 @@
+/*
+*     This file is part of the VCF.Filter project (https://biomedical-sequencing.at/VCFFilter/).
+*     VCF.Filter permits graphical filtering of VCF files on cutom annotations and standard VCF fields, pedigree analysis, and cohort searches.
+* %%
+*     Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+* %%
+* 
+*     VCF.Filter is free software: you can redistribute it and/or modify
+*     it under the terms of the GNU General Public License as published by
+*     the Free Software Foundation, either version 3 of the License, or
+*     (at your option) any later version.
+* 
+*     This program is distributed in the hope that it will be useful,
+*     but WITHOUT ANY WARRANTY; without even the implied warranty of
+*     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*     GNU General Public License for more details.
+* 
+*     You should have received a copy of the GNU General Public License
+*     along with VCF.Filter.  If not, see <http://www.gnu.org/licenses/>.
+* 
+*     VCF.Filter  Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+*     This program comes with ABSOLUTELY NO WARRANTY;
+*     This is free software, and you are welcome to redistribute it
+*     under certain conditions; 
+*     For details interrogate the About section in the File menu.
+*/
+package at.ac.oeaw.cemm.bsf.vcffilter.predicate;
+
+import htsjdk.tribble.readers.AsciiLineReader;
+import htsjdk.tribble.readers.AsciiLineReaderIterator;
+import htsjdk.tribble.readers.LineIterator;
+import htsjdk.variant.vcf.VCFCodec;
+import htsjdk.variant.vcf.VCFHeader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Restricts raw VCF lines to a selection of samples before they are decoded. The fixed columns 
+ * and FORMAT are kept, genotype columns of other samples are cut from the line, so that the 
+ * lazy genotype parser of the codec only sees the selected samples. The #CHROM header line 
+ * is projected the same way, the codec is initialized with the projected header. 
+ * Selected samples not present in the file are ignored. 
+ * Without any selected sample in the file, FORMAT is dropped as well and sites only records remain.
+ * 
+ * SampleProjection.java 17 OCT 2026
+ *
+ * @author Heiko Müller
+ * @version 1.0
+ * @since 1.0
+ */
+public class SampleProjection {
+    
+    /**
+     * Number of fixed columns including FORMAT.
+     */
+    private static final int FIXED_COLUMNS = 9;
+    
+    /**
+     * Columns of the kept samples in ascending order.
+     */
+    private final int[] columns;
+    
+    /**
+     * Kept samples in file order.
+     */
+    private final List<String> samples;
+    
+    /**
+     * Creates new SampleProjection.
+     * 
+     * @param columns columns of the kept samples in ascending order
+     * @param samples kept samples in file order
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private SampleProjection(int[] columns, List<String> samples){
+        this.columns = columns;
+        this.samples = Collections.unmodifiableList(samples);
+    }
+    
+    /**
+     * Creates the projection of the file samples on the selected samples.
+     * 
+     * @param fileSamples samples of the file in column order
+     * @param selected selected samples, null or empty for all
+     * @return SampleProjection null if all samples of the file are kept
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public static SampleProjection create(List<String> fileSamples, List<String> selected){
+        if(selected == null || selected.isEmpty()){
+            return null;
+        }
+        HashSet<String> set = new HashSet<String>(selected);
+        ArrayList<Integer> kept = new ArrayList<Integer>();
+        ArrayList<String> names = new ArrayList<String>();
+        for(int i = 0; i < fileSamples.size(); i++){
+            if(set.contains(fileSamples.get(i))){
+                kept.add(FIXED_COLUMNS + i);
+                names.add(fileSamples.get(i));
+            }
+        }
+        if(kept.size() == fileSamples.size()){
+            return null;
+        }
+        int[] columns = new int[kept.size()];
+        for(int i = 0; i < columns.length; i++){
+            columns[i] = kept.get(i);
+        }
+        return new SampleProjection(columns, names);
+    }
+    
+    /**
+     * Creates the projection for the #CHROM line of raw header lines.
+     * 
+     * @param header raw VCF header lines
+     * @param selected selected samples, null or empty for all
+     * @return SampleProjection null if all samples of the file are kept
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public static SampleProjection create(byte[] header, List<String> selected){
+        if(selected == null || selected.isEmpty()){
+            return null;
+        }
+        String text = new String(header, StandardCharsets.ISO_8859_1);
+        int start = getChromLineStart(text);
+        if(start < 0){
+            return null;
+        }
+        int end = text.indexOf('\n', start);
+        String[] fields = text.substring(start, end < 0 ? text.length() : end).trim().split("\t");
+        ArrayList<String> fileSamples = new ArrayList<String>();
+        for(int i = FIXED_COLUMNS; i < fields.length; i++){
+            fileSamples.add(fields[i]);
+        }
+        return create(fileSamples, selected);
+    }
+    
+    /**
+     * Returns header restricted to the selected samples, e.g. for output of projected variants.
+     * 
+     * @param header VCF header
+     * @param selected selected samples, null or empty for all
+     * @return VCFHeader header itself if all its samples are kept
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public static VCFHeader project(VCFHeader header, List<String> selected){
+        SampleProjection projection = create(header.getGenotypeSamples(), selected);
+        if(projection == null){
+            return header;
+        }
+        return new VCFHeader(header.getMetaDataInInputOrder(), projection.getSamples());
+    }
+    
+    /**
+     * Reads the header lines from lines and initializes codec with the header restricted 
+     * to the selected samples.
+     * 
+     * @param codec VCF codec
+     * @param lines line iterator positioned at the start of the file
+     * @param selected selected samples, null or empty for all
+     * @return SampleProjection the projection for the data lines, null if all samples are kept
+     * @throws IOException if the header lines cannot be buffered
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public static SampleProjection readHeader(VCFCodec codec, LineIterator lines, List<String> selected) throws IOException {
+        if(selected == null || selected.isEmpty()){
+            codec.readActualHeader(lines);
+            return null;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        while(lines.hasNext() && lines.peek().startsWith("#")){
+            out.write(lines.next().getBytes(StandardCharsets.ISO_8859_1));
+            out.write('\n');
+        }
+        byte[] header = out.toByteArray();
+        SampleProjection projection = create(header, selected);
+        if(projection != null){
+            header = projection.projectHeader(header);
+        }
+        codec.readActualHeader(new AsciiLineReaderIterator(new AsciiLineReader(new ByteArrayInputStream(header))));
+        return projection;
+    }
+    
+    /**
+     * Projects the #CHROM line of raw header lines.
+     * 
+     * @param header raw VCF header lines
+     * @return byte[] header lines with the projected #CHROM line
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public byte[] projectHeader(byte[] header){
+        String text = new String(header, StandardCharsets.ISO_8859_1);
+        int start = getChromLineStart(text);
+        if(start < 0){
+            return header;
+        }
+        int end = text.indexOf('\n', start);
+        if(end < 0){
+            end = text.length();
+        }
+        String line = text.substring(start, end);
+        if(line.endsWith("\r")){
+            line = line.substring(0, line.length() - 1);
+        }
+        return (text.substring(0, start) + project(line) + text.substring(end)).getBytes(StandardCharsets.ISO_8859_1);
+    }
+    
+    /**
+     * Returns the offset of the #CHROM line in raw header lines.
+     * 
+     * @param text raw VCF header lines
+     * @return int offset, -1 if there is no #CHROM line
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private static int getChromLineStart(String text){
+        if(text.startsWith("#CHROM")){
+            return 0;
+        }
+        int i = text.indexOf("\n#CHROM");
+        return i < 0 ? -1 : i + 1;
+    }
+    
+    /**
+     * Cuts the genotype columns of samples not selected from a data or #CHROM line.
+     * 
+     * @param line raw VCF line
+     * @return String projected line, line itself if it has no genotype columns
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public String project(String line){
+        int pos = 0;
+        for(int c = 0; c < FIXED_COLUMNS; c++){
+            pos = line.indexOf('\t', pos);
+            if(pos < 0){
+                return line;
+            }
+            pos++;
+        }
+        if(columns.length == 0){
+            return line.substring(0, line.lastIndexOf('\t', pos - 2));
+        }
+        StringBuilder sb = new StringBuilder(pos + columns.length * 32);
+        sb.append(line, 0, pos - 1);
+        int column = FIXED_COLUMNS;
+        int k = 0;
+        int n = line.length();
+        while(k < columns.length){
+            int end = line.indexOf('\t', pos);
+            if(end < 0){
+                end = n;
+            }
+            if(column == columns[k]){
+                sb.append('\t').append(line, pos, end);
+                k++;
+            }
+            if(end == n){
+                break;
+            }
+            pos = end + 1;
+            column++;
+        }
+        return sb.toString();
+    }
+    
+    /**
+     * Returns the kept samples in file order.
+     * 
+     * @return List&#60;String&#62;
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public List<String> getSamples(){
+        return samples;
+    }
+}
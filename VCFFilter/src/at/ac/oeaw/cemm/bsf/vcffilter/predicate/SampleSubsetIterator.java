@@ -0,0 +1,109 @@
+/*
+*     This file is part of the VCF.Filter project (https://biomedical-sequencing.at/VCFFilter/).
+*     VCF.Filter permits graphical filtering of VCF files on cutom annotations and standard VCF fields, pedigree analysis, and cohort searches.
+* %%
+*     Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+* %%
+* 
+*     VCF.Filter is free software: you can redistribute it and/or modify
+*     it under the terms of the GNU General Public License as published by
+*     the Free Software Foundation, either version 3 of the License, or
+*     (at your option) any later version.
+* 
+*     This program is distributed in the hope that it will be useful,
+*     but WITHOUT ANY WARRANTY; without even the implied warranty of
+*     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*     GNU General Public License for more details.
+* 
+*     You should have received a copy of the GNU General Public License
+*     along with VCF.Filter.  If not, see <http://www.gnu.org/licenses/>.
+* 
+*     VCF.Filter  Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+*     This program comes with ABSOLUTELY NO WARRANTY;
+*     This is free software, and you are welcome to redistribute it
+*     under certain conditions; 
+*     For details interrogate the About section in the File menu.
+*/
+package at.ac.oeaw.cemm.bsf.vcffilter.predicate;
+
+import htsjdk.samtools.util.CloseableIterator;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.vcf.VCFHeader;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Restricts the variants of an htsjdk iterator, e.g. of a region query or a BCF file, 
+ * to the selected samples. Unlike SampleProjection the genotypes are decoded for all 
+ * samples first, so this is used where raw lines are not available.
+ * 
+ * SampleSubsetIterator.java 17 OCT 2026
+ *
+ * @author Heiko Müller
+ * @version 1.0
+ * @since 1.0
+ */
+public class SampleSubsetIterator implements CloseableIterator<VariantContext> {
+    
+    /**
+     * The wrapped iterator.
+     */
+    private final CloseableIterator<VariantContext> it;
+    
+    /**
+     * The kept samples.
+     */
+    private final Set<String> samples;
+    
+    /**
+     * Creates new SampleSubsetIterator.
+     * 
+     * @param it wrapped iterator
+     * @param samples kept samples
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private SampleSubsetIterator(CloseableIterator<VariantContext> it, Set<String> samples){
+        this.it = it;
+        this.samples = samples;
+    }
+    
+    /**
+     * Returns an iterator over the variants of it restricted to the selected samples.
+     * 
+     * @param it variants read with header
+     * @param header header of the variants
+     * @param selected selected samples, null or empty for all
+     * @return CloseableIterator&#60;VariantContext&#62; it itself if all samples of header are kept
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public static CloseableIterator<VariantContext> wrap(CloseableIterator<VariantContext> it, VCFHeader header, List<String> selected){
+        SampleProjection projection = SampleProjection.create(header.getGenotypeSamples(), selected);
+        if(projection == null){
+            return it;
+        }
+        return new SampleSubsetIterator(it, new LinkedHashSet<String>(projection.getSamples()));
+    }
+    
+    @Override
+    public boolean hasNext(){
+        return it.hasNext();
+    }
+    
+    @Override
+    public VariantContext next(){
+        return it.next().subContextFromSamples(samples, false);
+    }
+    
+    @Override
+    public void remove(){
+        throw new UnsupportedOperationException();
+    }
+    
+    @Override
+    public void close(){
+        it.close();
+    }
+}
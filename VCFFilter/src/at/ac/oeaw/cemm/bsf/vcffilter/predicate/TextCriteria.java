@@ -0,0 +1,248 @@
+/*
+*     This file is part of the VCF.Filter project (https://biomedical-sequencing.at/VCFFilter/).
+*     VCF.Filter permits graphical filtering of VCF files on cutom annotations and standard VCF fields, pedigree analysis, and cohort searches.
+* %%
+*     Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+* %%
+* 
+*     VCF.Filter is free software: you can redistribute it and/or modify
+*     it under the terms of the GNU General Public License as published by
+*     the Free Software Foundation, either version 3 of the License, or
+*     (at your option) any later version.
+* 
+*     This program is distributed in the hope that it will be useful,
+*     but WITHOUT ANY WARRANTY; without even the implied warranty of
+*     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*     GNU General Public License for more details.
+* 
+*     You should have received a copy of the GNU General Public License
+*     along with VCF.Filter.  If not, see <http://www.gnu.org/licenses/>.
+* 
+*     VCF.Filter  Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+*     This program comes with ABSOLUTELY NO WARRANTY;
+*     This is free software, and you are welcome to redistribute it
+*     under certain conditions; 
+*     For details interrogate the About section in the File menu.
+*/
+package at.ac.oeaw.cemm.bsf.vcffilter.predicate;
+
+/**
+ * Immutable text search criteria of a filter. Each of the three OR-combined criteria is 
+ * compiled once into a case insensitive WildcardMatcher or chromosome name, so that testing 
+ * a value neither re-inspects the typed predicate nor creates new Strings.
+ * 
+ * TextCriteria.java 17 OCT 2026
+ *
+ * @author Heiko Müller
+ * @version 1.0
+ * @since 1.0
+ */
+public class TextCriteria {
+    
+    /**
+     * Empty criterion, never matches.
+     */
+    private static final int NONE = 0;
+    
+    /**
+     * Value must match the WildcardMatcher.
+     */
+    private static final int MATCHER = 1;
+    
+    /**
+     * Value must equal the chromosome name after removal of a leading CHR from both.
+     */
+    private static final int CHROMOSOME = 2;
+    
+    /**
+     * Upper case CHR prefix of contig names.
+     */
+    private static final char[] CHR = {'C', 'H', 'R'};
+    
+    /**
+     * Match modes of criterion 1, 2, and 3.
+     */
+    private final int[] modes = new int[3];
+    
+    /**
+     * Matchers of criterion 1, 2, and 3.
+     */
+    private final WildcardMatcher[] matchers = new WildcardMatcher[3];
+    
+    /**
+     * Upper case chromosome names without CHR of criterion 1, 2, and 3.
+     */
+    private final char[][] chromosomes = new char[3][];
+    
+    /**
+     * Not instantiable except through the static factory methods.
+     */
+    private TextCriteria(){
+    }
+    
+    /**
+     * Creates wildcard criteria as used by StringFilter and derived filters. 
+     * An empty predicate never matches, * matches any non-empty value, 
+     * otherwise the predicate is matched as described in WildcardMatcher.
+     * 
+     * @param predicate1 predicate 1
+     * @param predicate2 predicate 2
+     * @param predicate3 predicate 3
+     * @return TextCriteria
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public static TextCriteria wildcard(String predicate1, String predicate2, String predicate3){
+        TextCriteria tc = new TextCriteria();
+        String[] predicates = new String[]{predicate1, predicate2, predicate3};
+        for(int i = 0; i < 3; i++){
+            String p = predicates[i];
+            if(!isEmpty(p)){
+                tc.modes[i] = MATCHER;
+                tc.matchers[i] = WildcardMatcher.wildcard(p);
+            }
+        }
+        return tc;
+    }
+    
+    /**
+     * Creates criteria requiring exact, case insensitive matches as used by array filters.
+     * An empty predicate never matches.
+     * 
+     * @param predicate1 predicate 1
+     * @param predicate2 predicate 2
+     * @param predicate3 predicate 3
+     * @return TextCriteria
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public static TextCriteria exact(String predicate1, String predicate2, String predicate3){
+        TextCriteria tc = new TextCriteria();
+        String[] predicates = new String[]{predicate1, predicate2, predicate3};
+        for(int i = 0; i < 3; i++){
+            String p = predicates[i];
+            if(!isEmpty(p)){
+                tc.modes[i] = MATCHER;
+                tc.matchers[i] = WildcardMatcher.literal(p);
+            }
+        }
+        return tc;
+    }
+    
+    /**
+     * Creates chromosome criteria as used by ChromosomeFilter. 
+     * A predicate with * matches contigs containing the part after a leading *, 
+     * or the part before the first * otherwise. Without *, contig and predicate 
+     * must be equal irrespective of a leading CHR.
+     * 
+     * @param predicate1 predicate 1
+     * @param predicate2 predicate 2
+     * @param predicate3 predicate 3
+     * @return TextCriteria
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public static TextCriteria chromosome(String predicate1, String predicate2, String predicate3){
+        TextCriteria tc = new TextCriteria();
+        String[] predicates = new String[]{predicate1, predicate2, predicate3};
+        for(int i = 0; i < 3; i++){
+            String p = predicates[i];
+            if(isEmpty(p)){
+                continue;
+            }
+            if(p.contains("*")){
+                String part = p.startsWith("*") ? p.substring(1) : p.substring(0, p.indexOf("*"));
+                tc.modes[i] = MATCHER;
+                tc.matchers[i] = WildcardMatcher.wildcard("*" + part + "*");
+            }else{
+                char[] name = p.toUpperCase().toCharArray();
+                int offset = chrPrefixLength(p, 0, p.length());
+                tc.modes[i] = CHROMOSOME;
+                tc.chromosomes[i] = new char[name.length - offset];
+                System.arraycopy(name, offset, tc.chromosomes[i], 0, name.length - offset);
+            }
+        }
+        return tc;
+    }
+    
+    /**
+     * Tests if value matches any of the criteria, ignoring case.
+     * 
+     * @param value the value to be tested
+     * @return boolean true if value matches criterion 1, 2, or 3, false otherwise
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public boolean matches(CharSequence value){
+        return matches(value, 0, value.length());
+    }
+    
+    /**
+     * Tests if the region [start, end) of value matches any of the criteria, ignoring case.
+     * 
+     * @param value the value to be tested
+     * @param start start of the region
+     * @param end end of the region, exclusive
+     * @return boolean true if the region matches criterion 1, 2, or 3, false otherwise
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public boolean matches(CharSequence value, int start, int end){
+        for(int i = 0; i < 3; i++){
+            switch(modes[i]){
+                case MATCHER:
+                    if(matchers[i].matches(value, start, end)){
+                        return true;
+                    }
+                    break;
+                case CHROMOSOME:
+                    int offset = start + chrPrefixLength(value, start, end);
+                    char[] name = chromosomes[i];
+                    if(end - offset == name.length && WildcardMatcher.regionMatches(value, offset, name)){
+                        return true;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Tests if all criteria are empty.
+     * 
+     * @return boolean true if no criterion can match, false otherwise
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public boolean isEmpty(){
+        return modes[0] == NONE && modes[1] == NONE && modes[2] == NONE;
+    }
+    
+    /**
+     * Tests if a predicate is empty or blank.
+     * 
+     * @param p predicate
+     * @return boolean true if p is null or blank
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private static boolean isEmpty(String p){
+        return p == null || p.trim().length() == 0;
+    }
+    
+    /**
+     * Returns the length of a leading CHR prefix of a contig name, ignoring case.
+     * 
+     * @param s contig name
+     * @param start start of the name in s
+     * @param end end of the name in s, exclusive
+     * @return int 3 if the name starts with CHR, 0 otherwise
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private static int chrPrefixLength(CharSequence s, int start, int end){
+        return end - start >= CHR.length && WildcardMatcher.regionMatches(s, start, CHR) ? CHR.length : 0;
+    }
+}
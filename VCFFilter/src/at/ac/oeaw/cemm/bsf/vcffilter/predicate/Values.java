@@ -0,0 +1,128 @@
+/*
+*     This file is part of the VCF.Filter project (https://biomedical-sequencing.at/VCFFilter/).
+*     VCF.Filter permits graphical filtering of VCF files on cutom annotations and standard VCF fields, pedigree analysis, and cohort searches.
+* %%
+*     Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+* %%
+* 
+*     VCF.Filter is free software: you can redistribute it and/or modify
+*     it under the terms of the GNU General Public License as published by
+*     the Free Software Foundation, either version 3 of the License, or
+*     (at your option) any later version.
+* 
+*     This program is distributed in the hope that it will be useful,
+*     but WITHOUT ANY WARRANTY; without even the implied warranty of
+*     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*     GNU General Public License for more details.
+* 
+*     You should have received a copy of the GNU General Public License
+*     along with VCF.Filter.  If not, see <http://www.gnu.org/licenses/>.
+* 
+*     VCF.Filter  Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+*     This program comes with ABSOLUTELY NO WARRANTY;
+*     This is free software, and you are welcome to redistribute it
+*     under certain conditions; 
+*     For details interrogate the About section in the File menu.
+*/
+package at.ac.oeaw.cemm.bsf.vcffilter.predicate;
+
+/**
+ * Conversion of attribute values to primitive numbers. Values that cannot be 
+ * converted are returned as NaN, which never matches any NumberCriteria.
+ * 
+ * Values.java 17 OCT 2026
+ *
+ * @author Heiko Müller
+ * @version 1.0
+ * @since 1.0
+ */
+public final class Values {
+    
+    /**
+     * Not instantiable.
+     */
+    private Values(){
+    }
+    
+    /**
+     * Converts a single valued attribute to an integer number.
+     * 
+     * @param o attribute object
+     * @return double the integer value, or NaN if o is not an integer
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public static double toInteger(Object o){
+        if(o instanceof Integer){
+            return ((Integer)o).intValue();
+        }
+        try{
+            return Integer.parseInt(o.toString());
+        }catch(NumberFormatException nfe){
+            return Double.NaN;
+        }
+    }
+    
+    /**
+     * Converts a single valued attribute to a real number.
+     * 
+     * @param o attribute object
+     * @return double the value, or NaN if o is not a number
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public static double toDouble(Object o){
+        if(o instanceof Number){
+            return ((Number)o).doubleValue();
+        }
+        try{
+            return Double.parseDouble(o.toString());
+        }catch(NumberFormatException nfe){
+            return Double.NaN;
+        }
+    }
+    
+    /**
+     * Converts an array element to a number. Empty and missing (.) elements are returned as NaN,
+     * unparsable elements are returned as 0 as in the array filters.
+     * 
+     * @param element array element
+     * @param integer true if element should be parsed as integer
+     * @return double the value
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public static double arrayElement(String element, boolean integer){
+        String value = element.trim();
+        if(value.length() == 0 || value.equals(".")){
+            return Double.NaN;
+        }
+        try{
+            if(integer){
+                return Integer.parseInt(value);
+            }else{
+                return Double.parseDouble(value);
+            }
+        }catch(NumberFormatException nfe){
+            return 0;
+        }
+    }
+    
+    /**
+     * Splits an array attribute into its elements after removal of enclosing brackets.
+     * 
+     * @param o attribute object
+     * @return String[] the array elements
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public static String[] splitArray(Object o){
+        String s = o.toString();
+        int start = s.lastIndexOf("[");
+        int end = s.indexOf("]");
+        if(start > -1 && end > -1){
+            s = s.substring(start + 1, end);
+        }
+        return s.split(",");
+    }
+}
@@ -0,0 +1,327 @@
+/*
+*     This file is part of the VCF.Filter project (https://biomedical-sequencing.at/VCFFilter/).
+*     VCF.Filter permits graphical filtering of VCF files on cutom annotations and standard VCF fields, pedigree analysis, and cohort searches.
+* %%
+*     Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+* %%
+* 
+*     VCF.Filter is free software: you can redistribute it and/or modify
+*     it under the terms of the GNU General Public License as published by
+*     the Free Software Foundation, either version 3 of the License, or
+*     (at your option) any later version.
+* 
+*     This program is distributed in the hope that it will be useful,
+*     but WITHOUT ANY WARRANTY; without even the implied warranty of
+*     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*     GNU General Public License for more details.
+* 
+*     You should have received a copy of the GNU General Public License
+*     along with VCF.Filter.  If not, see <http://www.gnu.org/licenses/>.
+* 
+*     VCF.Filter  Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+*     This program comes with ABSOLUTELY NO WARRANTY;
+*     This is free software, and you are welcome to redistribute it
+*     under certain conditions; 
+*     For details interrogate the About section in the File menu.
+*/
+package at.ac.oeaw.cemm.bsf.vcffilter.predicate;
+
+import java.util.ArrayList;
+
+/**
+ * Case insensitive matcher for a single text criterion, compiled once from the typed predicate. 
+ * The * symbol matches any sequence of characters: A matches A only, A* values starting with A, 
+ * *A values ending with A, *A* values containing A, and A*B*C values starting with A, 
+ * ending with C and containing B in between. * alone matches any non-empty value. 
+ * Values are tested as CharSequence regions or raw bytes without creating new Strings.
+ * 
+ * WildcardMatcher.java 17 OCT 2026
+ *
+ * @author Heiko Müller
+ * @version 1.0
+ * @since 1.0
+ */
+public final class WildcardMatcher {
+    
+    /**
+     * Value must equal the pattern.
+     */
+    private static final int EXACT = 0;
+    
+    /**
+     * Any non-empty value matches.
+     */
+    private static final int ANY = 1;
+    
+    /**
+     * Value must start with the head.
+     */
+    private static final int PREFIX = 2;
+    
+    /**
+     * Value must end with the tail.
+     */
+    private static final int SUFFIX = 3;
+    
+    /**
+     * Value must contain the single middle part.
+     */
+    private static final int INFIX = 4;
+    
+    /**
+     * Value must start with the head, end with the tail and contain the middle parts in order.
+     */
+    private static final int GLOB = 5;
+    
+    /**
+     * The match kind.
+     */
+    private final int kind;
+    
+    /**
+     * Upper case part before the first *, or the whole pattern for EXACT.
+     */
+    private final char[] head;
+    
+    /**
+     * Upper case part after the last *.
+     */
+    private final char[] tail;
+    
+    /**
+     * Upper case non-empty parts between the first and the last *.
+     */
+    private final char[][] middle;
+    
+    /**
+     * Creates new WildcardMatcher.
+     * 
+     * @param kind the match kind
+     * @param head part before the first *
+     * @param tail part after the last *
+     * @param middle non-empty parts between the first and the last *
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private WildcardMatcher(int kind, char[] head, char[] tail, char[][] middle){
+        this.kind = kind;
+        this.head = head;
+        this.tail = tail;
+        this.middle = middle;
+    }
+    
+    /**
+     * Compiles a wildcard pattern.
+     * 
+     * @param pattern the pattern, may contain *
+     * @return WildcardMatcher
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public static WildcardMatcher wildcard(String pattern){
+        String p = pattern.toUpperCase();
+        int first = p.indexOf('*');
+        if(first < 0){
+            return literal(p);
+        }
+        int last = p.lastIndexOf('*');
+        char[] head = p.substring(0, first).toCharArray();
+        char[] tail = p.substring(last + 1).toCharArray();
+        ArrayList<char[]> parts = new ArrayList<char[]>();
+        int start = first + 1;
+        while(start <= last){
+            int end = p.indexOf('*', start);
+            if(end > start){
+                parts.add(p.substring(start, end).toCharArray());
+            }
+            start = end + 1;
+        }
+        char[][] middle = parts.toArray(new char[parts.size()][]);
+        int kind;
+        if(head.length == 0 && tail.length == 0 && middle.length == 0){
+            kind = ANY;
+        }else if(middle.length == 0 && tail.length == 0){
+            kind = PREFIX;
+        }else if(middle.length == 0 && head.length == 0){
+            kind = SUFFIX;
+        }else if(middle.length == 1 && head.length == 0 && tail.length == 0){
+            kind = INFIX;
+        }else{
+            kind = GLOB;
+        }
+        return new WildcardMatcher(kind, head, tail, middle);
+    }
+    
+    /**
+     * Compiles a pattern to be matched exactly, * has no special meaning.
+     * 
+     * @param pattern the pattern
+     * @return WildcardMatcher
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public static WildcardMatcher literal(String pattern){
+        return new WildcardMatcher(EXACT, pattern.toUpperCase().toCharArray(), new char[0], new char[0][]);
+    }
+    
+    /**
+     * Tests if value matches the pattern.
+     * 
+     * @param value the value to be tested
+     * @return boolean true if value matches, false otherwise
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public boolean matches(CharSequence value){
+        return matches(value, 0, value.length());
+    }
+    
+    /**
+     * Tests if the region [start, end) of value matches the pattern.
+     * 
+     * @param value the value to be tested
+     * @param start start of the region
+     * @param end end of the region, exclusive
+     * @return boolean true if the region matches, false otherwise
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public boolean matches(CharSequence value, int start, int end){
+        int length = end - start;
+        switch(kind){
+            case EXACT: return length == head.length && regionMatches(value, start, head);
+            case ANY: return length > 0;
+            case PREFIX: return length >= head.length && regionMatches(value, start, head);
+            case SUFFIX: return length >= tail.length && regionMatches(value, end - tail.length, tail);
+            case INFIX: return indexOf(value, start, end, middle[0]) >= 0;
+            default:
+                if(length < head.length + tail.length || !regionMatches(value, start, head) || !regionMatches(value, end - tail.length, tail)){
+                    return false;
+                }
+                int from = start + head.length;
+                int to = end - tail.length;
+                for(int i = 0; i < middle.length; i++){
+                    int found = indexOf(value, from, to, middle[i]);
+                    if(found < 0){
+                        return false;
+                    }
+                    from = found + middle[i].length;
+                }
+                return true;
+        }
+    }
+    
+    /**
+     * Tests if the region [start, end) of raw ASCII bytes matches the pattern.
+     * 
+     * @param value the bytes to be tested
+     * @param start start of the region
+     * @param end end of the region, exclusive
+     * @return boolean true if the region matches, false otherwise
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public boolean matches(byte[] value, int start, int end){
+        int length = end - start;
+        switch(kind){
+            case EXACT: return length == head.length && regionMatches(value, start, head);
+            case ANY: return length > 0;
+            case PREFIX: return length >= head.length && regionMatches(value, start, head);
+            case SUFFIX: return length >= tail.length && regionMatches(value, end - tail.length, tail);
+            case INFIX: return indexOf(value, start, end, middle[0]) >= 0;
+            default:
+                if(length < head.length + tail.length || !regionMatches(value, start, head) || !regionMatches(value, end - tail.length, tail)){
+                    return false;
+                }
+                int from = start + head.length;
+                int to = end - tail.length;
+                for(int i = 0; i < middle.length; i++){
+                    int found = indexOf(value, from, to, middle[i]);
+                    if(found < 0){
+                        return false;
+                    }
+                    from = found + middle[i].length;
+                }
+                return true;
+        }
+    }
+    
+    /**
+     * Tests if value contains the upper case pattern at offset, ignoring case. 
+     * The caller ensures that the pattern fits into value.
+     * 
+     * @param value the value
+     * @param offset position in value
+     * @param pattern upper case pattern
+     * @return boolean true if the pattern occurs at offset
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    static boolean regionMatches(CharSequence value, int offset, char[] pattern){
+        for(int i = 0; i < pattern.length; i++){
+            if(Character.toUpperCase(value.charAt(offset + i)) != pattern[i]){
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Finds the first occurrence of the upper case pattern in the region [from, to) of value, ignoring case.
+     * 
+     * @param value the value
+     * @param from start of the region
+     * @param to end of the region, exclusive
+     * @param pattern upper case pattern
+     * @return int position of the occurrence, -1 if not found
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    static int indexOf(CharSequence value, int from, int to, char[] pattern){
+        for(int i = from; i <= to - pattern.length; i++){
+            if(regionMatches(value, i, pattern)){
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * Tests if bytes contain the upper case pattern at offset, ignoring case.
+     * 
+     * @param value the bytes
+     * @param offset position in value
+     * @param pattern upper case pattern
+     * @return boolean true if the pattern occurs at offset
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    static boolean regionMatches(byte[] value, int offset, char[] pattern){
+        for(int i = 0; i < pattern.length; i++){
+            if(Character.toUpperCase((char)(value[offset + i] & 0xff)) != pattern[i]){
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Finds the first occurrence of the upper case pattern in the region [from, to) of bytes, ignoring case.
+     * 
+     * @param value the bytes
+     * @param from start of the region
+     * @param to end of the region, exclusive
+     * @param pattern upper case pattern
+     * @return int position of the occurrence, -1 if not found
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    static int indexOf(byte[] value, int from, int to, char[] pattern){
+        for(int i = from; i <= to - pattern.length; i++){
+            if(regionMatches(value, i, pattern)){
+                return i;
+            }
+        }
+        return -1;
+    }
+}
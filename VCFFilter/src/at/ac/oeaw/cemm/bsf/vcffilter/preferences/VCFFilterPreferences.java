@@ -33,6 +33,7 @@ import at.ac.oeaw.cemm.bsf.vcffilter.outputformat.OutputOrder;
 import at.ac.oeaw.cemm.bsf.vcffilter.filter.ExampleFileFilter;
 import at.ac.oeaw.cemm.bsf.vcffilter.filter.Filter;
 import at.ac.oeaw.cemm.bsf.vcffilter.filter.FilterDefaults;
+import at.ac.oeaw.cemm.bsf.vcffilter.filter.FilterFactory;
 import htsjdk.variant.vcf.VCFCompoundHeaderLine;
 import htsjdk.variant.vcf.VCFFileReader;
 import htsjdk.variant.vcf.VCFFormatHeaderLine;
@@ -215,6 +216,11 @@ public class VCFFilterPreferences extends javax.swing.JDialog {
      */
     private int outputlimit = 50000;
 
+    /**
+     * ID of the numeric VCFInfoHeaderLine used to rank output, null for output in file order.
+     */
+    private String rankField;
+
     /**
      * Creates new VCFFilterPreferences.
      *
@@ -428,20 +434,7 @@ public class VCFFilterPreferences extends javax.swing.JDialog {
             while (it.hasNext()) {
                 infoHeaderLines.add(it.next());
             }
-            VCFInfoHeaderLine chr = new VCFInfoHeaderLine("CHROM", 1, VCFHeaderLineType.String, "Filters for chromosome id");
-            VCFInfoHeaderLine pos = new VCFInfoHeaderLine("POS", 1, VCFHeaderLineType.Integer, "Filters for variant position");
-            VCFInfoHeaderLine id = new VCFInfoHeaderLine("ID", 1, VCFHeaderLineType.String, "Filters dbSNP rs ids");
-            VCFInfoHeaderLine ref = new VCFInfoHeaderLine("REF", 1, VCFHeaderLineType.String, "Filters for reference allele bases");
-            VCFInfoHeaderLine alt = new VCFInfoHeaderLine("ALT", 1, VCFHeaderLineType.String, "Filters for alternative allele bases");
-            VCFInfoHeaderLine qual = new VCFInfoHeaderLine("QUAL", 1, VCFHeaderLineType.Float, "Filters for call quality");
-            VCFInfoHeaderLine filt = new VCFInfoHeaderLine("FILTER", 1, VCFHeaderLineType.String, "Filters for call quality");
-            infoHeaderLines.add(0, chr);
-            infoHeaderLines.add(1, pos);
-            infoHeaderLines.add(2, id);
-            infoHeaderLines.add(3, ref);
-            infoHeaderLines.add(4, alt);
-            infoHeaderLines.add(5, qual);
-            infoHeaderLines.add(6, filt);
+            infoHeaderLines.addAll(0, FilterFactory.getFixedColumnHeaderLines());
 
             Iterator<VCFFormatHeaderLine> itf = vcf.getFileHeader().getFormatHeaderLines().iterator();
             formatHeaderLines = new ArrayList<VCFFormatHeaderLine>();
@@ -667,6 +660,30 @@ public class VCFFilterPreferences extends javax.swing.JDialog {
         }
     }
 
+    /**
+     * Inits the JCombobox for choosing the field used to rank output. Only numeric 
+     * INFO fields and QUAL can be chosen.
+     *
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public void initRankFieldCombobox() {
+        jComboBox4.removeAllItems();
+        jComboBox4.addItem("none");
+        if (infoHeaderLines == null) {
+            return;
+        }
+        for (VCFInfoHeaderLine hl : infoHeaderLines) {
+            boolean numeric = hl.getType() == VCFHeaderLineType.Integer || hl.getType() == VCFHeaderLineType.Float;
+            if (numeric && !hl.getID().equals("POS")) {
+                jComboBox4.addItem(hl.getID());
+                if (hl.getID().equals(rankField)) {
+                    jComboBox4.setSelectedIndex(jComboBox4.getItemCount() - 1);
+                }
+            }
+        }
+    }
+
     /**
      * Removes a String element from a JList.
      *
@@ -819,6 +836,10 @@ public class VCFFilterPreferences extends javax.swing.JDialog {
         jLabel27 = new javax.swing.JLabel();
         jTextField9 = new javax.swing.JTextField();
         jLabel28 = new javax.swing.JLabel();
+        jLabel29 = new javax.swing.JLabel();
+        jComboBox4 = new javax.swing.JComboBox();
+        jCheckBox2 = new javax.swing.JCheckBox();
+        jLabel30 = new javax.swing.JLabel();
         jButton3 = new javax.swing.JButton();
         jLabel26 = new javax.swing.JLabel();
 
@@ -1661,6 +1682,14 @@ public class VCFFilterPreferences extends javax.swing.JDialog {
         jLabel28.setForeground(new java.awt.Color(255, 0, 51));
         jLabel28.setText("Hint: Setting this limit too high may lead to OutOfMemory errors.");
 
+        jLabel29.setFont(new java.awt.Font("Tahoma", 1, 13)); // NOI18N
+        jLabel29.setText("Rank output by this field:");
+
+        jCheckBox2.setSelected(true);
+        jCheckBox2.setText("Highest values first");
+
+        jLabel30.setText("Ranked output shows the variants with the best values instead of the first variants found.");
+
         javax.swing.GroupLayout jPanel23Layout = new javax.swing.GroupLayout(jPanel23);
         jPanel23.setLayout(jPanel23Layout);
         jPanel23Layout.setHorizontalGroup(
@@ -1672,7 +1701,13 @@ public class VCFFilterPreferences extends javax.swing.JDialog {
                     .addGroup(jPanel23Layout.createSequentialGroup()
                         .addComponent(jLabel27, javax.swing.GroupLayout.PREFERRED_SIZE, 268, javax.swing.GroupLayout.PREFERRED_SIZE)
                         .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED, 35, Short.MAX_VALUE)
-                        .addComponent(jTextField9, javax.swing.GroupLayout.PREFERRED_SIZE, 130, javax.swing.GroupLayout.PREFERRED_SIZE)))
+                        .addComponent(jTextField9, javax.swing.GroupLayout.PREFERRED_SIZE, 130, javax.swing.GroupLayout.PREFERRED_SIZE))
+                    .addGroup(jPanel23Layout.createSequentialGroup()
+                        .addComponent(jLabel29, javax.swing.GroupLayout.PREFERRED_SIZE, 268, javax.swing.GroupLayout.PREFERRED_SIZE)
+                        .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED, 35, Short.MAX_VALUE)
+                        .addComponent(jComboBox4, javax.swing.GroupLayout.PREFERRED_SIZE, 130, javax.swing.GroupLayout.PREFERRED_SIZE))
+                    .addComponent(jCheckBox2)
+                    .addComponent(jLabel30, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE))
                 .addContainerGap())
         );
         jPanel23Layout.setVerticalGroup(
@@ -1684,7 +1719,15 @@ public class VCFFilterPreferences extends javax.swing.JDialog {
                     .addComponent(jTextField9, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE))
                 .addGap(26, 26, 26)
                 .addComponent(jLabel28)
-                .addContainerGap(396, Short.MAX_VALUE))
+                .addGap(26, 26, 26)
+                .addGroup(jPanel23Layout.createParallelGroup(javax.swing.GroupLayout.Alignment.BASELINE)
+                    .addComponent(jLabel29)
+                    .addComponent(jComboBox4, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE))
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                .addComponent(jCheckBox2)
+                .addGap(26, 26, 26)
+                .addComponent(jLabel30)
+                .addContainerGap(286, Short.MAX_VALUE))
         );
 
         javax.swing.GroupLayout jPanel22Layout = new javax.swing.GroupLayout(jPanel22);
@@ -2442,6 +2485,19 @@ public class VCFFilterPreferences extends javax.swing.JDialog {
             }
         }
 
+        if (ht.containsKey("rankField")) {
+            String temp = ht.get("rankField");
+            if (temp != null && temp.length() > 0 && !temp.equals("null")) {
+                rankField = temp;
+            } else {
+                rankField = null;
+            }
+        }
+
+        if (ht.containsKey("rankDescending")) {
+            jCheckBox2.setSelected(!ht.get("rankDescending").equals("false"));
+        }
+
         if (ht.containsKey("blackListFile")) {
             if (blackListFiles == null) {
                 blackListFiles = new ArrayList<File>();
@@ -2590,6 +2646,10 @@ public class VCFFilterPreferences extends javax.swing.JDialog {
         }
         sb.append("outputlimit=" + outputlimit + "\r\n\r\n");
 
+        sb.append("[Output ranking]\r\n");
+        sb.append("rankField=" + getRankField() + "\r\n");
+        sb.append("rankDescending=" + getRankDescending() + "\r\n\r\n");
+
         compoundHeaderLines = getCompoundHeaderLines();
         for (VCFCompoundHeaderLine h : compoundHeaderLines) {
             if (filterDefaultsHash != null) {
@@ -3187,6 +3247,32 @@ public class VCFFilterPreferences extends javax.swing.JDialog {
         }
     }
 
+    /**
+     * Getter for the ID of the field used to rank output.
+     *
+     * @return String the field ID, null for output in file order
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public String getRankField() {
+        Object o = jComboBox4.getSelectedItem();
+        if (o != null) {
+            rankField = o.toString().equals("none") ? null : o.toString();
+        }
+        return rankField;
+    }
+
+    /**
+     * Getter for the ranking direction.
+     *
+     * @return boolean true if the highest values are ranked first
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public boolean getRankDescending() {
+        return jCheckBox2.isSelected();
+    }
+
     /**
      * @param args the command line arguments
      */
@@ -3241,9 +3327,11 @@ public class VCFFilterPreferences extends javax.swing.JDialog {
     private javax.swing.JButton jButton8;
     private javax.swing.JButton jButton9;
     private javax.swing.JCheckBox jCheckBox1;
+    private javax.swing.JCheckBox jCheckBox2;
     private javax.swing.JComboBox jComboBox1;
     private javax.swing.JComboBox jComboBox2;
     private javax.swing.JComboBox jComboBox3;
+    private javax.swing.JComboBox jComboBox4;
     private javax.swing.JFileChooser jFileChooser1;
     private javax.swing.JFileChooser jFileChooser2;
     private javax.swing.JFileChooser jFileChooser3;
@@ -3270,7 +3358,9 @@ public class VCFFilterPreferences extends javax.swing.JDialog {
     private javax.swing.JLabel jLabel26;
     private javax.swing.JLabel jLabel27;
     private javax.swing.JLabel jLabel28;
+    private javax.swing.JLabel jLabel29;
     private javax.swing.JLabel jLabel3;
+    private javax.swing.JLabel jLabel30;
     private javax.swing.JLabel jLabel4;
     private javax.swing.JLabel jLabel5;
     private javax.swing.JLabel jLabel6;
@@ -0,0 +1,93 @@
+/*
+*     This file is part of the VCF.Filter project (https://biomedical-sequencing.at/VCFFilter/).
+*     VCF.Filter permits graphical filtering of VCF files on cutom annotations and standard VCF fields, pedigree analysis, and cohort searches.
+* %%
+*     Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+* %%
+* 
+*     VCF.Filter is free software: you can redistribute it and/or modify
+*     it under the terms of the GNU General Public License as published by
+*     the Free Software Foundation, either version 3 of the License, or
+*     (at your option) any later version.
+* 
+*     This program is distributed in the hope that it will be useful,
+*     but WITHOUT ANY WARRANTY; without even the implied warranty of
+*     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*     GNU General Public License for more details.
+* 
+*     You should have received a copy of the GNU General Public License
+*     along with VCF.Filter.  If not, see <http://www.gnu.org/licenses/>.
+* 
+*     VCF.Filter  Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+*     This program comes with ABSOLUTELY NO WARRANTY;
+*     This is free software, and you are welcome to redistribute it
+*     under certain conditions; 
+*     For details interrogate the About section in the File menu.
+*/
+package at.ac.oeaw.cemm.bsf.vcffilter.progress;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Adds the bytes read from the underlying stream to the progress of an input file.
+ * 
+ * ByteCountingInputStream.java 17 OCT 2026
+ *
+ * @author Heiko Müller
+ * @version 1.0
+ * @since 1.0
+ */
+public class ByteCountingInputStream extends FilterInputStream {
+    
+    /**
+     * Progress of the input file.
+     */
+    private final InputProgress progress;
+    
+    /**
+     * Creates new ByteCountingInputStream.
+     * 
+     * @param in underlying stream
+     * @param progress progress of the input file
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public ByteCountingInputStream(InputStream in, InputProgress progress){
+        super(in);
+        this.progress = progress;
+    }
+    
+    @Override
+    public int read() throws IOException {
+        int b = in.read();
+        if(b >= 0){
+            progress.addBytes(1);
+        }
+        return b;
+    }
+    
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = in.read(b, off, len);
+        if(n > 0){
+            progress.addBytes(n);
+        }
+        return n;
+    }
+    
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = in.skip(n);
+        if(skipped > 0){
+            progress.addBytes(skipped);
+        }
+        return skipped;
+    }
+    
+    @Override
+    public boolean markSupported(){
+        return false;
+    }
+}
@@ -0,0 +1,200 @@
+/*
+*     This file is part of the VCF.Filter project (https://biomedical-sequencing.at/VCFFilter/).
+*     VCF.Filter permits graphical filtering of VCF files on cutom annotations and standard VCF fields, pedigree analysis, and cohort searches.
+* %%
+*     Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+* %%
+* 
+*     VCF.Filter is free software: you can redistribute it and/or modify
+*     it under the terms of the GNU General Public License as published by
+*     the Free Software Foundation, either version 3 of the License, or
+*     (at your option) any later version.
+* 
+*     This program is distributed in the hope that it will be useful,
+*     but WITHOUT ANY WARRANTY; without even the implied warranty of
+*     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*     GNU General Public License for more details.
+* 
+*     You should have received a copy of the GNU General Public License
+*     along with VCF.Filter.  If not, see <http://www.gnu.org/licenses/>.
+* 
+*     VCF.Filter  Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+*     This program comes with ABSOLUTELY NO WARRANTY;
+*     This is free software, and you are welcome to redistribute it
+*     under certain conditions; 
+*     For details interrogate the About section in the File menu.
+*/
+package at.ac.oeaw.cemm.bsf.vcffilter.progress;
+
+import java.io.File;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread safe progress of a filter run over a set of input files. Progress is measured 
+ * in bytes consumed of the input files, so that a single large file advances continuously. 
+ * Records are counted per stage: read, passing filters, passing white and black lists and 
+ * passing recurrence. Snapshots may be taken from any thread, e.g. to be published 
+ * to a progress bar or printed by headless callers.
+ * 
+ * FilterProgress.java 17 OCT 2026
+ *
+ * @author Heiko Müller
+ * @version 1.0
+ * @since 1.0
+ */
+public class FilterProgress {
+    
+    /**
+     * Minimum time between two publications in nanoseconds.
+     */
+    private static final long PUBLISH_INTERVAL = 250000000L;
+    
+    /**
+     * Start time in nanoseconds.
+     */
+    private final long startNanos = System.nanoTime();
+    
+    /**
+     * Total bytes of all input files.
+     */
+    private final long totalBytes;
+    
+    /**
+     * Bytes consumed.
+     */
+    private final LongAdder bytes = new LongAdder();
+    
+    /**
+     * Records read.
+     */
+    private final LongAdder records = new LongAdder();
+    
+    /**
+     * Records passing the filter chain.
+     */
+    private final LongAdder passedFilters = new LongAdder();
+    
+    /**
+     * Records passing white and black lists.
+     */
+    private final LongAdder passedLists = new LongAdder();
+    
+    /**
+     * Records passing recurrence.
+     */
+    private final LongAdder passedRecurrence = new LongAdder();
+    
+    /**
+     * Time of the last publication in nanoseconds.
+     */
+    private final AtomicLong lastPublish = new AtomicLong(startNanos);
+    
+    /**
+     * Creates new FilterProgress.
+     * 
+     * @param inputs the input files of the run
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public FilterProgress(File[] inputs){
+        long total = 0;
+        for(File f : inputs){
+            total += f.length();
+        }
+        this.totalBytes = total;
+    }
+    
+    /**
+     * Returns the progress of one input file of the run.
+     * 
+     * @param f input file
+     * @return InputProgress
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public InputProgress startInput(File f){
+        return new InputProgress(this, f.length());
+    }
+    
+    /**
+     * Adds consumed bytes.
+     * 
+     * @param n bytes
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public void addBytes(long n){
+        bytes.add(n);
+    }
+    
+    /**
+     * Adds records read.
+     * 
+     * @param n records
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public void addRecords(long n){
+        records.add(n);
+    }
+    
+    /**
+     * Adds records passing the filter chain.
+     * 
+     * @param n records
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public void addPassedFilters(long n){
+        passedFilters.add(n);
+    }
+    
+    /**
+     * Adds records passing white and black lists.
+     * 
+     * @param n records
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public void addPassedLists(long n){
+        passedLists.add(n);
+    }
+    
+    /**
+     * Adds records passing recurrence.
+     * 
+     * @param n records
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public void addPassedRecurrence(long n){
+        passedRecurrence.add(n);
+    }
+    
+    /**
+     * Tests if the last publication is older than the publication interval. 
+     * Returns true for only one caller per interval.
+     * 
+     * @return boolean
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public boolean isPublishDue(){
+        long now = System.nanoTime();
+        long last = lastPublish.get();
+        return now - last >= PUBLISH_INTERVAL && lastPublish.compareAndSet(last, now);
+    }
+    
+    /**
+     * Returns the current progress.
+     * 
+     * @return ProgressSnapshot
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public ProgressSnapshot getSnapshot(){
+        return new ProgressSnapshot(System.nanoTime() - startNanos, Math.min(bytes.sum(), totalBytes), totalBytes, 
+                records.sum(), passedFilters.sum(), passedLists.sum(), passedRecurrence.sum());
+    }
+}
@@ -0,0 +1,123 @@
+/*
+*     This file is part of the VCF.Filter project (https://biomedical-sequencing.at/VCFFilter/).
+*     VCF.Filter permits graphical filtering of VCF files on cutom annotations and standard VCF fields, pedigree analysis, and cohort searches.
+* %%
+*     Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+* %%
+* 
+*     VCF.Filter is free software: you can redistribute it and/or modify
+*     it under the terms of the GNU General Public License as published by
+*     the Free Software Foundation, either version 3 of the License, or
+*     (at your option) any later version.
+* 
+*     This program is distributed in the hope that it will be useful,
+*     but WITHOUT ANY WARRANTY; without even the implied warranty of
+*     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*     GNU General Public License for more details.
+* 
+*     You should have received a copy of the GNU General Public License
+*     along with VCF.Filter.  If not, see <http://www.gnu.org/licenses/>.
+* 
+*     VCF.Filter  Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+*     This program comes with ABSOLUTELY NO WARRANTY;
+*     This is free software, and you are welcome to redistribute it
+*     under certain conditions; 
+*     For details interrogate the About section in the File menu.
+*/
+package at.ac.oeaw.cemm.bsf.vcffilter.progress;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of one input file of a filter run. Bytes are forwarded to the run, 
+ * but never more than the file length, so that finish can account for bytes 
+ * not seen by a reader, e.g. index queries or the header.
+ * 
+ * InputProgress.java 17 OCT 2026
+ *
+ * @author Heiko Müller
+ * @version 1.0
+ * @since 1.0
+ */
+public class InputProgress {
+    
+    /**
+     * Progress of the run.
+     */
+    private final FilterProgress progress;
+    
+    /**
+     * File length in bytes.
+     */
+    private final long length;
+    
+    /**
+     * Bytes consumed.
+     */
+    private final AtomicLong bytes = new AtomicLong();
+    
+    /**
+     * Creates new InputProgress.
+     * 
+     * @param progress progress of the run
+     * @param length file length in bytes
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    InputProgress(FilterProgress progress, long length){
+        this.progress = progress;
+        this.length = length;
+    }
+    
+    /**
+     * Adds consumed bytes.
+     * 
+     * @param n bytes
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public void addBytes(long n){
+        long before = bytes.getAndAdd(n);
+        long added = Math.min(n, length - before);
+        if(added > 0){
+            progress.addBytes(added);
+        }
+    }
+    
+    /**
+     * Sets the consumed fraction of the file, e.g. the fraction of regions queried. 
+     * Consumed bytes never decrease.
+     * 
+     * @param fraction consumed fraction between 0 and 1
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public void setFraction(double fraction){
+        long target = (long)(Math.min(1.0, fraction) * length);
+        long before = bytes.get();
+        if(target > before){
+            addBytes(target - before);
+        }
+    }
+    
+    /**
+     * Marks the file as consumed completely.
+     * 
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public void finish(){
+        setFraction(1.0);
+    }
+    
+    /**
+     * Getter for the progress of the run.
+     * 
+     * @return FilterProgress
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public FilterProgress getProgress(){
+        return progress;
+    }
+}
@@ -0,0 +1,281 @@
+/*
+*     This file is part of the VCF.Filter project (https://biomedical-sequencing.at/VCFFilter/).
+*     VCF.Filter permits graphical filtering of VCF files on cutom annotations and standard VCF fields, pedigree analysis, and cohort searches.
+* %%
+*     Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+* %%
+* 
+*     VCF.Filter is free software: you can redistribute it and/or modify
+*     it under the terms of the GNU General Public License as published by
+*     the Free Software Foundation, either version 3 of the License, or
+*     (at your option) any later version.
+* 
+*     This program is distributed in the hope that it will be useful,
+*     but WITHOUT ANY WARRANTY; without even the implied warranty of
+*     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*     GNU General Public License for more details.
+* 
+*     You should have received a copy of the GNU General Public License
+*     along with VCF.Filter.  If not, see <http://www.gnu.org/licenses/>.
+* 
+*     VCF.Filter  Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+*     This program comes with ABSOLUTELY NO WARRANTY;
+*     This is free software, and you are welcome to redistribute it
+*     under certain conditions; 
+*     For details interrogate the About section in the File menu.
+*/
+package at.ac.oeaw.cemm.bsf.vcffilter.progress;
+
+/**
+ * Immutable state of a filter run: bytes consumed, records per stage, rates and 
+ * estimated time to completion.
+ * 
+ * ProgressSnapshot.java 17 OCT 2026
+ *
+ * @author Heiko Müller
+ * @version 1.0
+ * @since 1.0
+ */
+public class ProgressSnapshot {
+    
+    /**
+     * Maximum value of getPermille.
+     */
+    public static final int SCALE = 1000;
+    
+    /**
+     * Elapsed time in nanoseconds.
+     */
+    private final long elapsedNanos;
+    
+    /**
+     * Bytes consumed.
+     */
+    private final long bytes;
+    
+    /**
+     * Total bytes.
+     */
+    private final long totalBytes;
+    
+    /**
+     * Records read.
+     */
+    private final long records;
+    
+    /**
+     * Records passing the filter chain.
+     */
+    private final long passedFilters;
+    
+    /**
+     * Records passing white and black lists.
+     */
+    private final long passedLists;
+    
+    /**
+     * Records passing recurrence.
+     */
+    private final long passedRecurrence;
+    
+    /**
+     * Creates new ProgressSnapshot.
+     * 
+     * @param elapsedNanos elapsed time in nanoseconds
+     * @param bytes bytes consumed
+     * @param totalBytes total bytes
+     * @param records records read
+     * @param passedFilters records passing the filter chain
+     * @param passedLists records passing white and black lists
+     * @param passedRecurrence records passing recurrence
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public ProgressSnapshot(long elapsedNanos, long bytes, long totalBytes, long records, long passedFilters, long passedLists, long passedRecurrence){
+        this.elapsedNanos = elapsedNanos;
+        this.bytes = bytes;
+        this.totalBytes = totalBytes;
+        this.records = records;
+        this.passedFilters = passedFilters;
+        this.passedLists = passedLists;
+        this.passedRecurrence = passedRecurrence;
+    }
+    
+    /**
+     * Returns the consumed fraction of the input between 0 and 1.
+     * 
+     * @return double
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public double getFraction(){
+        return totalBytes > 0 ? Math.min(1.0, (double)bytes / totalBytes) : 0;
+    }
+    
+    /**
+     * Returns the consumed fraction of the input between 0 and SCALE, for progress bars.
+     * 
+     * @return int
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public int getPermille(){
+        return (int)(getFraction() * SCALE);
+    }
+    
+    /**
+     * Returns the elapsed time in seconds.
+     * 
+     * @return double
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public double getElapsedSeconds(){
+        return elapsedNanos / 1e9;
+    }
+    
+    /**
+     * Returns records read per second.
+     * 
+     * @return double
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public double getRecordsPerSecond(){
+        return elapsedNanos > 0 ? records / getElapsedSeconds() : 0;
+    }
+    
+    /**
+     * Returns input megabytes consumed per second.
+     * 
+     * @return double
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public double getMegabytesPerSecond(){
+        return elapsedNanos > 0 ? bytes / 1048576.0 / getElapsedSeconds() : 0;
+    }
+    
+    /**
+     * Returns the estimated time to completion in seconds, assuming the current rate, 
+     * -1 if unknown.
+     * 
+     * @return double
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public double getEtaSeconds(){
+        if(bytes <= 0){
+            return -1;
+        }
+        return getElapsedSeconds() * (totalBytes - bytes) / bytes;
+    }
+    
+    /**
+     * Getter for bytes consumed.
+     * 
+     * @return long
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public long getBytes(){
+        return bytes;
+    }
+    
+    /**
+     * Getter for total bytes.
+     * 
+     * @return long
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public long getTotalBytes(){
+        return totalBytes;
+    }
+    
+    /**
+     * Getter for records read.
+     * 
+     * @return long
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public long getRecords(){
+        return records;
+    }
+    
+    /**
+     * Getter for records passing the filter chain.
+     * 
+     * @return long
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public long getPassedFilters(){
+        return passedFilters;
+    }
+    
+    /**
+     * Getter for records passing white and black lists.
+     * 
+     * @return long
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public long getPassedLists(){
+        return passedLists;
+    }
+    
+    /**
+     * Getter for records passing recurrence.
+     * 
+     * @return long
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public long getPassedRecurrence(){
+        return passedRecurrence;
+    }
+    
+    /**
+     * Returns the records per stage, one line per stage.
+     * 
+     * @return String
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public String getStageReport(){
+        return "Records read:\t" + records + "\r\n"
+                + "Passing filters:\t" + passedFilters + "\r\n"
+                + "Passing lists:\t" + passedLists + "\r\n"
+                + "Passing recurrence:\t" + passedRecurrence + "\r\n"
+                + String.format("Throughput:\t%.0f records/s\t%.2f MB/s\t%.1f s", getRecordsPerSecond(), getMegabytesPerSecond(), getElapsedSeconds()) + "\r\n";
+    }
+    
+    /**
+     * Formats seconds as h:mm:ss.
+     * 
+     * @param seconds seconds
+     * @return String
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public static String formatSeconds(double seconds){
+        long s = Math.round(seconds);
+        return String.format("%d:%02d:%02d", s / 3600, (s / 60) % 60, s % 60);
+    }
+    
+    /**
+     * Returns a one line status: percent done, rates and ETA.
+     * 
+     * @return String
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    @Override
+    public String toString(){
+        double eta = getEtaSeconds();
+        return String.format("%.1f%%  %,.0f records/s  %.1f MB/s  ETA %s", getFraction() * 100, getRecordsPerSecond(), getMegabytesPerSecond(), 
+                eta < 0 ? "unknown" : formatSeconds(eta));
+    }
+}
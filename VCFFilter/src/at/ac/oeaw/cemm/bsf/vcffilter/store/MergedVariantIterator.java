@@ -0,0 +1,243 @@
+/*
+*     This file is part of the VCF.Filter project (https://biomedical-sequencing.at/VCFFilter/).
+*     VCF.Filter permits graphical filtering of VCF files on cutom annotations and standard VCF fields, pedigree analysis, and cohort searches.
+* %%
+*     Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+* %%
+* 
+*     VCF.Filter is free software: you can redistribute it and/or modify
+*     it under the terms of the GNU General Public License as published by
+*     the Free Software Foundation, either version 3 of the License, or
+*     (at your option) any later version.
+* 
+*     This program is distributed in the hope that it will be useful,
+*     but WITHOUT ANY WARRANTY; without even the implied warranty of
+*     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*     GNU General Public License for more details.
+* 
+*     You should have received a copy of the GNU General Public License
+*     along with VCF.Filter.  If not, see <http://www.gnu.org/licenses/>.
+* 
+*     VCF.Filter  Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+*     This program comes with ABSOLUTELY NO WARRANTY;
+*     This is free software, and you are welcome to redistribute it
+*     under certain conditions; 
+*     For details interrogate the About section in the File menu.
+*/
+package at.ac.oeaw.cemm.bsf.vcffilter.store;
+
+import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.samtools.util.CloseableIterator;
+import htsjdk.variant.variantcontext.VariantContext;
+import java.util.Comparator;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * K-way merge of coordinate sorted variant iterators, e.g. of several input files written 
+ * to one output file. Variants are ordered by contig index in the sequence dictionary and 
+ * start position, variants at the same position keep the order of the inputs. Contigs missing 
+ * from the dictionary follow in name order. Without a sequence dictionary contigs are ordered 
+ * as they are first seen in the inputs, so inputs sorted in the same contig order are merged 
+ * in that order whatever the contig names are. An input that is not sorted in this order, e.g. 
+ * because it has a contig before a contig seen first in another input, ends the merge with 
+ * an IllegalStateException rather than writing unsorted output.
+ * 
+ * MergedVariantIterator.java 17 OCT 2026
+ *
+ * @author Heiko Müller
+ * @version 1.0
+ * @since 1.0
+ */
+public class MergedVariantIterator implements CloseableIterator<VariantContext> {
+    
+    /**
+     * The inputs.
+     */
+    private final List<CloseableIterator<VariantContext>> inputs;
+    
+    /**
+     * Orders the inputs by their next variant.
+     */
+    private final PriorityQueue<Head> queue;
+    
+    /**
+     * Orders variants by contig and position.
+     */
+    private final Comparator<VariantContext> comparator;
+    
+    /**
+     * Contig order in the order contigs are first seen, used without sequence dictionary.
+     */
+    private final Hashtable<String, Integer> contigs = new Hashtable<String, Integer>();
+    
+    /**
+     * True if there is a sequence dictionary.
+     */
+    private final boolean hasDictionary;
+    
+    /**
+     * Input of the variant returned last.
+     */
+    private int input = -1;
+    
+    /**
+     * Creates new MergedVariantIterator.
+     * 
+     * @param inputs coordinate sorted inputs
+     * @param dictionary sequence dictionary with the contigs of all inputs, null if none
+     * @throws IllegalStateException if an input is not sorted in the order of the dictionary, or 
+     *         without dictionary in the order contigs are first seen
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public MergedVariantIterator(List<CloseableIterator<VariantContext>> inputs, final SAMSequenceDictionary dictionary){
+        this.inputs = inputs;
+        this.hasDictionary = dictionary != null;
+        if(dictionary != null){
+            comparator = new Comparator<VariantContext>(){
+                @Override
+                public int compare(VariantContext vc1, VariantContext vc2){
+                    int i1 = getContigIndex(dictionary, vc1);
+                    int i2 = getContigIndex(dictionary, vc2);
+                    int c = Integer.compare(i1, i2);
+                    if(c == 0 && i1 == Integer.MAX_VALUE){
+                        c = vc1.getContig().compareTo(vc2.getContig());
+                    }
+                    return c != 0 ? c : Integer.compare(vc1.getStart(), vc2.getStart());
+                }
+            };
+        }else{
+            comparator = new Comparator<VariantContext>(){
+                @Override
+                public int compare(VariantContext vc1, VariantContext vc2){
+                    int c = Integer.compare(contigs.get(vc1.getContig()), contigs.get(vc2.getContig()));
+                    return c != 0 ? c : Integer.compare(vc1.getStart(), vc2.getStart());
+                }
+            };
+        }
+        queue = new PriorityQueue<Head>(Math.max(1, inputs.size()), new Comparator<Head>(){
+            @Override
+            public int compare(Head h1, Head h2){
+                int c = comparator.compare(h1.current, h2.current);
+                return c != 0 ? c : Integer.compare(h1.index, h2.index);
+            }
+        });
+        for(int i = 0; i < inputs.size(); i++){
+            Head h = new Head(i);
+            if(h.advance()){
+                queue.add(h);
+            }
+        }
+    }
+    
+    /**
+     * Returns the index of the contig of a variant in the dictionary. Contigs missing 
+     * from the dictionary are ordered last.
+     * 
+     * @param dictionary sequence dictionary
+     * @param vc variant
+     * @return int
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private static int getContigIndex(SAMSequenceDictionary dictionary, VariantContext vc){
+        int index = dictionary.getSequenceIndex(vc.getContig());
+        return index < 0 ? Integer.MAX_VALUE : index;
+    }
+    
+    /**
+     * Returns the index of the input the variant returned last was read from.
+     * 
+     * @return int
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public int getInput(){
+        return input;
+    }
+    
+    @Override
+    public boolean hasNext(){
+        return !queue.isEmpty();
+    }
+    
+    @Override
+    public VariantContext next(){
+        Head h = queue.poll();
+        if(h == null){
+            throw new NoSuchElementException();
+        }
+        VariantContext vc = h.current;
+        input = h.index;
+        if(h.advance()){
+            queue.add(h);
+        }
+        return vc;
+    }
+    
+    @Override
+    public void remove(){
+        throw new UnsupportedOperationException();
+    }
+    
+    /**
+     * Closes all inputs.
+     * 
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    @Override
+    public void close(){
+        queue.clear();
+        for(CloseableIterator<VariantContext> it : inputs){
+            it.close();
+        }
+    }
+    
+    /**
+     * Next variant of an input.
+     */
+    private class Head {
+        
+        private final int index;
+        
+        private VariantContext current;
+        
+        Head(int index){
+            this.index = index;
+        }
+        
+        /**
+         * Reads the next variant of the input. Without sequence dictionary, the contig 
+         * of the variant is added to the contig order if it is seen first. New contigs 
+         * follow all contigs seen before, so the order of variants already returned 
+         * does not change.
+         * 
+         * @return boolean false if the input is exhausted
+         * @throws IllegalStateException if the input is not sorted in the order of the dictionary, or 
+         *         without dictionary in the order contigs are first seen
+         */
+        boolean advance(){
+            CloseableIterator<VariantContext> it = inputs.get(index);
+            if(!it.hasNext()){
+                current = null;
+                return false;
+            }
+            VariantContext next = it.next();
+            if(!hasDictionary && !contigs.containsKey(next.getContig())){
+                contigs.put(next.getContig(), contigs.size());
+            }
+            if(current != null && comparator.compare(current, next) > 0){
+                if(!hasDictionary && !current.getContig().equals(next.getContig())){
+                    throw new IllegalStateException("Input " + (index + 1) + " has contig " + next.getContig() + " after contig " + current.getContig() + ", other inputs have them in the opposite order. Inputs without ##contig header lines must have their contigs in the same order.");
+                }
+                throw new IllegalStateException("Input " + (index + 1) + " is not sorted: " + next.getContig() + ":" + next.getStart() + " follows " + current.getContig() + ":" + current.getStart());
+            }
+            current = next;
+            return true;
+        }
+    }
+}
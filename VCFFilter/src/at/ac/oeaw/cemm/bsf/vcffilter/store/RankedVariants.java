@@ -0,0 +1,309 @@
+/*
+*     This file is part of the VCF.Filter project (https://biomedical-sequencing.at/VCFFilter/).
+*     VCF.Filter permits graphical filtering of VCF files on cutom annotations and standard VCF fields, pedigree analysis, and cohort searches.
+* %%
+*     Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+* %%
+* 
+*     VCF.Filter is free software: you can redistribute it and/or modify
+*     it under the terms of the GNU General Public License as published by
+*     the Free Software Foundation, either version 3 of the License, or
+*     (at your option) any later version.
+* 
+*     This program is distributed in the hope that it will be useful,
+*     but WITHOUT ANY WARRANTY; without even the implied warranty of
+*     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*     GNU General Public License for more details.
+* 
+*     You should have received a copy of the GNU General Public License
+*     along with VCF.Filter.  If not, see <http://www.gnu.org/licenses/>.
+* 
+*     VCF.Filter  Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+*     This program comes with ABSOLUTELY NO WARRANTY;
+*     This is free software, and you are welcome to redistribute it
+*     under certain conditions; 
+*     For details interrogate the About section in the File menu.
+*/
+package at.ac.oeaw.cemm.bsf.vcffilter.store;
+
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.AttributeView;
+import htsjdk.variant.variantcontext.VariantContext;
+import java.util.ArrayList;
+
+/**
+ * Keeps the top ranked variants on a numeric INFO field or QUAL during a scan. 
+ * Scores are held in a bounded binary heap of primitive arrays with the worst 
+ * kept variant at the root, so memory is constant however many variants are offered. 
+ * The score of a multi-valued field is its best value. Variants without a score 
+ * rank after all variants with one. Variants with equal scores keep the order 
+ * in which they were offered.
+ * 
+ * RankedVariants.java 17 OCT 2026
+ *
+ * @author Heiko Müller
+ * @version 1.0
+ * @since 1.0
+ */
+public class RankedVariants {
+    
+    /**
+     * ID of the ranking field.
+     */
+    private final String field;
+    
+    /**
+     * True if the highest values rank first.
+     */
+    private final boolean descending;
+    
+    /**
+     * Ranking keys of the kept variants, higher keys rank first.
+     */
+    private final double[] keys;
+    
+    /**
+     * Offer order of the kept variants.
+     */
+    private final long[] order;
+    
+    /**
+     * The kept variants.
+     */
+    private final VariantContext[] variants;
+    
+    /**
+     * Number of kept variants.
+     */
+    private int size = 0;
+    
+    /**
+     * Number of variants offered.
+     */
+    private long offered = 0;
+    
+    /**
+     * Typed view on the attributes of the scored variant.
+     */
+    private final AttributeView attributes = new AttributeView();
+    
+    /**
+     * Creates new RankedVariants.
+     * 
+     * @param field ID of the ranking field
+     * @param descending true if the highest values rank first
+     * @param capacity number of variants to keep
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public RankedVariants(String field, boolean descending, int capacity){
+        this.field = field;
+        this.descending = descending;
+        this.keys = new double[Math.max(0, capacity)];
+        this.order = new long[keys.length];
+        this.variants = new VariantContext[keys.length];
+    }
+    
+    /**
+     * Returns the ID of the ranking field.
+     * 
+     * @return String
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public String getField(){
+        return field;
+    }
+    
+    /**
+     * Tests if the highest values rank first.
+     * 
+     * @return boolean
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public boolean isDescending(){
+        return descending;
+    }
+    
+    /**
+     * Returns the maximum number of kept variants.
+     * 
+     * @return int
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public int getCapacity(){
+        return keys.length;
+    }
+    
+    /**
+     * Returns the number of kept variants.
+     * 
+     * @return int
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public int size(){
+        return size;
+    }
+    
+    /**
+     * Returns the number of variants offered.
+     * 
+     * @return long
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public long getOffered(){
+        return offered;
+    }
+    
+    /**
+     * Returns the score of a variant, the best value of the ranking field.
+     * 
+     * @param vc the variant
+     * @return double the score, NaN if the variant has no value
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public double getScore(VariantContext vc){
+        if(field.equals("QUAL")){
+            return vc.hasLog10PError() ? vc.getPhredScaledQual() : Double.NaN;
+        }
+        attributes.setRecord(vc);
+        double[] values = attributes.getDoubles(field);
+        if(values == null){
+            return Double.NaN;
+        }
+        double best = Double.NaN;
+        for(double v : values){
+            if(!Double.isNaN(v) && (Double.isNaN(best) || (descending ? v > best : v < best))){
+                best = v;
+            }
+        }
+        return best;
+    }
+    
+    /**
+     * Offers a variant, it is kept if it ranks among the top variants offered so far.
+     * 
+     * @param vc the variant
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public void offer(VariantContext vc){
+        long n = offered++;
+        if(keys.length == 0){
+            return;
+        }
+        double score = getScore(vc);
+        double key = Double.isNaN(score) ? Double.NEGATIVE_INFINITY : descending ? score : -score;
+        if(size < keys.length){
+            set(size, key, n, vc);
+            siftUp(size++);
+        }else if(key > keys[0]){
+            set(0, key, n, vc);
+            siftDown(0, size);
+        }
+    }
+    
+    /**
+     * Offers the variants kept by other, e.g. the ranking of one of several files filtered 
+     * concurrently. Merging the rankings of the files in file order keeps the same variants 
+     * as offering all variants in file order.
+     * 
+     * @param other ranking on the same field
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public void add(RankedVariants other){
+        for(VariantContext vc : other.getRanked()){
+            offer(vc);
+        }
+        offered += other.offered - other.size;
+    }
+    
+    /**
+     * Returns the kept variants, best ranked first.
+     * 
+     * @return ArrayList&#60;VariantContext&#62;
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public ArrayList<VariantContext> getRanked(){
+        double[] k = keys.clone();
+        long[] o = order.clone();
+        VariantContext[] v = variants.clone();
+        int n = size;
+        while(n > 1){
+            n--;
+            swap(0, n);
+            siftDown(0, n);
+        }
+        ArrayList<VariantContext> result = new ArrayList<VariantContext>(size);
+        for(int i = 0; i < size; i++){
+            result.add(variants[i]);
+        }
+        System.arraycopy(k, 0, keys, 0, k.length);
+        System.arraycopy(o, 0, order, 0, o.length);
+        System.arraycopy(v, 0, variants, 0, v.length);
+        return result;
+    }
+    
+    /**
+     * Tests if the variant at i ranks after the variant at j.
+     * 
+     * @param i heap index
+     * @param j heap index
+     * @return boolean
+     */
+    private boolean worse(int i, int j){
+        return keys[i] < keys[j] || (keys[i] == keys[j] && order[i] > order[j]);
+    }
+    
+    private void set(int i, double key, long n, VariantContext vc){
+        keys[i] = key;
+        order[i] = n;
+        variants[i] = vc;
+    }
+    
+    private void swap(int i, int j){
+        double k = keys[i];
+        keys[i] = keys[j];
+        keys[j] = k;
+        long o = order[i];
+        order[i] = order[j];
+        order[j] = o;
+        VariantContext v = variants[i];
+        variants[i] = variants[j];
+        variants[j] = v;
+    }
+    
+    private void siftUp(int i){
+        while(i > 0){
+            int parent = (i - 1) >>> 1;
+            if(!worse(i, parent)){
+                return;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+    
+    private void siftDown(int i, int n){
+        while(true){
+            int child = 2 * i + 1;
+            if(child >= n){
+                return;
+            }
+            if(child + 1 < n && worse(child + 1, child)){
+                child++;
+            }
+            if(!worse(child, i)){
+                return;
+            }
+            swap(i, child);
+            i = child;
+        }
+    }
+}
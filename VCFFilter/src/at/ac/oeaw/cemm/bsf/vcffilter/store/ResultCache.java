@@ -0,0 +1,257 @@
+/*
+*     This file is part of the VCF.Filter project (https://biomedical-sequencing.at/VCFFilter/).
+*     VCF.Filter permits graphical filtering of VCF files on cutom annotations and standard VCF fields, pedigree analysis, and cohort searches.
+* %%
+*     Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+* %%
+* 
+*     VCF.Filter is free software: you can redistribute it and/or modify
+*     it under the terms of the GNU General Public License as published by
+*     the Free Software Foundation, either version 3 of the License, or
+*     (at your option) any later version.
+* 
+*     This program is distributed in the hope that it will be useful,
+*     but WITHOUT ANY WARRANTY; without even the implied warranty of
+*     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*     GNU General Public License for more details.
+* 
+*     You should have received a copy of the GNU General Public License
+*     along with VCF.Filter.  If not, see <http://www.gnu.org/licenses/>.
+* 
+*     VCF.Filter  Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+*     This program comes with ABSOLUTELY NO WARRANTY;
+*     This is free software, and you are welcome to redistribute it
+*     under certain conditions; 
+*     For details interrogate the About section in the File menu.
+*/
+package at.ac.oeaw.cemm.bsf.vcffilter.store;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileFilter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Persistent cache of filter results. An entry is keyed by the hash of the filter scenario, 
+ * see Scenario.getKey. It holds the result rows and the report line of 
+ * the run. Entries are evicted least recently used first when the cache exceeds its disk budget.
+ * 
+ * ResultCache.java 17 OCT 2026
+ *
+ * @author Heiko Müller
+ * @version 1.0
+ * @since 1.0
+ */
+public class ResultCache {
+    
+    /**
+     * Default disk budget in bytes.
+     */
+    public static final long DEFAULT_BUDGET = 1L << 30;
+    
+    /**
+     * Identifies cache files of this format.
+     */
+    private static final int MAGIC = 0x56464333;
+    
+    /**
+     * File name suffix of cache entries.
+     */
+    private static final String SUFFIX = ".vfr";
+    
+    /**
+     * The cache directory.
+     */
+    private final File directory;
+    
+    /**
+     * Disk budget in bytes.
+     */
+    private final long budget;
+    
+    /**
+     * Creates new ResultCache.
+     * 
+     * @param directory the cache directory, created on first use
+     * @param budget disk budget in bytes
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public ResultCache(File directory, long budget){
+        this.directory = directory;
+        this.budget = budget;
+    }
+    
+    /**
+     * Returns the cached results of a key and marks the entry as recently used. 
+     * Unreadable entries are deleted.
+     * 
+     * @param key key returned by Scenario.getKey
+     * @return CachedResult, null if the key is not cached
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public CachedResult get(String key){
+        File f = new File(directory, key + SUFFIX);
+        if(!f.exists()){
+            return null;
+        }
+        RandomAccessFile in = null;
+        try{
+            in = new RandomAccessFile(f, "r");
+            if(in.readInt() != MAGIC){
+                throw new IOException("Not a result cache file " + f.getAbsolutePath());
+            }
+            boolean complete = in.readBoolean();
+            int length = in.readInt();
+            if(length < 0 || length > in.length() - in.getFilePointer()){
+                throw new IOException("Invalid report length in result cache file " + f.getAbsolutePath());
+            }
+            byte[] bytes = new byte[length];
+            in.readFully(bytes);
+            String report = new String(bytes, StandardCharsets.UTF_8);
+            ResultStore results = ResultStore.readFrom(f, in);
+            f.setLastModified(System.currentTimeMillis());
+            return new CachedResult(report, results, complete);
+        }catch(IOException ioe){
+            ioe.printStackTrace();
+            try{
+                if(in != null){
+                    in.close();
+                }
+            }catch(IOException e){
+                e.printStackTrace();
+            }
+            f.delete();
+            return null;
+        }
+    }
+    
+    /**
+     * Stores results under a key and evicts least recently used entries exceeding the budget.
+     * 
+     * @param key key returned by Scenario.getKey
+     * @param results results stored on disk
+     * @param report report line of the run
+     * @param complete true if the results hold all passing variants, i.e. no input stopped early
+     * @throws IOException if the entry cannot be written
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public void put(String key, ResultStore results, String report, boolean complete) throws IOException {
+        if(!directory.isDirectory() && !directory.mkdirs()){
+            throw new IOException("Could not create result cache directory " + directory.getAbsolutePath());
+        }
+        File target = new File(directory, key + SUFFIX);
+        File temp = new File(directory, key + ".tmp");
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp), 65536));
+        try{
+            out.writeInt(MAGIC);
+            out.writeBoolean(complete);
+            //length prefixed, writeUTF is limited to 64 KB and the report has a line per input
+            byte[] bytes = report.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+            results.writeTo(out);
+        }catch(IOException ioe){
+            out.close();
+            temp.delete();
+            throw ioe;
+        }
+        out.close();
+        target.delete();
+        if(!temp.renameTo(target)){
+            temp.delete();
+            throw new IOException("Could not write result cache entry " + target.getAbsolutePath());
+        }
+        evict(target);
+    }
+    
+    /**
+     * Deletes least recently used entries until the cache fits its budget.
+     * 
+     * @param keep entry that is never evicted
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private void evict(File keep){
+        File[] entries = directory.listFiles(new FileFilter(){
+            @Override
+            public boolean accept(File f){
+                return f.getName().endsWith(SUFFIX);
+            }
+        });
+        if(entries == null){
+            return;
+        }
+        long total = 0;
+        for(File f : entries){
+            total += f.length();
+        }
+        Arrays.sort(entries, new Comparator<File>(){
+            @Override
+            public int compare(File f1, File f2){
+                return Long.compare(f1.lastModified(), f2.lastModified());
+            }
+        });
+        for(int i = 0; i < entries.length && total > budget; i++){
+            if(!entries[i].equals(keep)){
+                long length = entries[i].length();
+                if(entries[i].delete()){
+                    total -= length;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Results and report line of a cached run.
+     */
+    public static class CachedResult {
+        
+        private final String report;
+        
+        private final ResultStore results;
+        
+        private final boolean complete;
+        
+        CachedResult(String report, ResultStore results, boolean complete){
+            this.report = report;
+            this.results = results;
+            this.complete = complete;
+        }
+        
+        /**
+         * Tests if the results hold all passing variants of the run, i.e. no input stopped early.
+         * 
+         * @return boolean
+         */
+        public boolean isComplete(){
+            return complete;
+        }
+        
+        /**
+         * Returns the report line of the run.
+         * 
+         * @return String
+         */
+        public String getReport(){
+            return report;
+        }
+        
+        /**
+         * Returns the results, read from the cache file in place.
+         * 
+         * @return ResultStore
+         */
+        public ResultStore getResults(){
+            return results;
+        }
+    }
+}
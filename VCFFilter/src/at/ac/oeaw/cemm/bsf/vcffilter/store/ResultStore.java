@@ -0,0 +1,481 @@
+/*
+*     This file is part of the VCF.Filter project (https://biomedical-sequencing.at/VCFFilter/).
+*     VCF.Filter permits graphical filtering of VCF files on cutom annotations and standard VCF fields, pedigree analysis, and cohort searches.
+* %%
+*     Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+* %%
+* 
+*     VCF.Filter is free software: you can redistribute it and/or modify
+*     it under the terms of the GNU General Public License as published by
+*     the Free Software Foundation, either version 3 of the License, or
+*     (at your option) any later version.
+* 
+*     This program is distributed in the hope that it will be useful,
+*     but WITHOUT ANY WARRANTY; without even the implied warranty of
+*     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*     GNU General Public License for more details.
+* 
+*     You should have received a copy of the GNU General Public License
+*     along with VCF.Filter.  If not, see <http://www.gnu.org/licenses/>.
+* 
+*     VCF.Filter  Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+*     This program comes with ABSOLUTELY NO WARRANTY;
+*     This is free software, and you are welcome to redistribute it
+*     under certain conditions; 
+*     For details interrogate the About section in the File menu.
+*/
+package at.ac.oeaw.cemm.bsf.vcffilter.store;
+
+import at.ac.oeaw.cemm.bsf.vcffilter.parallel.VCFPipeline;
+import htsjdk.samtools.util.RuntimeIOException;
+import htsjdk.tribble.readers.AsciiLineReader;
+import htsjdk.tribble.readers.LineIteratorImpl;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.variantcontext.writer.Options;
+import htsjdk.variant.variantcontext.writer.VariantContextWriter;
+import htsjdk.variant.variantcontext.writer.VariantContextWriterBuilder;
+import htsjdk.variant.vcf.VCFCodec;
+import htsjdk.variant.vcf.VCFEncoder;
+import htsjdk.variant.vcf.VCFHeader;
+import htsjdk.variant.vcf.VCFHeaderVersion;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Random access store of filter results for the result table. Rows are either held in memory 
+ * or encoded as VCF lines in a temporary file with an offset per row, so that memory does not 
+ * grow with the number of rows. A row is decoded only when it is read, with the header of the 
+ * file it was read from. Rows stored on disk can be saved with their headers and opened again, 
+ * see ResultCache.
+ * 
+ * ResultStore.java 17 OCT 2026
+ *
+ * @author Heiko Müller
+ * @version 1.0
+ * @since 1.0
+ */
+public class ResultStore implements Closeable {
+    
+    /**
+     * Size of the output buffer.
+     */
+    private static final int BUFFER_SIZE = 65536;
+    
+    /**
+     * Rows held in memory, null if rows are stored on disk.
+     */
+    private List<VariantContext> variants;
+    
+    /**
+     * The temporary file, null until the first row is added.
+     */
+    private File file;
+    
+    /**
+     * Output to the temporary file.
+     */
+    private OutputStream out;
+    
+    /**
+     * Input from the temporary file, opened on the first read.
+     */
+    private RandomAccessFile in;
+    
+    /**
+     * Directory of the temporary file, null for the default temporary directory.
+     */
+    private final File directory;
+    
+    /**
+     * True if the file is deleted when the store is closed.
+     */
+    private boolean temporary = true;
+    
+    /**
+     * Position of the first row in the file.
+     */
+    private long base = 0;
+    
+    /**
+     * Start offset of each row, followed by the end offset of the last row.
+     */
+    private long[] offsets = new long[1024];
+    
+    /**
+     * Number of rows on disk.
+     */
+    private int size = 0;
+    
+    /**
+     * Header of the rows added last.
+     */
+    private VCFHeader header;
+    
+    /**
+     * Encoder for the header of the rows added last.
+     */
+    private VCFEncoder encoder;
+    
+    /**
+     * First row of each run of rows sharing a header.
+     */
+    private int[] runStarts = new int[8];
+    
+    /**
+     * Codec of each run of rows sharing a header.
+     */
+    private final ArrayList<VCFCodec> codecs = new ArrayList<VCFCodec>();
+    
+    /**
+     * Header of each run of rows sharing a header.
+     */
+    private final ArrayList<VCFHeader> headers = new ArrayList<VCFHeader>();
+    
+    /**
+     * Reusable buffer for reading rows.
+     */
+    private byte[] line = new byte[4096];
+    
+    /**
+     * Creates new ResultStore storing rows in a temporary file.
+     * 
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public ResultStore(){
+        this.directory = null;
+    }
+    
+    /**
+     * Creates new ResultStore storing rows in a temporary file in directory.
+     * 
+     * @param directory directory of the temporary file, null for the default temporary directory
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public ResultStore(File directory){
+        this.directory = directory;
+    }
+    
+    /**
+     * Creates new ResultStore over rows held in memory, e.g. top ranked variants.
+     * 
+     * @param variants the rows
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public ResultStore(List<VariantContext> variants){
+        this.directory = null;
+        this.variants = variants;
+    }
+    
+    /**
+     * Appends a row.
+     * 
+     * @param vc variant
+     * @param header header of the file vc was read from
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public synchronized void add(VariantContext vc, VCFHeader header){
+        if(variants != null){
+            throw new IllegalStateException("Rows held in memory cannot be extended");
+        }
+        try{
+            if(out == null){
+                file = File.createTempFile("vcffilter_results", ".vcf", directory);
+                file.deleteOnExit();
+                out = new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE);
+            }
+            if(header != this.header){
+                startRun(header);
+            }
+            byte[] bytes = (encoder.encode(vc) + "\n").getBytes(VCFEncoder.VCF_CHARSET);
+            out.write(bytes);
+            if(size + 2 > offsets.length){
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            }
+            offsets[size + 1] = offsets[size] + bytes.length;
+            size++;
+        }catch(IOException ioe){
+            throw new RuntimeIOException("Could not store filter results: " + ioe.getMessage(), ioe);
+        }
+    }
+    
+    /**
+     * Starts a run of rows sharing a header.
+     * 
+     * @param header header of the run
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private void startRun(VCFHeader header){
+        this.header = header;
+        this.encoder = new VCFEncoder(header, true, false);
+        VCFCodec codec = new VCFCodec();
+        codec.setVCFHeader(header, VCFHeaderVersion.VCF4_2);
+        addRun(size, header, codec);
+    }
+    
+    /**
+     * Adds a run of rows sharing a header.
+     * 
+     * @param start first row of the run
+     * @param header header of the run
+     * @param codec codec decoding the rows of the run
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private void addRun(int start, VCFHeader header, VCFCodec codec){
+        if(codecs.size() == runStarts.length){
+            runStarts = Arrays.copyOf(runStarts, runStarts.length * 2);
+        }
+        runStarts[codecs.size()] = start;
+        codecs.add(codec);
+        headers.add(header);
+    }
+    
+    /**
+     * Writes the rows stored on disk together with their headers, so that they can be 
+     * opened again with readFrom.
+     * 
+     * @param target output
+     * @throws IOException if the rows cannot be read or written
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public synchronized void writeTo(DataOutputStream target) throws IOException {
+        if(variants != null){
+            throw new IllegalStateException("Rows held in memory cannot be saved");
+        }
+        target.writeInt(size);
+        target.writeInt(codecs.size());
+        for(int i = 0; i < codecs.size(); i++){
+            byte[] text = encodeHeader(headers.get(i));
+            target.writeInt(runStarts[i]);
+            target.writeInt(text.length);
+            target.write(text);
+        }
+        for(int i = 0; i <= size; i++){
+            target.writeLong(offsets[i]);
+        }
+        if(size == 0){
+            return;
+        }
+        if(out != null){
+            out.flush();
+        }
+        InputStream rows = new FileInputStream(file);
+        try{
+            long skip = base;
+            while(skip > 0){
+                skip -= rows.skip(skip);
+            }
+            byte[] buffer = new byte[BUFFER_SIZE];
+            long remaining = offsets[size];
+            while(remaining > 0){
+                int n = rows.read(buffer, 0, (int)Math.min(buffer.length, remaining));
+                if(n < 0){
+                    throw new IOException("Unexpected end of file " + file.getAbsolutePath());
+                }
+                target.write(buffer, 0, n);
+                remaining -= n;
+            }
+        }finally{
+            rows.close();
+        }
+    }
+    
+    /**
+     * Opens rows written with writeTo, starting at the current position of in. 
+     * The file is read in place and not deleted when the store is closed.
+     * 
+     * @param file the file
+     * @param in the file opened for reading, closed when the store is closed
+     * @return ResultStore
+     * @throws IOException if the file cannot be read
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public static ResultStore readFrom(File file, RandomAccessFile in) throws IOException {
+        ResultStore store = new ResultStore();
+        int size = in.readInt();
+        int runs = in.readInt();
+        if(size < 0 || runs < 0){
+            throw new IOException("Corrupt result file " + file.getAbsolutePath());
+        }
+        for(int i = 0; i < runs; i++){
+            int start = in.readInt();
+            byte[] text = new byte[in.readInt()];
+            in.readFully(text);
+            VCFCodec codec = new VCFCodec();
+            VCFHeader header = (VCFHeader)codec.readActualHeader(new LineIteratorImpl(new AsciiLineReader(new ByteArrayInputStream(text))));
+            store.addRun(start, header, codec);
+        }
+        byte[] index = new byte[8 * (size + 1)];
+        in.readFully(index);
+        store.offsets = new long[size + 1];
+        ByteBuffer.wrap(index).asLongBuffer().get(store.offsets);
+        store.size = size;
+        store.file = file;
+        store.in = in;
+        store.base = in.getFilePointer();
+        store.temporary = false;
+        if(store.base + store.offsets[size] > in.length()){
+            throw new IOException("Truncated result file " + file.getAbsolutePath());
+        }
+        return store;
+    }
+    
+    /**
+     * Returns the VCF header lines of a header.
+     * 
+     * @param header the header
+     * @return byte[]
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private static byte[] encodeHeader(VCFHeader header){
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        VariantContextWriter w = new VariantContextWriterBuilder().setOutputStream(bos).unsetOption(Options.INDEX_ON_THE_FLY).unsetOption(Options.USE_ASYNC_IO).build();
+        w.writeHeader(header);
+        w.close();
+        return bos.toByteArray();
+    }
+    
+    /**
+     * Returns the number of rows.
+     * 
+     * @return int
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public synchronized int size(){
+        return variants != null ? variants.size() : size;
+    }
+    
+    /**
+     * Returns a row with decoded genotypes.
+     * 
+     * @param row row index
+     * @return VariantContext
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public VariantContext get(int row){
+        return get(row, true);
+    }
+    
+    /**
+     * Returns a row. Genotypes of rows read from disk are decoded on first access 
+     * if decoded is false, e.g. when only INFO fields are read.
+     * 
+     * @param row row index
+     * @param decoded true to decode genotypes immediately
+     * @return VariantContext
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public synchronized VariantContext get(int row, boolean decoded){
+        if(variants != null){
+            return variants.get(row);
+        }
+        if(row < 0 || row >= size){
+            throw new IndexOutOfBoundsException("Row " + row + " of " + size);
+        }
+        try{
+            if(in == null){
+                out.flush();
+                in = new RandomAccessFile(file, "r");
+            }
+            int length = (int)(offsets[row + 1] - offsets[row]);
+            if(length > line.length){
+                line = new byte[Math.max(length, line.length * 2)];
+            }
+            in.seek(base + offsets[row]);
+            in.readFully(line, 0, length);
+            VariantContext vc = codecs.get(getRun(row)).decode(new String(line, 0, length - 1, VCFEncoder.VCF_CHARSET));
+            if(decoded){
+                VCFPipeline.ensureDecoded(vc);
+            }
+            return vc;
+        }catch(IOException ioe){
+            throw new RuntimeIOException("Could not read filter results: " + ioe.getMessage(), ioe);
+        }
+    }
+    
+    /**
+     * Returns the header of the file a row stored on disk was read from.
+     * 
+     * @param row row index
+     * @return VCFHeader, null for rows held in memory
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public synchronized VCFHeader getHeader(int row){
+        if(variants != null){
+            return null;
+        }
+        return headers.get(getRun(row));
+    }
+    
+    /**
+     * Returns the run of rows sharing a header a row belongs to.
+     * 
+     * @param row row index
+     * @return int
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private int getRun(int row){
+        int run = Arrays.binarySearch(runStarts, 0, codecs.size(), row);
+        if(run < 0){
+            run = -run - 2;
+        }
+        return run;
+    }
+    
+    /**
+     * Closes the file and deletes it if it is a temporary file.
+     * 
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    @Override
+    public synchronized void close(){
+        try{
+            if(out != null){
+                out.close();
+            }
+            if(in != null){
+                in.close();
+            }
+        }catch(IOException ioe){
+            ioe.printStackTrace();
+        }
+        if(file != null && temporary){
+            file.delete();
+        }
+        out = null;
+        in = null;
+        file = null;
+        size = 0;
+        codecs.clear();
+        headers.clear();
+        header = null;
+    }
+}
@@ -0,0 +1,346 @@
+/*
+*     This file is part of the VCF.Filter project (https://biomedical-sequencing.at/VCFFilter/).
+*     VCF.Filter permits graphical filtering of VCF files on cutom annotations and standard VCF fields, pedigree analysis, and cohort searches.
+* %%
+*     Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+* %%
+* 
+*     VCF.Filter is free software: you can redistribute it and/or modify
+*     it under the terms of the GNU General Public License as published by
+*     the Free Software Foundation, either version 3 of the License, or
+*     (at your option) any later version.
+* 
+*     This program is distributed in the hope that it will be useful,
+*     but WITHOUT ANY WARRANTY; without even the implied warranty of
+*     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*     GNU General Public License for more details.
+* 
+*     You should have received a copy of the GNU General Public License
+*     along with VCF.Filter.  If not, see <http://www.gnu.org/licenses/>.
+* 
+*     VCF.Filter  Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+*     This program comes with ABSOLUTELY NO WARRANTY;
+*     This is free software, and you are welcome to redistribute it
+*     under certain conditions; 
+*     For details interrogate the About section in the File menu.
+*/
+package at.ac.oeaw.cemm.bsf.vcffilter.store;
+
+import at.ac.oeaw.cemm.bsf.vcffilter.filter.Filter;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.CompiledFilter;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.CompiledFilterChain;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Snapshot of a filter run: the filters, the selected samples, the list files, the recurrence settings, 
+ * the output limit and a fingerprint of each input file. A scenario is hashed into the key of its results in the 
+ * result cache and can tell whether it provably passes a subset of the variants of an earlier 
+ * scenario, so that the earlier results can be filtered again instead of the input files.
+ * 
+ * Scenario.java 17 OCT 2026
+ *
+ * @author Heiko Müller
+ * @version 1.0
+ * @since 1.0
+ */
+public class Scenario {
+    
+    /**
+     * Number of bytes hashed at the beginning and at the end of an input file.
+     */
+    private static final int SAMPLE_BYTES = 65536;
+    
+    /**
+     * Charset of hashed text.
+     */
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    
+    /**
+     * Settings of the filters.
+     */
+    private final ArrayList<String> filterSettings = new ArrayList<String>();
+    
+    /**
+     * Compiled filters, in the order of filterSettings.
+     */
+    private final ArrayList<CompiledFilter> compiledFilters = new ArrayList<CompiledFilter>();
+    
+    /**
+     * Selected samples, sorted, empty for all.
+     */
+    private final ArrayList<String> samples = new ArrayList<String>();
+    
+    /**
+     * White list files by path, size and modification time, sorted.
+     */
+    private final ArrayList<String> whiteLists;
+    
+    /**
+     * Black list files by path, size and modification time, sorted.
+     */
+    private final ArrayList<String> blackLists;
+    
+    /**
+     * Recurrence file by path, size and modification time, null if none.
+     */
+    private final String recurrence;
+    
+    /**
+     * Recurrence cutoff.
+     */
+    private final int recurrenceCutoff;
+    
+    /**
+     * Recurrence type.
+     */
+    private final String recurrenceType;
+    
+    /**
+     * Output limit.
+     */
+    private final int outputlimit;
+    
+    /**
+     * Fingerprints of the input files, in input order.
+     */
+    private final ArrayList<String> inputs = new ArrayList<String>();
+    
+    /**
+     * Creates new Scenario.
+     * 
+     * @param filters active filters, null if none
+     * @param filterChain the filters compiled in the same order
+     * @param whiteListFiles white list files, null if none
+     * @param blackListFiles black list files, null if none
+     * @param recurrenceFile recurrence file, null if none
+     * @param recurrenceCutoff recurrence cutoff
+     * @param recurrenceType recurrence type
+     * @param outputlimit output limit
+     * @param inputFiles input VCF files
+     * @throws IOException if an input file cannot be read
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public Scenario(List<Filter> filters, CompiledFilterChain filterChain, List<File> whiteListFiles, List<File> blackListFiles, File recurrenceFile, int recurrenceCutoff, String recurrenceType, int outputlimit, File[] inputFiles) throws IOException {
+        if(filters != null){
+            for(int i = 0; i < filters.size(); i++){
+                filterSettings.add(filters.get(i).getSettings());
+                compiledFilters.add(filterChain.getFilter(i));
+            }
+        }
+        if(filterChain.getSamples() != null){
+            samples.addAll(filterChain.getSamples());
+            Collections.sort(samples);
+        }
+        this.whiteLists = describeFiles(whiteListFiles);
+        this.blackLists = describeFiles(blackListFiles);
+        this.recurrence = recurrenceFile != null ? describeFile(recurrenceFile) : null;
+        this.recurrenceCutoff = recurrenceCutoff;
+        this.recurrenceType = recurrenceType;
+        this.outputlimit = outputlimit;
+        for(File f : inputFiles){
+            inputs.add(describeFile(f) + "\t" + getContentHash(f));
+        }
+    }
+    
+    /**
+     * Returns the key of the scenario in the result cache. Filters are hashed in canonical 
+     * order of their settings, as the filter chain is AND combined.
+     * 
+     * @return String hexadecimal SHA-256 hash
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public String getKey(){
+        MessageDigest md = getDigest();
+        ArrayList<String> settings = new ArrayList<String>(filterSettings);
+        Collections.sort(settings);
+        for(String s : settings){
+            update(md, "filter", s);
+        }
+        for(String s : samples){
+            update(md, "sample", s);
+        }
+        for(String s : whiteLists){
+            update(md, "white", s);
+        }
+        for(String s : blackLists){
+            update(md, "black", s);
+        }
+        if(recurrence != null){
+            update(md, "recurrence", recurrence + "\t" + recurrenceCutoff + "\t" + recurrenceType);
+        }
+        update(md, "outputlimit", Integer.toString(outputlimit));
+        for(String s : inputs){
+            update(md, "input", s);
+        }
+        return toHex(md.digest());
+    }
+    
+    /**
+     * Tests if every variant passing this scenario also passes previous, so that the complete 
+     * results of previous can be filtered with this scenario instead of the input files. 
+     * This holds if the input files and the selected samples are the same and
+     * every filter of previous is kept or narrowed, see CompiledFilter.narrows, 
+     * white lists are added or removed from none or kept, 
+     * black lists are kept or added, 
+     * and the recurrence cutoff is added or kept or lowered.
+     * 
+     * @param previous scenario of an earlier run
+     * @return boolean
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public boolean narrows(Scenario previous){
+        if(!inputs.equals(previous.inputs) || !samples.equals(previous.samples)){
+            return false;
+        }
+        for(int i = 0; i < previous.filterSettings.size(); i++){
+            if(!keepsFilter(previous.filterSettings.get(i), previous.compiledFilters.get(i))){
+                return false;
+            }
+        }
+        if(!previous.whiteLists.isEmpty() && (whiteLists.isEmpty() || !previous.whiteLists.containsAll(whiteLists))){
+            return false;
+        }
+        if(!blackLists.containsAll(previous.blackLists)){
+            return false;
+        }
+        if(previous.recurrence != null){
+            if(!previous.recurrence.equals(recurrence) || !previous.recurrenceType.equals(recurrenceType) || recurrenceCutoff > previous.recurrenceCutoff){
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Tests if this scenario has a filter with the same settings as, or narrowing, a filter of an earlier run.
+     * 
+     * @param settings settings of the earlier filter
+     * @param compiled the earlier filter compiled
+     * @return boolean
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private boolean keepsFilter(String settings, CompiledFilter compiled){
+        for(int i = 0; i < filterSettings.size(); i++){
+            if(filterSettings.get(i).equals(settings) || compiledFilters.get(i).narrows(compiled)){
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Returns a SHA-256 message digest.
+     * 
+     * @return MessageDigest
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private static MessageDigest getDigest(){
+        try{
+            return MessageDigest.getInstance("SHA-256");
+        }catch(NoSuchAlgorithmException nsae){
+            throw new IllegalStateException(nsae);
+        }
+    }
+    
+    /**
+     * Adds a named value to the digest.
+     * 
+     * @param md the digest
+     * @param name name of the value
+     * @param value the value
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private static void update(MessageDigest md, String name, String value){
+        md.update((name + "=" + value + "\n").getBytes(UTF8));
+    }
+    
+    /**
+     * Returns bytes as hexadecimal String.
+     * 
+     * @param bytes the bytes
+     * @return String
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private static String toHex(byte[] bytes){
+        StringBuilder sb = new StringBuilder();
+        for(byte b : bytes){
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+    
+    /**
+     * Returns the hash of the first and last bytes of a file.
+     * 
+     * @param f the file
+     * @return String
+     * @throws IOException if the file cannot be read
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private static String getContentHash(File f) throws IOException {
+        MessageDigest md = getDigest();
+        RandomAccessFile raf = new RandomAccessFile(f, "r");
+        try{
+            long length = raf.length();
+            byte[] buffer = new byte[(int)Math.min(SAMPLE_BYTES, length)];
+            raf.readFully(buffer);
+            md.update(buffer);
+            if(length > SAMPLE_BYTES){
+                raf.seek(Math.max(SAMPLE_BYTES, length - SAMPLE_BYTES));
+                buffer = new byte[(int)(length - raf.getFilePointer())];
+                raf.readFully(buffer);
+                md.update(buffer);
+            }
+        }finally{
+            raf.close();
+        }
+        return toHex(md.digest());
+    }
+    
+    /**
+     * Returns path, size and modification time of a file.
+     * 
+     * @param f the file
+     * @return String
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private static String describeFile(File f){
+        return f.getAbsolutePath() + "\t" + f.length() + "\t" + f.lastModified();
+    }
+    
+    /**
+     * Returns path, size and modification time of files in canonical order.
+     * 
+     * @param files the files, null if none
+     * @return ArrayList&#60;String&#62;
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private static ArrayList<String> describeFiles(List<File> files){
+        ArrayList<String> result = new ArrayList<String>();
+        if(files != null){
+            for(File f : files){
+                result.add(describeFile(f));
+            }
+        }
+        Collections.sort(result);
+        return result;
+    }
+}
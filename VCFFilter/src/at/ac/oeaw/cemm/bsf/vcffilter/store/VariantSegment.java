@@ -0,0 +1,287 @@
+/*
+*     This file is part of the VCF.Filter project (https://biomedical-sequencing.at/VCFFilter/).
+*     VCF.Filter permits graphical filtering of VCF files on cutom annotations and standard VCF fields, pedigree analysis, and cohort searches.
+* %%
+*     Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+* %%
+* 
+*     VCF.Filter is free software: you can redistribute it and/or modify
+*     it under the terms of the GNU General Public License as published by
+*     the Free Software Foundation, either version 3 of the License, or
+*     (at your option) any later version.
+* 
+*     This program is distributed in the hope that it will be useful,
+*     but WITHOUT ANY WARRANTY; without even the implied warranty of
+*     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*     GNU General Public License for more details.
+* 
+*     You should have received a copy of the GNU General Public License
+*     along with VCF.Filter.  If not, see <http://www.gnu.org/licenses/>.
+* 
+*     VCF.Filter  Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+*     This program comes with ABSOLUTELY NO WARRANTY;
+*     This is free software, and you are welcome to redistribute it
+*     under certain conditions; 
+*     For details interrogate the About section in the File menu.
+*/
+package at.ac.oeaw.cemm.bsf.vcffilter.store;
+
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.vcf.VCFCodec;
+import htsjdk.variant.vcf.VCFEncoder;
+import htsjdk.variant.vcf.VCFHeader;
+import htsjdk.variant.vcf.VCFHeaderVersion;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.util.ArrayList;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Sorted sequence of result variants from one input file. The variants are kept 
+ * in memory or spilled to a gzipped temporary file of VCF data lines, which are 
+ * decoded again with the header of the input file when the segment is read.
+ * 
+ * VariantSegment.java 17 OCT 2026
+ *
+ * @author Heiko Müller
+ * @version 1.0
+ * @since 1.0
+ */
+class VariantSegment {
+    
+    /**
+     * Size of the read and write buffers of spilled segments.
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+    
+    /**
+     * Header of the input file.
+     */
+    private final VCFHeader header;
+    
+    /**
+     * Variants held in memory, null if spilled.
+     */
+    private ArrayList<VariantContext> variants;
+    
+    /**
+     * Temporary file of a spilled segment.
+     */
+    private File file;
+    
+    /**
+     * Number of variants in the segment.
+     */
+    private final int size;
+    
+    /**
+     * Creates new VariantSegment held in memory.
+     * 
+     * @param header header of the input file
+     * @param variants variants sorted in coordinate order
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    VariantSegment(VCFHeader header, ArrayList<VariantContext> variants){
+        this.header = header;
+        this.variants = variants;
+        this.size = variants.size();
+    }
+    
+    /**
+     * Returns the header of the input file.
+     * 
+     * @return VCFHeader
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    VCFHeader getHeader(){
+        return header;
+    }
+    
+    /**
+     * Tests if the segment was spilled to disk.
+     * 
+     * @return boolean
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    boolean isSpilled(){
+        return variants == null;
+    }
+    
+    /**
+     * Returns the number of variants in the segment.
+     * 
+     * @return int
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    int size(){
+        return size;
+    }
+    
+    /**
+     * Writes the variants to a temporary file and releases them.
+     * 
+     * @param directory directory for the temporary file, null for the default temporary directory
+     * @throws IOException if the file cannot be written
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    void spill(File directory) throws IOException {
+        if(isSpilled()){
+            return;
+        }
+        File f = File.createTempFile("vcffilter", ".vcf.gz", directory);
+        f.deleteOnExit();
+        VCFEncoder encoder = new VCFEncoder(header, true, false);
+        BufferedWriter out = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(new FileOutputStream(f), BUFFER_SIZE){
+            {
+                def.setLevel(Deflater.BEST_SPEED);
+            }
+        }, VCFEncoder.VCF_CHARSET), BUFFER_SIZE);
+        try{
+            for(VariantContext vc : variants){
+                out.write(encoder.encode(vc));
+                out.write('\n');
+            }
+        }finally{
+            out.close();
+        }
+        file = f;
+        variants = null;
+    }
+    
+    /**
+     * Deletes the temporary file of a spilled segment and releases variants held in memory.
+     * 
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    void delete(){
+        if(file != null){
+            file.delete();
+            file = null;
+        }
+        variants = null;
+    }
+    
+    /**
+     * Opens a cursor positioned on the first variant of the segment.
+     * 
+     * @param index position of the segment in insertion order
+     * @return Cursor
+     * @throws IOException if a spilled segment cannot be read
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    Cursor open(int index) throws IOException {
+        Cursor c = isSpilled() ? new FileCursor(index) : new MemoryCursor(index);
+        c.advance();
+        return c;
+    }
+    
+    /**
+     * Read position in a segment.
+     */
+    abstract class Cursor {
+        
+        /**
+         * Position of the segment in insertion order, breaks ties between equal coordinates.
+         */
+        final int index;
+        
+        /**
+         * Current variant, null when the segment is exhausted.
+         */
+        VariantContext current;
+        
+        Cursor(int index){
+            this.index = index;
+        }
+        
+        /**
+         * Moves to the next variant.
+         * 
+         * @return boolean false when the segment is exhausted
+         * @throws IOException if a spilled segment cannot be read
+         */
+        abstract boolean advance() throws IOException;
+        
+        /**
+         * Releases the resources of the cursor.
+         */
+        abstract void close();
+    }
+    
+    /**
+     * Cursor over variants held in memory.
+     */
+    private class MemoryCursor extends Cursor {
+        
+        private final ArrayList<VariantContext> list = variants;
+        
+        private int next = 0;
+        
+        MemoryCursor(int index){
+            super(index);
+        }
+        
+        @Override
+        boolean advance(){
+            current = next < list.size() ? list.get(next++) : null;
+            return current != null;
+        }
+        
+        @Override
+        void close(){
+            current = null;
+        }
+    }
+    
+    /**
+     * Cursor over a spilled segment.
+     */
+    private class FileCursor extends Cursor {
+        
+        private final BufferedReader in;
+        
+        private final VCFCodec codec = new VCFCodec();
+        
+        FileCursor(int index) throws IOException {
+            super(index);
+            in = new BufferedReader(new InputStreamReader(new GZIPInputStream(new FileInputStream(file), BUFFER_SIZE), VCFEncoder.VCF_CHARSET), BUFFER_SIZE);
+            codec.setVCFHeader(header, VCFHeaderVersion.VCF4_2);
+        }
+        
+        @Override
+        boolean advance() throws IOException {
+            String line = in.readLine();
+            if(line == null){
+                close();
+                return false;
+            }
+            current = codec.decode(line);
+            return true;
+        }
+        
+        @Override
+        void close(){
+            current = null;
+            try{
+                in.close();
+            }catch(IOException ioe){
+                ioe.printStackTrace();
+            }
+        }
+    }
+}
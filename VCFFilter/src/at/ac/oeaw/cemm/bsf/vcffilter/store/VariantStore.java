@@ -0,0 +1,427 @@
+/*
+*     This file is part of the VCF.Filter project (https://biomedical-sequencing.at/VCFFilter/).
+*     VCF.Filter permits graphical filtering of VCF files on cutom annotations and standard VCF fields, pedigree analysis, and cohort searches.
+* %%
+*     Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+* %%
+* 
+*     VCF.Filter is free software: you can redistribute it and/or modify
+*     it under the terms of the GNU General Public License as published by
+*     the Free Software Foundation, either version 3 of the License, or
+*     (at your option) any later version.
+* 
+*     This program is distributed in the hope that it will be useful,
+*     but WITHOUT ANY WARRANTY; without even the implied warranty of
+*     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+*     GNU General Public License for more details.
+* 
+*     You should have received a copy of the GNU General Public License
+*     along with VCF.Filter.  If not, see <http://www.gnu.org/licenses/>.
+* 
+*     VCF.Filter  Copyright © 2016, 2017  Heiko Müller (hmueller@cemm.oeaw.ac.at)
+*     This program comes with ABSOLUTELY NO WARRANTY;
+*     This is free software, and you are welcome to redistribute it
+*     under certain conditions; 
+*     For details interrogate the About section in the File menu.
+*/
+package at.ac.oeaw.cemm.bsf.vcffilter.store;
+
+import at.ac.oeaw.cemm.bsf.vcffilter.outputformat.VariantContextComparator;
+import htsjdk.samtools.util.CloseableIterator;
+import htsjdk.samtools.util.RuntimeIOException;
+import htsjdk.variant.variantcontext.Genotype;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.vcf.VCFConstants;
+import htsjdk.variant.vcf.VCFFormatHeaderLine;
+import htsjdk.variant.vcf.VCFHeader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * Result store for filtered variants with bounded memory. Variants are added in runs, 
+ * one run per input file. A run is expected in coordinate order, so sorting it is linear. 
+ * When the estimated size of the variants held in memory exceeds the memory budget, 
+ * all of them are spilled to temporary files. The iterator merges the sorted segments 
+ * in coordinate order. Variants at equal coordinates are returned in insertion order, 
+ * so the result is the same as a stable sort of all variants.
+ * 
+ * VariantStore.java 17 OCT 2026
+ *
+ * @author Heiko Müller
+ * @version 1.0
+ * @since 1.0
+ */
+public class VariantStore implements Iterable<VariantContext>, Closeable {
+    
+    /**
+     * Estimated size of a variant without genotypes in bytes.
+     */
+    private static final long VARIANT_BYTES = 512;
+    
+    /**
+     * Estimated size of one decoded genotype in bytes, with GT, AD, DP, GQ and PL, 
+     * which htsjdk keeps in fields of the genotype. Measured as about 160 bytes.
+     */
+    private static final long GENOTYPE_BYTES = 160;
+    
+    /**
+     * Estimated size of any other FORMAT field of one genotype in bytes, 
+     * kept as a String in the attribute map of the genotype.
+     */
+    private static final long FORMAT_FIELD_BYTES = 128;
+    
+    /**
+     * Coordinate order of the result.
+     */
+    private final Comparator<VariantContext> comparator = new VariantContextComparator();
+    
+    /**
+     * Memory budget in bytes.
+     */
+    private final long memoryBudget;
+    
+    /**
+     * Directory for temporary files, null for the default temporary directory.
+     */
+    private final File directory;
+    
+    /**
+     * Sealed segments in insertion order.
+     */
+    private final ArrayList<VariantSegment> segments = new ArrayList<VariantSegment>();
+    
+    /**
+     * Header of the current run.
+     */
+    private VCFHeader header;
+    
+    /**
+     * Variants of the current run not yet sealed into a segment.
+     */
+    private ArrayList<VariantContext> buffer = new ArrayList<VariantContext>();
+    
+    /**
+     * Estimated size of one variant of the current run.
+     */
+    private long variantBytes = VARIANT_BYTES;
+    
+    /**
+     * True if variantBytes was measured on a decoded variant of the current run.
+     */
+    private boolean measured = false;
+    
+    /**
+     * Estimated size of the variants held in memory.
+     */
+    private long memoryBytes = 0;
+    
+    /**
+     * Number of variants in the store.
+     */
+    private int size = 0;
+    
+    /**
+     * Number of variants spilled to disk.
+     */
+    private int spilled = 0;
+    
+    /**
+     * Creates new VariantStore with the default memory budget.
+     * 
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public VariantStore(){
+        this(getDefaultMemoryBudget(), null);
+    }
+    
+    /**
+     * Creates new VariantStore.
+     * 
+     * @param memoryBudget memory budget in bytes
+     * @param directory directory for temporary files, null for the default temporary directory
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public VariantStore(long memoryBudget, File directory){
+        this.memoryBudget = memoryBudget;
+        this.directory = directory;
+    }
+    
+    /**
+     * Returns the default memory budget, a quarter of the maximum heap size.
+     * 
+     * @return long
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public static long getDefaultMemoryBudget(){
+        return Runtime.getRuntime().maxMemory() / 4;
+    }
+    
+    /**
+     * Starts a new run of variants from the input file with the given header.
+     * 
+     * @param header header of the input file
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public void startRun(VCFHeader header){
+        seal();
+        this.header = header;
+        this.variantBytes = VARIANT_BYTES + getGenotypeBytes(header) * header.getNGenotypeSamples();
+        this.measured = false;
+    }
+    
+    /**
+     * Returns the estimated size of one decoded genotype of a file, used until a decoded 
+     * variant of the file is added. FORMAT fields declared in the header but missing from 
+     * the records are counted too, so the estimate errs on spilling early.
+     * 
+     * @param header header of the input file
+     * @return long
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private static long getGenotypeBytes(VCFHeader header){
+        long bytes = GENOTYPE_BYTES;
+        for(VCFFormatHeaderLine line : header.getFormatHeaderLines()){
+            String id = line.getID();
+            if(!id.equals(VCFConstants.GENOTYPE_KEY) && !id.equals(VCFConstants.GENOTYPE_ALLELE_DEPTHS) && !id.equals(VCFConstants.DEPTH_KEY) 
+                    && !id.equals(VCFConstants.GENOTYPE_QUALITY_KEY) && !id.equals(VCFConstants.GENOTYPE_PL_KEY)){
+                bytes += FORMAT_FIELD_BYTES;
+            }
+        }
+        return bytes;
+    }
+    
+    /**
+     * Returns the estimated size of a decoded genotype from the FORMAT fields it holds.
+     * 
+     * @param g decoded genotype
+     * @return long
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private static long getGenotypeBytes(Genotype g){
+        return GENOTYPE_BYTES + FORMAT_FIELD_BYTES * g.getExtendedAttributes().size();
+    }
+    
+    /**
+     * Adds a variant to the current run.
+     * 
+     * @param vc the variant
+     * @throws RuntimeIOException if variants cannot be spilled to disk
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public void add(VariantContext vc){
+        if(header == null){
+            throw new IllegalStateException("startRun must be called before adding variants");
+        }
+        if(!measured && !vc.getGenotypes().isLazyWithData() && vc.getNSamples() > 0){
+            //lazy genotypes are not decoded here, they may belong to the codec of another thread
+            variantBytes = VARIANT_BYTES + getGenotypeBytes(vc.getGenotype(0)) * vc.getNSamples();
+            measured = true;
+        }
+        buffer.add(vc);
+        size++;
+        memoryBytes += variantBytes;
+        if(memoryBytes > memoryBudget){
+            spill();
+        }
+    }
+    
+    /**
+     * Returns the number of variants in the store.
+     * 
+     * @return int
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public int size(){
+        return size;
+    }
+    
+    /**
+     * Returns the number of variants spilled to disk.
+     * 
+     * @return int
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public int getSpilledVariants(){
+        return spilled;
+    }
+    
+    /**
+     * Sorts the buffered variants of the current run and seals them into a segment.
+     * 
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private void seal(){
+        if(buffer.size() > 0){
+            buffer.sort(comparator);
+            segments.add(new VariantSegment(header, buffer));
+            buffer = new ArrayList<VariantContext>();
+        }
+    }
+    
+    /**
+     * Spills all variants held in memory to disk.
+     * 
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private void spill(){
+        seal();
+        try{
+            for(VariantSegment s : segments){
+                if(!s.isSpilled()){
+                    s.spill(directory);
+                    spilled += s.size();
+                }
+            }
+        }catch(IOException ioe){
+            throw new RuntimeIOException("Could not spill filter results to disk: " + ioe.getMessage(), ioe);
+        }
+        memoryBytes = 0;
+    }
+    
+    /**
+     * Returns an iterator over all variants in coordinate order. The iterator closes 
+     * itself when it is exhausted.
+     * 
+     * @return CloseableIterator&#60;VariantContext&#62;
+     * @throws RuntimeIOException if spilled variants cannot be read
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    @Override
+    public CloseableIterator<VariantContext> iterator(){
+        seal();
+        return new MergingIterator();
+    }
+    
+    /**
+     * Copies variants in coordinate order to a result store, together with the header 
+     * of the input file they were read from.
+     * 
+     * @param results the result store
+     * @param limit maximum number of variants to copy
+     * @return number of variants copied
+     * @throws RuntimeIOException if variants cannot be read or stored
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    public int copyTo(ResultStore results, int limit){
+        seal();
+        MergingIterator it = new MergingIterator();
+        int copied = 0;
+        try{
+            while(copied < limit && it.hasNext()){
+                VariantContext vc = it.next();
+                results.add(vc, it.header);
+                copied++;
+            }
+        }finally{
+            it.close();
+        }
+        return copied;
+    }
+    
+    /**
+     * Deletes all temporary files and releases the variants held in memory.
+     * 
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    @Override
+    public void close(){
+        for(VariantSegment s : segments){
+            s.delete();
+        }
+        segments.clear();
+        buffer = new ArrayList<VariantContext>();
+        memoryBytes = 0;
+        size = 0;
+        spilled = 0;
+    }
+    
+    /**
+     * K-way merge of the sealed segments.
+     */
+    private class MergingIterator implements CloseableIterator<VariantContext> {
+        
+        private final PriorityQueue<VariantSegment.Cursor> queue;
+        
+        /**
+         * Header of the variant returned last.
+         */
+        private VCFHeader header;
+        
+        MergingIterator(){
+            queue = new PriorityQueue<VariantSegment.Cursor>(Math.max(1, segments.size()), new Comparator<VariantSegment.Cursor>(){
+                @Override
+                public int compare(VariantSegment.Cursor c1, VariantSegment.Cursor c2){
+                    int c = comparator.compare(c1.current, c2.current);
+                    return c != 0 ? c : Integer.compare(c1.index, c2.index);
+                }
+            });
+            try{
+                for(int i = 0; i < segments.size(); i++){
+                    VariantSegment.Cursor c = segments.get(i).open(i);
+                    if(c.current != null){
+                        queue.add(c);
+                    }
+                }
+            }catch(IOException ioe){
+                close();
+                throw new RuntimeIOException("Could not read spilled filter results: " + ioe.getMessage(), ioe);
+            }
+        }
+        
+        @Override
+        public boolean hasNext(){
+            return !queue.isEmpty();
+        }
+        
+        @Override
+        public VariantContext next(){
+            VariantSegment.Cursor c = queue.poll();
+            if(c == null){
+                throw new NoSuchElementException();
+            }
+            VariantContext vc = c.current;
+            header = segments.get(c.index).getHeader();
+            try{
+                if(c.advance()){
+                    queue.add(c);
+                }
+            }catch(IOException ioe){
+                close();
+                throw new RuntimeIOException("Could not read spilled filter results: " + ioe.getMessage(), ioe);
+            }
+            return vc;
+        }
+        
+        @Override
+        public void remove(){
+            throw new UnsupportedOperationException();
+        }
+        
+        @Override
+        public void close(){
+            for(VariantSegment.Cursor c : queue){
+                c.close();
+            }
+            queue.clear();
+        }
+    }
+}
@@ -13,7 +13,6 @@
 package at.ac.oeaw.cemm.bsf.vcffilter.vcftoimage;
 
 import htsjdk.variant.variantcontext.VariantContext;
-import java.util.ArrayList;
 
 /** 
  * Hilbert.java
@@ -58,7 +57,7 @@ public class Hilbert {
     * @author Heiko Müller
     * @since 1.0
     */
-    public Hilbert(int n, ArrayList<VariantContext> variants) {
+    public Hilbert(int n, Iterable<VariantContext> variants) {
         turtle = new Turtle(0.5, 0.5, 0.0);
         double max = Math.pow(2, n);
         int length = (int)max;
@@ -29,6 +29,8 @@ package at.ac.oeaw.cemm.bsf.vcffilter.worker;
 import at.ac.oeaw.cemm.bsf.vcffilter.VCFFilter;
 import at.ac.oeaw.cemm.bsf.vcffilter.genomeutils.GenomicElement;
 import at.ac.oeaw.cemm.bsf.vcffilter.genomeutils.Query;
+import at.ac.oeaw.cemm.bsf.vcffilter.index.QueryPlan;
+import at.ac.oeaw.cemm.bsf.vcffilter.index.QueryPlanner;
 import at.ac.oeaw.cemm.bsf.vcffilter.inheritance.Inheritance;
 import at.ac.oeaw.cemm.bsf.vcffilter.inheritance.Relationship;
 import at.ac.oeaw.cemm.bsf.vcffilter.inheritance.Relationships;
@@ -90,16 +92,6 @@ public class FamilyAnalysisWorker extends VCFFilterWorker{
      */
     private JProgressBar progressBar; 
     
-    /**
-     * Query object for white lists.
-     */
-    private Query qwhite;
-    
-    /**
-     * Query object for black lists.
-     */
-    private Query qblack;
-    
     /**
      * List of hashes of variants for affected individuals.
      */
@@ -152,6 +144,7 @@ public class FamilyAnalysisWorker extends VCFFilterWorker{
         this.affectedVCFFiles = gui.getActiveAffectedVCFFiles();
         this.unaffectedVCFFiles = gui.getActiveUnaffectedVCFFiles();
         filters = gui.getActiveFamilyFilters();
+        compileFilterChain();
         this.outputArea = gui.getFamilyAnalysisTextArea();
         this.progressBar = gui.getFamilyAnalysisProgressBar();
         this.genesymbolField = gui.getPreferences().getGenesymbolField();
@@ -414,6 +407,7 @@ public class FamilyAnalysisWorker extends VCFFilterWorker{
             denovocandidates = addNonredundant(denovo, denovocandidates);          
         }
         reportAppend(denovocandidates, affectedVariants, unaffectedVariants, outputArea); 
+        reportFilterStatistics(outputArea);
         
         setProgress(progressBar, 0);
         gui.getFamilyAnalysisRunButton().setEnabled(true);
@@ -477,15 +471,25 @@ public class FamilyAnalysisWorker extends VCFFilterWorker{
             if(x != null && x.getContig().toUpperCase().startsWith("CHR")){
                 chr = true;
             }
-            for (GenomicElement g : regions) {
-                if(!chr){
-                    CloseableIterator<VariantContext> it = vcf.query(g.CHR, g.START, g.END);
-                    ArrayList<VariantContext> temp = filterVCFFileIterator(it);
-                    sampleVariants.addAll(temp);
-                }else{
-                    CloseableIterator<VariantContext> it = vcf.query("chr" + g.CHR, g.START, g.END);
-                    ArrayList<VariantContext> temp = filterVCFFileIterator(it);
-                    sampleVariants.addAll(temp);
+            QueryPlan plan = QueryPlanner.plan(f, regions, qwhite, chr);
+            outputArea.append(plan.getReport() + "\r\n");
+            if(plan.isScan()){
+                CloseableIterator<VariantContext> it = plan.join(openVariantIterator(f, vcf));
+                sampleVariants.addAll(filterVCFFileIterator(it));
+                it.close();
+            }else{
+                GenomicElement previous = null;
+                for (GenomicElement g : plan.getRegions()) {
+                    if(!chr){
+                        CloseableIterator<VariantContext> it = plan.join(vcf.query(g.CHR, g.START, g.END), g, previous);
+                        ArrayList<VariantContext> temp = filterVCFFileIterator(it);
+                        sampleVariants.addAll(temp);
+                    }else{
+                        CloseableIterator<VariantContext> it = plan.join(vcf.query("chr" + g.CHR, g.START, g.END), g, previous);
+                        ArrayList<VariantContext> temp = filterVCFFileIterator(it);
+                        sampleVariants.addAll(temp);
+                    }
+                    previous = g;
                 }
             }
             if(qblack != null){
@@ -509,8 +513,9 @@ public class FamilyAnalysisWorker extends VCFFilterWorker{
             progressCounter++;
             setProgress(progressBar, progressCounter);
             VCFFileReader vcf = new VCFFileReader(f);
-            CloseableIterator<VariantContext> it = vcf.iterator();
+            CloseableIterator<VariantContext> it = openVariantIterator(f, vcf);
             ArrayList<VariantContext> temp = filterVCFFileIterator(it);
+            it.close();
             sampleVariants.addAll(temp);
             //System.out.println("before recurrence " + sampleVariants.size());
             if(qblack != null){
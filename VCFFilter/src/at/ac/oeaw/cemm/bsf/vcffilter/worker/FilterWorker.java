@@ -28,18 +28,38 @@ package at.ac.oeaw.cemm.bsf.vcffilter.worker;
 
 import at.ac.oeaw.cemm.bsf.vcffilter.VCFFilter;
 import at.ac.oeaw.cemm.bsf.vcffilter.Warning;
+import at.ac.oeaw.cemm.bsf.vcffilter.batch.FilterEngine;
 import at.ac.oeaw.cemm.bsf.vcffilter.filter.Filter;
 import at.ac.oeaw.cemm.bsf.vcffilter.genomeutils.GenomicElement;
 import at.ac.oeaw.cemm.bsf.vcffilter.genomeutils.Query;
+import at.ac.oeaw.cemm.bsf.vcffilter.index.QueryPlan;
+import at.ac.oeaw.cemm.bsf.vcffilter.index.QueryPlanner;
+import at.ac.oeaw.cemm.bsf.vcffilter.parallel.CandidateFilter;
+import at.ac.oeaw.cemm.bsf.vcffilter.parallel.MultiFileFilter;
+import at.ac.oeaw.cemm.bsf.vcffilter.parallel.OutputBudget;
+import at.ac.oeaw.cemm.bsf.vcffilter.parallel.VCFPipeline;
+import at.ac.oeaw.cemm.bsf.vcffilter.progress.FilterProgress;
+import at.ac.oeaw.cemm.bsf.vcffilter.progress.InputProgress;
+import at.ac.oeaw.cemm.bsf.vcffilter.progress.ProgressSnapshot;
+import at.ac.oeaw.cemm.bsf.vcffilter.store.MergedVariantIterator;
+import at.ac.oeaw.cemm.bsf.vcffilter.preferences.VCFFilterPreferences;
+import at.ac.oeaw.cemm.bsf.vcffilter.store.RankedVariants;
+import at.ac.oeaw.cemm.bsf.vcffilter.store.ResultCache;
+import at.ac.oeaw.cemm.bsf.vcffilter.store.ResultStore;
+import at.ac.oeaw.cemm.bsf.vcffilter.store.Scenario;
+import at.ac.oeaw.cemm.bsf.vcffilter.store.VariantStore;
 import at.ac.oeaw.cemm.bsf.vcffilter.vcftoimage.Hilbert;
 import htsjdk.samtools.util.CloseableIterator;
+import htsjdk.samtools.util.RuntimeIOException;
 //import htsjdk.tribble.TribbleException;
 import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.variantcontext.writer.VariantContextWriter;
 import htsjdk.variant.vcf.VCFContigHeaderLine;
 import htsjdk.variant.vcf.VCFFileReader;
+import htsjdk.variant.vcf.VCFHeader;
 import java.awt.Cursor;
 import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
@@ -78,14 +98,59 @@ public class FilterWorker extends VCFFilterWorker {
     private JProgressBar progressBar;
 
     /**
-     * Query object for white lists.
+     * Top ranked variants for the text output, null if output is in file order.
      */
-    private Query qwhite;
+    private RankedVariants ranking;
 
     /**
-     * Query object for black lists.
+     * Bytes consumed and records per stage of the selected files.
      */
-    private Query qblack;
+    private FilterProgress progress;
+
+    /**
+     * Set when the run is finished, progress published later is ignored.
+     */
+    private volatile boolean finished = false;
+
+    /**
+     * Variants written to the VCF output, up to the output limit, for the result table.
+     */
+    private ResultStore results;
+
+    /**
+     * Header of the file the variants written to the VCF output are read from.
+     */
+    private VCFHeader currentHeader;
+
+    /**
+     * Number of variants written to the VCF output.
+     */
+    private int variantsWritten = 0;
+
+    /**
+     * Results of earlier runs, null if results are not cached.
+     */
+    private ResultCache resultCache;
+
+    /**
+     * Scenario of this run, null if the results are not cached.
+     */
+    private Scenario scenario;
+
+    /**
+     * Scenario of the last run with results recorded as complete in the result cache, null if none.
+     */
+    private static volatile Scenario lastScenario;
+
+    /**
+     * Set if filtering failed and the results are incomplete.
+     */
+    private boolean failed = false;
+
+    /**
+     * Set if filtering stopped early at the output limit, the results hold only part of the passing variants.
+     */
+    private boolean incomplete = false;
 
     /**
      * Creates new FilterWorker.
@@ -98,9 +163,11 @@ public class FilterWorker extends VCFFilterWorker {
         super(gui);
         this.selectedVCFFiles = gui.getActiveVCFFiles();
         filters = gui.getActiveFilters();
+        compileFilterChain();
         this.outputArea = gui.getFilterTextArea();
         this.progressBar = gui.getFilterProgressBar();
-        initProgressBar(progressBar, 0, selectedVCFFiles.length);
+        initProgressBar(progressBar, 0, ProgressSnapshot.SCALE);
+        progress = new FilterProgress(selectedVCFFiles);
         recurrenceFile = gui.getFilterRecurrenceFile();
         recurrenceCutoff = gui.getFilterRecurrenceCutoff();
         initRecurrenceHash();
@@ -112,6 +179,10 @@ public class FilterWorker extends VCFFilterWorker {
         if (blackListFiles != null && blackListFiles.size() > 0) {
             qblack = new Query(blackListFiles, gui);
         }
+        String rankField = gui.getPreferences().getRankField();
+        if (rankField != null) {
+            ranking = new RankedVariants(rankField, gui.getPreferences().getRankDescending(), outputlimit);
+        }
 
     }
 
@@ -146,7 +217,23 @@ public class FilterWorker extends VCFFilterWorker {
             int progressCounter = 0;
             reportSettings(outputArea);
             VariantContext candidate = null;
-            doFilteringToFile();
+            results = new ResultStore();
+            try {
+                doFilteringToFile();
+                if (ranking != null) {
+                    results.close();
+                    reportResults(ranking, outputArea);
+                } else {
+                    outputArea.append("Variants written: " + variantsWritten + "\r\n");
+                    showResults(results, "Variants written: " + variantsWritten, outputArea);
+                }
+            } catch (RuntimeIOException rioe) {
+                results.close();
+                rioe.printStackTrace();
+                new Warning(gui, "Problem storing filter results " + rioe.getMessage());
+            }
+            reportFilterStatistics(outputArea);
+            reportProgress(outputArea);
             setProgress(progressBar, 0);
             gui.getFilterRunButton().setEnabled(true);
             gui.getExampleButton().setEnabled(true);
@@ -158,20 +245,36 @@ public class FilterWorker extends VCFFilterWorker {
             gui.setCursor(waitCursor);
             int progressCounter = 0;
             reportSettings(outputArea);
-            ArrayList<VariantContext> candidates = new ArrayList<VariantContext>();
-            if (qwhite == null && qblack == null) {
-                candidates = doVCFFiltering();
-            } else if (qwhite != null && qblack == null) {
-                candidates = doVCFQueryFiltering(qwhite.getFlattenedRegions());
-            } else if (qwhite == null && qblack != null) {
-                candidates = doVCFFiltering();
-                candidates = filterOnBlackLists(candidates, qblack);
-            } else {
-                candidates = doVCFQueryFiltering(qwhite.getFlattenedRegions());
-                candidates = filterOnBlackLists(candidates, qblack);
+            if (showCachedResults()) {
+                setProgress(progressBar, 0);
+                gui.getFilterRunButton().setEnabled(true);
+                gui.getExampleButton().setEnabled(true);
+                gui.setCursor(defaultCursor);
+                return null;
+            }
+            VariantStore candidates = new VariantStore();
+            try {
+                if (refilterPreviousResults(candidates)) {
+                    //results of the last run filtered again
+                } else if (qwhite == null) {
+                    doVCFFiltering(candidates);
+                } else {
+                    doVCFQueryFiltering(qwhite.getFlattenedRegions(), candidates);
+                }
+                if (ranking != null) {
+                    reportResults(ranking, outputArea);
+                } else {
+                    reportResults(candidates, outputArea);
+                }
+            } catch (RuntimeIOException rioe) {
+                rioe.printStackTrace();
+                new Warning(gui, "Problem storing filter results " + rioe.getMessage());
+            }
+            reportFilterStatistics(outputArea);
+            reportProgress(outputArea);
+            if (candidates.getSpilledVariants() > 0) {
+                outputArea.append("Variants spilled to disk: " + candidates.getSpilledVariants() + "\r\n");
             }
-            candidates = filterOnRecurrence(candidates);
-            reportAppend(candidates, outputArea);
             //if(gui.getjRadioButton2().isSelected()){
             //    boolean writeok = false;
             //    if(!gui.getVcfOutputFile().exists()){
@@ -188,91 +291,460 @@ public class FilterWorker extends VCFFilterWorker {
                 Hilbert.setContigSizes(getContigSizes());
                 Hilbert.setX(getXIndex());
                 Hilbert.setY(getYIndex());
-                Hilbert h = new Hilbert(8, candidates);
+                Hilbert h = new Hilbert(8, ranking != null ? ranking.getRanked() : candidates);
                 h.show();
             }
+            candidates.close();
             gui.getExampleButton().setEnabled(true);
             gui.setCursor(defaultCursor);
         }
         return null;
     }
 
-    private ArrayList<VariantContext> doVCFQueryFiltering(ArrayList<GenomicElement> regions) {
-        ArrayList<VariantContext> result = new ArrayList<VariantContext>();
-        int progressCounter = 0;
+    /**
+     * Shows the results of an identical earlier run from the result cache. Results are cached 
+     * for the text output in file order without Hilbert curve only.
+     *
+     * @return boolean true if the results were found in the cache
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private boolean showCachedResults() {
+        String userdir = VCFFilterPreferences.getUserdir();
+        if (userdir == null || ranking != null || gui.showHilbertCurve()) {
+            return false;
+        }
+        long start = System.currentTimeMillis();
+        resultCache = new ResultCache(new File(userdir, "result_cache"), ResultCache.DEFAULT_BUDGET);
+        try {
+            scenario = new Scenario(filters, filterChain, whiteListFiles, blackListFiles, recurrenceFile, recurrenceCutoff, gui.getRecurrenceType(), outputlimit, selectedVCFFiles);
+        } catch (IOException ioe) {
+            ioe.printStackTrace();
+            return false;
+        }
+        ResultCache.CachedResult hit = resultCache.get(scenario.getKey());
+        if (hit == null) {
+            return false;
+        }
+        if (hit.isComplete()) {
+            lastScenario = scenario;
+        }
+        outputArea.append(hit.getReport() + "\r\n");
+        showResults(hit.getResults(), hit.getReport(), outputArea);
+        outputArea.append("Results loaded from result cache in " + (System.currentTimeMillis() - start) + " ms\r\n");
+        finished = true;
+        return true;
+    }
+
+    /**
+     * Filters the results of the last run instead of the selected files, if the last run found 
+     * all passing variants and this run provably passes a subset of them, e.g. because a 
+     * criterion was narrowed or a filter was added. Only cache entries recorded as complete are filtered.
+     *
+     * @param result store of passing variants
+     * @return boolean true if the results of the last run were filtered
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private boolean refilterPreviousResults(VariantStore result) {
+        Scenario previous = lastScenario;
+        if (scenario == null || previous == null || !scenario.narrows(previous)) {
+            return false;
+        }
+        ResultCache.CachedResult hit = resultCache.get(previous.getKey());
+        if (hit == null || !hit.isComplete()) {
+            return false;
+        }
+        long start = System.currentTimeMillis();
+        ResultStore rows = hit.getResults();
+        int size = rows.size();
+        try {
+            VCFHeader header = null;
+            for (int i = 0; i < size && !cancel && !outputLimitReached(result); i++) {
+                if (rows.getHeader(i) != header) {
+                    header = rows.getHeader(i);
+                    result.startRun(header);
+                }
+                VariantContext vc = rows.get(i);
+                if (passesFilterChain(vc) && (qwhite == null || qwhite.match(new GenomicElement(vc)))) {
+                    addCandidate(vc, result);
+                }
+                publishProgress();
+            }
+        } finally {
+            rows.close();
+        }
+        if (outputLimitReached(result)) {
+            incomplete = true;
+        }
+        outputArea.append("Filtered " + size + " results of the previous run instead of the input files in " + (System.currentTimeMillis() - start) + " ms\r\n");
+        return true;
+    }
+
+    /**
+     * Returns the samples selected on the Filter tab, null for all samples.
+     *
+     * @return List&#60;String&#62; selected samples, null for all
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    @Override
+    protected List<String> getSelectedSamples() {
+        List<String> samples = gui.getSelectedSamples();
+        if (samples == null || samples.isEmpty()) {
+            return null;
+        }
+        return samples;
+    }
+
+    /**
+     * Stores the results of a complete run in the result cache. If no input stopped early at the 
+     * output limit, the entry is recorded as complete and the next run may filter it instead of 
+     * the selected files.
+     *
+     * @param results the results
+     * @param info report line of the run
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    @Override
+    protected void cacheResults(ResultStore results, String info) {
+        if (scenario == null || failed || cancel || gui.getCancelFilterWorker()) {
+            return;
+        }
+        try {
+            resultCache.put(scenario.getKey(), results, info, !incomplete);
+            lastScenario = !incomplete ? scenario : null;
+        } catch (IOException ioe) {
+            ioe.printStackTrace();
+        }
+    }
+
+    /**
+     * Adds the variants passing the filter chain in the query regions of the selected files to the store. 
+     * Each file is read as chosen by the QueryPlanner, the plan is reported.
+     *
+     * @param regions regions to be queried
+     * @param result store of passing variants
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private void doVCFQueryFiltering(ArrayList<GenomicElement> regions, VariantStore result) {
+        if (getFileThreads() > 1) {
+            doConcurrentVCFFiltering(regions, result);
+            return;
+        }
         for (File f : this.selectedVCFFiles) {
-            if (gui.getCancelFilterWorker()) {
+            if (gui.getCancelFilterWorker() || cancel) {
                 setProgress(progressBar, 0);
                 gui.getFilterRunButton().setEnabled(true);
-                return result;
+                return;
             }
-            progressCounter++;
-            setProgress(progressBar, progressCounter);
+            InputProgress input = progress.startInput(f);
             VCFFileReader vcf = new VCFFileReader(f);
+            result.startRun(selectSamples(vcf.getFileHeader()));
             VariantContext x = vcf.iterator().next();
             boolean chr = false;
             if (x != null && x.getContig().toUpperCase().startsWith("CHR")) {
                 chr = true;
             }
-            for (GenomicElement g : regions) {
-                ArrayList<VariantContext> temp = null;
+            QueryPlan plan = QueryPlanner.plan(f, regions, qwhite, chr);
+            outputArea.append(plan.getReport() + "\r\n");
+            if (plan.isScan()) {
+                try {
+                    CloseableIterator<VariantContext> it = plan.join(openVariantIterator(f, vcf, input));
+                    filterVCFFileIterator(it, result);
+                    it.close();
+                } catch (Exception te) {
+                    te.printStackTrace();
+                    failed = true;
+                    new Warning(gui, "Problem iterating over variants " + te.getMessage());
+                    result.close();
+                    return;
+                }
+                if (outputLimitReached(result)) {
+                    incomplete = true;
+                    new Warning(gui, "More than " + outputlimit + " (outputlimit) variants found. Output will be incomplete. To increase the output limit go to File -> Preferences -> Output limit or use more stringent filters.");
+                    return;
+                }
+                input.finish();
+                continue;
+            }
+            ArrayList<GenomicElement> queries = plan.getRegions();
+            for (int i = 0; i < queries.size() && !cancel; i++) {
+                GenomicElement g = queries.get(i);
+                GenomicElement previous = i > 0 ? queries.get(i - 1) : null;
                 try {
                     if (!chr) {
-                        CloseableIterator<VariantContext> it = vcf.query(g.CHR, g.START, g.END);
-                        temp = filterVCFFileIterator(it);
+                        CloseableIterator<VariantContext> it = selectSamples(plan.join(vcf.query(g.CHR, g.START, g.END), g, previous), vcf.getFileHeader());
+                        filterVCFFileIterator(it, result);
                     } else {
-                        CloseableIterator<VariantContext> it = vcf.query("chr" + g.CHR, g.START, g.END);
-                        temp = filterVCFFileIterator(it);
+                        CloseableIterator<VariantContext> it = selectSamples(plan.join(vcf.query("chr" + g.CHR, g.START, g.END), g, previous), vcf.getFileHeader());
+                        filterVCFFileIterator(it, result);
                     }
                     //}catch(TribbleException te){    
                 } catch (Exception te) {
                     te.printStackTrace();
+                    failed = true;
                     new Warning(gui, "Problem at position " + g.CHR + ":" + g.START + " " + te.getMessage());
-                    return new ArrayList<VariantContext>();
+                    result.close();
+                    return;
                 }
-                if (result.size() + temp.size() < outputlimit) {
-                    result.addAll(temp);
-                } else {
+                if (outputLimitReached(result)) {
+                    incomplete = true;
                     new Warning(gui, "More than " + outputlimit + " (outputlimit) variants found. Output will be incomplete. To increase the output limit go to File -> Preferences -> Output limit or use more stringent filters.");
-                    result.addAll(temp);
-                    return result;
+                    return;
                 }
+                input.setFraction((i + 1.0) / queries.size());
+                publishProgress();
             }
+            input.finish();
         }
-        return result;
     }
 
-    private ArrayList<VariantContext> doVCFFiltering() {
-        ArrayList<VariantContext> result = new ArrayList<VariantContext>();
-        int progressCounter = 0;
+    /**
+     * Adds the variants passing the filter chain in the selected files to the store.
+     *
+     * @param result store of passing variants
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private void doVCFFiltering(VariantStore result) {
+        if (getFileThreads() > 1) {
+            doConcurrentVCFFiltering(null, result);
+            return;
+        }
         for (File f : this.selectedVCFFiles) {
-            if (gui.getCancelFilterWorker()) {
+            if (gui.getCancelFilterWorker() || cancel) {
                 setProgress(progressBar, 0);
                 gui.getFilterRunButton().setEnabled(true);
-                return result;
+                return;
             }
-            progressCounter++;
-            setProgress(progressBar, progressCounter);
+            InputProgress input = progress.startInput(f);
             VCFFileReader vcf = new VCFFileReader(f);
-            ArrayList<VariantContext> temp = null;
+            result.startRun(selectSamples(vcf.getFileHeader()));
             try {
-                CloseableIterator<VariantContext> it = vcf.iterator();
-                temp = filterVCFFileIterator(it);
+                CloseableIterator<VariantContext> it = openVariantIterator(f, vcf, input);
+                filterVCFFileIterator(it, result);
+                it.close();
+                input.finish();
                 //}catch(TribbleException te){
             } catch (Exception te) {
                 te.printStackTrace();
+                failed = true;
                 new Warning(gui, "Problem iterating over variants " + te.getMessage());
-                return new ArrayList<VariantContext>();
+                result.close();
+                return;
             }
-            if (result.size() + temp.size() < outputlimit) {
-                result.addAll(temp);
-            } else {
+            if (outputLimitReached(result)) {
+                incomplete = true;
                 new Warning(gui, "More than " + outputlimit + " (outputlimit) variants found. Output will be incomplete.");
-                result.addAll(temp);
-                return result;
+                return;
             }
         }
-        return result;
+    }
+
+    /**
+     * Filters the selected VCF files concurrently. The output limit is shared by all files, 
+     * the store receives the first outputlimit passing variants in file order. Passing variants 
+     * are taken from the file being added while it is filtered, later files wait on bounded buffers. 
+     * Ranked output has no shared limit, all files are filtered completely, each keeping its own 
+     * top ranked variants, which are merged into the ranking in file order.
+     *
+     * @param regions regions to be queried, null for all variants
+     * @param result store of passing variants
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private void doConcurrentVCFFiltering(ArrayList<GenomicElement> regions, VariantStore result) {
+        OutputBudget budget = ranking == null ? new OutputBudget(outputlimit, selectedVCFFiles.length) : null;
+        CandidateFilter candidates = new CandidateFilter(qblack, recurrenceHash, gui.getRecurrenceType(), recurrenceCutoff);
+        MultiFileFilter files = new MultiFileFilter(selectedVCFFiles, filterChain, regions, budget, candidates, ranking, adaptiveFilterChain, prefilter, getFileThreads(), progress);
+        try {
+            while (files.hasNext()) {
+                files.next();
+                boolean started = false;
+                while (!files.isFileDone()) {
+                    if (gui.getCancelFilterWorker() || cancel) {
+                        files.cancel();
+                        setProgress(progressBar, 0);
+                        gui.getFilterRunButton().setEnabled(true);
+                        return;
+                    }
+                    VariantContext vc = files.poll(50);
+                    if (vc != null) {
+                        if (!started) {
+                            result.startRun(files.getHeader());
+                            started = true;
+                        }
+                        acceptCandidate(vc, result);
+                    }
+                    publishProgress();
+                    if (outputLimitReached(result)) {
+                        break;
+                    }
+                }
+                if (!outputLimitReached(result)) {
+                    files.finishFile();
+                    if (files.getQueryPlan() != null) {
+                        outputArea.append(files.getQueryPlan().getReport() + "\r\n");
+                    }
+                }
+                if (outputLimitReached(result) || files.isLimitReached()) {
+                    files.cancel();
+                    incomplete = true;
+                    new Warning(gui, "More than " + outputlimit + " (outputlimit) variants found. Output will be incomplete. To increase the output limit go to File -> Preferences -> Output limit or use more stringent filters.");
+                    return;
+                }
+            }
+        } catch (Exception te) {
+            files.cancel();
+            te.printStackTrace();
+            failed = true;
+            new Warning(gui, "Problem iterating over variants " + te.getMessage());
+            result.close();
+        }
+    }
+
+    /**
+     * Adds the variants of it passing the filter chain to the store, until the output limit 
+     * is reached.
+     *
+     * @param it variant iterator
+     * @param result store of passing variants
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private void filterVCFFileIterator(CloseableIterator<VariantContext> it, VariantStore result) {
+        boolean chainApplied = appliesFilterChain(it);
+        while (it.hasNext() && !cancel && !outputLimitReached(result)) {
+            VariantContext vc = it.next();
+            if (chainApplied || passesFilterChain(vc)) {
+                addCandidate(vc, result);
+            }
+            publishProgress();
+        }
+    }
+
+    /**
+     * Tests a variant read from the file against the filter chain and counts it 
+     * as read and, if passing, as passing filters.
+     *
+     * @param vc variant read from the file
+     * @return boolean
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private boolean passesFilterChain(VariantContext vc) {
+        progress.addRecords(1);
+        if (currentVariantPassesFilterChain(vc)) {
+            progress.addPassedFilters(1);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Publishes the progress if the last publication is older than the publication interval.
+     *
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private void publishProgress() {
+        if (progress.isPublishDue()) {
+            publish(progress.getSnapshot());
+        }
+    }
+
+    /**
+     * Shows the latest published progress on the progress bar.
+     *
+     * @param chunks published progress snapshots
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    @Override
+    protected void process(List<ProgressSnapshot> chunks) {
+        if (!finished && !chunks.isEmpty()) {
+            setProgress(progressBar, chunks.get(chunks.size() - 1));
+        }
+    }
+
+    /**
+     * Reports records per stage and throughput and resets the progress bar text.
+     *
+     * @param output output area
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private void reportProgress(JTextArea output) {
+        finished = true;
+        output.append(progress.getSnapshot().getStageReport());
+        progressBar.setStringPainted(false);
+        progressBar.setToolTipText(null);
+    }
+
+    /**
+     * Tests if the output limit is reached. Ranked output keeps the top outputlimit 
+     * variants and never reaches the limit.
+     *
+     * @param result store of passing variants
+     * @return boolean
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private boolean outputLimitReached(VariantStore result) {
+        return ranking == null && result.size() >= outputlimit;
+    }
+
+    /**
+     * Adds a variant passing the filter chain to the store, or offers it to the ranking, 
+     * if it also passes black list and recurrence filters.
+     *
+     * @param vc variant passing the filter chain
+     * @param result store of passing variants
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private void addCandidate(VariantContext vc, VariantStore result) {
+        if (qblack != null && qblack.match(new GenomicElement(vc))) {
+            return;
+        }
+        progress.addPassedLists(1);
+        if (!passesRecurrenceCutoff(vc)) {
+            return;
+        }
+        progress.addPassedRecurrence(1);
+        acceptCandidate(vc, result);
+    }
+
+    /**
+     * Adds a variant passing the filter chain, black list and recurrence filters to the store, 
+     * or offers it to the ranking.
+     *
+     * @param vc variant passing all filters
+     * @param result store of passing variants
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private void acceptCandidate(VariantContext vc, VariantStore result) {
+        if (ranking != null) {
+            ranking.offer(vc);
+        } else {
+            result.add(vc);
+        }
+    }
+
+    /**
+     * Returns the number of threads for concurrent filtering of the selected files, 
+     * 1 if there is only one file or one processor.
+     *
+     * @return int
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private int getFileThreads() {
+        return Math.min(Runtime.getRuntime().availableProcessors(), selectedVCFFiles.length);
     }
 
     private int[] getContigSizes() {
@@ -329,30 +801,30 @@ public class FilterWorker extends VCFFilterWorker {
     }
 
     private void doFilteringToFile() {
+        if (selectedVCFFiles.length > 1) {
+            doMergedFilteringToFile();
+            return;
+        }
         VariantContextWriter out = getVariantContextWriter(filters, this.selectedVCFFiles[0], gui.getVcfOutputFile());
         VariantContext currentVariant = null;
-        int progressCounter = 0;
-        reportOutputHeader(outputArea);
         int variantCount = 0;
         for (File f : this.selectedVCFFiles) {
-            progressCounter++;
-            setProgress(progressBar, progressCounter);
+            InputProgress input = progress.startInput(f);
             VCFFileReader vcf = new VCFFileReader(f);
+            currentHeader = selectSamples(vcf.getFileHeader());
             try {
-                CloseableIterator<VariantContext> it = vcf.iterator();
+                CloseableIterator<VariantContext> it = openVariantIterator(f, vcf, input);
+                boolean chainApplied = appliesFilterChain(it);
                 while (it.hasNext() && !cancel) {
                     currentVariant = it.next();                    
-                    if (currentVariantPassesFilterChain(currentVariant) && filterOnRecurrence(currentVariant) && currentVariantPassesListFilters(currentVariant)) {
-                        variantCount++;
-                        if(variantCount < outputlimit){
-                            reportAppend(currentVariant, outputArea);
-                        }else if(variantCount == outputlimit){
-                            reportAppend(currentVariant, outputArea);
-                            new Warning(gui, "Output limit for text output exceeded. Consult output VCF file for remaining variants." );
-                        }
-                        out.add(currentVariant);
+                    if (chainApplied || passesFilterChain(currentVariant)) {
+                        variantCount = writeVariant(out, currentVariant, variantCount);
                     }
+                    publishProgress();
                 }
+                it.close();
+                input.finish();
+                variantsWritten = variantCount;
             } catch (Exception te) {
                 out.close();
                 te.printStackTrace();
@@ -364,6 +836,104 @@ public class FilterWorker extends VCFFilterWorker {
         out.close();
     }
 
+    /**
+     * Filters the selected VCF files into one VCF output sorted by contig and position. 
+     * The output header is the union of the input headers, the filtered inputs are merged 
+     * while they are read, so that the output is written and indexed in one pass. Each input 
+     * is read sequentially in this thread, so that memory and threads do not grow with the 
+     * number of inputs.
+     *
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private void doMergedFilteringToFile() {
+        ArrayList<VCFFileReader> readers = new ArrayList<VCFFileReader>();
+        ArrayList<VCFHeader> headers = new ArrayList<VCFHeader>();
+        ArrayList<CloseableIterator<VariantContext>> inputs = new ArrayList<CloseableIterator<VariantContext>>();
+        ArrayList<InputProgress> inputProgress = new ArrayList<InputProgress>();
+        VariantContextWriter out = null;
+        MergedVariantIterator it = null;
+        int variantCount = 0;
+        try {
+            for (File f : selectedVCFFiles) {
+                VCFFileReader vcf = new VCFFileReader(f);
+                readers.add(vcf);
+                headers.add(selectSamples(vcf.getFileHeader()));
+            }
+            currentHeader = FilterEngine.mergeHeaders(headers);
+            FilterEngine.addFilterHeaderLines(currentHeader, filters, recurrenceFile, recurrenceCutoff, whiteListFiles, blackListFiles);
+            out = FilterEngine.getVariantContextWriter(currentHeader, gui.getVcfOutputFile());
+            for (int i = 0; i < selectedVCFFiles.length; i++) {
+                InputProgress input = progress.startInput(selectedVCFFiles[i]);
+                inputs.add(openSequentialVariantIterator(selectedVCFFiles[i], readers.get(i), input));
+                inputProgress.add(input);
+            }
+            it = new MergedVariantIterator(inputs, currentHeader.getSequenceDictionary());
+            while (it.hasNext() && !cancel && !gui.getCancelFilterWorker()) {
+                VariantContext vc = it.next();
+                if (passesFilterChain(vc)) {
+                    variantCount = writeVariant(out, vc, variantCount);
+                }
+                publishProgress();
+            }
+            for (InputProgress input : inputProgress) {
+                input.finish();
+            }
+            variantsWritten = variantCount;
+        } catch (Exception te) {
+            te.printStackTrace();
+            new Warning(gui, "Problem merging variants " + te.getMessage());
+        } finally {
+            if (it != null) {
+                it.close();
+            } else {
+                for (CloseableIterator<VariantContext> vi : inputs) {
+                    vi.close();
+                }
+            }
+            if (out != null) {
+                out.close();
+            }
+            for (VCFFileReader vcf : readers) {
+                vcf.close();
+            }
+        }
+    }
+
+    /**
+     * Writes a variant passing the filter chain to the VCF output and, up to the output limit, 
+     * to the result table, if it also passes recurrence and list filters. Ranked output 
+     * offers the variant to the ranking instead of adding it to the result table.
+     *
+     * @param out VCF output
+     * @param currentVariant variant passing the filter chain
+     * @param variantCount number of variants written so far
+     * @return int number of variants written
+     * @author Heiko Müller
+     * @since 1.0
+     */
+    private int writeVariant(VariantContextWriter out, VariantContext currentVariant, int variantCount) {
+        if (!currentVariantPassesListFilters(currentVariant)) {
+            return variantCount;
+        }
+        progress.addPassedLists(1);
+        if (filterOnRecurrence(currentVariant)) {
+            progress.addPassedRecurrence(1);
+            variantCount++;
+            VCFPipeline.ensureDecoded(currentVariant);
+            if(ranking != null){
+                ranking.offer(currentVariant);
+            }else if(variantCount < outputlimit){
+                results.add(currentVariant, currentHeader);
+            }else if(variantCount == outputlimit){
+                results.add(currentVariant, currentHeader);
+                new Warning(gui, "Output limit for text output exceeded. Consult output VCF file for remaining variants." );
+            }
+            out.add(currentVariant);
+        }
+        return variantCount;
+    }
+
     private boolean currentVariantPassesListFilters(VariantContext vc) {
         if (qwhite == null && qblack == null) {
             return true;
@@ -389,20 +959,9 @@ public class FilterWorker extends VCFFilterWorker {
             return true;
         }
         try {
-            boolean pass = false;
-            for (Filter filter : filters) {
-                pass = filter.passesFilter(vc);
-                if (filter.getAndNot()) {
-                    pass = !pass;
-                }
-                if (!pass) {
-                    return false;
-                }
-            }
-            if (pass) {
-                return true;
-            }
+            return adaptiveFilterChain.passes(vc, attributeView);
         } catch (Exception e) {
+            failed = true;
             new Warning(gui, "filterVCFFileIterator had a problem " + e.getMessage());
             e.printStackTrace();
         }
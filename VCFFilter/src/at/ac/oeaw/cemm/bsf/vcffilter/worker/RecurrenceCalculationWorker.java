@@ -30,6 +30,8 @@ import at.ac.oeaw.cemm.bsf.vcffilter.VCFFilter;
 import at.ac.oeaw.cemm.bsf.vcffilter.Warning;
 import at.ac.oeaw.cemm.bsf.vcffilter.excelparser.VariantRecurrence;
 import at.ac.oeaw.cemm.bsf.vcffilter.filter.Filter;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.AttributeView;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.CompiledFilterChain;
 import htsjdk.samtools.util.CloseableIterator;
 import htsjdk.variant.variantcontext.Allele;
 import htsjdk.variant.variantcontext.Genotype;
@@ -67,6 +69,16 @@ public class RecurrenceCalculationWorker extends SwingWorker {
      */
     private ArrayList<Filter> activeFilters;
     
+    /**
+     * The active filters compiled into GUI independent predicates.
+     */
+    private CompiledFilterChain filterChain;
+    
+    /**
+     * INFO attribute view used by the filter chain.
+     */
+    private AttributeView attributeView = new AttributeView();
+    
     /**
      * Reference to the output area.
      */
@@ -111,6 +123,7 @@ public class RecurrenceCalculationWorker extends SwingWorker {
     public RecurrenceCalculationWorker(File[] selectedVCFFiles, ArrayList<Filter> activeFilters, VCFFilter gui) {
         this.selectedVCFFiles = selectedVCFFiles;
         this.activeFilters = activeFilters;
+        this.filterChain = VCFFilterWorker.compileFilterChain(activeFilters);
         this.gui = gui;     
         geneSymbolField = gui.getPreferences().getGenesymbolField();
     }
@@ -163,23 +176,9 @@ public class RecurrenceCalculationWorker extends SwingWorker {
 
     private void filterVCFFile(CloseableIterator<VariantContext> it) {
         while (it.hasNext()) {
-            boolean pass = false;
             VariantContext vc = it.next();
             //System.out.println(vc.toString());
-            if(activeFilters.size() == 0){
-                pass = true;
-            }else{
-                for (Filter filter : activeFilters) {
-                    pass = filter.passesFilter(vc);
-                    if (filter.getAndNot()) {
-                        pass = !pass;
-                    }
-                    if (!pass) {
-                        break;
-                    }
-                }
-            }
-            if (pass) {
+            if (filterChain.passes(vc, attributeView)) {
                 String chr = vc.getContig();
                 int pos = vc.getStart();
                 List<Allele> la = vc.getGenotype(0).getAlleles();
@@ -28,30 +28,43 @@ package at.ac.oeaw.cemm.bsf.vcffilter.worker;
 
 import at.ac.oeaw.cemm.bsf.vcffilter.VCFFilter;
 import at.ac.oeaw.cemm.bsf.vcffilter.Warning;
+import at.ac.oeaw.cemm.bsf.vcffilter.batch.FilterEngine;
 import at.ac.oeaw.cemm.bsf.vcffilter.excelparser.RecurrenceParser;
 import at.ac.oeaw.cemm.bsf.vcffilter.excelparser.VariantRecurrence;
 import at.ac.oeaw.cemm.bsf.vcffilter.filter.Filter;
 import at.ac.oeaw.cemm.bsf.vcffilter.genomeutils.GenomicElement;
 import at.ac.oeaw.cemm.bsf.vcffilter.genomeutils.Query;
+import at.ac.oeaw.cemm.bsf.vcffilter.index.BCFVariantContextWriter;
 import at.ac.oeaw.cemm.bsf.vcffilter.outputformat.FormatOutputFields;
+import at.ac.oeaw.cemm.bsf.vcffilter.outputformat.ResultTable;
+import at.ac.oeaw.cemm.bsf.vcffilter.outputformat.ResultTableModel;
 import at.ac.oeaw.cemm.bsf.vcffilter.outputformat.VariantContextComparator;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.AdaptiveFilterChain;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.AttributeView;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.CompiledFilterChain;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.RawLinePrefilter;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.SampleProjection;
+import at.ac.oeaw.cemm.bsf.vcffilter.predicate.SampleSubsetIterator;
+import at.ac.oeaw.cemm.bsf.vcffilter.progress.InputProgress;
+import at.ac.oeaw.cemm.bsf.vcffilter.progress.ProgressSnapshot;
+import at.ac.oeaw.cemm.bsf.vcffilter.store.RankedVariants;
+import at.ac.oeaw.cemm.bsf.vcffilter.store.ResultStore;
+import at.ac.oeaw.cemm.bsf.vcffilter.store.VariantStore;
 import htsjdk.samtools.SAMSequenceDictionary;
 import htsjdk.samtools.util.CloseableIterator;
-import htsjdk.variant.variantcontext.Allele;
-import htsjdk.variant.variantcontext.Genotype;
 import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.variantcontext.writer.Options;
 import htsjdk.variant.variantcontext.writer.VariantContextWriter;
 import htsjdk.variant.variantcontext.writer.VariantContextWriterBuilder;
 import htsjdk.variant.vcf.VCFFileReader;
 import htsjdk.variant.vcf.VCFHeader;
-import htsjdk.variant.vcf.VCFHeaderLine;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Hashtable;
 import java.util.List;
 import javax.swing.JProgressBar;
 import javax.swing.JTextArea;
+import javax.swing.SwingUtilities;
 import javax.swing.SwingWorker;
 import picard.PicardException;
 
@@ -65,7 +78,7 @@ import picard.PicardException;
  * @version 1.0
  * @since 1.0
  */
-public abstract class VCFFilterWorker extends SwingWorker{
+public abstract class VCFFilterWorker extends SwingWorker<Void, ProgressSnapshot>{
     
     /**
      * The version number of this class.
@@ -107,11 +120,41 @@ public abstract class VCFFilterWorker extends SwingWorker{
      */
     protected ArrayList<File> blackListFiles;
     
+    /**
+     * Query object for white lists.
+     */
+    protected Query qwhite;
+    
+    /**
+     * Query object for black lists.
+     */
+    protected Query qblack;
+    
     /**
      * Active filters.
      */
     protected ArrayList<Filter> filters;
     
+    /**
+     * Active filters compiled into GUI independent predicates.
+     */
+    protected CompiledFilterChain filterChain;
+    
+    /**
+     * The compiled filter chain evaluated in learned order, records filter statistics.
+     */
+    protected AdaptiveFilterChain adaptiveFilterChain;
+    
+    /**
+     * Fixed column filters of the chain, evaluated on the raw line before decoding.
+     */
+    protected RawLinePrefilter prefilter;
+    
+    /**
+     * INFO attribute view shared by the filter chain and the output of the current variant.
+     */
+    protected AttributeView attributeView = new AttributeView();
+    
     /**
      * Cancel.
      */
@@ -122,6 +165,11 @@ public abstract class VCFFilterWorker extends SwingWorker{
      */
     protected int outputlimit;
     
+    /**
+     * Formats the output of single variants, created on first use.
+     */
+    private FormatOutputFields variantOutput;
+    
      /**
     * Initializes VCFFilterWorker.
     * 
@@ -181,6 +229,78 @@ public abstract class VCFFilterWorker extends SwingWorker{
         }
     }
     
+    /**
+    * Reports the number of variants found and shows at most outputlimit of them 
+    * in coordinate order in a result table.
+    * 
+    * @param variants store of variants
+    * @param output text area where the number of variants is written
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    protected void reportResults(VariantStore variants, JTextArea output) {    
+        String info = "Variants found: " + variants.size();
+        output.append(info + "\r\n");
+        ResultStore results = new ResultStore();
+        variants.copyTo(results, outputlimit);
+        cacheResults(results, info);
+        showResults(results, info, output);
+    }
+    
+    /**
+    * Called with the complete results of a run before they are shown. 
+    * Does nothing, subclasses may keep the results for later runs.
+    * 
+    * @param results the results
+    * @param info report line of the run
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    protected void cacheResults(ResultStore results, String info) {    
+    }
+    
+    /**
+    * Reports the number of variants found and shows the top ranked variants, 
+    * best ranked first, in a result table.
+    * 
+    * @param ranked top ranked variants
+    * @param output text area where the number of variants is written
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    protected void reportResults(RankedVariants ranked, JTextArea output) {    
+        String order = "Top " + ranked.size() + " variants ranked by " + ranked.getField() + (ranked.isDescending() ? ", highest values first" : ", lowest values first");
+        output.append("Variants found: " + ranked.getOffered() + "\r\n");
+        output.append(order + "\r\n");
+        showResults(new ResultStore(ranked.getRanked()), order, output);
+    }
+    
+    /**
+    * Shows results in a result table in the column order that the user specified. 
+    * The table owns the results and releases them when it is closed.
+    * 
+    * @param results the results
+    * @param info text shown in the status line of the table
+    * @param output text area where the number of variants shown is written
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    protected void showResults(ResultStore results, final String info, JTextArea output) {    
+        if(results.size() == 0){
+            results.close();
+            return;
+        }
+        FormatOutputFields fof = new FormatOutputFields(outputFields, gui.getPreferences().getHyperlinks());
+        fof.setRecurrenceHash(recurrenceHash);
+        final ResultTableModel model = new ResultTableModel(results, fof);
+        output.append("Variants shown in result table: " + results.size() + "\r\n");
+        SwingUtilities.invokeLater(new Runnable() {
+            public void run() {
+                new ResultTable("VCF.Filter results", model, info).setVisible(true);
+            }
+        });
+    }
+    
     /**
     * Writes variant data to provided output in the column order that the user specified.
     * 
@@ -190,10 +310,11 @@ public abstract class VCFFilterWorker extends SwingWorker{
     * @since 1.0
     */
     protected void reportAppend(VariantContext variant, JTextArea output) {    
-        
-        FormatOutputFields fof = new FormatOutputFields(outputFields, gui.getPreferences().getHyperlinks());
-        fof.setRecurrenceHash(recurrenceHash);
-        output.append(fof.formatOutput(variant) + "\r\n");     
+        if(variantOutput == null){
+            variantOutput = new FormatOutputFields(outputFields, gui.getPreferences().getHyperlinks());
+            variantOutput.setRecurrenceHash(recurrenceHash);
+        }
+        output.append(variantOutput.formatOutput(variant, attributeView) + "\r\n");     
         //output.append("Variants found: " + variants.size() + "\r\n");
         //output.append(fof.getOutputHeader() + "\r\n");        
         //for (VariantContext v : variants) {                                                        
@@ -258,6 +379,9 @@ public abstract class VCFFilterWorker extends SwingWorker{
         }else{
             output.append("Filters: none" + "\r\n");
         }
+        if(filterChain != null && filterChain.getSamples() != null){
+            output.append(FilterEngine.getSamplesSetting(filterChain.getSamples()) + "\r\n");
+        }
         if(recurrenceFile != null){
             output.append("Recurrence file: " + recurrenceFile.getAbsolutePath() + "\r\n");
             output.append("Recurrence cutoff: " + recurrenceCutoff + "\r\n");
@@ -268,16 +392,57 @@ public abstract class VCFFilterWorker extends SwingWorker{
             for(File f : whiteListFiles){
                 output.append("White list file: " + f.getAbsolutePath() + "\r\n");
             }
+            reportRegions(output, "White list", qwhite);
         }else{
             output.append("White list file: none"  + "\r\n");
         }
         if(blackListFiles != null){
             for(File f : blackListFiles){
-                output.append("Black list file: " + f.getAbsolutePath() + "\r\n\r\n");
+                output.append("Black list file: " + f.getAbsolutePath() + "\r\n");
             }   
+            reportRegions(output, "Black list", qblack);
+            output.append("\r\n");
         }else{
             output.append("Black list file: none"  + "\r\n\r\n");
         }     
+        if(adaptiveFilterChain != null && adaptiveFilterChain.getRecords() > 0){
+            reportFilterStatistics(output);
+        }
+    }
+    
+    /**
+    * Reports the number of regions and the base pairs covered by a white or black list.
+    * 
+    * @param output text area where output is written
+    * @param name list type
+    * @param q query holding the list, may be null
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    protected void reportRegions(JTextArea output, String name, Query q) {
+        if(q != null){
+            output.append(name + ": " + q.getRegionCount() + " regions, " + q.getCoverage() + " bp" + "\r\n");
+        }
+    }
+    
+    /**
+    * Reports the learned filter order and the number of variants removed by each filter. 
+    * Also part of reportSettings once variants have been filtered.
+    * 
+    * @param output text area where output is written
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    protected void reportFilterStatistics(JTextArea output) {
+        if(adaptiveFilterChain == null || filterChain.size() == 0){
+            return;
+        }
+        output.append("\r\n");
+        if(prefilter != null && prefilter.getLines() > 0){
+            output.append("Lines prefiltered on fixed columns:\t" + prefilter.getLines() + "\r\n");
+            output.append("Lines rejected before decoding:\t" + prefilter.getRejected() + "\r\n");
+        }
+        output.append(adaptiveFilterChain.getReport() + "\r\n");
     }
     
     /**
@@ -289,23 +454,7 @@ public abstract class VCFFilterWorker extends SwingWorker{
     * @since 1.0
     */
     protected List<String> getExacVariantFormat(VariantContext vc){
-        Genotype g = vc.getGenotype(0);
-        List<Allele> al = g.getAlleles();
-        ArrayList<String> result = new ArrayList<String>();
-        String base1 = al.get(0).getBaseString();
-        String base2 = al.get(1).getBaseString();
-        String ref = vc.getReference().getBaseString();
-        String c = vc.getContig();
-        int p = vc.getStart();        
-            if(!base1.equals(ref)){
-                //result.add(c + "-" + p + "-" + ref + "-" + base1);
-                result.add(c + "-" + p + "-" + ref + "-" + base1);
-            }
-            if(!base2.equals(ref) && !base2.equals(base1)){
-                //result.add(c + "-" + p + "-" + ref + "-" + base1);
-                result.add(c + "-" + p + "-" + ref + "-" + base2);
-            }
-        return result;
+        return FilterEngine.getExacVariantFormat(vc);
     }
     
     /**
@@ -334,6 +483,23 @@ public abstract class VCFFilterWorker extends SwingWorker{
         progressBar.setValue(n);
     }
     
+    /**
+    * Shows a progress snapshot: percent done, rates and ETA on the bar, 
+    * records per stage in the tool tip. Must be called on the event dispatch thread.
+    * 
+    * @param progressBar JProgressBar initialized to 0 .. ProgressSnapshot.SCALE
+    * @param snapshot the progress
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    protected void setProgress(JProgressBar progressBar, ProgressSnapshot snapshot) {
+        progressBar.setValue(snapshot.getPermille());
+        progressBar.setStringPainted(true);
+        progressBar.setString(snapshot.toString());
+        progressBar.setToolTipText("read " + snapshot.getRecords() + ", passing filters " + snapshot.getPassedFilters() 
+                + ", passing lists " + snapshot.getPassedLists() + ", passing recurrence " + snapshot.getPassedRecurrence());
+    }
+    
     /**
     * Inits recurrence hash.
     * 
@@ -344,39 +510,8 @@ public abstract class VCFFilterWorker extends SwingWorker{
         if(recurrenceFile == null || !recurrenceFile.exists()){
             return;
         }
-        recurrenceHash = new Hashtable<String, VariantRecurrence>();        
         RecurrenceParser p = new RecurrenceParser(recurrenceFile.getAbsolutePath(), true, gui);  
-        String chr = "";
-        String pos = "";
-        Integer freq = -1;
-        int counter = 0;
-        for(int i = 0; i < p.getVariantRecurrence().size(); i++){
-            counter++;
-            VariantRecurrence r = p.getVariantRecurrence().get(i);
-            
-            pos = r.getPos(); 
-            try{                
-                chr = "" + (int)Integer.parseInt(r.getChr());                               
-            }catch(NumberFormatException nfe){                  
-                chr = r.getChr();  
-            } 
-            try{                
-                pos = "" + (int)Integer.parseInt(r.getPos());                               
-            }catch(NumberFormatException nfe){                  
-                pos = r.getPos(); 
-            } 
-            try{                
-                freq = (int)Integer.parseInt(r.getFreq());                               
-            }catch(NumberFormatException nfe){                  
-                freq = -1;
-            }                            
-            String ref = r.getRef();  
-            String alt = r.getAlt();
-            String key = chr + "-" + pos + "-" + ref + "-" + alt;            
-            if(!recurrenceHash.containsKey(key)){            
-                recurrenceHash.put(key, r);
-            }
-        }      
+        recurrenceHash = FilterEngine.buildRecurrenceHash(p);
     }
     
     /**
@@ -491,6 +626,19 @@ public abstract class VCFFilterWorker extends SwingWorker{
         return result;
     }
     
+    /**
+    * Tests a candidate for recurrence like filterOnRecurrence for lists of candidates. 
+    * The candidate passes if any of its alleles is not recorded or within the recurrence cutoff.
+    * 
+    * @param candidate the candidate
+    * @return boolean
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    protected boolean passesRecurrenceCutoff(VariantContext candidate) {
+        return FilterEngine.passesRecurrenceCutoff(candidate, recurrenceHash, gui.getRecurrenceType(), recurrenceCutoff);
+    }
+    
     /**
     * Filters a list of candidates for recurrence.
     * 
@@ -550,7 +698,7 @@ public abstract class VCFFilterWorker extends SwingWorker{
     */
     protected ArrayList<VariantContext> filterVCFFileIterator(CloseableIterator<VariantContext> it){     
         ArrayList<VariantContext> result = new ArrayList<VariantContext>();
-        if(filters == null || filters.size() == 0){
+        if(filters == null || filters.size() == 0 || appliesFilterChain(it)){
             //while(it.hasNext() && !cancel){    
             while(it.hasNext() && !cancel && result.size() < outputlimit){                
                 VariantContext vc = it.next();
@@ -561,19 +709,12 @@ public abstract class VCFFilterWorker extends SwingWorker{
         }
         try{
             //while(it.hasNext() && !cancel){    
+            if(filterChain == null){
+                compileFilterChain();
+            }
             while(it.hasNext() && !cancel && result.size() < outputlimit){            
-                boolean pass = false;
                 VariantContext vc = it.next();
-                for(Filter filter : filters){
-                    pass = filter.passesFilter(vc);   
-                    if(filter.getAndNot()){
-                        pass = !pass;
-                    }
-                    if(!pass){
-                        break;
-                    }
-                }
-                if(pass){                
+                if(adaptiveFilterChain.passes(vc, attributeView)){                
                     result.add(vc);                
                 }    
             }
@@ -584,19 +725,143 @@ public abstract class VCFFilterWorker extends SwingWorker{
         return result;
     }
     
+    /**
+    * Tests if the iterator returned by openVariantIterator already applied the filter chain.
+    * 
+    * @param it iterator returned by openVariantIterator
+    * @return boolean true if only variants passing the filter chain are returned
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    protected static boolean appliesFilterChain(CloseableIterator<VariantContext> it){
+        return FilterEngine.appliesFilterChain(it);
+    }
+    
+    /**
+    * Compiles the active filters into the filter chain evaluated by the worker. 
+    * Must be called on the event dispatch thread, i.e. in the constructor of the worker, 
+    * as the criteria are read from the filters.
+    * 
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    protected void compileFilterChain(){
+        filterChain = FilterEngine.compileFilterChain(filters, getSelectedSamples());
+        adaptiveFilterChain = new AdaptiveFilterChain(filterChain);
+        prefilter = new RawLinePrefilter(filterChain);
+    }
+    
+    /**
+    * Opens an iterator over all variants of f. If the filter chain contains fixed column filters, 
+    * lines rejected by these are skipped without decoding INFO and genotype fields. 
+    * Bgzipped files are filtered in parallel on all available processors, other VCF files in a 
+    * reader, decoder and filter pipeline. The returned iterator then only returns variants passing 
+    * the filter chain, see appliesFilterChain.
+    * 
+    * @param f VCF file
+    * @param vcf VCFFileReader opened on f
+    * @return CloseableIterator&#60;VariantContext&#62;
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    protected CloseableIterator<VariantContext> openVariantIterator(File f, VCFFileReader vcf){
+        return FilterEngine.openVariantIterator(f, vcf, filterChain, adaptiveFilterChain, prefilter);
+    }
+    
+    /**
+    * Opens an iterator over all variants of f like openVariantIterator and reports 
+    * the bytes consumed to progress.
+    * 
+    * @param f VCF file
+    * @param vcf VCFFileReader opened on f
+    * @param progress progress of f
+    * @return CloseableIterator&#60;VariantContext&#62;
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    protected CloseableIterator<VariantContext> openVariantIterator(File f, VCFFileReader vcf, InputProgress progress){
+        return FilterEngine.openVariantIterator(f, vcf, filterChain, adaptiveFilterChain, prefilter, progress);
+    }
+    
+    /**
+    * Opens an iterator over all variants of f that reads and decodes in the calling thread 
+    * and reports the bytes consumed to progress. The filter chain is not applied.
+    * 
+    * @param f VCF file
+    * @param vcf VCFFileReader opened on f
+    * @param progress progress of f
+    * @return CloseableIterator&#60;VariantContext&#62;
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    protected CloseableIterator<VariantContext> openSequentialVariantIterator(File f, VCFFileReader vcf, InputProgress progress){
+        return FilterEngine.openSequentialVariantIterator(f, vcf, filterChain, prefilter, progress);
+    }
+    
+    /**
+    * Returns the samples filtering and output are restricted to. 
+    * By default all samples are used.
+    * 
+    * @return List&#60;String&#62; selected samples, null for all
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    protected List<String> getSelectedSamples(){
+        return null;
+    }
+    
+    /**
+    * Returns header restricted to the samples selected for the filter chain.
+    * 
+    * @param header VCF header of an input file
+    * @return VCFHeader header itself if all samples are selected
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    protected VCFHeader selectSamples(VCFHeader header){
+        return SampleProjection.project(header, filterChain != null ? filterChain.getSamples() : null);
+    }
+    
+    /**
+    * Returns an iterator over the variants of it restricted to the samples selected for the filter chain, 
+    * for iterators not opened by openVariantIterator, e.g. region queries.
+    * 
+    * @param it variant iterator
+    * @param header VCF header of the variants
+    * @return CloseableIterator&#60;VariantContext&#62; it itself if all samples are selected
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    protected CloseableIterator<VariantContext> selectSamples(CloseableIterator<VariantContext> it, VCFHeader header){
+        return SampleSubsetIterator.wrap(it, header, filterChain != null ? filterChain.getSamples() : null);
+    }
+    
+    /**
+    * Compiles a list of filters into a filter chain.
+    * 
+    * @param filters filter chain
+    * @return CompiledFilterChain the compiled filter chain, empty if filters is null
+    * @author Heiko Müller
+    * @since 1.0
+    */
+    protected static CompiledFilterChain compileFilterChain(List<Filter> filters){
+        return FilterEngine.compileFilterChain(filters);
+    }
+    
     /**
     * Saves variants as a VCF file and adds filter settings to VCF header.
+    * Output files ending with .bcf are written as BCF2.
     * 
     * @param variants list of variants
     * @param filters filter chain
     * @param inputVCF input VCF file
-    * @param outputVCF output VCF file
+    * @param outputVCF output VCF or BCF file
     * @author Heiko Müller
     * @since 1.0
     */
     public void saveAsVCF(ArrayList<VariantContext> variants, ArrayList<Filter> filters, File inputVCF, File outputVCF){
         final VCFFileReader in = new VCFFileReader(inputVCF);
-        final VCFHeader header = in.getFileHeader(); 
+        final VCFHeader header = selectSamples(in.getFileHeader()); 
         final VariantContextWriterBuilder variantContextWriterBuilder = new VariantContextWriterBuilder();         
         SAMSequenceDictionary sequenceDictionary = header.getSequenceDictionary(); 
         if (sequenceDictionary == null) { 
@@ -604,28 +869,13 @@ public abstract class VCFFilterWorker extends SwingWorker{
             } 
         variantContextWriterBuilder.setReferenceDictionary(sequenceDictionary);   
         variantContextWriterBuilder.setOption(Options.INDEX_ON_THE_FLY);
-        final VariantContextWriter out = variantContextWriterBuilder.setOutputFile(outputVCF).build(); 
+        VariantContextWriter out = variantContextWriterBuilder.setOutputFile(outputVCF).build(); 
         variantContextWriterBuilder.setOutputFileType(VariantContextWriterBuilder.OutputType.BLOCK_COMPRESSED_VCF);
-      
-        for (final Filter filter : filters) {             
-                header.addMetaDataLine(filter.getHeaderLine());              
-        } 
-        if(recurrenceFile != null){
-            VCFHeaderLine headerLine = new VCFHeaderLine("VCFFilter_recurrence", recurrenceFile.getAbsolutePath() + "<=" + recurrenceCutoff);
-            header.addMetaDataLine(headerLine);     
-        }
-        if(whiteListFiles != null){
-            for(File f : whiteListFiles){
-                VCFHeaderLine headerLine = new VCFHeaderLine("VCFFilter_inclusiveList", f.getAbsolutePath());
-                header.addMetaDataLine(headerLine);
-            }
+        if(BCFVariantContextWriter.isBCF(outputVCF)){
+            out = new BCFVariantContextWriter(out);
         }
-        if(blackListFiles != null){
-            for(File f : blackListFiles){
-                VCFHeaderLine headerLine = new VCFHeaderLine("VCFFilter_exclusiveList", f.getAbsolutePath());
-                header.addMetaDataLine(headerLine);
-            }
-        } 
+      
+        FilterEngine.addFilterHeaderLines(header, filters, recurrenceFile, recurrenceCutoff, whiteListFiles, blackListFiles);
         
         out.writeHeader(header);           
         for(VariantContext v : variants){   
@@ -637,17 +887,18 @@ public abstract class VCFFilterWorker extends SwingWorker{
     
     /**
     * Returns a variant context writer for one by one saving of filtered variants.
+    * Output files ending with .bcf are written as BCF2.
     * 
     * @param filters filter chain
     * @param inputVCF input VCF file
-    * @param outputVCF output VCF file
+    * @param outputVCF output VCF or BCF file
     * @return VariantContextWriter to write variants to VCF file
     * @author Heiko Müller
     * @since 1.0
     */
     public VariantContextWriter getVariantContextWriter(ArrayList<Filter> filters, File inputVCF, File outputVCF){
         final VCFFileReader in = new VCFFileReader(inputVCF);
-        final VCFHeader header = in.getFileHeader(); 
+        final VCFHeader header = selectSamples(in.getFileHeader()); 
         final VariantContextWriterBuilder variantContextWriterBuilder = new VariantContextWriterBuilder();         
         SAMSequenceDictionary sequenceDictionary = header.getSequenceDictionary(); 
         if (sequenceDictionary == null) { 
@@ -655,28 +906,14 @@ public abstract class VCFFilterWorker extends SwingWorker{
             } 
         variantContextWriterBuilder.setReferenceDictionary(sequenceDictionary);   
         variantContextWriterBuilder.setOption(Options.INDEX_ON_THE_FLY);
-        final VariantContextWriter out = variantContextWriterBuilder.setOutputFile(outputVCF).build(); 
+        variantContextWriterBuilder.setOption(Options.USE_ASYNC_IO);
+        VariantContextWriter out = variantContextWriterBuilder.setOutputFile(outputVCF).build(); 
         variantContextWriterBuilder.setOutputFileType(VariantContextWriterBuilder.OutputType.BLOCK_COMPRESSED_VCF);
-      
-        for (final Filter filter : filters) {             
-                header.addMetaDataLine(filter.getHeaderLine());              
-        } 
-        if(recurrenceFile != null){
-            VCFHeaderLine headerLine = new VCFHeaderLine("VCFFilter_recurrence", recurrenceFile.getAbsolutePath() + "<=" + recurrenceCutoff);
-            header.addMetaDataLine(headerLine);     
-        }
-        if(whiteListFiles != null){
-            for(File f : whiteListFiles){
-                VCFHeaderLine headerLine = new VCFHeaderLine("VCFFilter_inclusiveList", f.getAbsolutePath());
-                header.addMetaDataLine(headerLine);
-            }
+        if(BCFVariantContextWriter.isBCF(outputVCF)){
+            out = new BCFVariantContextWriter(out);
         }
-        if(blackListFiles != null){
-            for(File f : blackListFiles){
-                VCFHeaderLine headerLine = new VCFHeaderLine("VCFFilter_exclusiveList", f.getAbsolutePath());
-                header.addMetaDataLine(headerLine);
-            }
-        } 
+      
+        FilterEngine.addFilterHeaderLines(header, filters, recurrenceFile, recurrenceCutoff, whiteListFiles, blackListFiles);
         out.writeHeader(header);     
         in.close();
         return out;